@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+#
+# Compares startup time and resident memory of the beerstock jar against the fast-start launch:
+#   baseline  - java -jar target/beerstock-*.jar
+#   faststart - exploded jar + AppCDS archive + "faststart" Spring profile + C1-only JIT
+#
+# Usage: scripts/startup-benchmark.sh [runs]   (default 5 runs per mode; needs JDK 13+ for the dynamic CDS archive)
+# Results are appended to target/startup-benchmark/results.csv.
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${BENCHMARK_PORT:-18080}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="$ROOT/target/startup-benchmark"
+EXPLODED="$WORK/exploded"
+ARCHIVE="$WORK/beerstock.jsa"
+RESULTS="$WORK/results.csv"
+MVN_ARGS="${MVN_ARGS:-}"
+
+cd "$ROOT"
+if ! ls target/beerstock-*.jar >/dev/null 2>&1; then
+    ./mvnw -B -q $MVN_ARGS package -DskipTests
+fi
+JAR="$(ls target/beerstock-*.jar | head -n 1)"
+
+rm -rf "$EXPLODED"
+mkdir -p "$EXPLODED"
+(cd "$EXPLODED" && jar -xf "$ROOT/$JAR")
+CLASSPATH="$EXPLODED/BOOT-INF/classes:$EXPLODED/BOOT-INF/lib/*"
+MAIN_CLASS="one.digitalinnovation.beerstock.BeerstockApplication"
+FASTSTART_FLAGS=(-XX:TieredStopAtLevel=1 -Dspring.profiles.active=faststart)
+
+# Starts the command in the background, waits for Spring Boot's "Started" line, records startup seconds and RSS,
+# then stops the process. Prints "<started-in-seconds>,<jvm-running-seconds>,<rss-kb>".
+measure() {
+    local log="$WORK/run.log"
+    "$@" --server.port="$PORT" >"$log" 2>&1 &
+    local pid=$!
+    for _ in $(seq 1 600); do
+        if grep -q "Started BeerstockApplication" "$log"; then
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Application exited before starting, see $log" >&2
+            exit 1
+        fi
+        sleep 0.1
+    done
+    local rss
+    rss="$(awk '/VmRSS/ {print $2}' "/proc/$pid/status" 2>/dev/null || echo "")"
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    sed -n 's/.*Started BeerstockApplication in \([0-9.]*\) seconds (JVM running for \([0-9.]*\)).*/\1,\2/p' "$log" \
+        | head -n 1 | tr -d '\n'
+    echo ",$rss"
+}
+
+echo "Creating CDS archive with a training run..."
+rm -f "$ARCHIVE"
+measure java -XX:ArchiveClassesAtExit="$ARCHIVE" "${FASTSTART_FLAGS[@]}" -cp "$CLASSPATH" "$MAIN_CLASS" >/dev/null
+
+if [ ! -f "$RESULTS" ]; then
+    echo "timestamp,mode,run,started_in_s,jvm_running_s,rss_kb" >"$RESULTS"
+fi
+TIMESTAMP="$(date -u +%Y-%m-%dT%H:%M:%SZ)"
+for run in $(seq 1 "$RUNS"); do
+    echo "$TIMESTAMP,baseline,$run,$(measure java -jar "$JAR")" | tee -a "$RESULTS"
+    echo "$TIMESTAMP,faststart,$run,$(measure java -XX:SharedArchiveFile="$ARCHIVE" "${FASTSTART_FLAGS[@]}" \
+        -cp "$CLASSPATH" "$MAIN_CLASS")" | tee -a "$RESULTS"
+done
+
+awk -F, -v ts="$TIMESTAMP" '$1 == ts {
+        sum[$2] += $4; rss[$2] += $6; n[$2]++
+    }
+    END {
+        for (mode in n) printf "%-10s avg startup %.2fs  avg RSS %.0f MB\n", mode, sum[mode] / n[mode], rss[mode] / n[mode] / 1024
+    }' "$RESULTS"
@@ -0,0 +1,139 @@
+#!/usr/bin/env bash
+#
+# Compares the latency of the first requests after a deploy with and without the startup warm-up:
+#   cold   - java -jar target/beerstock-*.jar --beerstock.warmup.enabled=false
+#   warmup - java -jar target/beerstock-*.jar
+#
+# Each run starts the jar, waits for /actuator/health/readiness to answer 200 and then sends REQUESTS requests
+# (default 10000) one at a time over a single keep-alive connection: a few creates, then a mix of lookups by name,
+# increments and decrements, stats and listings. Latencies are summarised per window of 1000 requests.
+#
+# Usage: scripts/warmup-benchmark.sh [runs]   (default 3 runs per mode)
+# Results are appended to target/warmup-benchmark/results.csv.
+
+set -euo pipefail
+
+RUNS="${1:-3}"
+REQUESTS="${BENCHMARK_REQUESTS:-10000}"
+WINDOW="${BENCHMARK_WINDOW:-1000}"
+BEERS="${BENCHMARK_BEERS:-50}"
+PORT="${BENCHMARK_PORT:-18080}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="$ROOT/target/warmup-benchmark"
+RESULTS="$WORK/results.csv"
+MVN_ARGS="${MVN_ARGS:-}"
+
+cd "$ROOT"
+if ! ls target/beerstock-*.jar >/dev/null 2>&1; then
+    ./mvnw -B -q $MVN_ARGS package -DskipTests
+fi
+JAR="$(ls target/beerstock-*.jar | head -n 1)"
+mkdir -p "$WORK"
+
+# Writes a curl config creating the benchmark beers; each transfer prints the created beer, then its time in seconds.
+write_creates() {
+    for i in $(seq 1 "$BEERS"); do
+        printf 'url = "http://localhost:%d/api/v1/beers"\nrequest = "POST"\n' "$PORT"
+        printf 'header = "Content-Type: application/json"\n'
+        printf 'data = "{\\"name\\":\\"bench-%d\\",\\"brand\\":\\"Bench\\",\\"max\\":500,\\"quantity\\":100,\\"type\\":\\"LAGER\\"}"\n' "$i"
+        printf 'write-out = "\\n%%{time_total}\\n"\n'
+        if [ "$i" -lt "$BEERS" ]; then
+            printf 'next\n'
+        fi
+    done
+}
+
+# Writes a curl config sending the rest of the request mix against the created ids, one transfer per request, each
+# printing its time in seconds.
+write_mix() {
+    local ids=("$@")
+    local base="http://localhost:$PORT/api/v1/beers"
+    for i in $(seq $(( BEERS + 1 )) "$REQUESTS"); do
+        local beer=$(( i % BEERS ))
+        case $(( i % 20 )) in
+            0) printf 'url = "%s"\n' "$base" ;;
+            1) printf 'url = "%s/stats"\n' "$base" ;;
+            2|3|4|5|6|7)
+                printf 'url = "%s/%d/%s"\nrequest = "PATCH"\n' "$base" "${ids[$beer]}" \
+                    "$( [ $(( i % 20 )) -lt 5 ] && echo increment || echo decrement )"
+                printf 'header = "Content-Type: application/json"\ndata = "{\\"quantity\\":1}"\n' ;;
+            *) printf 'url = "%s/bench-%d"\n' "$base" $(( beer + 1 )) ;;
+        esac
+        printf 'output = "/dev/null"\nwrite-out = "%%{time_total}\\n"\n'
+        if [ "$i" -lt "$REQUESTS" ]; then
+            printf 'next\n'
+        fi
+    done
+}
+
+# Starts the jar with the given arguments, waits for readiness, sends the creates and then the mix, and stops the
+# process. Prints "<seconds-to-ready>" and leaves one latency per line in $WORK/times.txt.
+measure() {
+    local log="$WORK/run.log"
+    local started
+    started="$(date +%s.%N)"
+    if curl -s -o /dev/null "http://localhost:$PORT"; then
+        echo "Port $PORT is already in use" >&2
+        exit 1
+    fi
+    java -jar "$JAR" --server.port="$PORT" "$@" >"$log" 2>&1 &
+    local pid=$!
+    # measure runs in a command substitution; stop the application if that subshell exits early
+    trap "kill $pid 2>/dev/null || true" EXIT
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/actuator/health/readiness")" = "200" ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Application exited before becoming ready, see $log" >&2
+            exit 1
+        fi
+        sleep 0.1
+    done
+    local ready
+    ready="$(awk -v started="$started" -v now="$(date +%s.%N)" 'BEGIN { printf "%.2f", now - started }')"
+    curl -s --config "$WORK/creates.curl" >"$WORK/creates.out"
+    grep -E '^[0-9.]+$' "$WORK/creates.out" >"$WORK/times.txt"
+    write_mix $(grep -o '^{"id":[0-9]*' "$WORK/creates.out" | cut -d: -f2) >"$WORK/mix.curl"
+    curl -s --config "$WORK/mix.curl" >>"$WORK/times.txt"
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$ready"
+}
+
+# Prints "<window>,<requests>,<mean-ms>,<p50-ms>,<p99-ms>,<max-ms>" for every window of $WINDOW requests.
+summarise() {
+    local total
+    total="$(wc -l <"$WORK/times.txt")"
+    for start in $(seq 1 "$WINDOW" "$total"); do
+        sed -n "${start},$(( start + WINDOW - 1 ))p" "$WORK/times.txt" | sort -n | awk -v w="$(( (start - 1) / WINDOW + 1 ))" '
+            { t[NR] = $1 * 1000; sum += t[NR] }
+            END { printf "%d,%d,%.2f,%.2f,%.2f,%.2f\n", w, NR, sum / NR, t[int(NR * 0.5) + 1], t[int(NR * 0.99) + 1], t[NR] }'
+    done
+}
+
+write_creates >"$WORK/creates.curl"
+
+if [ ! -f "$RESULTS" ]; then
+    echo "timestamp,mode,run,ready_s,window,requests,mean_ms,p50_ms,p99_ms,max_ms" >"$RESULTS"
+fi
+TIMESTAMP="$(date -u +%Y-%m-%dT%H:%M:%SZ)"
+for run in $(seq 1 "$RUNS"); do
+    for mode in cold warmup; do
+        if [ "$mode" = cold ]; then
+            ready="$(measure --beerstock.warmup.enabled=false)"
+        else
+            ready="$(measure)"
+        fi
+        summarise | sed "s/^/$TIMESTAMP,$mode,$run,$ready,/" | tee -a "$RESULTS"
+    done
+done
+
+awk -F, -v ts="$TIMESTAMP" -v window="$WINDOW" '$1 == ts {
+        if ($5 == 1) {
+            n[$2]++; ready[$2] += $4; first[$2] += $7; firstP99[$2] += $9
+        }
+        sum[$2] += $7 * $6; count[$2] += $6
+    }
+    END {
+        for (mode in n) printf "%-7s ready in %.1fs  first %d: mean %.2f ms p99 %.2f ms  all %d: mean %.2f ms\n",
+            mode, ready[mode] / n[mode], window, first[mode] / n[mode], firstP99[mode] / n[mode],
+            count[mode] / n[mode], sum[mode] / count[mode]
+    }' "$RESULTS"
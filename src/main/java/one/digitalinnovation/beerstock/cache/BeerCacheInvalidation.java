@@ -0,0 +1,18 @@
+package one.digitalinnovation.beerstock.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Tells the other nodes that the beer cached under {@code key} changed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BeerCacheInvalidation {
+
+    private final String originNodeId;
+
+    private final String key;
+}
@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link BeerCacheInvalidation}s between nodes. Every subscriber receives every message, including the ones
+ * its own node published.
+ */
+public interface BeerCacheInvalidationBus {
+
+    void publish(BeerCacheInvalidation invalidation);
+
+    void subscribe(Consumer<BeerCacheInvalidation> subscriber);
+}
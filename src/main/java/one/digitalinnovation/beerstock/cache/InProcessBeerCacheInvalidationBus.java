@@ -0,0 +1,58 @@
+package one.digitalinnovation.beerstock.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in for a pub/sub channel between nodes. Subscribers of the same named channel anywhere in the JVM receive
+ * each message synchronously on the publishing thread. A subscriber that throws does not stop delivery to the others.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "beerstock.cache.invalidation.type", havingValue = "in-process", matchIfMissing = true)
+public class InProcessBeerCacheInvalidationBus implements BeerCacheInvalidationBus {
+
+    private static final Map<String, List<Consumer<BeerCacheInvalidation>>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final List<Consumer<BeerCacheInvalidation>> channel;
+
+    private final List<Consumer<BeerCacheInvalidation>> ownSubscribers = new CopyOnWriteArrayList<>();
+
+    public InProcessBeerCacheInvalidationBus(@Value("${beerstock.cache.invalidation.channel}") String channel) {
+        this.channel = CHANNELS.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>());
+    }
+
+    @Override
+    public void publish(BeerCacheInvalidation invalidation) {
+        for (Consumer<BeerCacheInvalidation> subscriber : channel) {
+            try {
+                subscriber.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation {} failed on a subscriber", invalidation, e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<BeerCacheInvalidation> subscriber) {
+        ownSubscribers.add(subscriber);
+        channel.add(subscriber);
+    }
+
+    /**
+     * Leaves the channel when the context closes, like a node disconnecting.
+     */
+    @PreDestroy
+    public void close() {
+        channel.removeAll(ownSubscribers);
+    }
+}
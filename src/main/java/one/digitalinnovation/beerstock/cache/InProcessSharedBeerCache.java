@@ -0,0 +1,77 @@
+package one.digitalinnovation.beerstock.cache;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in for a distributed cache. Entries live in a JVM-wide space picked by name, so every application context in
+ * the same JVM that uses the same space shares it, the way nodes share a cache cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "beerstock.cache.shared.type", havingValue = "in-process", matchIfMissing = true)
+public class InProcessSharedBeerCache implements SharedBeerCache {
+
+    private static final Map<String, Map<String, Entry>> SPACES = new ConcurrentHashMap<>();
+
+    private final Map<String, Entry> entries;
+
+    private final Clock clock;
+
+    @Autowired
+    public InProcessSharedBeerCache(@Value("${beerstock.cache.shared.space}") String space) {
+        this(space, Clock.systemUTC());
+    }
+
+    InProcessSharedBeerCache(String space, Clock clock) {
+        this.entries = SPACES.computeIfAbsent(space, name -> new ConcurrentHashMap<>());
+        this.clock = clock;
+    }
+
+    @Override
+    public BeerDTO get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= clock.millis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return copy(entry.beer);
+    }
+
+    @Override
+    public void put(String key, BeerDTO beer, Duration ttl) {
+        entries.put(key, new Entry(copy(beer), clock.millis() + ttl.toMillis()));
+    }
+
+    @Override
+    public void evict(String key) {
+        entries.remove(key);
+    }
+
+    private static BeerDTO copy(BeerDTO beer) {
+        return new BeerDTO(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), beer.getQuantity(),
+                beer.getType());
+    }
+
+    private static final class Entry {
+
+        private final BeerDTO beer;
+
+        private final long expiresAt;
+
+        private Entry(BeerDTO beer, long expiresAt) {
+            this.beer = beer;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package one.digitalinnovation.beerstock.cache;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+
+import java.time.Duration;
+
+/**
+ * Second tier of {@link TieredBeerCache}, shared by every node. Implementations hand out copies, as a remote cache
+ * would after deserializing, so no node can change what another one reads.
+ */
+public interface SharedBeerCache {
+
+    /**
+     * Returns the cached beer, or {@code null} when there is none or it expired.
+     */
+    BeerDTO get(String key);
+
+    void put(String key, BeerDTO beer, Duration ttl);
+
+    void evict(String key);
+}
@@ -0,0 +1,226 @@
+package one.digitalinnovation.beerstock.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.index.BeerNameIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Two-tier cache of beers looked up by name: a short-lived near cache in this node, backed by a {@link SharedBeerCache}
+ * all nodes read and fill. Entries are keyed by the normalized name, and a hit only counts when the cached beer has
+ * exactly the requested name, so case-insensitive lookups stay as strict as {@code BeerService#findByName}.
+ * <p>
+ * After a change commits, the node that made it drops the beer from both tiers and tells the other nodes over the
+ * {@link BeerCacheInvalidationBus}; they drop it from both tiers too. A read that loaded the beer before the change can
+ * still be filling the cache when the message arrives, so every fill re-checks afterwards whether an invalidation for
+ * its key came in since the read started, and evicts what it just wrote if one did. Stale reads are thus bounded by
+ * the time an invalidation takes to reach every node, and by the TTLs when a message is lost.
+ * <p>
+ * {@link BeerDTO} is mutable, so like the shared tier the near tier keeps its own copy of every beer and hands out a
+ * fresh copy on each hit; a caller changing the beer it got back never changes what the next caller reads.
+ */
+@Component
+public class TieredBeerCache {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final SharedBeerCache sharedCache;
+
+    private final BeerCacheInvalidationBus invalidationBus;
+
+    private final String nodeId;
+
+    private final long nearTtlMillis;
+
+    private final int nearMaxEntries;
+
+    private final Duration sharedTtl;
+
+    private final Clock clock;
+
+    private final Map<String, NearEntry> near = new ConcurrentHashMap<>();
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final AtomicLong nearHits = new AtomicLong();
+
+    private final AtomicLong sharedHits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong localInvalidations = new AtomicLong();
+
+    private final AtomicLong remoteInvalidations = new AtomicLong();
+
+    @Autowired
+    public TieredBeerCache(SharedBeerCache sharedCache,
+                           BeerCacheInvalidationBus invalidationBus,
+                           MeterRegistry meterRegistry,
+                           @Value("${beerstock.node-id}") String nodeId,
+                           @Value("${beerstock.cache.near.ttl-ms}") long nearTtlMillis,
+                           @Value("${beerstock.cache.near.max-entries}") int nearMaxEntries,
+                           @Value("${beerstock.cache.shared.ttl-seconds}") long sharedTtlSeconds) {
+        this(sharedCache, invalidationBus, meterRegistry, nodeId, nearTtlMillis, nearMaxEntries,
+                Duration.ofSeconds(sharedTtlSeconds), Clock.systemUTC());
+    }
+
+    TieredBeerCache(SharedBeerCache sharedCache,
+                    BeerCacheInvalidationBus invalidationBus,
+                    MeterRegistry meterRegistry,
+                    String nodeId,
+                    long nearTtlMillis,
+                    int nearMaxEntries,
+                    Duration sharedTtl,
+                    Clock clock) {
+        this.sharedCache = sharedCache;
+        this.invalidationBus = invalidationBus;
+        this.nodeId = nodeId;
+        this.nearTtlMillis = nearTtlMillis;
+        this.nearMaxEntries = nearMaxEntries;
+        this.sharedTtl = sharedTtl;
+        this.clock = clock;
+        requests(meterRegistry, "near", nearHits);
+        requests(meterRegistry, "shared", sharedHits);
+        requests(meterRegistry, "miss", misses);
+        invalidations(meterRegistry, "local", localInvalidations);
+        invalidations(meterRegistry, "remote", remoteInvalidations);
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    /**
+     * Returns the beer named {@code name} from the first tier that has it, or from {@code loader}, filling both tiers.
+     * Beers that were not found are not cached.
+     */
+    public Optional<BeerDTO> get(String name, Function<String, Optional<BeerDTO>> loader) {
+        String key = BeerNameIndex.normalize(name);
+        NearEntry entry = near.get(key);
+        if (entry != null) {
+            if (entry.expiresAt <= clock.millis()) {
+                near.remove(key, entry);
+            } else if (entry.beer.getName().equals(name)) {
+                nearHits.incrementAndGet();
+                return Optional.of(copy(entry.beer));
+            }
+        }
+
+        long generation = generations.get(stripe(key));
+        BeerDTO shared = sharedCache.get(key);
+        if (shared != null && shared.getName().equals(name)) {
+            sharedHits.incrementAndGet();
+            putNear(key, shared);
+            if (generations.get(stripe(key)) != generation) {
+                near.remove(key);
+            }
+            return Optional.of(shared);
+        }
+
+        misses.incrementAndGet();
+        Optional<BeerDTO> loaded = loader.apply(name);
+        loaded.ifPresent(beer -> {
+            putNear(key, beer);
+            sharedCache.put(key, beer, sharedTtl);
+            if (generations.get(stripe(key)) != generation) {
+                near.remove(key);
+                sharedCache.evict(key);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Zeroes the request and invalidation counts, so that traffic sent before the node took requests, such as the
+     * warm-up's, is not reported as cache behaviour.
+     */
+    public void resetStatistics() {
+        nearHits.set(0);
+        sharedHits.set(0);
+        misses.set(0);
+        localInvalidations.set(0);
+        remoteInvalidations.set(0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        String key = BeerNameIndex.normalize(event.getName());
+        invalidate(key);
+        localInvalidations.incrementAndGet();
+        invalidationBus.publish(new BeerCacheInvalidation(nodeId, key));
+    }
+
+    private void onInvalidation(BeerCacheInvalidation invalidation) {
+        if (!nodeId.equals(invalidation.getOriginNodeId())) {
+            invalidate(invalidation.getKey());
+            remoteInvalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Bumps the key's generation before evicting, so a fill that is still running sees it and evicts after itself.
+     * Remote invalidations evict the shared tier again because a slower node may have filled it after the origin
+     * evicted it.
+     */
+    private void invalidate(String key) {
+        generations.incrementAndGet(stripe(key));
+        near.remove(key);
+        sharedCache.evict(key);
+    }
+
+    private void putNear(String key, BeerDTO beer) {
+        if (near.size() >= nearMaxEntries) {
+            Iterator<String> keys = near.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        near.put(key, new NearEntry(copy(beer), clock.millis() + nearTtlMillis));
+    }
+
+    private static BeerDTO copy(BeerDTO beer) {
+        return new BeerDTO(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), beer.getQuantity(),
+                beer.getType());
+    }
+
+    private static int stripe(String key) {
+        return key.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    private static void requests(MeterRegistry meterRegistry, String result, AtomicLong count) {
+        FunctionCounter.builder("beerstock.cache.requests", count, AtomicLong::get)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static void invalidations(MeterRegistry meterRegistry, String origin, AtomicLong count) {
+        FunctionCounter.builder("beerstock.cache.invalidations", count, AtomicLong::get)
+                .tag("origin", origin)
+                .register(meterRegistry);
+    }
+
+    private static final class NearEntry {
+
+        private final BeerDTO beer;
+
+        private final long expiresAt;
+
+        private NearEntry(BeerDTO beer, long expiresAt) {
+            this.beer = beer;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
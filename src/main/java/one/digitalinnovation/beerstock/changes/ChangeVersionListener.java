@@ -0,0 +1,26 @@
+package one.digitalinnovation.beerstock.changes;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.entity.ChangeVersioned;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * Stamps a new change version on every {@link ChangeVersioned} entity Hibernate inserts or updates. Hibernate only
+ * updates dirty entities, so saving an unchanged beer does not move it in the change feed.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ChangeVersionListener {
+
+    private final ChangeVersionSequence changeVersions;
+
+    @PrePersist
+    @PreUpdate
+    public void assignVersion(Object entity) {
+        ((ChangeVersioned) entity).setChangeVersion(changeVersions.next());
+    }
+}
@@ -0,0 +1,275 @@
+package one.digitalinnovation.beerstock.changes;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands out the change versions stamped on beers, stripes and tombstones, shared by every node through a database
+ * sequence ({@link ChangeVersionStore}). Each node reserves blocks of {@code block-size} versions and hands them out
+ * in order.
+ * <p>
+ * A version is taken when its row is flushed, but transactions commit in any order, so a reader asking for everything
+ * above some version could skip a row whose smaller version commits after the read. The first version taken inside a
+ * transaction therefore stays open until it completes (its later versions are all larger). A node's floor is its
+ * oldest open version, or the next version it would hand out; it never hands out anything below it. Every
+ * {@code heartbeat-ms} a node moves on to a fresh block, so an idle node does not hold the others back, and publishes
+ * its floor. {@link #stableVersion()} stops below the lowest floor of this node and of every node with a recent
+ * heartbeat: once a reader has seen everything up to the stable version, nothing at or below it can still appear.
+ * <p>
+ * {@link #next()} never waits for the database while holding the sequence's monitor. Once half of the current block is
+ * handed out, the next one is reserved in the background as a spare, and running out of a block only swaps the spare
+ * in. Should a burst use up both first, the caller reserves a block outside the monitor, on the connection of its own
+ * transaction, so a writer never asks the pool for a second connection.
+ * <p>
+ * A node that stops heartbeating for {@code node-timeout-ms} is ignored; a node paused for longer than that and then
+ * committing could still slip a change below the stable version, so the timeout must be far above any pause.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class ChangeVersionSequence {
+
+    private static final long NO_BLOCK = -1;
+
+    private final ChangeVersionStore store;
+
+    private final String nodeId;
+
+    private final int blockSize;
+
+    private final Duration nodeTimeout;
+
+    private final Clock clock;
+
+    private final Executor refiller;
+
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final NavigableSet<Long> open = new TreeSet<>();
+
+    private final Object heartbeatLock = new Object();
+
+    private long firstVersion;
+
+    private long nextVersion;
+
+    private long blockEnd;
+
+    private long spareBlock = NO_BLOCK;
+
+    private boolean started;
+
+    @Autowired
+    public ChangeVersionSequence(ChangeVersionStore store,
+                                 @Value("${beerstock.node-id}") String nodeId,
+                                 @Value("${beerstock.changes.block-size}") int blockSize,
+                                 @Value("${beerstock.changes.node-timeout-ms}") long nodeTimeoutMs) {
+        this(store, nodeId, blockSize, Duration.ofMillis(nodeTimeoutMs), Clock.systemUTC(),
+                Executors.newSingleThreadExecutor(refillerThreads()));
+    }
+
+    ChangeVersionSequence(ChangeVersionStore store, String nodeId, int blockSize, Duration nodeTimeout, Clock clock,
+                          Executor refiller) {
+        this.store = store;
+        this.refiller = refiller;
+        this.nodeId = nodeId;
+        this.blockSize = blockSize;
+        this.nodeTimeout = nodeTimeout;
+        this.clock = clock;
+    }
+
+    public long next() {
+        boolean tracked = TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this);
+        long version;
+        while ((version = allocate(tracked)) == NO_BLOCK) {
+            offer(store.reserveOnCurrentConnection(blockSize));
+        }
+        if (!tracked) {
+            return version;
+        }
+        long openVersion = version;
+        TransactionSynchronizationManager.bindResource(this, openVersion);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeVersionSequence.this);
+                close(openVersion);
+            }
+        });
+        return version;
+    }
+
+    /**
+     * The first version taken by the current transaction, taking one if it has none yet. Every row the transaction
+     * writes gets this version or a later one, so a reader that saw one of those rows has seen every change stamped
+     * with this version; see {@link one.digitalinnovation.beerstock.event.BeerChangedEvent#getChangeVersion()}.
+     */
+    public long transactionVersion() {
+        Object version = TransactionSynchronizationManager.getResource(this);
+        return version == null ? next() : (Long) version;
+    }
+
+    /**
+     * The highest version below which every version, taken on any live node, is either committed or rolled back.
+     */
+    public long stableVersion() {
+        long floor = localFloor();
+        long otherNodes = store.minLiveFloorOfOtherNodes(nodeId, clock.instant().minus(nodeTimeout));
+        return Math.min(floor, otherNodes) - 1;
+    }
+
+    /**
+     * Registers this node and takes its first block. Versions continue after {@code version}, the highest one already
+     * stored; the sequence is created there when no node has created it yet. Until the first block is published the
+     * node's floor is {@code 0}, which holds every node's stable version back instead of letting it run ahead.
+     */
+    public void advanceTo(long version) {
+        synchronized (heartbeatLock) {
+            store.publishFloor(nodeId, 0, clock.instant());
+            long block = store.reserve(version + 1, blockSize);
+            if (block <= version) {
+                throw new IllegalStateException("Sequence " + ChangeVersionStore.SEQUENCE + " is at " + block
+                        + ", below the stored change version " + version);
+            }
+            synchronized (this) {
+                firstVersion = version + 1;
+                moveTo(block);
+                started = true;
+            }
+            store.publishFloor(nodeId, localFloor(), clock.instant());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.changes.heartbeat-ms}")
+    public void heartbeat() {
+        synchronized (heartbeatLock) {
+            synchronized (this) {
+                if (!started) {
+                    return;
+                }
+            }
+            long block = store.reserve(firstVersion, blockSize);
+            synchronized (this) {
+                moveTo(block);
+                if (spareBlock < nextVersion) {
+                    spareBlock = NO_BLOCK;
+                }
+            }
+            store.publishFloor(nodeId, localFloor(), clock.instant());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refiller instanceof ExecutorService) {
+            ((ExecutorService) refiller).shutdownNow();
+        }
+        store.removeNode(nodeId);
+    }
+
+    /**
+     * Hands out the next version, swapping in the spare block when the current one is used up, or returns
+     * {@link #NO_BLOCK} when there is no spare either. Asks for a spare once half of the block is used.
+     */
+    private long allocate(boolean tracked) {
+        long version;
+        boolean refillDue;
+        synchronized (this) {
+            if (!started) {
+                throw new IllegalStateException("Change versions are handed out only after advanceTo registered the node");
+            }
+            if (nextVersion == blockEnd) {
+                if (spareBlock == NO_BLOCK) {
+                    return NO_BLOCK;
+                }
+                moveTo(spareBlock);
+                spareBlock = NO_BLOCK;
+            }
+            version = nextVersion++;
+            if (tracked) {
+                open.add(version);
+            }
+            refillDue = spareBlock == NO_BLOCK && blockEnd - nextVersion <= blockSize / 2;
+        }
+        if (refillDue && refilling.compareAndSet(false, true)) {
+            try {
+                refiller.execute(this::refill);
+            } catch (RejectedExecutionException e) {
+                refilling.set(false);
+            }
+        }
+        return version;
+    }
+
+    private void refill() {
+        try {
+            long first;
+            synchronized (this) {
+                first = firstVersion;
+            }
+            offer(store.reserve(first, blockSize));
+        } catch (RuntimeException e) {
+            log.warn("Could not reserve a spare block of change versions: {}", e.getMessage());
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    /**
+     * Takes a freshly reserved block as the current one when the current one is used up, or else as the spare. A block
+     * below what is already handed out or already spare is dropped.
+     */
+    private synchronized void offer(long block) {
+        if (nextVersion == blockEnd) {
+            moveTo(block);
+        } else if (spareBlock == NO_BLOCK && block > nextVersion) {
+            spareBlock = block;
+        }
+    }
+
+    /**
+     * Skips what is left of the current block. Blocks only ever move up, so nothing below a published floor is ever
+     * handed out; a block reserved before a newer one was taken is simply dropped. A block may start right where the
+     * used-up one ends.
+     */
+    private void moveTo(long block) {
+        if (block >= nextVersion) {
+            nextVersion = block;
+            blockEnd = block + blockSize;
+        }
+    }
+
+    private static ThreadFactory refillerThreads() {
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("change-versions-");
+        threads.setDaemon(true);
+        return threads;
+    }
+
+    private synchronized long localFloor() {
+        return open.isEmpty() ? nextVersion : Math.min(open.first(), nextVersion);
+    }
+
+    private synchronized void close(long version) {
+        open.remove(version);
+    }
+}
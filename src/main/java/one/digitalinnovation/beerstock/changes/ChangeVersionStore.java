@@ -0,0 +1,177 @@
+package one.digitalinnovation.beerstock.changes;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Database side of {@link ChangeVersionSequence}: the sequence every node reserves its blocks of versions from, and
+ * the {@code change_version_node} rows where nodes publish their floors.
+ * <p>
+ * Every write runs on a connection of its own in auto-commit mode, outside whatever transaction the caller is in,
+ * so a floor is visible to the other nodes before any version above it is handed out. The exceptions are
+ * {@link #reserveOnCurrentConnection}, for a writer that must not take a second connection, and
+ * {@link #minLiveFloorOfOtherNodes}, read by feed and stats transactions that must not take one either.
+ */
+@Slf4j
+@Component
+public class ChangeVersionStore {
+
+    static final String SEQUENCE = "change_version_seq";
+
+    private static final String UPDATE_FLOOR =
+            "update change_version_node set floor_version = ?, heartbeat_at = ? where node_id = ?";
+
+    private static final String INSERT_FLOOR =
+            "insert into change_version_node (node_id, floor_version, heartbeat_at) values (?, ?, ?)";
+
+    private static final String MIN_LIVE_FLOOR =
+            "select min(floor_version) from change_version_node where node_id <> ? and heartbeat_at > ?";
+
+    private static final String DELETE_NODE = "delete from change_version_node where node_id = ?";
+
+    private final DataSource dataSource;
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    @Autowired
+    public ChangeVersionStore(DataSource dataSource, ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Reserves the next block of {@code blockSize} versions and returns its first version. The sequence is created,
+     * starting at {@code firstVersion}, when no node has created it yet.
+     */
+    public long reserve(long firstVersion, int blockSize) {
+        Dialect dialect = dialect();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            try {
+                return nextValue(connection, dialect);
+            } catch (SQLException missing) {
+                createSequence(connection, dialect, firstVersion, blockSize);
+                return nextValue(connection, dialect);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not reserve change versions from " + SEQUENCE, e);
+        }
+    }
+
+    /**
+     * Reserves the next block on the connection of the caller's transaction, or on a connection of its own outside
+     * one. Reading a sequence is not undone by a rollback, so the block stays reserved whatever the transaction does.
+     * The sequence must exist already.
+     */
+    public long reserveOnCurrentConnection(int blockSize) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return nextValue(connection, dialect());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not reserve " + blockSize + " change versions from " + SEQUENCE, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    public void publishFloor(String nodeId, long floorVersion, Instant now) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            int updated;
+            try (PreparedStatement update = connection.prepareStatement(UPDATE_FLOOR)) {
+                update.setLong(1, floorVersion);
+                update.setTimestamp(2, Timestamp.from(now));
+                update.setString(3, nodeId);
+                updated = update.executeUpdate();
+            }
+            if (updated == 0) {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_FLOOR)) {
+                    insert.setString(1, nodeId);
+                    insert.setLong(2, floorVersion);
+                    insert.setTimestamp(3, Timestamp.from(now));
+                    insert.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not publish the change version floor of node " + nodeId, e);
+        }
+    }
+
+    /**
+     * The lowest floor published by another node with a heartbeat after {@code liveSince}, or {@link Long#MAX_VALUE}
+     * when there is none. Read on the connection of the caller's transaction, or on a connection of its own outside
+     * one; floors are committed as soon as they are published, so the transaction sees the latest ones as long as it
+     * reads them before the changes they guard.
+     */
+    public long minLiveFloorOfOtherNodes(String nodeId, Instant liveSince) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement select = connection.prepareStatement(MIN_LIVE_FLOOR)) {
+            select.setString(1, nodeId);
+            select.setTimestamp(2, Timestamp.from(liveSince));
+            try (ResultSet result = select.executeQuery()) {
+                long floor = result.next() ? result.getLong(1) : 0;
+                return result.wasNull() ? Long.MAX_VALUE : floor;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the change version floors of other nodes", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    public void removeNode(String nodeId) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement delete = connection.prepareStatement(DELETE_NODE)) {
+            connection.setAutoCommit(true);
+            delete.setString(1, nodeId);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            log.warn("Could not remove the change version floor of node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private static long nextValue(Connection connection, Dialect dialect) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(dialect.getSequenceNextValString(SEQUENCE));
+             ResultSet result = select.executeQuery()) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    /**
+     * Another node may create the sequence at the same time; its failure to do so twice is left to the retried read.
+     */
+    private static void createSequence(Connection connection, Dialect dialect, long firstVersion, int blockSize) {
+        try {
+            for (String statement : dialect.getCreateSequenceStrings(SEQUENCE, Math.toIntExact(firstVersion), blockSize)) {
+                try (PreparedStatement create = connection.prepareStatement(statement)) {
+                    create.execute();
+                }
+            }
+            log.info("Created {} starting at version {}", SEQUENCE, firstVersion);
+        } catch (SQLException e) {
+            log.debug("Could not create {}, assuming another node did: {}", SEQUENCE, e.getMessage());
+        }
+    }
+
+    private Dialect dialect() {
+        return entityManagerFactory.getObject()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+    }
+}
@@ -0,0 +1,49 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.sql.SqlStatements;
+import one.digitalinnovation.beerstock.sql.StatementScope;
+import one.digitalinnovation.beerstock.sql.StatementTally;
+import one.digitalinnovation.beerstock.tracing.ActiveSpan;
+import one.digitalinnovation.beerstock.tracing.SpanScope;
+import one.digitalinnovation.beerstock.tracing.Tracing;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.Map;
+
+/**
+ * Carries the submitting thread's context over to the executor thread and restores the worker's own afterwards:
+ * <ul>
+ *     <li>the logging {@link MDC};</li>
+ *     <li>the current span, see {@link Tracing};</li>
+ *     <li>the statement tally, see {@link SqlStatements}.</li>
+ * </ul>
+ * Context added for executor threads later belongs in this list as well.
+ */
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        ActiveSpan span = Tracing.current();
+        StatementTally statements = SqlStatements.current();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            setContext(context);
+            try (SpanScope scope = Tracing.activate(span);
+                 StatementScope statementScope = SqlStatements.activate(statements)) {
+                runnable.run();
+            } finally {
+                setContext(previous);
+            }
+        };
+    }
+
+    private static void setContext(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
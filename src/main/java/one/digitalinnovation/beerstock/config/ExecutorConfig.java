@@ -0,0 +1,109 @@
+package one.digitalinnovation.beerstock.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Bounded executors the controller hands requests to, one for reads and one for writes, so slow writes cannot starve
+ * reads and Tomcat workers are released as soon as a request is queued. A full queue rejects the request at once,
+ * which {@code OverloadExceptionHandler} answers with 503. Stock reconciliation and bulk imports get small pools of
+ * their own, so they never take threads from requests. Imports run one at a time on {@code beerImportExecutor}, whose
+ * queue bounds how many uploads may wait; the upload is spooled on the Tomcat worker before it is queued, so no write
+ * thread is held while a large file is stored. Availability queries read their warehouses in parallel on
+ * {@code warehouseQueryExecutor}.
+ * <p>
+ * Each executor reports {@code beerstock.executor.queued}, {@code .queue.remaining}, {@code .active},
+ * {@code .pool.size}, {@code .completed} and {@code .rejected}, tagged with its name.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor beerReadExecutor(MeterRegistry meterRegistry,
+                                                   @Value("${beerstock.executors.read.threads}") int threads,
+                                                   @Value("${beerstock.executors.read.queue-capacity}") int queueCapacity) {
+        return boundedExecutor("beer-read", threads, queueCapacity, meterRegistry);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor beerWriteExecutor(MeterRegistry meterRegistry,
+                                                    @Value("${beerstock.executors.write.threads}") int threads,
+                                                    @Value("${beerstock.executors.write.queue-capacity}") int queueCapacity) {
+        return boundedExecutor("beer-write", threads, queueCapacity, meterRegistry);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor reconciliationExecutor(MeterRegistry meterRegistry,
+                                                         @Value("${beerstock.reconciliation.threads}") int threads) {
+        return boundedExecutor("reconciliation", threads, threads, meterRegistry);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor beerImportExecutor(MeterRegistry meterRegistry,
+                                                     @Value("${beerstock.import.queue-capacity}") int queueCapacity) {
+        return boundedExecutor("beer-import", 1, queueCapacity, meterRegistry);
+    }
+
+    /**
+     * Sized for the two batches an import has in flight, one being validated while the next is read.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor beerImportValidationExecutor(MeterRegistry meterRegistry,
+                                                               @Value("${beerstock.import.validation-threads}") int threads) {
+        return boundedExecutor("beer-import-validation", threads, 2 * threads, meterRegistry);
+    }
+
+    /**
+     * Runs the per-warehouse queries of availability requests, which wait for them on a read executor thread.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor warehouseQueryExecutor(MeterRegistry meterRegistry,
+                                                         @Value("${beerstock.warehouses.query-threads}") int threads,
+                                                         @Value("${beerstock.warehouses.query-queue-capacity}") int queueCapacity) {
+        return boundedExecutor("warehouse-query", threads, queueCapacity, meterRegistry);
+    }
+
+    private static ThreadPoolTaskExecutor boundedExecutor(String name, int threads, int queueCapacity,
+                                                          MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+
+        Counter rejected = Counter.builder("beerstock.executor.rejected").tag("name", name).register(meterRegistry);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException(name + " queue is full");
+        });
+
+        gauge(meterRegistry, "beerstock.executor.queued", name, executor,
+                e -> e.getThreadPoolExecutor().getQueue().size());
+        gauge(meterRegistry, "beerstock.executor.queue.remaining", name, executor,
+                e -> e.getThreadPoolExecutor().getQueue().remainingCapacity());
+        gauge(meterRegistry, "beerstock.executor.active", name, executor, ThreadPoolTaskExecutor::getActiveCount);
+        gauge(meterRegistry, "beerstock.executor.pool.size", name, executor, ThreadPoolTaskExecutor::getPoolSize);
+        FunctionCounter.builder("beerstock.executor.completed", executor,
+                e -> e.getThreadPoolExecutor().getCompletedTaskCount())
+                .tag("name", name)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    private static void gauge(MeterRegistry meterRegistry, String metric, String name, ThreadPoolTaskExecutor executor,
+                              ToDoubleFunction<ThreadPoolTaskExecutor> value) {
+        Gauge.builder(metric, executor, value).tag("name", name).register(meterRegistry);
+    }
+}
@@ -1,28 +1,63 @@
 package one.digitalinnovation.beerstock.controller;
 
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.BeerAvailabilityDTO;
+import one.digitalinnovation.beerstock.dto.BeerChangesDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportJobDTO;
+import one.digitalinnovation.beerstock.dto.BeerStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerSuggestionDTO;
+import one.digitalinnovation.beerstock.dto.BeerWarehouseStockDTO;
+import one.digitalinnovation.beerstock.dto.OrderDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
-import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
-import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
-import one.digitalinnovation.beerstock.exception.BeerStockBelowZeroException;
-import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.dto.ReservationRequestDTO;
+import one.digitalinnovation.beerstock.dto.StockHistoryDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.enums.HistoryResolution;
+import one.digitalinnovation.beerstock.enums.ImportFormat;
+import one.digitalinnovation.beerstock.exception.UnsupportedImportFormatException;
+import one.digitalinnovation.beerstock.history.StockHistoryService;
+import one.digitalinnovation.beerstock.importer.BeerImportService;
+import one.digitalinnovation.beerstock.service.BeerChangeService;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.BeerStatsService;
+import one.digitalinnovation.beerstock.service.ReservationService;
+import one.digitalinnovation.beerstock.tracing.TracingValidator;
+import one.digitalinnovation.beerstock.validation.BeerDTOValidator;
+import one.digitalinnovation.beerstock.validation.QuantityDTOValidator;
+import one.digitalinnovation.beerstock.warehouse.WarehouseStockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.Validator;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+/**
+ * Every request runs on the bounded read or write executor, freeing the Tomcat worker as soon as it is queued. When an
+ * executor's queue is full the request is rejected before it is queued, see {@link OverloadExceptionHandler}.
+ */
 @RestController
 @RequestMapping("/api/v1/beers")
 @AllArgsConstructor(onConstructor = @__(@Autowired))
@@ -30,35 +65,187 @@ public class BeerController implements BeerControllerDocs {
 
     private final BeerService beerService;
 
+    private final BeerStatsService beerStatsService;
+
+    private final ReservationService reservationService;
+
+    private final BeerChangeService beerChangeService;
+
+    private final BeerImportService beerImportService;
+
+    private final StockHistoryService stockHistoryService;
+
+    private final WarehouseStockService warehouseStockService;
+
+    private final Executor beerReadExecutor;
+
+    private final Executor beerWriteExecutor;
+
+    private final Validator beerDTOValidator = new TracingValidator(new BeerDTOValidator());
+
+    private final Validator quantityDTOValidator = new TracingValidator(new QuantityDTOValidator());
+
+    /**
+     * Beer and quantity bodies are checked by hand-written validators instead of Bean Validation; they reject with the
+     * same codes and messages.
+     */
+    @InitBinder("beerDTO")
+    public void initBeerDTOBinder(WebDataBinder binder) {
+        binder.setValidator(beerDTOValidator);
+    }
+
+    @InitBinder("quantityDTO")
+    public void initQuantityDTOBinder(WebDataBinder binder) {
+        binder.setValidator(quantityDTOValidator);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public BeerDTO createBeer(@RequestBody @Valid BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
-        return beerService.createBeer(beerDTO);
+    public CompletableFuture<BeerDTO> createBeer(@RequestBody @Valid BeerDTO beerDTO) {
+        return submit(beerWriteExecutor, () -> beerService.createBeer(beerDTO));
     }
 
     @GetMapping("/{name}")
-    public BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException {
-        return beerService.findByName(name);
+    public CompletableFuture<BeerDTO> findByName(@PathVariable String name) {
+        return submit(beerReadExecutor, () -> beerService.findByName(name));
     }
 
     @GetMapping
-    public List<BeerDTO> listBeers() {
-        return beerService.listAll();
+    public CompletableFuture<List<BeerDTO>> listBeers() {
+        return submit(beerReadExecutor, beerService::listAll);
+    }
+
+    @GetMapping("/stats")
+    public CompletableFuture<BeerStatsDTO> getStats() {
+        return submit(beerReadExecutor, beerStatsService::getStats);
+    }
+
+    @GetMapping("/suggest")
+    public CompletableFuture<List<BeerSuggestionDTO>> suggest(@RequestParam("q") String query,
+                                                              @RequestParam(defaultValue = "10") int limit) {
+        return submit(beerReadExecutor, () -> beerService.suggest(query, limit));
+    }
+
+    @GetMapping("/changes")
+    public CompletableFuture<BeerChangesDTO> changesSince(@RequestParam(defaultValue = "0") long since,
+                                                         @RequestParam(defaultValue = "100") int limit) {
+        return submit(beerReadExecutor, () -> beerChangeService.changesSince(since, limit));
+    }
+
+    /**
+     * Only queues the import; the returned job is polled through {@link #importStatus}. Runs on the servlet thread
+     * rather than on {@code beerWriteExecutor}: the container has already stored the upload, so spooling it is a move
+     * on disk, and the import itself runs on {@code beerImportExecutor}.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BeerImportJobDTO importBeers(@RequestParam("file") MultipartFile file,
+                                        @RequestParam(required = false) ImportFormat format)
+            throws UnsupportedImportFormatException, IOException {
+        return beerImportService.start(file, format);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public CompletableFuture<BeerImportJobDTO> importStatus(@PathVariable String jobId) {
+        return submit(beerReadExecutor, () -> beerImportService.status(jobId));
+    }
+
+    @GetMapping("/{id}/history")
+    public CompletableFuture<StockHistoryDTO> history(@PathVariable Long id,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                      @RequestParam(required = false) HistoryResolution resolution) {
+        return submit(beerReadExecutor, () -> stockHistoryService.history(id, from, to, resolution));
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteById(@PathVariable Long id) throws BeerNotFoundException {
-        beerService.deleteById(id);
+    public CompletableFuture<Void> deleteById(@PathVariable Long id) {
+        return submit(beerWriteExecutor, () -> {
+            beerService.deleteById(id);
+            return null;
+        });
     }
 
     @PatchMapping("/{id}/increment")
-    public BeerDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException {
-        return beerService.increment(id, quantityDTO.getQuantity());
+    public CompletableFuture<BeerDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) {
+        return submit(beerWriteExecutor, () -> beerService.increment(id, quantityDTO.getQuantity()));
     }
+
     @PatchMapping("/{id}/decrement")
-    public BeerDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockBelowZeroException {
-        return beerService.decrement(id, quantityDTO.getQuantity());
+    public CompletableFuture<BeerDTO> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) {
+        return submit(beerWriteExecutor, () -> beerService.decrement(id, quantityDTO.getQuantity()));
+    }
+
+    @PostMapping("/orders")
+    public CompletableFuture<List<BeerDTO>> placeOrder(@RequestBody @Valid OrderDTO orderDTO) {
+        return submit(beerWriteExecutor, () -> beerService.placeOrder(orderDTO));
+    }
+
+    @GetMapping("/{id}/warehouses")
+    public CompletableFuture<BeerWarehouseStockDTO> warehouseStock(@PathVariable Long id) {
+        return submit(beerReadExecutor, () -> warehouseStockService.stock(id));
+    }
+
+    @PostMapping("/{id}/warehouses")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<WarehouseStockDTO> registerWarehouseStock(@PathVariable Long id,
+                                                                       @RequestBody @Valid WarehouseStockDTO warehouseStockDTO) {
+        return submit(beerWriteExecutor, () -> warehouseStockService.register(id, warehouseStockDTO));
+    }
+
+    @PatchMapping("/{id}/warehouses/{warehouse}/increment")
+    public CompletableFuture<WarehouseStockDTO> incrementWarehouse(@PathVariable Long id, @PathVariable String warehouse,
+                                                                   @RequestBody @Valid QuantityDTO quantityDTO) {
+        return submit(beerWriteExecutor, () -> warehouseStockService.increment(id, warehouse, quantityDTO.getQuantity()));
+    }
+
+    @PatchMapping("/{id}/warehouses/{warehouse}/decrement")
+    public CompletableFuture<WarehouseStockDTO> decrementWarehouse(@PathVariable Long id, @PathVariable String warehouse,
+                                                                   @RequestBody @Valid QuantityDTO quantityDTO) {
+        return submit(beerWriteExecutor, () -> warehouseStockService.decrement(id, warehouse, quantityDTO.getQuantity()));
+    }
+
+    @GetMapping("/availability")
+    public CompletableFuture<List<BeerAvailabilityDTO>> availability(@RequestParam("ids") List<Long> ids,
+                                                                     @RequestParam(defaultValue = "1") int quantity) {
+        return submit(beerReadExecutor, () -> warehouseStockService.availability(ids, quantity));
+    }
+
+    @PostMapping("/{id}/reservations")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<ReservationDTO> reserve(@PathVariable Long id, @RequestBody @Valid ReservationRequestDTO reservationRequestDTO) {
+        return submit(beerWriteExecutor, () -> reservationService.reserve(id, reservationRequestDTO.getQuantity(),
+                reservationRequestDTO.getTtlSeconds()));
     }
 
+    @PostMapping("/{id}/reservations/{reservationId}/commit")
+    public CompletableFuture<BeerDTO> commitReservation(@PathVariable Long id, @PathVariable String reservationId) {
+        return submit(beerWriteExecutor, () -> reservationService.commit(id, reservationId));
+    }
+
+    @DeleteMapping("/{id}/reservations/{reservationId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public CompletableFuture<Void> cancelReservation(@PathVariable Long id, @PathVariable String reservationId) {
+        return submit(beerWriteExecutor, () -> {
+            reservationService.cancel(id, reservationId);
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code call} on {@code executor}. Exceptions thrown by the call complete the future as they are, so they
+     * reach the exception handlers unwrapped; a rejection by the executor is thrown right here.
+     */
+    private static <T> CompletableFuture<T> submit(Executor executor, Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(call.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
 }
@@ -4,16 +4,31 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.BeerAvailabilityDTO;
+import one.digitalinnovation.beerstock.dto.BeerChangesDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportJobDTO;
+import one.digitalinnovation.beerstock.dto.BeerStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerSuggestionDTO;
+import one.digitalinnovation.beerstock.dto.BeerWarehouseStockDTO;
+import one.digitalinnovation.beerstock.dto.OrderDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
-import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
-import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
-import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.dto.ReservationRequestDTO;
+import one.digitalinnovation.beerstock.dto.StockHistoryDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.enums.HistoryResolution;
+import one.digitalinnovation.beerstock.enums.ImportFormat;
+import one.digitalinnovation.beerstock.exception.UnsupportedImportFormatException;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.multipart.MultipartFile;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Api("Manages beer stock")
 public interface BeerControllerDocs {
@@ -23,25 +38,141 @@ public interface BeerControllerDocs {
             @ApiResponse(code = 201, message = "Success beer creation"),
             @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
     })
-    BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException;
+    CompletableFuture<BeerDTO> createBeer(BeerDTO beerDTO);
 
     @ApiOperation(value = "Returns beer found by a given name")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Success beer found in the system"),
             @ApiResponse(code = 404, message = "Beer with given name not found.")
     })
-    BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException;
+    CompletableFuture<BeerDTO> findByName(@PathVariable String name);
 
     @ApiOperation(value = "Returns a list of all beers registered in the system")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "List of all beers registered in the system"),
     })
-    List<BeerDTO> listBeers();
+    CompletableFuture<List<BeerDTO>> listBeers();
+
+    @ApiOperation(value = "Returns stock and capacity totals grouped by beer type and by brand")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Aggregated stock statistics of the catalog"),
+    })
+    CompletableFuture<BeerStatsDTO> getStats();
+
+    @ApiOperation(value = "Returns beers whose name starts with, or nearly starts with, the given text")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Matching beer names, closest first"),
+            @ApiResponse(code = 400, message = "Missing search text.")
+    })
+    CompletableFuture<List<BeerSuggestionDTO>> suggest(String query, int limit);
+
+    @ApiOperation(value = "Returns the beers created, changed or deleted after a given change version, oldest first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "One page of changes and the version to ask from next"),
+    })
+    CompletableFuture<BeerChangesDTO> changesSince(long since, int limit);
+
+    @ApiOperation(value = "Queues a bulk import of beers from a CSV or NDJSON file")
+    @ApiResponses(value = {
+            @ApiResponse(code = 202, message = "Import queued; poll its status by job id"),
+            @ApiResponse(code = 400, message = "File format not recognized."),
+            @ApiResponse(code = 503, message = "Too many imports waiting, retry later.")
+    })
+    BeerImportJobDTO importBeers(MultipartFile file, ImportFormat format)
+            throws UnsupportedImportFormatException, IOException;
+
+    @ApiOperation(value = "Returns the progress, throughput and rejected rows of an import")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Import job status"),
+            @ApiResponse(code = 404, message = "Import job with given id not found.")
+    })
+    CompletableFuture<BeerImportJobDTO> importStatus(@PathVariable String jobId);
+
+    @ApiOperation(value = "Returns a beer's quantity over time, per change or rolled up by minute, hour or day")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Open, low, high and close quantity per point, oldest first"),
+            @ApiResponse(code = 400, message = "Range reversed or too many points for the resolution."),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    CompletableFuture<StockHistoryDTO> history(@PathVariable Long id, Instant from, Instant to,
+                                               HistoryResolution resolution);
+
+    @ApiOperation(value = "Returns a beer's stock in each warehouse and the totals across them")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock per warehouse, main warehouse first"),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    CompletableFuture<BeerWarehouseStockDTO> warehouseStock(@PathVariable Long id);
+
+    @ApiOperation(value = "Stocks a beer in another warehouse")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Beer stocked in the warehouse"),
+            @ApiResponse(code = 400, message = "Already stocked there, or wrong field range value."),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    CompletableFuture<WarehouseStockDTO> registerWarehouseStock(@PathVariable Long id, WarehouseStockDTO warehouseStockDTO);
+
+    @ApiOperation(value = "Increment a beer's stock in one warehouse")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock of the warehouse after the increment"),
+            @ApiResponse(code = 400, message = "Increment exceeds the warehouse's max stock."),
+            @ApiResponse(code = 404, message = "Beer not stocked in the warehouse.")
+    })
+    CompletableFuture<WarehouseStockDTO> incrementWarehouse(@PathVariable Long id, @PathVariable String warehouse,
+                                                            QuantityDTO quantityDTO);
+
+    @ApiOperation(value = "Decrement a beer's stock in one warehouse")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock of the warehouse after the decrement"),
+            @ApiResponse(code = 400, message = "Decrement exceeds the warehouse's stock."),
+            @ApiResponse(code = 404, message = "Beer not stocked in the warehouse.")
+    })
+    CompletableFuture<WarehouseStockDTO> decrementWarehouse(@PathVariable Long id, @PathVariable String warehouse,
+                                                            QuantityDTO quantityDTO);
+
+    @ApiOperation(value = "Returns whether a quantity of each beer is in stock across warehouses, and which warehouses hold it alone")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Availability per beer; unknown beers are left out"),
+            @ApiResponse(code = 400, message = "Too many beers asked for at once."),
+            @ApiResponse(code = 503, message = "Too many queries waiting, retry later.")
+    })
+    CompletableFuture<List<BeerAvailabilityDTO>> availability(List<Long> ids, int quantity);
 
     @ApiOperation(value = "Delete a beer found by a given valid Id")
     @ApiResponses(value = {
             @ApiResponse(code = 204, message = "Success beer deleted in the system"),
             @ApiResponse(code = 404, message = "Beer with given id not found.")
     })
-    void deleteById(@PathVariable Long id) throws BeerNotFoundException;
+    CompletableFuture<Void> deleteById(@PathVariable Long id);
+
+    @ApiOperation(value = "Decrements the stock of several beers in one transaction, all or nothing")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success every item of the order decremented"),
+            @ApiResponse(code = 400, message = "Missing items, wrong field range value or not enough stock for an item."),
+            @ApiResponse(code = 404, message = "Beer with an id of the order not found.")
+    })
+    CompletableFuture<List<BeerDTO>> placeOrder(OrderDTO orderDTO);
+
+    @ApiOperation(value = "Holds a quantity of a beer for a limited time without changing its stock")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Success reservation created"),
+            @ApiResponse(code = 400, message = "Wrong field range value or not enough unreserved stock."),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    CompletableFuture<ReservationDTO> reserve(Long id, ReservationRequestDTO reservationRequestDTO);
+
+    @ApiOperation(value = "Decrements the beer stock by the reserved quantity and releases the reservation")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success reservation committed"),
+            @ApiResponse(code = 400, message = "Stock went below the reserved quantity."),
+            @ApiResponse(code = 404, message = "Reservation not found, expired or already released.")
+    })
+    CompletableFuture<BeerDTO> commitReservation(Long id, String reservationId);
+
+    @ApiOperation(value = "Releases a reservation without changing the beer stock")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Success reservation released"),
+            @ApiResponse(code = 404, message = "Reservation not found, expired or already released.")
+    })
+    CompletableFuture<Void> cancelReservation(Long id, String reservationId);
 }
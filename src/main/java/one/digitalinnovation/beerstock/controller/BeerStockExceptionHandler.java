@@ -0,0 +1,23 @@
+package one.digitalinnovation.beerstock.controller;
+
+import one.digitalinnovation.beerstock.dto.ErrorDTO;
+import one.digitalinnovation.beerstock.exception.BeerStockBelowZeroException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers stock rule violations directly with a small JSON body. Without it, {@code @ResponseStatus} resolution ends
+ * in {@code sendError}, and the container re-dispatches every rejected request to {@code /error} just to render it.
+ */
+@RestControllerAdvice
+public class BeerStockExceptionHandler {
+
+    @ExceptionHandler({BeerStockBelowZeroException.class, BeerStockExceededException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorDTO handleStockRuleViolation(Exception exception) {
+        return new ErrorDTO(HttpStatus.BAD_REQUEST.value(), exception.getMessage());
+    }
+}
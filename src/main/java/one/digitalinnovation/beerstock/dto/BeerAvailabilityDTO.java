@@ -0,0 +1,26 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerAvailabilityDTO {
+
+    private Long beerId;
+
+    private int quantity;
+
+    private boolean available;
+
+    private List<String> fulfillableFrom;
+
+    private Map<String, Integer> byWarehouse;
+}
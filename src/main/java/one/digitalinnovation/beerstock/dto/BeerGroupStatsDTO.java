@@ -0,0 +1,25 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerGroupStatsDTO {
+
+    private String group;
+
+    private long beers;
+
+    private long quantity;
+
+    private long capacity;
+
+    private double averageQuantity;
+
+    private double fillRatio;
+}
@@ -0,0 +1,46 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.ImportFormat;
+import one.digitalinnovation.beerstock.enums.ImportState;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerImportJobDTO {
+
+    private String id;
+
+    private String fileName;
+
+    private ImportFormat format;
+
+    private ImportState state;
+
+    private Instant submittedAt;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private long rowsRead;
+
+    private long rowsImported;
+
+    private long rowsRejected;
+
+    private double rowsPerSecond;
+
+    private String failure;
+
+    private List<BeerImportErrorDTO> errors;
+
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,23 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerStatsDTO {
+
+    private BeerGroupStatsDTO total;
+
+    private List<BeerGroupStatsDTO> byType;
+
+    private List<BeerGroupStatsDTO> byBrand;
+
+    private long[] fillRatioHistogram;
+}
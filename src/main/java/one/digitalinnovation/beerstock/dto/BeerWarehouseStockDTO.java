@@ -0,0 +1,25 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerWarehouseStockDTO {
+
+    private Long beerId;
+
+    private String name;
+
+    private int quantity;
+
+    private int max;
+
+    private List<WarehouseStockDTO> warehouses;
+}
@@ -0,0 +1,37 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationProgressDTO {
+
+    private boolean running;
+
+    private Instant runStartedAt;
+
+    private long checkpointBeerId;
+
+    private long checkedBeers;
+
+    private long skippedStripedBeers;
+
+    private long unbaselinedBeers;
+
+    private long driftedBeers;
+
+    private long correctedBeers;
+
+    private long chunks;
+
+    private double beersPerSecond;
+
+    private Instant lastCompletedAt;
+}
@@ -0,0 +1,33 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpanDTO {
+
+    private String spanId;
+
+    private String parentSpanId;
+
+    private String name;
+
+    private String kind;
+
+    private String thread;
+
+    private long offsetMicros;
+
+    private long durationMicros;
+
+    private Map<String, String> attributes;
+
+    private String error;
+}
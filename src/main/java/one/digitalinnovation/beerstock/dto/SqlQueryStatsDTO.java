@@ -0,0 +1,37 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlQueryStatsDTO {
+
+    private String sql;
+
+    private String operation;
+
+    private String table;
+
+    private long count;
+
+    private long totalMillis;
+
+    private long meanMicros;
+
+    private long p50Micros;
+
+    private long p95Micros;
+
+    private long p99Micros;
+
+    private long maxMicros;
+
+    private Map<String, Long> histogram;
+}
@@ -0,0 +1,27 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TraceSummaryDTO {
+
+    private String traceId;
+
+    private String name;
+
+    private Instant startedAt;
+
+    private long durationMicros;
+
+    private int spans;
+
+    private boolean error;
+}
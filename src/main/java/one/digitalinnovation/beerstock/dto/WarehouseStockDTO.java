@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseStockDTO {
+
+    @NotNull
+    @Pattern(regexp = "[A-Za-z0-9_-]{1,64}")
+    private String warehouse;
+
+    @NotNull
+    @Min(0)
+    @Max(100)
+    private Integer quantity;
+
+    @NotNull
+    @Min(1)
+    @Max(500)
+    private Integer max;
+}
@@ -1,26 +1,37 @@
 package one.digitalinnovation.beerstock.entity;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.changes.ChangeVersionListener;
 import one.digitalinnovation.beerstock.enums.BeerType;
+import org.hibernate.annotations.Formula;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 
 @Data
 @Entity
 @NoArgsConstructor
-@AllArgsConstructor
-public class Beer {
+@EntityListeners(ChangeVersionListener.class)
+@Table(indexes = @Index(columnList = "changeVersion"))
+public class Beer implements ChangeVersioned {
 
+    /**
+     * Drawn from a sequence in blocks of 50 rather than from an identity column, so inserts can be sent in JDBC
+     * batches.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_seq")
+    @SequenceGenerator(name = "beer_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -39,5 +50,34 @@ public class Beer {
     @Column(nullable = false)
     private BeerType type;
 
+    /**
+     * Number of {@link BeerStockStripe} rows holding this beer's stock while it is hot; {@code 0} when the whole
+     * stock lives in {@link #quantity}.
+     */
+    @Column(nullable = false)
+    private int stripes;
+
+    @Formula("(case when stripes = 0 then 0 else "
+            + "(select coalesce(sum(s.quantity), 0) from beer_stock_stripe s where s.beer_id = id) end)")
+    private int stripedQuantity;
+
+    /**
+     * Version of the last change to this row. Changes made on a stripe only version the stripe, see
+     * {@link BeerStockStripe#getChangeVersion()}.
+     */
+    @Column(nullable = false)
+    private long changeVersion;
+
+    public Beer(Long id, String name, String brand, int max, int quantity, BeerType type) {
+        this.id = id;
+        this.name = name;
+        this.brand = brand;
+        this.max = max;
+        this.quantity = quantity;
+        this.type = type;
+    }
 
+    public int getTotalQuantity() {
+        return quantity + stripedQuantity;
+    }
 }
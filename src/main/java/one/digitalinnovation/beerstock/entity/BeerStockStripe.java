@@ -0,0 +1,49 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.changes.ChangeVersionListener;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * One share of a hot beer's stock. Each stripe owns part of the beer's {@code max} as its {@code capacity} and keeps
+ * {@code 0 <= quantity <= capacity}, so a change that fits one stripe keeps the beer within its exact bounds.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(ChangeVersionListener.class)
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"beerId", "stripe"}),
+        indexes = @Index(columnList = "changeVersion"))
+public class BeerStockStripe implements ChangeVersioned {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long beerId;
+
+    @Column(nullable = false)
+    private int stripe;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private int capacity;
+
+    @Column(nullable = false)
+    private long changeVersion;
+}
@@ -0,0 +1,35 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.changes.ChangeVersionListener;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.Instant;
+
+/**
+ * Kept for every deleted beer so the change feed can tell clients to drop it.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(ChangeVersionListener.class)
+@Table(indexes = @Index(columnList = "changeVersion"))
+public class BeerTombstone implements ChangeVersioned {
+
+    @Id
+    private Long beerId;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+
+    @Column(nullable = false)
+    private long changeVersion;
+}
@@ -0,0 +1,31 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ * The lowest change version a running node may still commit, published so other nodes can tell which versions are
+ * complete. Written through {@link one.digitalinnovation.beerstock.changes.ChangeVersionStore}; mapped only so the
+ * schema is generated with the others.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeVersionNode {
+
+    @Id
+    private String nodeId;
+
+    @Column(nullable = false)
+    private long floorVersion;
+
+    @Column(nullable = false)
+    private Instant heartbeatAt;
+}
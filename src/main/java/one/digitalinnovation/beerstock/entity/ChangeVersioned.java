@@ -0,0 +1,10 @@
+package one.digitalinnovation.beerstock.entity;
+
+/**
+ * A row that takes a new change version from
+ * {@link one.digitalinnovation.beerstock.changes.ChangeVersionSequence} every time it is inserted or updated.
+ */
+public interface ChangeVersioned {
+
+    void setChangeVersion(long changeVersion);
+}
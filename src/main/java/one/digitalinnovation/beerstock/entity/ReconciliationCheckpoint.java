@@ -0,0 +1,35 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ * How far the run in progress of a reconciliation job got, so a restarted application continues where it stopped.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationCheckpoint {
+
+    @Id
+    private String job;
+
+    /**
+     * Highest beer id the run in progress has reconciled everything up to; {@code 0} when no run is in progress.
+     */
+    @Column(nullable = false)
+    private long lastBeerId;
+
+    private Instant runStartedAt;
+
+    private Instant updatedAt;
+
+    private Instant lastCompletedAt;
+}
@@ -0,0 +1,36 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.Instant;
+
+/**
+ * Units of a beer set aside by a reservation until {@code expiresAt}. Every stock check that takes units away reads
+ * the beer's live holds under the beer row lock, so no node can sell held units.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = {@Index(columnList = "beerId"), @Index(columnList = "expiresAt")})
+public class StockHold {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private Long beerId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,24 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * A warehouse other than the main one, listed when its first stock is registered, so availability queries learn
+ * which warehouses to read from this short table instead of from every {@link WarehouseStock} row.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class Warehouse {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+}
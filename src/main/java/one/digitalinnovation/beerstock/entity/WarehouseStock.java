@@ -0,0 +1,44 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * A beer's stock in one warehouse other than the main one, whose stock is the beer's own {@code quantity}. Each
+ * warehouse has its own {@code max} and keeps {@code 0 <= quantity <= max}. The unique key leads with the warehouse,
+ * so it serves both single-row updates and queries that stay within one warehouse.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"warehouse", "beerId"}),
+        indexes = @Index(columnList = "beerId"))
+public class WarehouseStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long beerId;
+
+    @Column(nullable = false, length = 64)
+    private String warehouse;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private int max;
+}
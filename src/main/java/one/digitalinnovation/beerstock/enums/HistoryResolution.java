@@ -0,0 +1,20 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+@AllArgsConstructor
+public enum HistoryResolution {
+
+    RAW(Duration.ZERO, "Every recorded stock change, most recent ones only"),
+    MINUTE(Duration.ofMinutes(1), "One point per minute"),
+    HOUR(Duration.ofHours(1), "One point per hour"),
+    DAY(Duration.ofDays(1), "One point per UTC day");
+
+    private final Duration bucket;
+
+    private final String description;
+}
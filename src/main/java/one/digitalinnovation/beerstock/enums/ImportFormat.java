@@ -0,0 +1,44 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+@Getter
+public enum ImportFormat {
+
+    CSV("Comma-separated values with a header row", "text/csv", ".csv"),
+    NDJSON("One JSON object per line", "application/x-ndjson", ".ndjson", ".jsonl");
+
+    private final String description;
+
+    private final String contentType;
+
+    private final String[] extensions;
+
+    ImportFormat(String description, String contentType, String... extensions) {
+        this.description = description;
+        this.contentType = contentType;
+        this.extensions = extensions;
+    }
+
+    /**
+     * Picks the format from the uploaded file's name, then from its content type; {@code null} when neither matches.
+     */
+    public static ImportFormat detect(String fileName, String contentType) {
+        String lowerCaseName = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        for (ImportFormat format : values()) {
+            for (String extension : format.extensions) {
+                if (lowerCaseName.endsWith(extension)) {
+                    return format;
+                }
+            }
+        }
+        for (ImportFormat format : values()) {
+            if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(format.contentType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum ImportState {
+
+    QUEUED("Waiting for an earlier import to finish"),
+    RUNNING("Rows are being read and written"),
+    COMPLETED("Every row was read; rejected rows are listed in the errors"),
+    FAILED("The file could not be read to the end; rows written before the failure stay imported");
+
+    private final String description;
+}
@@ -0,0 +1,83 @@
+package one.digitalinnovation.beerstock.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+/**
+ * Published by {@link one.digitalinnovation.beerstock.service.BeerService} after every change to a {@link Beer}.
+ * Carries the state of the beer after the change, so listeners never need to read it back from the database.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BeerChangedEvent {
+
+    public enum Kind {
+        CREATED,
+        STOCK_CHANGED,
+        DELETED,
+        /**
+         * Stock corrected by reconciliation to match the recorded movements; not itself a movement.
+         */
+        RECONCILED,
+        /**
+         * Sum of the movements outbox compaction folded away; only ever written to the outbox, never published.
+         */
+        BASELINE
+    }
+
+    private final Kind kind;
+
+    private final Long beerId;
+
+    private final String name;
+
+    private final String brand;
+
+    private final BeerType type;
+
+    private final int max;
+
+    private final int quantity;
+
+    private final int delta;
+
+    /**
+     * {@link one.digitalinnovation.beerstock.changes.ChangeVersionSequence#transactionVersion() Version} of the
+     * transaction that made the change. A reader that saw any row at or above this version has already seen the change;
+     * listeners rebuilding state from the database compare it with what they read instead of the order events arrive
+     * in, since listeners of different transactions run in any order.
+     */
+    private final long changeVersion;
+
+    public static BeerChangedEvent created(Beer beer, long changeVersion) {
+        return of(Kind.CREATED, beer, beer.getTotalQuantity(), changeVersion);
+    }
+
+    public static BeerChangedEvent stockChanged(Beer beer, int delta, long changeVersion) {
+        return of(Kind.STOCK_CHANGED, beer, delta, changeVersion);
+    }
+
+    public static BeerChangedEvent reconciled(Beer beer, int delta, long changeVersion) {
+        return of(Kind.RECONCILED, beer, delta, changeVersion);
+    }
+
+    public static BeerChangedEvent deleted(Beer beer, long changeVersion) {
+        return of(Kind.DELETED, beer, -beer.getTotalQuantity(), changeVersion);
+    }
+
+    private static BeerChangedEvent of(Kind kind, Beer beer, int delta, long changeVersion) {
+        return new BeerChangedEvent(kind,
+                beer.getId(),
+                beer.getName(),
+                beer.getBrand(),
+                beer.getType(),
+                beer.getMax(),
+                beer.getTotalQuantity(),
+                delta,
+                changeVersion);
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class AvailabilityQueryTooLargeException extends Exception {
+
+    public AvailabilityQueryTooLargeException(int requested, int limit) {
+        super(String.format("Availability of %d beers requested; ask for at most %d at a time.", requested, limit));
+    }
+}
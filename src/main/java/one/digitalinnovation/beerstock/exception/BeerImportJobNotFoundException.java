@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class BeerImportJobNotFoundException extends Exception {
+
+    public BeerImportJobNotFoundException(String jobId) {
+        super(String.format("Import job %s not found.", jobId));
+    }
+}
@@ -3,10 +3,25 @@ package one.digitalinnovation.beerstock.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * Expected business outcome of a decrement during a sell-out, not a programming error: it is created without a stack
+ * trace and formats its message only when asked for it.
+ */
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BeerStockBelowZeroException extends Exception {
 
-    public BeerStockBelowZeroException(Long id, int quantityToIncrement) {
-        super(String.format("Beers with %s ID to decremento informed exceeds the minimum stock capacity: %s", id, quantityToIncrement));
+    private final Long id;
+
+    private final int quantityToDecrement;
+
+    public BeerStockBelowZeroException(Long id, int quantityToDecrement) {
+        super(null, null, false, false);
+        this.id = id;
+        this.quantityToDecrement = quantityToDecrement;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Beers with " + id + " ID to decremento informed exceeds the minimum stock capacity: " + quantityToDecrement;
     }
 }
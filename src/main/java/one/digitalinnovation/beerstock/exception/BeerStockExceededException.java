@@ -3,10 +3,25 @@ package one.digitalinnovation.beerstock.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * Expected business outcome of an increment beyond the max stock, not a programming error: it is created without a
+ * stack trace and formats its message only when asked for it.
+ */
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BeerStockExceededException extends Exception {
 
+    private final Long id;
+
+    private final int quantityToIncrement;
+
     public BeerStockExceededException(Long id, int quantityToIncrement) {
-        super(String.format("Beers with %s ID to increment informed exceeds the max stock capacity: %s", id, quantityToIncrement));
+        super(null, null, false, false);
+        this.id = id;
+        this.quantityToIncrement = quantityToIncrement;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Beers with " + id + " ID to increment informed exceeds the max stock capacity: " + quantityToIncrement;
     }
 }
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedImportFormatException extends Exception {
+
+    public UnsupportedImportFormatException(String fileName) {
+        super(String.format("Format of import file %s not recognized; name it .csv or .ndjson or pass the format parameter.", fileName));
+    }
+}
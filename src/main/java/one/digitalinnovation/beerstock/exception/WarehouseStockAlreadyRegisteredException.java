@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class WarehouseStockAlreadyRegisteredException extends Exception {
+
+    public WarehouseStockAlreadyRegisteredException(Long beerId, String warehouse) {
+        super(String.format("Beer with id %s is already stocked in warehouse %s.", beerId, warehouse));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class WarehouseStockNotFoundException extends Exception {
+
+    public WarehouseStockNotFoundException(Long beerId, String warehouse) {
+        super(String.format("Beer with id %s is not stocked in warehouse %s.", beerId, warehouse));
+    }
+}
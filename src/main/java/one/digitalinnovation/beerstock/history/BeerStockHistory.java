@@ -0,0 +1,66 @@
+package one.digitalinnovation.beerstock.history;
+
+import one.digitalinnovation.beerstock.dto.StockHistoryPointDTO;
+import one.digitalinnovation.beerstock.enums.HistoryResolution;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One beer's quantity over time: the quantity it had when tracking began, and one ring per resolution that every
+ * change is added to, so a change costs four O(1) updates and a query only reads the ring it asks for.
+ */
+final class BeerStockHistory {
+
+    private final long trackedSince;
+
+    private final int baseline;
+
+    private final TimeBucketRing[] rings = new TimeBucketRing[HistoryResolution.values().length];
+
+    /**
+     * @param trackedSince from when on the history is known
+     * @param baseline     the quantity at {@code trackedSince}
+     * @param capacities   the number of entries each ring keeps, by {@link HistoryResolution} ordinal
+     */
+    BeerStockHistory(long trackedSince, int baseline, int[] capacities) {
+        this.trackedSince = trackedSince;
+        this.baseline = baseline;
+        for (HistoryResolution resolution : HistoryResolution.values()) {
+            rings[resolution.ordinal()] = new TimeBucketRing(resolution.getBucket().toMillis(),
+                    capacities[resolution.ordinal()]);
+        }
+    }
+
+    synchronized void record(long atMillis, int before, int after) {
+        for (TimeBucketRing ring : rings) {
+            ring.record(atMillis, before, after);
+        }
+    }
+
+    /**
+     * The earliest instant {@code resolution} can still answer for.
+     */
+    synchronized long retainedSince(HistoryResolution resolution) {
+        TimeBucketRing ring = rings[resolution.ordinal()];
+        return Math.max(ring.bucketStart(trackedSince), ring.retainedSince());
+    }
+
+    /**
+     * Whether {@code resolution} still holds everything recorded since {@code fromMillis}.
+     */
+    synchronized boolean holdsSince(HistoryResolution resolution, long fromMillis) {
+        return rings[resolution.ordinal()].retainedSince() <= fromMillis;
+    }
+
+    synchronized long bucketCount(HistoryResolution resolution, long fromMillis, long toMillis) {
+        return rings[resolution.ordinal()].bucketCount(fromMillis, toMillis);
+    }
+
+    synchronized List<StockHistoryPointDTO> points(HistoryResolution resolution, long fromMillis, long toMillis) {
+        List<StockHistoryPointDTO> points = new ArrayList<>();
+        TimeBucketRing ring = rings[resolution.ordinal()];
+        ring.collect(fromMillis, toMillis, ring.retainedSince() == Long.MIN_VALUE ? baseline : null, points);
+        return points;
+    }
+}
@@ -0,0 +1,133 @@
+package one.digitalinnovation.beerstock.history;
+
+import one.digitalinnovation.beerstock.dto.StockHistoryDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.HistoryResolution;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.InvalidHistoryRangeException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Embedded time-series store of each beer's quantity, fed by the committed {@link BeerChangedEvent}s. Every change
+ * lands in a ring of raw changes and in minute, hour and day rollups of fixed capacity, so memory per beer is bounded
+ * and a query reads at most {@code beerstock.history.max-points} buckets of one ring, whatever the range.
+ * <p>
+ * History is kept in memory from startup on: a beer that has not changed since is reported at its current quantity,
+ * and a range older than what a ring still holds is cut to what it holds. Without a resolution, the finest rollup
+ * that covers the whole range within the point limit is used.
+ */
+@Service
+public class StockHistoryService {
+
+    private static final Duration DEFAULT_RANGE = Duration.ofHours(24);
+
+    private static final List<HistoryResolution> ROLLUPS = List.of(HistoryResolution.MINUTE, HistoryResolution.HOUR,
+            HistoryResolution.DAY);
+
+    private final BeerRepository beerRepository;
+
+    private final Clock clock;
+
+    private final long startedAt;
+
+    private final int[] capacities;
+
+    private final int maxPoints;
+
+    private final Map<Long, BeerStockHistory> histories = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StockHistoryService(BeerRepository beerRepository,
+                               @Value("${beerstock.history.raw-points}") int rawPoints,
+                               @Value("${beerstock.history.minute-buckets}") int minuteBuckets,
+                               @Value("${beerstock.history.hour-buckets}") int hourBuckets,
+                               @Value("${beerstock.history.day-buckets}") int dayBuckets,
+                               @Value("${beerstock.history.max-points}") int maxPoints) {
+        this(beerRepository, Clock.systemUTC(), new int[]{rawPoints, minuteBuckets, hourBuckets, dayBuckets}, maxPoints);
+    }
+
+    StockHistoryService(BeerRepository beerRepository, Clock clock, int[] capacities, int maxPoints) {
+        this.beerRepository = beerRepository;
+        this.clock = clock;
+        this.startedAt = clock.millis();
+        this.capacities = capacities;
+        this.maxPoints = maxPoints;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        long now = clock.millis();
+        switch (event.getKind()) {
+            case CREATED:
+                histories.put(event.getBeerId(), new BeerStockHistory(now, event.getQuantity(), capacities));
+                break;
+            case DELETED:
+                histories.remove(event.getBeerId());
+                break;
+            default:
+                int before = event.getQuantity() - event.getDelta();
+                histories.computeIfAbsent(event.getBeerId(),
+                        id -> new BeerStockHistory(startedAt, before, capacities))
+                        .record(now, before, event.getQuantity());
+        }
+    }
+
+    /**
+     * @param from       defaults to 24 hours before {@code to}
+     * @param to         defaults to now
+     * @param resolution chosen from the range when {@code null}
+     */
+    public StockHistoryDTO history(Long beerId, Instant from, Instant to, HistoryResolution resolution)
+            throws BeerNotFoundException, InvalidHistoryRangeException {
+        Instant end = to == null ? clock.instant() : to;
+        Instant start = from == null ? end.minus(DEFAULT_RANGE) : from;
+        if (start.isAfter(end)) {
+            throw new InvalidHistoryRangeException(String.format("from %s is after to %s", start, end));
+        }
+
+        BeerStockHistory history = histories.get(beerId);
+        if (history == null) {
+            Beer beer = beerRepository.findById(beerId).orElseThrow(() -> new BeerNotFoundException(beerId));
+            history = histories.getOrDefault(beerId, new BeerStockHistory(startedAt, beer.getTotalQuantity(), capacities));
+        }
+
+        HistoryResolution chosen = resolution == null
+                ? choose(history, start.toEpochMilli(), end.toEpochMilli())
+                : resolution;
+        long fromMillis = Math.max(start.toEpochMilli(), history.retainedSince(chosen));
+        long toMillis = end.toEpochMilli();
+        if (fromMillis <= toMillis && history.bucketCount(chosen, fromMillis, toMillis) > maxPoints) {
+            throw new InvalidHistoryRangeException(String.format("%s to %s at %s resolution is more than %d points",
+                    start, end, chosen, maxPoints));
+        }
+        return StockHistoryDTO.builder()
+                .beerId(beerId)
+                .resolution(chosen)
+                .from(Instant.ofEpochMilli(fromMillis))
+                .to(end)
+                .points(fromMillis <= toMillis ? history.points(chosen, fromMillis, toMillis) : List.of())
+                .build();
+    }
+
+    private HistoryResolution choose(BeerStockHistory history, long fromMillis, long toMillis) {
+        for (HistoryResolution rollup : ROLLUPS) {
+            if (history.holdsSince(rollup, fromMillis)
+                    && history.bucketCount(rollup, Math.max(fromMillis, history.retainedSince(rollup)), toMillis) <= maxPoints) {
+                return rollup;
+            }
+        }
+        return HistoryResolution.DAY;
+    }
+}
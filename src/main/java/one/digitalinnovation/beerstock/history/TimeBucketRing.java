@@ -0,0 +1,155 @@
+package one.digitalinnovation.beerstock.history;
+
+import one.digitalinnovation.beerstock.dto.StockHistoryPointDTO;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Open, low, high and close of a beer's quantity per time bucket, for the last {@code capacity} buckets in which it
+ * changed; quiet buckets take no room. Buckets are aligned to the epoch, so day buckets are UTC days. A bucket size of
+ * zero keeps every change as an entry of its own. The arrays start small and double up to {@code capacity}, then the
+ * oldest entry is overwritten, so a beer that seldom changes costs little and none costs more than its capacity.
+ * Not thread-safe; {@link BeerStockHistory} guards it.
+ */
+final class TimeBucketRing {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final long bucketMillis;
+
+    private final int capacity;
+
+    private long[] starts = new long[0];
+
+    private int[] open = new int[0];
+
+    private int[] min = new int[0];
+
+    private int[] max = new int[0];
+
+    private int[] close = new int[0];
+
+    private int[] changes = new int[0];
+
+    private int head;
+
+    private int size;
+
+    private boolean overwritten;
+
+    TimeBucketRing(long bucketMillis, int capacity) {
+        this.bucketMillis = bucketMillis;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records a change from {@code before} to {@code after} at {@code atMillis}. A change timestamped before the
+     * newest bucket, which only happens when listeners race, is folded into that bucket.
+     */
+    void record(long atMillis, int before, int after) {
+        long start = bucketStart(atMillis);
+        if (size > 0) {
+            int last = index(size - 1);
+            if (bucketMillis > 0 && start <= starts[last]) {
+                min[last] = Math.min(min[last], after);
+                max[last] = Math.max(max[last], after);
+                close[last] = after;
+                changes[last]++;
+                return;
+            }
+            start = Math.max(start, starts[last]);
+        }
+        int slot = append();
+        starts[slot] = start;
+        open[slot] = before;
+        min[slot] = Math.min(before, after);
+        max[slot] = Math.max(before, after);
+        close[slot] = after;
+        changes[slot] = 1;
+    }
+
+    /**
+     * Start of the oldest entry when older ones were already overwritten, otherwise {@link Long#MIN_VALUE}: before
+     * that instant the ring can no longer tell the quantity.
+     */
+    long retainedSince() {
+        return overwritten ? starts[head] : Long.MIN_VALUE;
+    }
+
+    long bucketStart(long atMillis) {
+        return bucketMillis == 0 ? atMillis : Math.floorDiv(atMillis, bucketMillis) * bucketMillis;
+    }
+
+    long bucketCount(long fromMillis, long toMillis) {
+        if (bucketMillis == 0) {
+            return size;
+        }
+        return (bucketStart(toMillis) - bucketStart(fromMillis)) / bucketMillis + 1;
+    }
+
+    /**
+     * Adds the points between {@code fromMillis} and {@code toMillis}, both inclusive, to {@code points}. Bucketed
+     * rings emit every bucket of the range, carrying the last close through buckets without changes, starting from
+     * {@code carried} when no entry precedes the range; buckets before any known quantity are left out. A raw ring
+     * emits only its entries.
+     */
+    void collect(long fromMillis, long toMillis, Integer carried, List<StockHistoryPointDTO> points) {
+        int entry = 0;
+        Integer last = carried;
+        while (entry < size && starts[index(entry)] < bucketStart(fromMillis)) {
+            last = close[index(entry)];
+            entry++;
+        }
+        if (bucketMillis == 0) {
+            for (; entry < size && starts[index(entry)] <= toMillis; entry++) {
+                points.add(point(starts[index(entry)], index(entry)));
+            }
+            return;
+        }
+        for (long start = bucketStart(fromMillis); start <= toMillis; start += bucketMillis) {
+            if (entry < size && starts[index(entry)] == start) {
+                int slot = index(entry++);
+                points.add(point(start, slot));
+                last = close[slot];
+            } else if (last != null) {
+                points.add(new StockHistoryPointDTO(Instant.ofEpochMilli(start), last, last, last, last, 0));
+            }
+        }
+    }
+
+    private StockHistoryPointDTO point(long start, int slot) {
+        return new StockHistoryPointDTO(Instant.ofEpochMilli(start), open[slot], min[slot], max[slot], close[slot],
+                changes[slot]);
+    }
+
+    private int append() {
+        if (size == starts.length && size < capacity) {
+            grow(Math.min(capacity, Math.max(INITIAL_CAPACITY, size * 2)));
+        }
+        if (size < starts.length) {
+            return index(size++);
+        }
+        int slot = head;
+        head = (head + 1) % starts.length;
+        overwritten = true;
+        return slot;
+    }
+
+    /**
+     * Only called before the ring first wraps, while {@code head} is still 0.
+     */
+    private void grow(int newCapacity) {
+        starts = Arrays.copyOf(starts, newCapacity);
+        open = Arrays.copyOf(open, newCapacity);
+        min = Arrays.copyOf(min, newCapacity);
+        max = Arrays.copyOf(max, newCapacity);
+        close = Arrays.copyOf(close, newCapacity);
+        changes = Arrays.copyOf(changes, newCapacity);
+    }
+
+    private int index(int entry) {
+        return (head + entry) % starts.length;
+    }
+}
@@ -0,0 +1,68 @@
+package one.digitalinnovation.beerstock.hotkey;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.service.StripedStockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Periodically stripes beers the {@link HotKeyDetector} reports as hot and merges striped beers back once they are no
+ * longer warm, keeping at most {@code max-striped-beers} striped at a time.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class HotBeerStriper {
+
+    private final HotKeyDetector hotKeyDetector;
+
+    private final StripedStockService stripedStockService;
+
+    private final BeerRepository beerRepository;
+
+    private final int maxStripedBeers;
+
+    @Autowired
+    public HotBeerStriper(HotKeyDetector hotKeyDetector,
+                          StripedStockService stripedStockService,
+                          BeerRepository beerRepository,
+                          @Value("${beerstock.stripes.max-striped-beers}") int maxStripedBeers) {
+        this.hotKeyDetector = hotKeyDetector;
+        this.stripedStockService = stripedStockService;
+        this.beerRepository = beerRepository;
+        this.maxStripedBeers = maxStripedBeers;
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.stripes.adapt-interval-ms}")
+    public void adapt() {
+        Set<Long> warm = new HashSet<>();
+        for (HotKeyDetector.HotKey key : hotKeyDetector.warmKeys()) {
+            warm.add(key.getBeerId());
+        }
+        List<Long> stripedIds = beerRepository.findStripedIds();
+        stripedStockService.refreshStriped(stripedIds);
+        Set<Long> striped = new HashSet<>(stripedIds);
+        for (Long beerId : List.copyOf(striped)) {
+            if (!warm.contains(beerId) && stripedStockService.merge(beerId)) {
+                striped.remove(beerId);
+            }
+        }
+        for (HotKeyDetector.HotKey key : hotKeyDetector.hotKeys()) {
+            if (striped.size() >= maxStripedBeers) {
+                log.debug("Beer {} is hot but {} beers are already striped", key.getBeerId(), striped.size());
+                break;
+            }
+            if (!striped.contains(key.getBeerId()) && stripedStockService.stripe(key.getBeerId())) {
+                striped.add(key.getBeerId());
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package one.digitalinnovation.beerstock.hotkey;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.HotBeerDTO;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@code /actuator/hotbeers}: beers currently hot by write rate, with whether their stock is striped.
+ */
+@Component
+@Endpoint(id = "hotbeers")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class HotBeersEndpoint {
+
+    private final HotKeyDetector hotKeyDetector;
+
+    private final BeerRepository beerRepository;
+
+    @ReadOperation
+    public List<HotBeerDTO> hotBeers() {
+        Set<Long> striped = new HashSet<>(beerRepository.findStripedIds());
+        return hotKeyDetector.hotKeys().stream()
+                .map(key -> new HotBeerDTO(key.getBeerId(), key.getWrites(), key.getShare(),
+                        striped.contains(key.getBeerId())))
+                .collect(Collectors.toList());
+    }
+}
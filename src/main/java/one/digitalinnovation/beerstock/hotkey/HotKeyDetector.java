@@ -0,0 +1,251 @@
+package one.digitalinnovation.beerstock.hotkey;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sliding-window heavy hitters over stock writes.
+ * <p>
+ * The window is split into buckets, each a Space-Saving summary of at most {@code capacity} beer ids, so memory stays
+ * bounded however many beers are written. Counts are merged over the live buckets and judged by their guaranteed
+ * lower bound (count minus eviction error), so churn among cold ids never makes a beer look hot. A beer is hot when
+ * that bound reaches both {@code min-writes} and {@code min-share} of all writes in the window; it stays warm down to
+ * half of both, which keeps a beer near the threshold from flapping.
+ * <p>
+ * Writers never share a lock: each thread records into one of {@code stripes} independent sets of buckets, picked by
+ * thread id, and the stripes are only merged when keys are read. Lower bounds from different stripes add up to a
+ * lower bound of the total, so striping can only make a beer look cooler, never hotter.
+ */
+@Component
+public class HotKeyDetector {
+
+    private static final Comparator<HotKey> HOTTEST_FIRST = Comparator.comparingLong(HotKey::getWrites).reversed();
+
+    private final Clock clock;
+
+    private final long bucketMillis;
+
+    private final Stripe[] stripes;
+
+    private final double minShare;
+
+    private final long minWrites;
+
+    @Autowired
+    public HotKeyDetector(@Value("${beerstock.hotkeys.window-seconds}") long windowSeconds,
+                          @Value("${beerstock.hotkeys.buckets}") int buckets,
+                          @Value("${beerstock.hotkeys.capacity}") int capacity,
+                          @Value("${beerstock.hotkeys.stripes}") int stripes,
+                          @Value("${beerstock.hotkeys.min-share}") double minShare,
+                          @Value("${beerstock.hotkeys.min-writes}") long minWrites) {
+        this(Clock.systemUTC(), Duration.ofSeconds(windowSeconds), buckets, capacity, stripes, minShare, minWrites);
+    }
+
+    HotKeyDetector(Clock clock, Duration window, int buckets, int capacity, int stripes, double minShare,
+                   long minWrites) {
+        this.clock = clock;
+        this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(buckets, capacity, clock.millis() / bucketMillis);
+        }
+        this.minShare = minShare;
+        this.minWrites = minWrites;
+    }
+
+    public void record(long beerId) {
+        Stripe stripe = stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+        long bucket = clock.millis() / bucketMillis;
+        synchronized (stripe) {
+            stripe.rotate(bucket);
+            stripe.current().offer(beerId);
+        }
+    }
+
+    public List<HotKey> hotKeys() {
+        return keysAbove(minShare, minWrites);
+    }
+
+    public List<HotKey> warmKeys() {
+        return keysAbove(minShare / 2, minWrites / 2);
+    }
+
+    private List<HotKey> keysAbove(double share, long writes) {
+        long bucket = clock.millis() / bucketMillis;
+        long total = 0;
+        Map<Long, long[]> countsById = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.rotate(bucket);
+                for (SpaceSaving summary : stripe.buckets) {
+                    total += summary.total;
+                    summary.addGuaranteedCounts(countsById);
+                }
+            }
+        }
+        List<HotKey> keys = new ArrayList<>();
+        for (Map.Entry<Long, long[]> entry : countsById.entrySet()) {
+            long count = entry.getValue()[0];
+            if (count >= writes && count >= share * total) {
+                keys.add(new HotKey(entry.getKey(), count, (double) count / total));
+            }
+        }
+        keys.sort(HOTTEST_FIRST);
+        return keys;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class HotKey {
+        private final long beerId;
+        private final long writes;
+        private final double share;
+    }
+
+    /**
+     * The buckets one group of writer threads records into; guarded by its own monitor.
+     */
+    private static final class Stripe {
+
+        private final SpaceSaving[] buckets;
+
+        private long currentBucket;
+
+        Stripe(int buckets, int capacity, long currentBucket) {
+            this.buckets = new SpaceSaving[buckets];
+            for (int i = 0; i < buckets; i++) {
+                this.buckets[i] = new SpaceSaving(capacity);
+            }
+            this.currentBucket = currentBucket;
+        }
+
+        SpaceSaving current() {
+            return buckets[(int) (currentBucket % buckets.length)];
+        }
+
+        void rotate(long bucket) {
+            if (bucket <= currentBucket) {
+                return;
+            }
+            long expired = Math.min(bucket - currentBucket, buckets.length);
+            for (long i = 1; i <= expired; i++) {
+                buckets[(int) ((currentBucket + i) % buckets.length)].clear();
+            }
+            currentBucket = bucket;
+        }
+    }
+
+    /**
+     * Space-Saving summary: when full, a new id replaces the smallest counter and inherits its count as error. The
+     * counters form a binary min-heap on their count, so finding the smallest is free and every offer costs at most
+     * {@code O(log capacity)}.
+     */
+    private static final class SpaceSaving {
+
+        private final long[] ids;
+
+        private final long[] counts;
+
+        private final long[] errors;
+
+        private final Map<Long, Integer> slots;
+
+        private int size;
+
+        private long total;
+
+        SpaceSaving(int capacity) {
+            this.ids = new long[capacity];
+            this.counts = new long[capacity];
+            this.errors = new long[capacity];
+            this.slots = new HashMap<>(capacity * 2);
+        }
+
+        void offer(long id) {
+            total++;
+            Integer slot = slots.get(id);
+            if (slot != null) {
+                counts[slot]++;
+                siftDown(slot);
+                return;
+            }
+            if (size < ids.length) {
+                set(size, id, 1, 0);
+                siftUp(size++);
+                return;
+            }
+            long evicted = counts[0];
+            slots.remove(ids[0]);
+            set(0, id, evicted + 1, evicted);
+            siftDown(0);
+        }
+
+        void addGuaranteedCounts(Map<Long, long[]> countsById) {
+            for (int i = 0; i < size; i++) {
+                countsById.computeIfAbsent(ids[i], id -> new long[1])[0] += counts[i] - errors[i];
+            }
+        }
+
+        void clear() {
+            slots.clear();
+            size = 0;
+            total = 0;
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) / 2;
+                if (counts[parent] <= counts[slot]) {
+                    return;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int smallest = slot;
+                int left = 2 * slot + 1;
+                int right = left + 1;
+                if (left < size && counts[left] < counts[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && counts[right] < counts[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == slot) {
+                    return;
+                }
+                swap(slot, smallest);
+                slot = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            long count = counts[a];
+            long error = errors[a];
+            set(a, ids[b], counts[b], errors[b]);
+            set(b, id, count, error);
+        }
+
+        private void set(int slot, long id, long count, long error) {
+            ids[slot] = id;
+            counts[slot] = count;
+            errors[slot] = error;
+            slots.put(id, slot);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package one.digitalinnovation.beerstock.importer;
+
+import one.digitalinnovation.beerstock.dto.BeerImportErrorDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportJobDTO;
+import one.digitalinnovation.beerstock.enums.ImportFormat;
+import one.digitalinnovation.beerstock.enums.ImportState;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one import. Counters are written by the import's coordinator thread and read by status requests; only
+ * the first {@code maxReportedErrors} row errors are kept.
+ */
+class BeerImportJob {
+
+    private final String id;
+
+    private final String fileName;
+
+    private final ImportFormat format;
+
+    private final Instant submittedAt;
+
+    private final int maxReportedErrors;
+
+    private final AtomicLong rowsRead = new AtomicLong();
+
+    private final AtomicLong rowsImported = new AtomicLong();
+
+    private final AtomicLong rowsRejected = new AtomicLong();
+
+    private final List<BeerImportErrorDTO> errors = new ArrayList<>();
+
+    private boolean errorsTruncated;
+
+    private volatile ImportState state = ImportState.QUEUED;
+
+    private volatile Instant startedAt;
+
+    private volatile Instant finishedAt;
+
+    private volatile String failure;
+
+    BeerImportJob(String id, String fileName, ImportFormat format, Instant submittedAt, int maxReportedErrors) {
+        this.id = id;
+        this.fileName = fileName;
+        this.format = format;
+        this.submittedAt = submittedAt;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    ImportFormat getFormat() {
+        return format;
+    }
+
+    Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    void started(Instant now) {
+        startedAt = now;
+        state = ImportState.RUNNING;
+    }
+
+    void read(int rows) {
+        rowsRead.addAndGet(rows);
+    }
+
+    void imported(int rows) {
+        rowsImported.addAndGet(rows);
+    }
+
+    void rejected(BeerImportRow row) {
+        rowsRejected.incrementAndGet();
+        synchronized (errors) {
+            for (BeerImportErrorDTO error : row.getErrors()) {
+                if (errors.size() < maxReportedErrors) {
+                    errors.add(error);
+                } else {
+                    errorsTruncated = true;
+                }
+            }
+        }
+    }
+
+    void completed(Instant now) {
+        finishedAt = now;
+        state = ImportState.COMPLETED;
+    }
+
+    void failed(Instant now, String reason) {
+        failure = reason;
+        finishedAt = now;
+        state = ImportState.FAILED;
+    }
+
+    BeerImportJobDTO toDTO(Instant now) {
+        Instant started = startedAt;
+        Instant finished = finishedAt;
+        long read = rowsRead.get();
+        double rowsPerSecond = 0;
+        if (started != null) {
+            long elapsedMillis = Math.max(1, (finished != null ? finished : now).toEpochMilli() - started.toEpochMilli());
+            rowsPerSecond = read * 1000.0 / elapsedMillis;
+        }
+        List<BeerImportErrorDTO> reportedErrors;
+        boolean truncated;
+        synchronized (errors) {
+            reportedErrors = new ArrayList<>(errors);
+            truncated = errorsTruncated;
+        }
+        return BeerImportJobDTO.builder()
+                .id(id)
+                .fileName(fileName)
+                .format(format)
+                .state(state)
+                .submittedAt(submittedAt)
+                .startedAt(started)
+                .finishedAt(finished)
+                .rowsRead(read)
+                .rowsImported(rowsImported.get())
+                .rowsRejected(rowsRejected.get())
+                .rowsPerSecond(rowsPerSecond)
+                .failure(failure)
+                .errors(reportedErrors)
+                .errorsTruncated(truncated)
+                .build();
+    }
+}
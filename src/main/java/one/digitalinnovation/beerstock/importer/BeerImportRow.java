@@ -0,0 +1,134 @@
+package one.digitalinnovation.beerstock.importer;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportErrorDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * One row of an import file: the beer it describes and everything wrong with it, tagged with the line it starts on.
+ */
+class BeerImportRow {
+
+    private static final String TYPES = Arrays.stream(BeerType.values())
+            .map(BeerType::name)
+            .collect(Collectors.joining(", "));
+
+    private final long line;
+
+    private final BeerDTO beer = new BeerDTO();
+
+    private List<BeerImportErrorDTO> errors = Collections.emptyList();
+
+    private BeerImportRow(long line) {
+        this.line = line;
+    }
+
+    /**
+     * Builds the row from the raw text of each column; blank values count as missing.
+     */
+    static BeerImportRow parse(long line, UnaryOperator<String> columns) {
+        BeerImportRow row = new BeerImportRow(line);
+        row.beer.setName(blankToNull(columns.apply("name")));
+        row.beer.setBrand(blankToNull(columns.apply("brand")));
+        row.beer.setMax(row.parseInteger("max", columns.apply("max")));
+        row.beer.setQuantity(row.parseInteger("quantity", columns.apply("quantity")));
+        row.beer.setType(row.parseType(columns.apply("type")));
+        return row;
+    }
+
+    static BeerImportRow unreadable(long line, String message) {
+        BeerImportRow row = new BeerImportRow(line);
+        row.reject(null, message);
+        return row;
+    }
+
+    /**
+     * Runs {@code validator} over the beer. Fields that could not be parsed already carry an error and are not
+     * reported a second time as missing.
+     */
+    void validate(Validator validator) {
+        if (isUnreadable()) {
+            return;
+        }
+        Errors result = new BeanPropertyBindingResult(beer, "beerDTO");
+        validator.validate(beer, result);
+        for (FieldError error : result.getFieldErrors()) {
+            if (!hasError(error.getField())) {
+                reject(error.getField(), error.getDefaultMessage());
+            }
+        }
+    }
+
+    void reject(String field, String message) {
+        if (errors.isEmpty()) {
+            errors = new ArrayList<>(2);
+        }
+        errors.add(new BeerImportErrorDTO(line, field, message));
+    }
+
+    boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    long getLine() {
+        return line;
+    }
+
+    BeerDTO getBeer() {
+        return beer;
+    }
+
+    List<BeerImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    private boolean isUnreadable() {
+        return errors.stream().anyMatch(error -> error.getField() == null);
+    }
+
+    private boolean hasError(String field) {
+        return errors.stream().anyMatch(error -> field.equals(error.getField()));
+    }
+
+    private Integer parseInteger(String field, String value) {
+        String trimmed = blankToNull(value);
+        if (trimmed == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(trimmed.trim());
+        } catch (NumberFormatException e) {
+            reject(field, "must be a whole number");
+            return null;
+        }
+    }
+
+    private BeerType parseType(String value) {
+        String trimmed = blankToNull(value);
+        if (trimmed == null) {
+            return null;
+        }
+        try {
+            return BeerType.valueOf(trimmed.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            reject("type", "must be one of " + TYPES);
+            return null;
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value;
+    }
+}
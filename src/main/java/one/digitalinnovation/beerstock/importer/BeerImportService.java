@@ -0,0 +1,281 @@
+package one.digitalinnovation.beerstock.importer;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportJobDTO;
+import one.digitalinnovation.beerstock.enums.ImportFormat;
+import one.digitalinnovation.beerstock.exception.BeerImportJobNotFoundException;
+import one.digitalinnovation.beerstock.exception.UnsupportedImportFormatException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.validation.BeerDTOValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.Validator;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Imports supplier catalog files in bulk.
+ * <p>
+ * {@link #start} is called on the request thread and only moves the stored upload into the spool directory. The upload
+ * is kept on disk and parsed as a stream by a single coordinator on {@code beerImportExecutor}, in batches
+ * of {@code batch-size} rows. While the coordinator reads the next batch, the current one is validated in parallel
+ * slices on {@code beerImportValidationExecutor}; then its names are checked against the catalog with one query and
+ * the new beers are inserted in one transaction. A batch that loses a race with a concurrent create is retried row
+ * by row, so only the conflicting rows are rejected. Jobs live in memory; the most recent {@code retained-jobs}
+ * finished ones are kept for their status.
+ */
+@Slf4j
+@Service
+public class BeerImportService {
+
+    private final BeerRepository beerRepository;
+
+    private final BeerImportWriter beerImportWriter;
+
+    private final Executor beerImportExecutor;
+
+    private final Executor beerImportValidationExecutor;
+
+    private final Path spoolDirectory;
+
+    private final int batchSize;
+
+    private final int parallelism;
+
+    private final int maxReportedErrors;
+
+    private final int retainedJobs;
+
+    private final Clock clock;
+
+    private final Validator validator = new BeerDTOValidator();
+
+    private final Map<String, BeerImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BeerImportService(BeerRepository beerRepository,
+                             BeerImportWriter beerImportWriter,
+                             Executor beerImportExecutor,
+                             Executor beerImportValidationExecutor,
+                             @Value("${beerstock.import.spool-dir}") String spoolDirectory,
+                             @Value("${beerstock.import.batch-size}") int batchSize,
+                             @Value("${beerstock.import.validation-threads}") int parallelism,
+                             @Value("${beerstock.import.max-reported-errors}") int maxReportedErrors,
+                             @Value("${beerstock.import.retained-jobs}") int retainedJobs) {
+        this(beerRepository, beerImportWriter, beerImportExecutor, beerImportValidationExecutor,
+                Paths.get(spoolDirectory), batchSize, parallelism, maxReportedErrors, retainedJobs, Clock.systemUTC());
+    }
+
+    BeerImportService(BeerRepository beerRepository,
+                      BeerImportWriter beerImportWriter,
+                      Executor beerImportExecutor,
+                      Executor beerImportValidationExecutor,
+                      Path spoolDirectory,
+                      int batchSize,
+                      int parallelism,
+                      int maxReportedErrors,
+                      int retainedJobs,
+                      Clock clock) {
+        this.beerRepository = beerRepository;
+        this.beerImportWriter = beerImportWriter;
+        this.beerImportExecutor = beerImportExecutor;
+        this.beerImportValidationExecutor = beerImportValidationExecutor;
+        this.spoolDirectory = spoolDirectory;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.maxReportedErrors = maxReportedErrors;
+        this.retainedJobs = retainedJobs;
+        this.clock = clock;
+    }
+
+    /**
+     * Queues an import of {@code file}, read as {@code format} or, when that is {@code null}, as the format its name
+     * or content type suggests. Throws {@link RejectedExecutionException} when too many imports are already queued.
+     */
+    public BeerImportJobDTO start(MultipartFile file, ImportFormat format) throws UnsupportedImportFormatException, IOException {
+        ImportFormat importFormat = format != null ? format : ImportFormat.detect(file.getOriginalFilename(), file.getContentType());
+        if (importFormat == null) {
+            throw new UnsupportedImportFormatException(file.getOriginalFilename());
+        }
+        Files.createDirectories(spoolDirectory);
+        Path spooled = Files.createTempFile(spoolDirectory, "import-", importFormat.getExtensions()[0]);
+        // Through File rather than Path: the container then moves the part it already stored instead of copying it.
+        file.transferTo(spooled.toFile());
+
+        BeerImportJob job = new BeerImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), importFormat,
+                clock.instant(), maxReportedErrors);
+        jobs.put(job.getId(), job);
+        try {
+            beerImportExecutor.execute(() -> run(job, spooled));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        forgetOldJobs();
+        return job.toDTO(clock.instant());
+    }
+
+    public BeerImportJobDTO status(String jobId) throws BeerImportJobNotFoundException {
+        BeerImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new BeerImportJobNotFoundException(jobId);
+        }
+        return job.toDTO(clock.instant());
+    }
+
+    void run(BeerImportJob job, Path file) {
+        job.started(clock.instant());
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            BeerRowReader rows = BeerRowReader.open(job.getFormat(), reader);
+            CompletableFuture<List<BeerImportRow>> validating = null;
+            List<BeerImportRow> batch;
+            while (!(batch = readBatch(rows, job)).isEmpty()) {
+                CompletableFuture<List<BeerImportRow>> next = validate(batch);
+                if (validating != null) {
+                    write(validating.join(), job);
+                }
+                validating = next;
+            }
+            if (validating != null) {
+                write(validating.join(), job);
+            }
+            job.completed(clock.instant());
+            BeerImportJobDTO result = job.toDTO(clock.instant());
+            log.info("Import {} of {} finished: {} rows read, {} imported, {} rejected ({} rows/s)", job.getId(),
+                    result.getFileName(), result.getRowsRead(), result.getRowsImported(), result.getRowsRejected(),
+                    Math.round(result.getRowsPerSecond()));
+        } catch (IOException | RuntimeException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.warn("Import {} failed", job.getId(), cause);
+            job.failed(clock.instant(), cause.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled import file {}", file, e);
+            }
+        }
+    }
+
+    private List<BeerImportRow> readBatch(BeerRowReader rows, BeerImportJob job) throws IOException {
+        List<BeerImportRow> batch = new ArrayList<>(batchSize);
+        BeerImportRow row;
+        while (batch.size() < batchSize && (row = rows.next()) != null) {
+            batch.add(row);
+        }
+        job.read(batch.size());
+        return batch;
+    }
+
+    /**
+     * Validates the batch in {@code parallelism} slices; the returned future completes with the batch itself.
+     */
+    private CompletableFuture<List<BeerImportRow>> validate(List<BeerImportRow> batch) {
+        int sliceSize = (batch.size() + parallelism - 1) / parallelism;
+        List<CompletableFuture<Void>> slices = new ArrayList<>(parallelism);
+        for (int from = 0; from < batch.size(); from += sliceSize) {
+            List<BeerImportRow> slice = batch.subList(from, Math.min(batch.size(), from + sliceSize));
+            slices.add(CompletableFuture.runAsync(() -> slice.forEach(row -> row.validate(validator)),
+                    beerImportValidationExecutor));
+        }
+        return CompletableFuture.allOf(slices.toArray(new CompletableFuture[0])).thenApply(done -> batch);
+    }
+
+    private void write(List<BeerImportRow> batch, BeerImportJob job) {
+        List<BeerImportRow> candidates = new ArrayList<>(batch.size());
+        Set<String> names = new HashSet<>();
+        for (BeerImportRow row : batch) {
+            if (!row.isValid()) {
+                continue;
+            }
+            if (names.add(row.getBeer().getName())) {
+                candidates.add(row);
+            } else {
+                row.reject("name", String.format("Beer with name %s appears more than once in the file.",
+                        row.getBeer().getName()));
+            }
+        }
+
+        Set<String> existingNames = names.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(beerRepository.findNamesIn(names));
+        List<BeerImportRow> newRows = new ArrayList<>(candidates.size());
+        for (BeerImportRow row : candidates) {
+            if (existingNames.contains(row.getBeer().getName())) {
+                rejectAsRegistered(row);
+            } else {
+                newRows.add(row);
+            }
+        }
+        insert(newRows, job);
+
+        for (BeerImportRow row : batch) {
+            if (!row.isValid()) {
+                job.rejected(row);
+            }
+        }
+    }
+
+    private void insert(List<BeerImportRow> rows, BeerImportJob job) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            beerImportWriter.insert(rows.stream().map(BeerImportRow::getBeer).collect(Collectors.toList()));
+            job.imported(rows.size());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Import {} batch conflicted with a concurrent write; inserting its rows one by one", job.getId());
+            for (BeerImportRow row : rows) {
+                try {
+                    beerImportWriter.insert(Collections.singletonList(row.getBeer()));
+                    job.imported(1);
+                } catch (DataIntegrityViolationException conflict) {
+                    rejectAsRegistered(row);
+                }
+            }
+        }
+    }
+
+    private void forgetOldJobs() {
+        int finishedToForget = jobs.size() - retainedJobs;
+        if (finishedToForget <= 0) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.getFinishedAt() != null)
+                .sorted(Comparator.comparing(BeerImportJob::getFinishedAt))
+                .limit(finishedToForget)
+                .map(BeerImportJob::getId)
+                .collect(Collectors.toList())
+                .forEach(jobs::remove);
+    }
+
+    private static void rejectAsRegistered(BeerImportRow row) {
+        row.reject("name", String.format("Beer with name %s already registered in the system.", row.getBeer().getName()));
+    }
+}
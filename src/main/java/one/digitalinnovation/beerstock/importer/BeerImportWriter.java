@@ -0,0 +1,44 @@
+package one.digitalinnovation.beerstock.importer;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Inserts a batch of imported beers in one transaction. The inserts go out in JDBC batches, and every beer publishes
+ * the same {@link BeerChangedEvent} as {@code BeerService.createBeer}, so the outbox, the name index, the statistics
+ * and the caches see imported beers like any other.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerImportWriter {
+
+    private final BeerRepository beerRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ChangeVersionSequence changeVersions;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Transactional
+    public void insert(List<BeerDTO> beerDTOs) {
+        List<Beer> beers = beerDTOs.stream()
+                .map(beerMapper::toModel)
+                .collect(Collectors.toList());
+        for (Beer savedBeer : beerRepository.saveAll(beers)) {
+            eventPublisher.publishEvent(BeerChangedEvent.created(savedBeer, changeVersions.transactionVersion()));
+        }
+    }
+}
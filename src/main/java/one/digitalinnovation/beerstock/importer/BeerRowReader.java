@@ -0,0 +1,29 @@
+package one.digitalinnovation.beerstock.importer;
+
+import one.digitalinnovation.beerstock.enums.ImportFormat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads an import file one row at a time, so a file of any size is parsed in constant memory.
+ */
+interface BeerRowReader {
+
+    /**
+     * Returns the next row, or {@code null} at the end of the file. Rows that cannot be understood come back with an
+     * error; only a file that cannot be read at all throws.
+     */
+    BeerImportRow next() throws IOException;
+
+    static BeerRowReader open(ImportFormat format, BufferedReader reader) {
+        switch (format) {
+            case CSV:
+                return new CsvBeerRowReader(reader);
+            case NDJSON:
+                return new NdjsonBeerRowReader(reader);
+            default:
+                throw new IllegalArgumentException("No reader for " + format);
+        }
+    }
+}
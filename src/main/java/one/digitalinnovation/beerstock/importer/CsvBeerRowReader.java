@@ -0,0 +1,136 @@
+package one.digitalinnovation.beerstock.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * RFC 4180 CSV: comma-separated fields, optionally double-quoted, with {@code ""} for a quote inside a quoted field,
+ * which may also span lines. The first record is a header naming the columns, in any order; unknown columns are
+ * ignored, and a file naming one of the read columns twice is refused. A record with fewer fields than the header is
+ * rejected on its own. Blank lines are skipped.
+ */
+class CsvBeerRowReader implements BeerRowReader {
+
+    private static final List<String> COLUMNS = Arrays.asList("name", "brand", "max", "quantity", "type");
+
+    private final BufferedReader reader;
+
+    private Map<String, Integer> columnIndexes;
+
+    private int headerFields;
+
+    private long line;
+
+    CsvBeerRowReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public BeerImportRow next() throws IOException {
+        if (columnIndexes == null) {
+            readHeader();
+        }
+        List<String> fields;
+        long recordLine;
+        do {
+            recordLine = line + 1;
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).trim().isEmpty());
+
+        if (fields.size() < headerFields) {
+            return BeerImportRow.unreadable(recordLine, String.format("expected %d fields but found %d",
+                    headerFields, fields.size()));
+        }
+        List<String> values = fields;
+        return BeerImportRow.parse(recordLine, column -> {
+            Integer index = columnIndexes.get(column);
+            return index == null ? null : values.get(index);
+        });
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IOException("CSV file is empty; it needs a header row naming the columns " + COLUMNS);
+        }
+        Map<String, Integer> indexes = new HashMap<>();
+        Set<String> repeated = new TreeSet<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (i == 0 && column.startsWith("\uFEFF")) {
+                column = column.substring(1);
+            }
+            if (indexes.putIfAbsent(column, i) != null && COLUMNS.contains(column)) {
+                repeated.add(column);
+            }
+        }
+        if (!repeated.isEmpty()) {
+            throw new IOException("CSV header repeats the columns " + repeated);
+        }
+        List<String> missing = COLUMNS.stream().filter(column -> !indexes.containsKey(column)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new IOException("CSV header is missing the columns " + missing);
+        }
+        columnIndexes = indexes;
+        headerFields = header.size();
+    }
+
+    /**
+     * Reads one record, or returns {@code null} at the end of the file.
+     */
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            read = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!read) {
+            return null;
+        }
+        line++;
+        fields.add(field.toString());
+        return fields;
+    }
+}
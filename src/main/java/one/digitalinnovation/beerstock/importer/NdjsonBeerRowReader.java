@@ -0,0 +1,52 @@
+package one.digitalinnovation.beerstock.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Newline-delimited JSON: one object per line with the {@code BeerDTO} properties. Blank lines are skipped; a line
+ * that is not a JSON object is rejected on its own.
+ */
+class NdjsonBeerRowReader implements BeerRowReader {
+
+    private static final ObjectReader JSON = new ObjectMapper().readerFor(JsonNode.class);
+
+    private final BufferedReader reader;
+
+    private long line;
+
+    NdjsonBeerRowReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public BeerImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.trim().isEmpty());
+
+        JsonNode node;
+        try {
+            node = JSON.readValue(text);
+        } catch (JsonProcessingException e) {
+            return BeerImportRow.unreadable(line, "malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return BeerImportRow.unreadable(line, "must be a JSON object");
+        }
+        return BeerImportRow.parse(line, column -> {
+            JsonNode value = node.get(column);
+            return value == null || value.isNull() ? null : value.asText();
+        });
+    }
+}
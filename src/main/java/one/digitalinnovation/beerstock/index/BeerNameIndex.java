@@ -0,0 +1,256 @@
+package one.digitalinnovation.beerstock.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trie of normalized beer names (lower case, accents stripped, whitespace collapsed) mapped to beer ids.
+ * <p>
+ * Serves case-insensitive exact lookups, prefix lookups and typo-tolerant prefix lookups without touching the
+ * database. Typo tolerance walks the trie with a Levenshtein row per node and prunes every branch whose best
+ * distance already exceeds the budget, so a lookup only visits the few paths close to the query.
+ */
+@Component
+public class BeerNameIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final int FUZZY_CANDIDATES_PER_RESULT = 4;
+
+    private static final Comparator<Match> BEST_FIRST = Comparator.comparingInt(Match::getDistance)
+            .thenComparingInt(match -> match.getName().length())
+            .thenComparing(Match::getName);
+
+    private final Node root = new Node();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public static String normalize(String name) {
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        String withoutAccents = DIACRITICS.matcher(decomposed).replaceAll("");
+        return WHITESPACE.matcher(withoutAccents.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    public void add(long id, String name) {
+        String key = normalize(name);
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+            }
+            node.add(new Match(id, name, 0));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id, String name) {
+        String key = normalize(name);
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node != null) {
+                node.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the id of the only beer whose normalized name equals the normalized {@code name}; empty when there is
+     * no such beer or when the normalized name is ambiguous.
+     */
+    public Optional<Long> findExact(String name) {
+        String key = normalize(name);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null || node.entryCount != 1) {
+                return Optional.empty();
+            }
+            return Optional.of(node.entries[0].getId());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Match> findByPrefix(String prefix, int limit) {
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            List<Match> matches = new ArrayList<>();
+            if (node != null) {
+                collect(node, 0, limit, matches);
+            }
+            matches.sort(BEST_FIRST);
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns beers whose normalized name starts with the normalized {@code query}, followed, when those are fewer than
+     * {@code limit}, by beers whose name starts with something within {@code maxDistance} edits of it, closest first.
+     * The edit budget never exceeds the query length minus one, so one- or two-letter queries stay plain prefix
+     * lookups instead of matching the whole catalog.
+     */
+    public List<Match> suggest(String query, int maxDistance, int limit) {
+        List<Match> matches = findByPrefix(query, limit);
+        String key = normalize(query);
+        int budget = Math.min(maxDistance, key.length() - 1);
+        if (matches.size() >= limit || budget <= 0) {
+            return matches;
+        }
+        int[] firstRow = new int[key.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+        List<Match> fuzzyMatches = new ArrayList<>();
+        int cap = limit * FUZZY_CANDIDATES_PER_RESULT;
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < root.childCount && fuzzyMatches.size() < cap; i++) {
+                suggest(root.children[i], root.labels[i], key, firstRow, budget, cap, fuzzyMatches);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        fuzzyMatches.sort(BEST_FIRST);
+        int exactMatches = matches.size();
+        for (int i = 0; i < fuzzyMatches.size() && matches.size() < limit; i++) {
+            if (!containsId(matches, exactMatches, fuzzyMatches.get(i).getId())) {
+                matches.add(fuzzyMatches.get(i));
+            }
+        }
+        return matches;
+    }
+
+    private void suggest(Node node, char label, String key, int[] previousRow, int budget, int cap,
+                         List<Match> matches) {
+        int[] row = new int[previousRow.length];
+        row[0] = previousRow[0] + 1;
+        int best = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int substitution = previousRow[i - 1] + (key.charAt(i - 1) == label ? 0 : 1);
+            row[i] = Math.min(substitution, Math.min(row[i - 1] + 1, previousRow[i] + 1));
+            best = Math.min(best, row[i]);
+        }
+        int distance = row[row.length - 1];
+        if (distance == 0) {
+            return;
+        }
+        if (distance <= budget) {
+            collect(node, distance, cap, matches);
+            return;
+        }
+        if (best > budget) {
+            return;
+        }
+        for (int i = 0; i < node.childCount && matches.size() < cap; i++) {
+            suggest(node.children[i], node.labels[i], key, row, budget, cap, matches);
+        }
+    }
+
+    private static boolean containsId(List<Match> matches, int count, long id) {
+        for (int i = 0; i < count; i++) {
+            if (matches.get(i).getId() == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void collect(Node node, int distance, int limit, List<Match> matches) {
+        for (int i = 0; i < node.entryCount && matches.size() < limit; i++) {
+            Match entry = node.entries[i];
+            matches.add(distance == 0 ? entry : new Match(entry.getId(), entry.getName(), distance));
+        }
+        for (int i = 0; i < node.childCount && matches.size() < limit; i++) {
+            collect(node.children[i], distance, limit, matches);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Match {
+        private final long id;
+        private final String name;
+        private final int distance;
+    }
+
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private Match[] entries = new Match[0];
+        private int entryCount;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, 0, childCount, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, 0, childCount, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            if (childCount == labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(2, childCount * 2));
+                children = Arrays.copyOf(children, labels.length);
+            }
+            System.arraycopy(labels, insertAt, labels, insertAt + 1, childCount - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, childCount - insertAt);
+            Node child = new Node();
+            labels[insertAt] = label;
+            children[insertAt] = child;
+            childCount++;
+            return child;
+        }
+
+        void add(Match entry) {
+            remove(entry.getId());
+            if (entryCount == entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(1, entryCount * 2));
+            }
+            entries[entryCount++] = entry;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < entryCount; i++) {
+                if (entries[i].getId() == id) {
+                    System.arraycopy(entries, i + 1, entries, i, entryCount - i - 1);
+                    entries[--entryCount] = null;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package one.digitalinnovation.beerstock.index;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import one.digitalinnovation.beerstock.dto.BeerChangeDTO;
+import one.digitalinnovation.beerstock.dto.BeerChangesDTO;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.service.BeerChangeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the {@link BeerNameIndex} in sync with the catalog: indexes every beer once the application is ready and
+ * then follows the change feed, which covers the creations and deletions of every node. Committed events of this node
+ * are applied as well, so its own changes show up without waiting for the next poll.
+ * <p>
+ * The load reads the stable change version before walking the beers and the feed is followed from there, so a beer
+ * deleted after its page was read, whose event may have arrived before the load indexed it, is dropped again by the
+ * feed's tombstone as soon as the load is done. Deleted beers are removed by id, so the name every indexed beer was
+ * indexed under is kept in {@link #names}.
+ * <p>
+ * Never initialized lazily, otherwise its {@link Scheduled} method would not be registered until something else
+ * happened to request the bean.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class BeerNameIndexUpdater {
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private static final int FEED_PAGE_SIZE = 1000;
+
+    private static final long NOT_LOADED = -1;
+
+    private final BeerRepository beerRepository;
+
+    private final BeerNameIndex beerNameIndex;
+
+    private final BeerChangeService beerChangeService;
+
+    private final ChangeVersionSequence changeVersions;
+
+    private final Map<Long, String> names = new HashMap<>();
+
+    private volatile long feedVersion = NOT_LOADED;
+
+    @Autowired
+    public BeerNameIndexUpdater(BeerRepository beerRepository,
+                                BeerNameIndex beerNameIndex,
+                                BeerChangeService beerChangeService,
+                                ChangeVersionSequence changeVersions) {
+        this.beerRepository = beerRepository;
+        this.beerNameIndex = beerNameIndex;
+        this.beerChangeService = beerChangeService;
+        this.changeVersions = changeVersions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long stableVersion = changeVersions.stableVersion();
+        long indexed = beerRepository.forEachInIdOrder(LOAD_PAGE_SIZE, beer -> add(beer.getId(), beer.getName()));
+        log.info("Indexed {} beer names", indexed);
+        feedVersion = stableVersion;
+        follow();
+    }
+
+    /**
+     * Applies the changes committed since the last poll, on any node.
+     */
+    @Scheduled(fixedDelayString = "${beerstock.index.follow-ms}")
+    public synchronized void follow() {
+        if (feedVersion == NOT_LOADED) {
+            return;
+        }
+        BeerChangesDTO page;
+        do {
+            page = beerChangeService.changesSince(feedVersion, FEED_PAGE_SIZE);
+            for (BeerChangeDTO change : page.getChanges()) {
+                if (change.isDeleted()) {
+                    remove(change.getId());
+                } else {
+                    add(change.getId(), change.getBeer().getName());
+                }
+            }
+            feedVersion = page.getNextSince();
+        } while (page.isHasMore());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        if (event.getKind() == BeerChangedEvent.Kind.CREATED) {
+            add(event.getBeerId(), event.getName());
+        } else if (event.getKind() == BeerChangedEvent.Kind.DELETED) {
+            remove(event.getBeerId());
+        }
+    }
+
+    /**
+     * Changes {@link #names} and the index together, so a removal racing an addition never leaves one without the
+     * other.
+     */
+    private void add(Long id, String name) {
+        synchronized (names) {
+            if (names.putIfAbsent(id, name) == null) {
+                beerNameIndex.add(id, name);
+            }
+        }
+    }
+
+    private void remove(Long id) {
+        synchronized (names) {
+            String name = names.remove(id);
+            if (name != null) {
+                beerNameIndex.remove(id, name);
+            }
+        }
+    }
+}
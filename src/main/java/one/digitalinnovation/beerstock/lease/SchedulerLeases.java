@@ -0,0 +1,65 @@
+package one.digitalinnovation.beerstock.lease;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.repository.SchedulerLeaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Database leases for scheduled jobs that every node schedules but only one may run at a time. A node holds a lease
+ * until it expires or is released and extends it by taking it again; a node that dies simply lets it expire.
+ * <p>
+ * Expiry is compared against each node's own clock, so leases must be much longer than the clock skew between nodes.
+ */
+@Slf4j
+@Component
+public class SchedulerLeases {
+
+    private final SchedulerLeaseRepository leaseRepository;
+
+    private final String nodeId;
+
+    private final Clock clock;
+
+    @Autowired
+    public SchedulerLeases(SchedulerLeaseRepository leaseRepository, @Value("${beerstock.node-id}") String nodeId) {
+        this(leaseRepository, nodeId, Clock.systemUTC());
+    }
+
+    SchedulerLeases(SchedulerLeaseRepository leaseRepository, String nodeId, Clock clock) {
+        this.leaseRepository = leaseRepository;
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes the lease for {@code duration}, or extends it when this node already holds it; returns {@code false}
+     * when another node holds it.
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        Instant now = clock.instant();
+        if (leaseRepository.tryLock(name, nodeId, now, now.plus(duration)) == 1) {
+            return true;
+        }
+        if (leaseRepository.existsById(name)) {
+            return false;
+        }
+        try {
+            leaseRepository.insert(name, nodeId, now.plus(duration));
+            log.info("Node {} took the new {} lease", nodeId, name);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        leaseRepository.unlock(name, nodeId, clock.instant());
+    }
+}
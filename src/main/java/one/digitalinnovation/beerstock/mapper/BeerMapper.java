@@ -2,15 +2,22 @@ package one.digitalinnovation.beerstock.mapper;
 
 import one.digitalinnovation.beerstock.dto.BeerDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import org.mapstruct.DecoratedWith;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
+@DecoratedWith(TracingBeerMapperDecorator.class)
 public interface BeerMapper {
 
     BeerMapper INSTANCE = Mappers.getMapper(BeerMapper.class);
 
+    @Mapping(target = "stripes", ignore = true)
+    @Mapping(target = "stripedQuantity", ignore = true)
+    @Mapping(target = "changeVersion", ignore = true)
     Beer toModel(BeerDTO beerDTO);
 
+    @Mapping(target = "quantity", source = "totalQuantity")
     BeerDTO toDTO(Beer beer);
 }
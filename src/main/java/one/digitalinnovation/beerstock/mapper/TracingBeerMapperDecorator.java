@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.tracing.SpanScope;
+import one.digitalinnovation.beerstock.tracing.Tracing;
+
+/**
+ * Puts each mapping in a span; MapStruct returns this decorator from {@link BeerMapper#INSTANCE}.
+ */
+public abstract class TracingBeerMapperDecorator implements BeerMapper {
+
+    private final BeerMapper delegate;
+
+    public TracingBeerMapperDecorator(BeerMapper delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Beer toModel(BeerDTO beerDTO) {
+        try (SpanScope span = Tracing.span("BeerMapper.toModel")) {
+            return delegate.toModel(beerDTO);
+        }
+    }
+
+    @Override
+    public BeerDTO toDTO(Beer beer) {
+        try (SpanScope span = Tracing.span("BeerMapper.toDTO")) {
+            return delegate.toDTO(beer);
+        }
+    }
+}
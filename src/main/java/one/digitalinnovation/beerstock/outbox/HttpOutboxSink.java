@@ -0,0 +1,47 @@
+package one.digitalinnovation.beerstock.outbox;
+
+import one.digitalinnovation.beerstock.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Posts each batch as a JSON array to an HTTP endpoint; any non-2xx answer fails the batch.
+ */
+@Component
+@ConditionalOnProperty(name = "beerstock.outbox.sink", havingValue = "http")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final RestTemplate restTemplate;
+
+    private final String url;
+
+    public HttpOutboxSink(RestTemplateBuilder restTemplateBuilder,
+                          @Value("${beerstock.outbox.http.url}") String url,
+                          @Value("${beerstock.outbox.http.timeout-ms}") long timeoutMs) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(timeoutMs))
+                .setReadTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        this.url = url;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        String body = events.stream()
+                .map(OutboxEvent::getPayload)
+                .collect(Collectors.joining(",", "[", "]"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity(url, new HttpEntity<>(body, headers), Void.class);
+    }
+}
@@ -0,0 +1,154 @@
+package one.digitalinnovation.beerstock.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.entity.OutboxEvent;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.lease.SchedulerLeases;
+import one.digitalinnovation.beerstock.repository.BeerLedgerTotal;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the outbox from growing forever. Events dispatched more than {@code retention-days} ago are folded, per beer,
+ * into a single {@link BeerChangedEvent.Kind#BASELINE BASELINE} row carrying the sum of their deltas together with
+ * the beer's previous baseline, so the ledger {@link one.digitalinnovation.beerstock.reconciliation.StockCorrector}
+ * checks stock against adds up to the same total before and after. {@link BeerChangedEvent.Kind#RECONCILED
+ * RECONCILED} rows are left out of the ledger and are simply dropped; beers that no longer exist keep no baseline.
+ * <p>
+ * The sum, the delete and the new baseline of a chunk of beers commit together, and only dispatched rows older than
+ * the cutoff are touched, which new events never are. Only the node holding the {@value #LEASE} lease compacts.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class OutboxCompactor {
+
+    static final String LEASE = "outbox-compactor";
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final BeerRepository beerRepository;
+
+    private final SchedulerLeases leases;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Clock clock;
+
+    private final Duration retention;
+
+    private final int chunkSize;
+
+    private final Duration leaseDuration;
+
+    @Autowired
+    public OutboxCompactor(OutboxEventRepository outboxEventRepository,
+                           BeerRepository beerRepository,
+                           SchedulerLeases leases,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${beerstock.outbox.retention-days}") int retentionDays,
+                           @Value("${beerstock.outbox.compaction-chunk-size}") int chunkSize,
+                           @Value("${beerstock.outbox.lease-ms}") long leaseMs) {
+        this(outboxEventRepository, beerRepository, leases, new TransactionTemplate(transactionManager),
+                Clock.systemUTC(), Duration.ofDays(retentionDays), chunkSize, Duration.ofMillis(leaseMs));
+    }
+
+    OutboxCompactor(OutboxEventRepository outboxEventRepository,
+                    BeerRepository beerRepository,
+                    SchedulerLeases leases,
+                    TransactionTemplate transactionTemplate,
+                    Clock clock,
+                    Duration retention,
+                    int chunkSize,
+                    Duration leaseDuration) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.beerRepository = beerRepository;
+        this.leases = leases;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.leaseDuration = leaseDuration;
+    }
+
+    /**
+     * Folds every beer with events dispatched before the cutoff, a chunk of beers per transaction; returns the number
+     * of rows removed.
+     */
+    @Scheduled(cron = "${beerstock.outbox.compaction-cron}")
+    public int compact() {
+        if (!leases.tryAcquire(LEASE, leaseDuration)) {
+            return 0;
+        }
+        try {
+            Instant cutoff = clock.instant().minus(retention);
+            int removed = 0;
+            long lastBeerId = 0;
+            while (true) {
+                List<Long> chunk = outboxEventRepository.findBeerIdsDispatchedBefore(lastBeerId, cutoff,
+                        BeerChangedEvent.Kind.BASELINE, PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                Integer folded = transactionTemplate.execute(status -> fold(chunk, cutoff));
+                removed += folded == null ? 0 : folded;
+                lastBeerId = chunk.get(chunk.size() - 1);
+                if (chunk.size() < chunkSize || !leases.tryAcquire(LEASE, leaseDuration)) {
+                    break;
+                }
+            }
+            if (removed > 0) {
+                log.info("Folded {} outbox rows dispatched before {} into per-beer baselines", removed, cutoff);
+            }
+            return removed;
+        } finally {
+            leases.release(LEASE);
+        }
+    }
+
+    private int fold(List<Long> beerIds, Instant cutoff) {
+        List<BeerLedgerTotal> totals = outboxEventRepository.sumFoldableDeltasByBeerId(beerIds, cutoff,
+                BeerChangedEvent.Kind.RECONCILED, BeerChangedEvent.Kind.BASELINE);
+        Set<Long> existing = new HashSet<>(beerRepository.findIdsIn(beerIds));
+        int deleted = outboxEventRepository.deleteFoldable(beerIds, cutoff, BeerChangedEvent.Kind.BASELINE);
+
+        Instant now = clock.instant();
+        List<OutboxEvent> baselines = new ArrayList<>(totals.size());
+        for (BeerLedgerTotal total : totals) {
+            if (existing.contains(total.getBeerId())) {
+                baselines.add(baseline(total, now));
+            }
+        }
+        outboxEventRepository.saveAll(baselines);
+        return deleted - baselines.size();
+    }
+
+    private static OutboxEvent baseline(BeerLedgerTotal total, Instant now) {
+        String payload = String.format("{\"kind\":\"%s\",\"beerId\":%d,\"delta\":%d}",
+                BeerChangedEvent.Kind.BASELINE, total.getBeerId(), total.getQuantity());
+        return new OutboxEvent(null,
+                total.getBeerId(),
+                BeerChangedEvent.Kind.BASELINE,
+                Math.toIntExact(total.getQuantity()),
+                payload,
+                now,
+                0,
+                now);
+    }
+}
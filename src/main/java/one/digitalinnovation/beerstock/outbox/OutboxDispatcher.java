@@ -0,0 +1,172 @@
+package one.digitalinnovation.beerstock.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.entity.OutboxEvent;
+import one.digitalinnovation.beerstock.lease.SchedulerLeases;
+import one.digitalinnovation.beerstock.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drains pending {@link OutboxEvent}s to the configured {@link OutboxSink} in id order, off the request path.
+ * <p>
+ * Each run sends at most {@code max-batches-per-run} batches, so a backlog never monopolises the scheduler thread,
+ * and always starts from the oldest undispatched event. A failing batch stops the run and backs the whole dispatcher
+ * off exponentially, so newer events never overtake it and a struggling sink is left alone until the backoff ends.
+ * Only the node holding the {@value #LEASE} lease dispatches; it keeps the lease while it polls, and another node
+ * takes over once it stops renewing it. Dispatched rows are kept, stamped with {@code dispatchedAt}, as the stock
+ * movement log until {@link OutboxCompactor} folds them into per-beer baselines.
+ * <p>
+ * Never initialized lazily, otherwise its {@link Scheduled} method would not be registered until something else
+ * happened to request the bean.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class OutboxDispatcher {
+
+    static final String LEASE = "outbox-dispatcher";
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxSink sink;
+
+    private final SchedulerLeases leases;
+
+    private final Clock clock;
+
+    private final int batchSize;
+
+    private final int maxBatchesPerRun;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private final Duration leaseDuration;
+
+    private final Counter dispatchedEvents;
+
+    private final Counter failedBatches;
+
+    private final Timer sinkLatency;
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private final AtomicReference<Instant> retryAt = new AtomicReference<>(Instant.MIN);
+
+    @Autowired
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            OutboxSink sink,
+                            SchedulerLeases leases,
+                            MeterRegistry meterRegistry,
+                            @Value("${beerstock.outbox.batch-size}") int batchSize,
+                            @Value("${beerstock.outbox.max-batches-per-run}") int maxBatchesPerRun,
+                            @Value("${beerstock.outbox.initial-backoff-ms}") long initialBackoffMs,
+                            @Value("${beerstock.outbox.max-backoff-ms}") long maxBackoffMs,
+                            @Value("${beerstock.outbox.lease-ms}") long leaseMs) {
+        this(outboxEventRepository, sink, leases, meterRegistry, Clock.systemUTC(), batchSize, maxBatchesPerRun,
+                Duration.ofMillis(initialBackoffMs), Duration.ofMillis(maxBackoffMs), Duration.ofMillis(leaseMs));
+    }
+
+    OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                     OutboxSink sink,
+                     SchedulerLeases leases,
+                     MeterRegistry meterRegistry,
+                     Clock clock,
+                     int batchSize,
+                     int maxBatchesPerRun,
+                     Duration initialBackoff,
+                     Duration maxBackoff,
+                     Duration leaseDuration) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.leases = leases;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.leaseDuration = leaseDuration;
+        this.dispatchedEvents = meterRegistry.counter("beerstock.outbox.dispatched");
+        this.failedBatches = meterRegistry.counter("beerstock.outbox.failed.batches");
+        this.sinkLatency = meterRegistry.timer("beerstock.outbox.sink.latency");
+        Gauge.builder("beerstock.outbox.pending", pendingEvents, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("beerstock.outbox.lag.seconds", lagMillis, lag -> lag.get() / 1000.0).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.outbox.poll-interval-ms}")
+    public void dispatch() {
+        if (clock.instant().isBefore(retryAt.get()) || !leases.tryAcquire(LEASE, leaseDuration)) {
+            return;
+        }
+        for (int run = 0; run < maxBatchesPerRun; run++) {
+            List<OutboxEvent> batch = outboxEventRepository.findByDispatchedAtIsNullOrderByIdAsc(
+                    PageRequest.of(0, batchSize));
+            if (batch.isEmpty() || !send(batch) || batch.size() < batchSize
+                    || !leases.tryAcquire(LEASE, leaseDuration)) {
+                break;
+            }
+        }
+        updateLag();
+    }
+
+    private boolean send(List<OutboxEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            sink.publish(batch);
+        } catch (Exception e) {
+            failedBatches.increment();
+            backOff(batch);
+            log.warn("Failed to dispatch {} outbox events starting at id {}, retrying at {}: {}",
+                    batch.size(), batch.get(0).getId(), retryAt.get(), e.getMessage());
+            return false;
+        } finally {
+            sinkLatency.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+        consecutiveFailures.set(0);
+        Instant dispatchedAt = clock.instant();
+        batch.forEach(event -> event.setDispatchedAt(dispatchedAt));
+        outboxEventRepository.saveAll(batch);
+        dispatchedEvents.increment(batch.size());
+        return true;
+    }
+
+    private void backOff(List<OutboxEvent> batch) {
+        retryAt.set(clock.instant().plus(backoff(consecutiveFailures.incrementAndGet())));
+        batch.forEach(event -> event.setAttempts(event.getAttempts() + 1));
+        outboxEventRepository.saveAll(batch);
+    }
+
+    Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private void updateLag() {
+        pendingEvents.set(outboxEventRepository.countByDispatchedAtIsNull());
+        lagMillis.set(outboxEventRepository.findFirstByDispatchedAtIsNullOrderByIdAsc()
+                .map(oldest -> Math.max(0, Duration.between(oldest.getCreatedAt(), clock.instant()).toMillis()))
+                .orElse(0L));
+    }
+}
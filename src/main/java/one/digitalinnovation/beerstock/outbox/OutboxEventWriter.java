@@ -0,0 +1,40 @@
+package one.digitalinnovation.beerstock.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.entity.OutboxEvent;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Records every {@link BeerChangedEvent} as an {@link OutboxEvent} row. The listener runs synchronously inside the
+ * transaction of the {@link one.digitalinnovation.beerstock.service.BeerService} call that published it, so the
+ * event row commits or rolls back together with the beer update.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class OutboxEventWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void onBeerChanged(BeerChangedEvent event) throws JsonProcessingException {
+        Instant now = Instant.now();
+        outboxEventRepository.save(new OutboxEvent(null,
+                event.getBeerId(),
+                event.getKind(),
+                event.getDelta(),
+                objectMapper.writeValueAsString(event),
+                now,
+                0,
+                null));
+    }
+}
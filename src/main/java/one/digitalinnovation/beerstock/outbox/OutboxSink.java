@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.outbox;
+
+import one.digitalinnovation.beerstock.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Downstream destination of the stock change events drained from the outbox. A batch either succeeds as a whole or
+ * throws, in which case every event of the batch is retried later.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events) throws Exception;
+}
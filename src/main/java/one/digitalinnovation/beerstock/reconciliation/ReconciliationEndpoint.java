@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.reconciliation;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.ReconciliationProgressDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/reconciliation}: progress and throughput of the current or last stock reconciliation run; a POST
+ * starts a run now.
+ */
+@Component
+@Endpoint(id = "reconciliation")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReconciliationEndpoint {
+
+    private final StockReconciliationJob stockReconciliationJob;
+
+    @ReadOperation
+    public ReconciliationProgressDTO progress() {
+        return stockReconciliationJob.progress();
+    }
+
+    @WriteOperation
+    public ReconciliationProgressDTO start() {
+        stockReconciliationJob.start();
+        return stockReconciliationJob.progress();
+    }
+}
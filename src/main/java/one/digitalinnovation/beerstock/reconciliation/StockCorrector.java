@@ -0,0 +1,97 @@
+package one.digitalinnovation.beerstock.reconciliation;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.BeerLedgerTotal;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compares beers with their ledger, the sum of the stock deltas recorded in the outbox, and corrects the ones that
+ * drifted. Corrections are recorded as {@link BeerChangedEvent.Kind#RECONCILED} events, which the ledger leaves out,
+ * so correcting a beer never moves what it is checked against. Old movements are folded into a per-beer
+ * {@link BeerChangedEvent.Kind#BASELINE} row by {@link one.digitalinnovation.beerstock.outbox.OutboxCompactor}, which
+ * leaves the sum unchanged.
+ * <p>
+ * A ledger only says what a beer's stock should be when it starts from a known stock: the beer's
+ * {@link BeerChangedEvent.Kind#CREATED CREATED} event or a compacted baseline. Beers registered before the outbox
+ * existed have neither, so their ledger gets no total, and they are reported instead of corrected.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockCorrector {
+
+    public static final Set<BeerChangedEvent.Kind> BASELINE_KINDS =
+            EnumSet.of(BeerChangedEvent.Kind.CREATED, BeerChangedEvent.Kind.BASELINE);
+
+    private final BeerRepository beerRepository;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ChangeVersionSequence changeVersions;
+
+    /**
+     * Ledger totals of the given beers; beers whose ledger has no baseline are missing from the result.
+     */
+    public Map<Long, Long> ledgerTotals(Collection<Long> beerIds) {
+        return outboxEventRepository.sumDeltasByBeerId(beerIds, BeerChangedEvent.Kind.RECONCILED, BASELINE_KINDS)
+                .stream()
+                .collect(Collectors.toMap(BeerLedgerTotal::getBeerId, BeerLedgerTotal::getQuantity));
+    }
+
+    /**
+     * Locks the given beers in ascending id order, checks them against the ledger again under the lock, since a stock
+     * change may have committed after they were found drifted, and saves every correction in one batch. Striped beers,
+     * beers whose ledger has no baseline and beers whose ledger falls outside {@code [0, max]} are left alone. Returns
+     * the number of corrected beers.
+     */
+    @Transactional
+    public int correct(List<Long> ascendingBeerIds) {
+        List<Beer> locked = new ArrayList<>(ascendingBeerIds.size());
+        for (Long id : ascendingBeerIds) {
+            beerRepository.findByIdForUpdate(id)
+                    .filter(beer -> beer.getStripes() == 0)
+                    .ifPresent(locked::add);
+        }
+        Map<Long, Long> ledger = ledgerTotals(ascendingBeerIds);
+
+        List<Beer> corrected = new ArrayList<>();
+        List<BeerChangedEvent> events = new ArrayList<>();
+        for (Beer beer : locked) {
+            Long expected = ledger.get(beer.getId());
+            if (expected == null || expected == beer.getQuantity()) {
+                continue;
+            }
+            if (expected < 0 || expected > beer.getMax()) {
+                log.warn("Ledger of beer {} adds up to {}, outside [0, {}]; stock left at {}",
+                        beer.getId(), expected, beer.getMax(), beer.getQuantity());
+                continue;
+            }
+            int delta = (int) (expected - beer.getQuantity());
+            beer.setQuantity(expected.intValue());
+            corrected.add(beer);
+            events.add(BeerChangedEvent.reconciled(beer, delta, changeVersions.transactionVersion()));
+        }
+        beerRepository.saveAll(corrected);
+        events.forEach(eventPublisher::publishEvent);
+        return corrected.size();
+    }
+}
@@ -0,0 +1,312 @@
+package one.digitalinnovation.beerstock.reconciliation;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.ReconciliationProgressDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.ReconciliationCheckpoint;
+import one.digitalinnovation.beerstock.lease.SchedulerLeases;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.ReconciliationCheckpointRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Checks every beer's stock against its ledger and corrects drift, without ever loading the whole table.
+ * <p>
+ * A coordinator thread walks beer ids in keyset chunks and hands a wave of chunks at a time to the bounded
+ * {@code reconciliationExecutor}. Each chunk reads its beers and ledger totals without locks; only beers that drifted
+ * are locked and corrected, in one transaction per chunk, by {@link StockCorrector}. After each wave the checkpoint
+ * moves to the wave's last id, so a run interrupted by a restart resumes there, and the coordinator sleeps as long as
+ * needed to stay under {@code max-beers-per-second}. Striped beers are hot by definition and are skipped; they are
+ * checked once they are merged back. Beers whose ledger has no baseline to add their movements to are never
+ * corrected; they are counted and logged, so they can be given one by hand.
+ * <p>
+ * Every node schedules the job, but a run first takes the {@value #LEASE} lease, so only one node at a time walks the
+ * beers and moves the shared checkpoint. The lease is renewed before each checkpoint is saved; a run that lost it
+ * stops without saving, leaving the checkpoint to the node that took over.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class StockReconciliationJob {
+
+    static final String JOB = "stock";
+
+    static final String LEASE = "stock-reconciliation";
+
+    private final BeerRepository beerRepository;
+
+    private final ReconciliationCheckpointRepository checkpointRepository;
+
+    private final StockCorrector stockCorrector;
+
+    private final SchedulerLeases leases;
+
+    private final Executor reconciliationExecutor;
+
+    private final int chunkSize;
+
+    private final int parallelism;
+
+    private final double maxBeersPerSecond;
+
+    private final Duration leaseDuration;
+
+    private final Clock clock;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "reconciliation-coordinator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile boolean stopping;
+
+    private volatile Run currentRun;
+
+    @Autowired
+    public StockReconciliationJob(BeerRepository beerRepository,
+                                  ReconciliationCheckpointRepository checkpointRepository,
+                                  StockCorrector stockCorrector,
+                                  SchedulerLeases leases,
+                                  Executor reconciliationExecutor,
+                                  @Value("${beerstock.reconciliation.chunk-size}") int chunkSize,
+                                  @Value("${beerstock.reconciliation.threads}") int parallelism,
+                                  @Value("${beerstock.reconciliation.max-beers-per-second}") double maxBeersPerSecond,
+                                  @Value("${beerstock.reconciliation.lease-ms}") long leaseMs) {
+        this(beerRepository, checkpointRepository, stockCorrector, leases, reconciliationExecutor, chunkSize,
+                parallelism, maxBeersPerSecond, Duration.ofMillis(leaseMs), Clock.systemUTC());
+    }
+
+    StockReconciliationJob(BeerRepository beerRepository,
+                           ReconciliationCheckpointRepository checkpointRepository,
+                           StockCorrector stockCorrector,
+                           SchedulerLeases leases,
+                           Executor reconciliationExecutor,
+                           int chunkSize,
+                           int parallelism,
+                           double maxBeersPerSecond,
+                           Duration leaseDuration,
+                           Clock clock) {
+        this.beerRepository = beerRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.stockCorrector = stockCorrector;
+        this.leases = leases;
+        this.reconciliationExecutor = reconciliationExecutor;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.maxBeersPerSecond = maxBeersPerSecond;
+        this.leaseDuration = leaseDuration;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "${beerstock.reconciliation.cron}")
+    public void scheduledRun() {
+        start();
+    }
+
+    /**
+     * Starts a run on the coordinator thread, or resumes the interrupted one; returns {@code false} when a run is
+     * already going on this node or another one.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        if (!leases.tryAcquire(LEASE, leaseDuration)) {
+            running.set(false);
+            log.info("Stock reconciliation is already running on another node");
+            return false;
+        }
+        coordinator.execute(() -> {
+            try {
+                run();
+            } catch (RuntimeException e) {
+                log.error("Stock reconciliation stopped; the next run resumes from the last checkpoint", e);
+            } finally {
+                leases.release(LEASE);
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public ReconciliationProgressDTO progress() {
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(JOB).orElse(null);
+        Run run = currentRun;
+        ReconciliationProgressDTO.ReconciliationProgressDTOBuilder progress = ReconciliationProgressDTO.builder()
+                .running(running.get());
+        if (checkpoint != null) {
+            progress.runStartedAt(checkpoint.getRunStartedAt())
+                    .checkpointBeerId(checkpoint.getLastBeerId())
+                    .lastCompletedAt(checkpoint.getLastCompletedAt());
+        }
+        if (run != null) {
+            long endMillis = run.finishMillis > 0 ? run.finishMillis : clock.millis();
+            long elapsedMillis = Math.max(1, endMillis - run.startMillis);
+            progress.checkedBeers(run.checked.get())
+                    .skippedStripedBeers(run.skippedStriped.get())
+                    .unbaselinedBeers(run.unbaselined.get())
+                    .driftedBeers(run.drifted.get())
+                    .correctedBeers(run.corrected.get())
+                    .chunks(run.chunks.get())
+                    .beersPerSecond(run.checked.get() * 1000.0 / elapsedMillis);
+        }
+        return progress.build();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+        coordinator.shutdown();
+    }
+
+    void run() {
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(JOB)
+                .orElseGet(() -> new ReconciliationCheckpoint(JOB, 0, null, null, null));
+        if (checkpoint.getLastBeerId() == 0) {
+            checkpoint.setRunStartedAt(clock.instant());
+        } else {
+            log.info("Resuming stock reconciliation after beer {}", checkpoint.getLastBeerId());
+        }
+        Run run = new Run(clock.millis());
+        currentRun = run;
+
+        long lastId = checkpoint.getLastBeerId();
+        while (!stopping) {
+            List<List<Long>> wave = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                List<Long> chunk = beerRepository.findIdsAfter(lastId, PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                wave.add(chunk);
+                lastId = chunk.get(chunk.size() - 1);
+            }
+            if (wave.isEmpty()) {
+                complete(checkpoint, run);
+                return;
+            }
+
+            List<CompletableFuture<Void>> chunks = wave.stream()
+                    .map(chunk -> CompletableFuture.runAsync(() -> reconcile(chunk, run), reconciliationExecutor))
+                    .collect(Collectors.toList());
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+
+            if (!leases.tryAcquire(LEASE, leaseDuration)) {
+                log.warn("Stock reconciliation lost its lease after beer {}; stopping without moving the checkpoint",
+                        lastId);
+                return;
+            }
+            checkpoint.setLastBeerId(lastId);
+            checkpoint.setUpdatedAt(clock.instant());
+            checkpointRepository.save(checkpoint);
+            throttle(run);
+        }
+    }
+
+    private void reconcile(List<Long> chunk, Run run) {
+        Map<Long, Long> ledger = stockCorrector.ledgerTotals(chunk);
+        List<Long> drifted = new ArrayList<>();
+        List<Long> unbaselined = new ArrayList<>();
+        for (Beer beer : beerRepository.findAllById(chunk)) {
+            if (beer.getStripes() > 0) {
+                run.skippedStriped.incrementAndGet();
+                continue;
+            }
+            Long expected = ledger.get(beer.getId());
+            if (expected == null) {
+                unbaselined.add(beer.getId());
+            } else if (expected != beer.getQuantity()) {
+                drifted.add(beer.getId());
+            }
+        }
+        if (!unbaselined.isEmpty()) {
+            run.unbaselined.addAndGet(unbaselined.size());
+            log.warn("Beers {} have no baseline in the ledger; stock left as it is", unbaselined);
+        }
+        if (!drifted.isEmpty()) {
+            Collections.sort(drifted);
+            run.drifted.addAndGet(drifted.size());
+            run.corrected.addAndGet(stockCorrector.correct(drifted));
+        }
+        run.checked.addAndGet(chunk.size());
+        run.chunks.incrementAndGet();
+    }
+
+    private void complete(ReconciliationCheckpoint checkpoint, Run run) {
+        Instant now = clock.instant();
+        run.finishMillis = now.toEpochMilli();
+        checkpoint.setLastBeerId(0);
+        checkpoint.setUpdatedAt(now);
+        checkpoint.setLastCompletedAt(now);
+        checkpointRepository.save(checkpoint);
+        ReconciliationProgressDTO progress = progress();
+        log.info("Stock reconciliation checked {} beers in {} chunks ({} beers/s): {} drifted, {} corrected, "
+                        + "{} striped skipped, {} without a baseline", run.checked.get(), run.chunks.get(),
+                Math.round(progress.getBeersPerSecond()), run.drifted.get(), run.corrected.get(),
+                run.skippedStriped.get(), run.unbaselined.get());
+    }
+
+    /**
+     * Sleeps until the beers checked so far fit the rate limit.
+     */
+    private void throttle(Run run) {
+        long earliestMillis = run.startMillis + (long) (run.checked.get() * 1000 / maxBeersPerSecond);
+        long sleepMillis = earliestMillis - clock.millis();
+        if (sleepMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopping = true;
+        }
+    }
+
+    private static final class Run {
+
+        private final long startMillis;
+
+        private final AtomicLong checked = new AtomicLong();
+
+        private final AtomicLong skippedStriped = new AtomicLong();
+
+        private final AtomicLong unbaselined = new AtomicLong();
+
+        private final AtomicLong drifted = new AtomicLong();
+
+        private final AtomicLong corrected = new AtomicLong();
+
+        private final AtomicLong chunks = new AtomicLong();
+
+        private volatile long finishMillis;
+
+        private Run(long startMillis) {
+            this.startMillis = startMillis;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+public interface BeerGroupTotals {
+
+    BeerType getType();
+
+    String getBrand();
+
+    long getBeers();
+
+    long getQuantity();
+
+    long getCapacity();
+}
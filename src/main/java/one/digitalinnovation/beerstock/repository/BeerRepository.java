@@ -1,11 +1,76 @@
 package one.digitalinnovation.beerstock.repository;
 
 import one.digitalinnovation.beerstock.entity.Beer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
-public interface BeerRepository extends JpaRepository<Beer, Long> {
+public interface BeerRepository extends JpaRepository<Beer, Long>, BeerRepositoryCustom {
+
+    String STOCK_ROW = "select b.id as id, b.type as type, b.max as max, b.quantity + b.stripedQuantity as quantity, "
+            + "case when b.stripes = 0 then b.changeVersion else (select coalesce(max(s.changeVersion), b.changeVersion) "
+            + "from BeerStockStripe s where s.beerId = b.id and s.changeVersion > b.changeVersion) end as changeVersion "
+            + "from Beer b ";
 
     Optional<Beer> findByName(String name);
+
+    @Query("select b.name from Beer b where b.name in :names")
+    List<String> findNamesIn(Collection<String> names);
+
+    /**
+     * Reads the beer holding a row lock until the surrounding transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Beer b where b.id = :id")
+    Optional<Beer> findByIdForUpdate(Long id);
+
+    @Query("select b.id from Beer b where b.stripes > 0")
+    List<Long> findStripedIds();
+
+    List<Beer> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select b.id from Beer b where b.id > :afterId order by b.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
+
+    @Query("select b.id from Beer b where b.id in :ids")
+    List<Long> findIdsIn(Collection<Long> ids);
+
+    default long forEachInIdOrder(int pageSize, Consumer<Beer> action) {
+        long visited = 0;
+        long lastId = 0;
+        List<Beer> page;
+        do {
+            page = findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, pageSize));
+            for (Beer beer : page) {
+                action.accept(beer);
+                lastId = beer.getId();
+            }
+            visited += page.size();
+        } while (page.size() == pageSize);
+        return visited;
+    }
+
+    @Query(STOCK_ROW + "where b.id > :afterId order by b.id")
+    List<BeerStockRow> findStockRowsAfter(Long afterId, Pageable pageable);
+
+    @Query(STOCK_ROW + "where b.id in :ids")
+    List<BeerStockRow> findStockRowsByIdIn(Collection<Long> ids);
+
+    List<Beer> findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(long since, long until, Pageable pageable);
+
+    @Query("select coalesce(max(b.changeVersion), 0) from Beer b")
+    long maxChangeVersion();
+
+    @Query("select b.type as type, b.brand as brand, count(b) as beers, "
+            + "sum(b.quantity + b.stripedQuantity) as quantity, sum(b.max) as capacity "
+            + "from Beer b group by b.type, b.brand")
+    List<BeerGroupTotals> sumStockByTypeAndBrand();
 }
@@ -0,0 +1,11 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+
+public interface BeerRepositoryCustom {
+
+    /**
+     * Re-reads a managed beer holding a row lock until the surrounding transaction ends.
+     */
+    void lockForUpdate(Beer beer);
+}
@@ -0,0 +1,18 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+
+public class BeerRepositoryCustomImpl implements BeerRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void lockForUpdate(Beer beer) {
+        entityManager.refresh(beer, LockModeType.PESSIMISTIC_WRITE);
+    }
+}
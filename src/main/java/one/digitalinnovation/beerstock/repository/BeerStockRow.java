@@ -0,0 +1,19 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+public interface BeerStockRow {
+
+    Long getId();
+
+    BeerType getType();
+
+    int getMax();
+
+    int getQuantity();
+
+    /**
+     * Highest change version of the beer row and of its stripes, read in the same statement as the quantity.
+     */
+    long getChangeVersion();
+}
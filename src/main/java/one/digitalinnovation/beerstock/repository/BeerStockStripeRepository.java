@@ -0,0 +1,30 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.BeerStockStripe;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+
+public interface BeerStockStripeRepository extends JpaRepository<BeerStockStripe, Long>, BeerStockStripeRepositoryCustom {
+
+    @Query("select coalesce(sum(s.quantity), 0) from BeerStockStripe s where s.beerId = :beerId")
+    long sumQuantity(Long beerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from BeerStockStripe s where s.beerId = :beerId order by s.stripe")
+    List<BeerStockStripe> findByBeerIdForUpdate(Long beerId);
+
+    @Modifying
+    @Query("delete from BeerStockStripe s where s.beerId = :beerId")
+    int deleteByBeerId(Long beerId);
+
+    List<BeerStockStripe> findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(long since, long until, Pageable pageable);
+
+    @Query("select coalesce(max(s.changeVersion), 0) from BeerStockStripe s")
+    long maxChangeVersion();
+}
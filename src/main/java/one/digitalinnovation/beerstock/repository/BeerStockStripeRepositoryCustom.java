@@ -0,0 +1,10 @@
+package one.digitalinnovation.beerstock.repository;
+
+public interface BeerStockStripeRepositoryCustom {
+
+    /**
+     * Applies {@code delta} to one stripe only if the stripe stays within {@code [0, capacity]}; returns the number of
+     * updated rows. An updated stripe takes a new change version. A stripe that does not match is left unlocked.
+     */
+    int applyDelta(Long beerId, int stripe, int delta);
+}
@@ -0,0 +1,49 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Savepoint;
+
+public class BeerStockStripeRepositoryCustomImpl implements BeerStockStripeRepositoryCustom {
+
+    private static final String APPLY_DELTA = "update BeerStockStripe s "
+            + "set s.quantity = s.quantity + :delta, s.changeVersion = :changeVersion "
+            + "where s.beerId = :beerId and s.stripe = :stripe "
+            + "and s.quantity + :delta >= 0 and s.quantity + :delta <= s.capacity";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ChangeVersionSequence changeVersions;
+
+    /**
+     * The update runs under a JDBC savepoint. An update that had to wait for a concurrent change to the stripe can
+     * keep the row locked even when the re-checked condition no longer matches; rolling back to the savepoint releases
+     * it. Pending changes are flushed first so the rollback can only undo this statement. The bulk update bypasses the
+     * entity listeners, so the new change version is set by the statement itself.
+     */
+    @Override
+    public int applyDelta(Long beerId, int stripe, int delta) {
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            int updated = entityManager.createQuery(APPLY_DELTA)
+                    .setParameter("beerId", beerId)
+                    .setParameter("stripe", stripe)
+                    .setParameter("delta", delta)
+                    .setParameter("changeVersion", changeVersions.next())
+                    .executeUpdate();
+            if (updated == 0) {
+                connection.rollback(savepoint);
+            } else {
+                connection.releaseSavepoint(savepoint);
+            }
+            return updated;
+        });
+    }
+}
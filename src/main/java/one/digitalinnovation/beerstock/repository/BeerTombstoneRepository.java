@@ -0,0 +1,16 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.BeerTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface BeerTombstoneRepository extends JpaRepository<BeerTombstone, Long> {
+
+    List<BeerTombstone> findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(long since, long until, Pageable pageable);
+
+    @Query("select coalesce(max(t.changeVersion), 0) from BeerTombstone t")
+    long maxChangeVersion();
+}
@@ -0,0 +1,56 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.OutboxEvent;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByDispatchedAtIsNullOrderByIdAsc(Pageable pageable);
+
+    Optional<OutboxEvent> findFirstByDispatchedAtIsNullOrderByIdAsc();
+
+    long countByDispatchedAtIsNull();
+
+    /**
+     * Sums the recorded stock deltas of each beer, leaving out events of {@code excludedKind}. Beers without an event
+     * of one of {@code baselineKinds}, whose movements do not start from a known stock, get no total.
+     */
+    @Query("select e.beerId as beerId, sum(e.delta) as quantity from OutboxEvent e "
+            + "where e.beerId in :beerIds and e.kind <> :excludedKind and e.beerId in "
+            + "(select b.beerId from OutboxEvent b where b.beerId in :beerIds and b.kind in :baselineKinds) "
+            + "group by e.beerId")
+    List<BeerLedgerTotal> sumDeltasByBeerId(Collection<Long> beerIds, BeerChangedEvent.Kind excludedKind,
+                                            Collection<BeerChangedEvent.Kind> baselineKinds);
+
+    /**
+     * Beers after {@code afterBeerId} with movements dispatched before {@code cutoff}, in id order.
+     */
+    @Query("select distinct e.beerId from OutboxEvent e where e.beerId > :afterBeerId and e.dispatchedAt < :cutoff "
+            + "and e.kind <> :baselineKind order by e.beerId")
+    List<Long> findBeerIdsDispatchedBefore(Long afterBeerId, Instant cutoff, BeerChangedEvent.Kind baselineKind,
+                                           Pageable pageable);
+
+    /**
+     * Sums, per beer, the deltas {@link #deleteFoldable} removes: rows dispatched before {@code cutoff} and the
+     * beer's previous baseline, leaving out events of {@code excludedKind}.
+     */
+    @Query("select e.beerId as beerId, sum(e.delta) as quantity from OutboxEvent e where e.beerId in :beerIds "
+            + "and e.kind <> :excludedKind and (e.dispatchedAt < :cutoff or e.kind = :baselineKind) group by e.beerId")
+    List<BeerLedgerTotal> sumFoldableDeltasByBeerId(Collection<Long> beerIds, Instant cutoff,
+                                                    BeerChangedEvent.Kind excludedKind,
+                                                    BeerChangedEvent.Kind baselineKind);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.beerId in :beerIds "
+            + "and (e.dispatchedAt < :cutoff or e.kind = :baselineKind)")
+    int deleteFoldable(Collection<Long> beerIds, Instant cutoff, BeerChangedEvent.Kind baselineKind);
+}
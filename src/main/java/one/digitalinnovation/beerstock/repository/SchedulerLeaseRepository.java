@@ -0,0 +1,35 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * Takes or extends the lease in one conditional update, so two nodes can never both see it as free.
+     */
+    @Transactional
+    @Modifying
+    @Query("update SchedulerLease l set l.owner = :owner, l.lockedUntil = :lockedUntil "
+            + "where l.name = :name and (l.owner = :owner or l.lockedUntil <= :now)")
+    int tryLock(String name, String owner, Instant now, Instant lockedUntil);
+
+    /**
+     * Fails on the primary key when another node created the lease first, instead of merging into its row.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into scheduler_lease (name, owner, locked_until) values (:name, :owner, :lockedUntil)",
+            nativeQuery = true)
+    int insert(String name, String owner, Instant lockedUntil);
+
+    @Transactional
+    @Modifying
+    @Query("update SchedulerLease l set l.lockedUntil = :now where l.name = :name and l.owner = :owner")
+    int unlock(String name, String owner, Instant now);
+}
@@ -0,0 +1,51 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.StockHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockHoldRepository extends JpaRepository<StockHold, String> {
+
+    /**
+     * Sums the holds on the beer that have not expired at {@code now}. Expired holds stop counting here even before
+     * their rows are removed.
+     */
+    @Query("select coalesce(sum(h.quantity), 0) from StockHold h where h.beerId = :beerId and h.expiresAt > :now")
+    long sumHeld(Long beerId, Instant now);
+
+    @Query("select h.beerId as beerId, sum(h.quantity) as quantity from StockHold h "
+            + "where h.beerId in :beerIds and h.expiresAt > :now group by h.beerId")
+    List<BeerHeldTotal> sumHeldByBeerId(Collection<Long> beerIds, Instant now);
+
+    default int heldQuantity(Long beerId, Instant now) {
+        return (int) sumHeld(beerId, now);
+    }
+
+    /**
+     * Removes a live hold; returns {@code 0} when it is gone, expired or belongs to another beer, so two callers can
+     * never both release the same hold.
+     */
+    @Modifying
+    @Query("delete from StockHold h where h.id = :id and h.beerId = :beerId and h.expiresAt > :now")
+    int deleteLive(String id, Long beerId, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from StockHold h where h.id in :ids and h.expiresAt <= :now")
+    int deleteExpired(Collection<String> ids, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from StockHold h where h.expiresAt <= :now")
+    int deleteAllExpired(Instant now);
+
+    @Modifying
+    @Query("delete from StockHold h where h.beerId = :beerId")
+    int deleteByBeerId(Long beerId);
+}
@@ -0,0 +1,13 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.Warehouse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface WarehouseRepository extends JpaRepository<Warehouse, String>, WarehouseRepositoryCustom {
+
+    @Query("select w.name from Warehouse w order by w.name")
+    List<String> findNames();
+}
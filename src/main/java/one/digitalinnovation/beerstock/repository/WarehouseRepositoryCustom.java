@@ -0,0 +1,10 @@
+package one.digitalinnovation.beerstock.repository;
+
+public interface WarehouseRepositoryCustom {
+
+    /**
+     * Lists the warehouse unless it is listed already, in the caller's transaction; returns whether this call listed
+     * it.
+     */
+    boolean list(String name);
+}
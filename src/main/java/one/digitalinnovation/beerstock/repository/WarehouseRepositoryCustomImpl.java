@@ -0,0 +1,42 @@
+package one.digitalinnovation.beerstock.repository;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+public class WarehouseRepositoryCustomImpl implements WarehouseRepositoryCustom {
+
+    private static final String INSERT_UNLESS_LISTED = "insert into warehouse (name) select ? "
+            + "where not exists (select 1 from warehouse w where w.name = ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Runs as plain JDBC under a savepoint. Two registrations listing the same new warehouse can both find it missing;
+     * the one that commits second then fails on the primary key. The failure never reaches Hibernate, which would
+     * mark the transaction rollback-only, and rolling back to the savepoint leaves the transaction usable, as the
+     * warehouse is listed either way.
+     */
+    @Override
+    public boolean list(String name) {
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_UNLESS_LISTED)) {
+                insert.setString(1, name);
+                insert.setString(2, name);
+                int inserted = insert.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+                return inserted > 0;
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                return false;
+            }
+        });
+    }
+}
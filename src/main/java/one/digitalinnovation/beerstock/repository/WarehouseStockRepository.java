@@ -0,0 +1,27 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.WarehouseStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface WarehouseStockRepository extends JpaRepository<WarehouseStock, Long>, WarehouseStockRepositoryCustom {
+
+    Optional<WarehouseStock> findByBeerIdAndWarehouse(Long beerId, String warehouse);
+
+    List<WarehouseStock> findByBeerIdOrderByWarehouse(Long beerId);
+
+    /**
+     * Reads a single warehouse, using the unique key's leading column.
+     */
+    @Query("select w from WarehouseStock w where w.warehouse = :warehouse and w.beerId in :beerIds")
+    List<WarehouseStock> findInWarehouse(String warehouse, Collection<Long> beerIds);
+
+    @Modifying
+    @Query("delete from WarehouseStock w where w.beerId = :beerId")
+    int deleteByBeerId(Long beerId);
+}
@@ -0,0 +1,10 @@
+package one.digitalinnovation.beerstock.repository;
+
+public interface WarehouseStockRepositoryCustom {
+
+    /**
+     * Applies {@code delta} to the beer's stock in one warehouse only if it stays within {@code [0, max]}; returns the
+     * number of updated rows. A row that does not match is left unlocked.
+     */
+    int applyDelta(Long beerId, String warehouse, int delta);
+}
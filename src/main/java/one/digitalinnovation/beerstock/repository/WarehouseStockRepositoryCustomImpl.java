@@ -0,0 +1,41 @@
+package one.digitalinnovation.beerstock.repository;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Savepoint;
+
+public class WarehouseStockRepositoryCustomImpl implements WarehouseStockRepositoryCustom {
+
+    private static final String APPLY_DELTA = "update WarehouseStock w "
+            + "set w.quantity = w.quantity + :delta "
+            + "where w.warehouse = :warehouse and w.beerId = :beerId "
+            + "and w.quantity + :delta >= 0 and w.quantity + :delta <= w.max";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Runs under a JDBC savepoint for the same reason as {@link BeerStockStripeRepositoryCustomImpl#applyDelta}: an
+     * update that waited for a concurrent change and then no longer matches is rolled back, releasing the row.
+     */
+    @Override
+    public int applyDelta(Long beerId, String warehouse, int delta) {
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            int updated = entityManager.createQuery(APPLY_DELTA)
+                    .setParameter("beerId", beerId)
+                    .setParameter("warehouse", warehouse)
+                    .setParameter("delta", delta)
+                    .executeUpdate();
+            if (updated == 0) {
+                connection.rollback(savepoint);
+            } else {
+                connection.releaseSavepoint(savepoint);
+            }
+            return updated;
+        });
+    }
+}
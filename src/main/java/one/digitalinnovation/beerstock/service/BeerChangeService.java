@@ -0,0 +1,156 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import one.digitalinnovation.beerstock.dto.BeerChangeDTO;
+import one.digitalinnovation.beerstock.dto.BeerChangesDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.BeerStockStripe;
+import one.digitalinnovation.beerstock.entity.BeerTombstone;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockStripeRepository;
+import one.digitalinnovation.beerstock.repository.BeerTombstoneRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental sync feed. Every insert or update of a beer, of one of its stripes, and every delete takes a new version
+ * from {@link ChangeVersionSequence}; deletes leave a {@link BeerTombstone}. A page is read from the three version
+ * indexes, so its cost depends on how much changed since the client's last version, not on the size of the catalog.
+ * <p>
+ * Each entry carries the current state of the beer, so a beer changed several times appears once per page, under its
+ * latest version. Clients apply the entries in order and ask again from {@code nextSince}.
+ */
+@Slf4j
+@Service
+public class BeerChangeService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final BeerRepository beerRepository;
+
+    private final BeerStockStripeRepository stripeRepository;
+
+    private final BeerTombstoneRepository tombstoneRepository;
+
+    private final ChangeVersionSequence changeVersions;
+
+    private final Clock clock;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Autowired
+    public BeerChangeService(BeerRepository beerRepository,
+                             BeerStockStripeRepository stripeRepository,
+                             BeerTombstoneRepository tombstoneRepository,
+                             ChangeVersionSequence changeVersions) {
+        this(beerRepository, stripeRepository, tombstoneRepository, changeVersions, Clock.systemUTC());
+    }
+
+    BeerChangeService(BeerRepository beerRepository,
+                      BeerStockStripeRepository stripeRepository,
+                      BeerTombstoneRepository tombstoneRepository,
+                      ChangeVersionSequence changeVersions,
+                      Clock clock) {
+        this.beerRepository = beerRepository;
+        this.stripeRepository = stripeRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.changeVersions = changeVersions;
+        this.clock = clock;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void seedVersions() {
+        long stored = storedVersion();
+        changeVersions.advanceTo(stored);
+        log.info("Change versions continue after {}", stored);
+    }
+
+    /**
+     * The highest version stored on a beer, a stripe or a tombstone, that is of any committed change.
+     */
+    public long storedVersion() {
+        return Math.max(beerRepository.maxChangeVersion(),
+                Math.max(stripeRepository.maxChangeVersion(), tombstoneRepository.maxChangeVersion()));
+    }
+
+    /**
+     * Runs inside the transaction of {@link BeerService#deleteById}, so the tombstone commits together with the delete.
+     */
+    @EventListener
+    public void onBeerChanged(BeerChangedEvent event) {
+        if (event.getKind() == BeerChangedEvent.Kind.DELETED) {
+            tombstoneRepository.save(new BeerTombstone(event.getBeerId(), clock.instant(), 0));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public BeerChangesDTO changesSince(long since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long until = changeVersions.stableVersion();
+        Pageable firstRows = PageRequest.of(0, pageSize + 1);
+
+        List<Change> changes = new ArrayList<>();
+        beerRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(since, until, firstRows)
+                .forEach(beer -> changes.add(new Change(beer.getChangeVersion(), beer.getId(), false)));
+        stripeRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(since, until, firstRows)
+                .forEach(stripe -> changes.add(new Change(stripe.getChangeVersion(), stripe.getBeerId(), false)));
+        tombstoneRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(since, until, firstRows)
+                .forEach(tombstone -> changes.add(new Change(tombstone.getChangeVersion(), tombstone.getBeerId(), true)));
+        changes.sort(Comparator.comparingLong(change -> change.version));
+
+        boolean hasMore = changes.size() > pageSize;
+        List<Change> page = hasMore ? changes.subList(0, pageSize) : changes;
+        long nextSince = page.isEmpty() ? since : page.get(page.size() - 1).version;
+
+        Map<Long, Change> latestByBeer = new HashMap<>();
+        for (Change change : page) {
+            latestByBeer.put(change.beerId, change);
+        }
+        Map<Long, Beer> beers = beerRepository.findAllById(latestByBeer.keySet())
+                .stream()
+                .collect(Collectors.toMap(Beer::getId, beer -> beer));
+        List<BeerChangeDTO> entries = latestByBeer.values()
+                .stream()
+                .sorted(Comparator.comparingLong(change -> change.version))
+                .filter(change -> change.deleted || beers.containsKey(change.beerId))
+                .map(change -> BeerChangeDTO.builder()
+                        .version(change.version)
+                        .id(change.beerId)
+                        .deleted(change.deleted)
+                        .beer(change.deleted ? null : beerMapper.toDTO(beers.get(change.beerId)))
+                        .build())
+                .collect(Collectors.toList());
+        return new BeerChangesDTO(entries, nextSince, hasMore);
+    }
+
+    private static final class Change {
+
+        private final long version;
+
+        private final Long beerId;
+
+        private final boolean deleted;
+
+        private Change(long version, Long beerId, boolean deleted) {
+            this.version = version;
+            this.beerId = beerId;
+            this.deleted = deleted;
+        }
+    }
+}
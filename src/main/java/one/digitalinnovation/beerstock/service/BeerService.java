@@ -1,41 +1,89 @@
 package one.digitalinnovation.beerstock.service;
 
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.cache.TieredBeerCache;
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerSuggestionDTO;
+import one.digitalinnovation.beerstock.dto.OrderDTO;
+import one.digitalinnovation.beerstock.dto.OrderItemDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockBelowZeroException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.hotkey.HotKeyDetector;
+import one.digitalinnovation.beerstock.index.BeerNameIndex;
 import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerHeldTotal;
 import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.StockHoldRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerService {
 
+    private static final int MAX_SUGGESTIONS = 50;
 
     private final BeerRepository beerRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BeerNameIndex beerNameIndex;
+
+    private final HotKeyDetector hotKeyDetector;
+
+    private final StripedStockService stripedStockService;
+
+    private final TieredBeerCache beerCache;
+
+    private final ChangeVersionSequence changeVersions;
+
+    private final StockHoldRepository holdRepository;
+
     private final BeerMapper beerMapper = BeerMapper.INSTANCE;
 
+    private final Clock clock = Clock.systemUTC();
+
+    @Transactional
     public BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
         verifyIfIsAlreadyRegistered(beerDTO.getName());
         Beer beer = beerMapper.toModel(beerDTO);
         Beer savedBeer = beerRepository.save(beer);
+        eventPublisher.publishEvent(BeerChangedEvent.created(savedBeer, changeVersions.transactionVersion()));
         return beerMapper.toDTO(savedBeer);
     }
 
     public BeerDTO findByName(String name) throws BeerNotFoundException {
-        Beer foundBeer = beerRepository.findByName(name)
+        return beerCache.get(name, this::loadByName)
                 .orElseThrow(() -> new BeerNotFoundException(name));
-        return beerMapper.toDTO(foundBeer);
+    }
+
+    private Optional<BeerDTO> loadByName(String name) {
+        return beerRepository.findByName(name)
+                .or(() -> beerNameIndex.findExact(name).flatMap(beerRepository::findById))
+                .map(beerMapper::toDTO);
+    }
+
+    public List<BeerSuggestionDTO> suggest(String query, int limit) {
+        int maxDistance = query.length() < 4 ? 0 : query.length() < 8 ? 1 : 2;
+        return beerNameIndex.suggest(query, maxDistance, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)))
+                .stream()
+                .map(match -> new BeerSuggestionDTO(match.getId(), match.getName(), match.getDistance()))
+                .collect(Collectors.toList());
     }
 
     public List<BeerDTO> listAll() {
@@ -45,9 +93,13 @@ public class BeerService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public void deleteById(Long id) throws BeerNotFoundException {
-        verifyIfExists(id);
+        // Locked first, so a warehouse registration for this beer either commits before or finds it gone.
+        Beer beerToDelete = beerRepository.findByIdForUpdate(id).orElseThrow(() -> new BeerNotFoundException(id));
+        stripedStockService.removeStripes(beerToDelete);
         beerRepository.deleteById(id);
+        eventPublisher.publishEvent(BeerChangedEvent.deleted(beerToDelete, changeVersions.transactionVersion()));
     }
 
     private void verifyIfIsAlreadyRegistered(String name) throws BeerAlreadyRegisteredException {
@@ -62,17 +114,18 @@ public class BeerService {
                 .orElseThrow(() -> new BeerNotFoundException(id));
     }
 
+    @Transactional
     public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException {
-        Beer beerToIncrementStock = verifyIfExists(id);
-        int quantityAfterIncrement = quantityToIncrement + beerToIncrementStock.getQuantity();
-        if (quantityAfterIncrement <= beerToIncrementStock.getMax()) {
-            beerToIncrementStock.setQuantity(quantityAfterIncrement);
-            Beer incrementedBeerStock = beerRepository.save(beerToIncrementStock);
+        Beer incrementedBeerStock = changeStock(id, quantityToIncrement);
+        if (incrementedBeerStock != null) {
+            eventPublisher.publishEvent(BeerChangedEvent.stockChanged(incrementedBeerStock, quantityToIncrement,
+                    changeVersions.transactionVersion()));
             return beerMapper.toDTO(incrementedBeerStock);
         }
         throw new BeerStockExceededException(id, quantityToIncrement);
     }
 
+    @Transactional
     public BeerDTO decrement(Long id, int quantityToDecrement) throws BeerNotFoundException, BeerStockBelowZeroException {
        /* 1- Tentei elaborar um código simples para passar nos testes, mas não era o suficiente para deixar o método perfeito
           2- Utilizei o método verifyIfExists que retorna um objeto Beer, coloquei dentro de uma variável para ser decrementado
@@ -86,15 +139,105 @@ public class BeerService {
           método toDTO do beerMapper em uma beerDTO.
 
         */
-        Beer beerToDecrementStock = verifyIfExists(id);
-        int quantityAfterDecrement = beerToDecrementStock.getQuantity() - quantityToDecrement;
-        if(quantityAfterDecrement >= 0){
-            beerToDecrementStock.setQuantity(quantityAfterDecrement);
-            Beer decrementBeerStock = beerRepository.save(beerToDecrementStock);
+        Beer decrementBeerStock = changeStock(id, -quantityToDecrement);
+        if (decrementBeerStock != null) {
+            eventPublisher.publishEvent(BeerChangedEvent.stockChanged(decrementBeerStock, -quantityToDecrement,
+                    changeVersions.transactionVersion()));
             return beerMapper.toDTO(decrementBeerStock);
         }
         throw new BeerStockBelowZeroException(id, quantityToDecrement);
+    }
 
+    /**
+     * Applies {@code delta} to the beer's stock, or returns {@code null} when the stock would leave {@code [0, max]} or a
+     * decrement would take units held by reservations.
+     * Beers that may be striped are read without a lock and first try a single stripe without touching the beer row;
+     * everything else is read once under the beer's row lock, which also keeps plain updates from racing with striping
+     * and merging.
+     */
+    private Beer changeStock(Long id, int delta) throws BeerNotFoundException {
+        Beer beer;
+        if (stripedStockService.mayBeStriped(id)) {
+            beer = verifyIfExists(id);
+            hotKeyDetector.record(id);
+            if (beer.getStripes() > 0 && stripedStockService.tryApply(beer, delta)) {
+                return beer;
+            }
+            beerRepository.lockForUpdate(beer);
+        } else {
+            beer = beerRepository.findByIdForUpdate(id).orElseThrow(() -> new BeerNotFoundException(id));
+            hotKeyDetector.record(id);
+        }
+        if (beer.getStripes() > 0) {
+            return stripedStockService.rebalance(beer, delta) ? beer : null;
+        }
+        int quantityAfterChange = beer.getQuantity() + delta;
+        if (quantityAfterChange < heldFloor(id, delta) || quantityAfterChange > beer.getMax()) {
+            return null;
+        }
+        beer.setQuantity(quantityAfterChange);
+        return beerRepository.save(beer);
+    }
+
+    /**
+     * The lowest stock a change of {@code delta} may leave behind: what reservations hold for a decrement, read while
+     * the caller holds the beer row lock, so no new hold can be placed until it commits.
+     */
+    private int heldFloor(Long id, int delta) {
+        return delta < 0 ? holdRepository.heldQuantity(id, clock.instant()) : 0;
+    }
+
+    /**
+     * Decrements every item of the order or none of them. Items for the same beer are merged, and the beer rows are
+     * locked one by one in ascending id order, so two orders touching the same beers always wait for each other in the
+     * same order and can never deadlock. Units held by reservations are not available to the order; the holds of all
+     * plain beers are read in one statement once every row is locked. Plain beers are only written once every item has
+     * been checked; striped beers are changed while checking, and the rollback undoes them if a later item fails.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<BeerDTO> placeOrder(OrderDTO orderDTO) throws BeerNotFoundException, BeerStockBelowZeroException {
+        Map<Long, Integer> quantitiesById = new TreeMap<>();
+        for (OrderItemDTO item : orderDTO.getItems()) {
+            quantitiesById.merge(item.getId(), item.getQuantity(), Integer::sum);
+        }
+
+        List<Beer> lockedBeers = new ArrayList<>(quantitiesById.size());
+        List<Long> plainIds = new ArrayList<>(quantitiesById.size());
+        for (Map.Entry<Long, Integer> entry : quantitiesById.entrySet()) {
+            Beer beer = beerRepository.findByIdForUpdate(entry.getKey())
+                    .orElseThrow(() -> new BeerNotFoundException(entry.getKey()));
+            hotKeyDetector.record(beer.getId());
+            int delta = -entry.getValue();
+            if (beer.getStripes() == 0) {
+                plainIds.add(beer.getId());
+            } else if (!stripedStockService.tryApply(beer, delta) && !stripedStockService.rebalance(beer, delta)) {
+                throw new BeerStockBelowZeroException(entry.getKey(), entry.getValue());
+            }
+            lockedBeers.add(beer);
+        }
 
+        Map<Long, Long> heldById = plainIds.isEmpty() ? Map.of() : holdRepository.sumHeldByBeerId(plainIds, clock.instant())
+                .stream()
+                .collect(Collectors.toMap(BeerHeldTotal::getBeerId, BeerHeldTotal::getQuantity));
+        for (Beer beer : lockedBeers) {
+            int quantityToDecrement = quantitiesById.get(beer.getId());
+            if (beer.getStripes() == 0
+                    && beer.getQuantity() - quantityToDecrement < heldById.getOrDefault(beer.getId(), 0L)) {
+                throw new BeerStockBelowZeroException(beer.getId(), quantityToDecrement);
+            }
+        }
+
+        List<BeerDTO> decrementedBeers = new ArrayList<>(lockedBeers.size());
+        for (Beer beer : lockedBeers) {
+            int quantityToDecrement = quantitiesById.get(beer.getId());
+            if (beer.getStripes() == 0) {
+                beer.setQuantity(beer.getQuantity() - quantityToDecrement);
+            }
+            Beer decrementedBeer = beerRepository.save(beer);
+            eventPublisher.publishEvent(BeerChangedEvent.stockChanged(decrementedBeer, -quantityToDecrement,
+                    changeVersions.transactionVersion()));
+            decrementedBeers.add(beerMapper.toDTO(decrementedBeer));
+        }
+        return decrementedBeers;
     }
 }
@@ -0,0 +1,262 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import one.digitalinnovation.beerstock.dto.BeerGroupStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerStatsDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.BeerGroupTotals;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.snapshot.BeerStockSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Grouped stock statistics. Totals per (type, brand) are computed with a {@code GROUP BY} query off the request path
+ * and then kept current by applying the deltas carried by {@link BeerChangedEvent}s, so serving stats never rescans the
+ * table.
+ * <p>
+ * Stats are per node: events are only published on the node that made the change, so changes made on other nodes
+ * show up once the totals are rebuilt, at startup and then every {@code beerstock.stats.refresh-ms}. The same refresh
+ * retries a rebuild that found no clean cut.
+ * <p>
+ * A rebuild reads the stable change version before its query and keeps the result only if nothing newer was stored
+ * by the time the query ran. Every change at or below that version is then part of the totals and every later one is
+ * not, so events are applied exactly when their version is above it, whatever order they arrive in. The totals are
+ * built into a new map and swapped in, so readers never see a half-built one.
+ * <p>
+ * Events are applied to atomic counters under the read side of a lock, so writes never wait for each other. The
+ * query runs without the lock; events arriving meanwhile are also journaled, and the rebuild takes the write side
+ * only to replay the journaled events above its version into the new totals and swap them in.
+ * <p>
+ * Never initialized lazily, otherwise its {@link Scheduled} method would not be registered until something else
+ * happened to request the bean.
+ */
+@Slf4j
+@Lazy(false)
+@Service
+public class BeerStatsService {
+
+    private static final int FILL_RATIO_BUCKETS = 10;
+
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private static final long NOT_LOADED = -1;
+
+    private final BeerRepository beerRepository;
+
+    private final BeerStockSnapshot snapshot;
+
+    private final BeerChangeService beerChangeService;
+
+    private final ChangeVersionSequence changeVersions;
+
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private volatile Totals totals = new Totals(NOT_LOADED, new ConcurrentHashMap<>());
+
+    private volatile Queue<BeerChangedEvent> journal;
+
+    @Autowired
+    public BeerStatsService(BeerRepository beerRepository,
+                            BeerStockSnapshot snapshot,
+                            BeerChangeService beerChangeService,
+                            ChangeVersionSequence changeVersions) {
+        this.beerRepository = beerRepository;
+        this.snapshot = snapshot;
+        this.beerChangeService = beerChangeService;
+        this.changeVersions = changeVersions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        load();
+    }
+
+    @Scheduled(initialDelayString = "${beerstock.stats.refresh-ms}", fixedDelayString = "${beerstock.stats.refresh-ms}")
+    public void refresh() {
+        load();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        Lock lock = swapLock.readLock();
+        lock.lock();
+        try {
+            Queue<BeerChangedEvent> pending = journal;
+            if (pending != null) {
+                pending.add(event);
+            }
+            totals.apply(event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public BeerStatsDTO getStats() {
+        Map<GroupKey, GroupTotals> groups = totals.groups;
+        return BeerStatsDTO.builder()
+                .total(summarize("ALL", new ArrayList<>(groups.values())))
+                .byType(groupBy(groups, key -> key.type.name()))
+                .byBrand(groupBy(groups, key -> key.brand))
+                .fillRatioHistogram(snapshot.fillRatioHistogram(FILL_RATIO_BUCKETS))
+                .build();
+    }
+
+    /**
+     * Swaps in fresh totals when a query lands on a clean cut. When writes keep committing during every attempt, the
+     * current totals are kept: they are exact up to their version and events keep them current, so they stay right
+     * until the next refresh tries again. Only before the first clean cut is the last query served as it is, without
+     * applying events to it.
+     */
+    private void load() {
+        rebuildLock.lock();
+        journal = new ConcurrentLinkedQueue<>();
+        try {
+            Map<GroupKey, GroupTotals> groups = null;
+            for (int attempt = 1; attempt <= MAX_REBUILD_ATTEMPTS; attempt++) {
+                long stableVersion = changeVersions.stableVersion();
+                groups = new ConcurrentHashMap<>();
+                for (BeerGroupTotals group : beerRepository.sumStockByTypeAndBrand()) {
+                    groups.computeIfAbsent(new GroupKey(group.getType(), group.getBrand()), key -> new GroupTotals())
+                            .add(group.getBeers(), group.getQuantity(), group.getCapacity());
+                }
+                if (beerChangeService.storedVersion() <= stableVersion) {
+                    swapIn(new Totals(stableVersion, groups));
+                    log.info("Loaded stock statistics for {} type/brand groups at change version {}",
+                            groups.size(), stableVersion);
+                    return;
+                }
+            }
+            if (totals.version == NOT_LOADED) {
+                swapIn(new Totals(NOT_LOADED, groups));
+            }
+            log.debug("Stock changed during each of {} statistics queries; keeping the current totals",
+                    MAX_REBUILD_ATTEMPTS);
+        } finally {
+            journal = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Every event either journaled before this point or applied after it, so each one lands in the new totals once.
+     */
+    private void swapIn(Totals loaded) {
+        Lock lock = swapLock.writeLock();
+        lock.lock();
+        try {
+            for (BeerChangedEvent event : journal) {
+                loaded.apply(event);
+            }
+            journal = new ConcurrentLinkedQueue<>();
+            totals = loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static List<BeerGroupStatsDTO> groupBy(Map<GroupKey, GroupTotals> totals,
+                                                   Function<GroupKey, String> classifier) {
+        return totals.entrySet()
+                .stream()
+                .collect(Collectors.groupingBy(entry -> classifier.apply(entry.getKey()),
+                        Collectors.mapping(Map.Entry::getValue, Collectors.toList())))
+                .entrySet()
+                .stream()
+                .map(entry -> summarize(entry.getKey(), entry.getValue()))
+                .filter(stats -> stats.getBeers() > 0)
+                .sorted(Comparator.comparing(BeerGroupStatsDTO::getGroup))
+                .collect(Collectors.toList());
+    }
+
+    private static BeerGroupStatsDTO summarize(String group, List<GroupTotals> groupTotals) {
+        long beers = 0;
+        long quantity = 0;
+        long capacity = 0;
+        for (GroupTotals totals : groupTotals) {
+            beers += totals.beers.get();
+            quantity += totals.quantity.get();
+            capacity += totals.capacity.get();
+        }
+        return BeerGroupStatsDTO.builder()
+                .group(group)
+                .beers(beers)
+                .quantity(quantity)
+                .capacity(capacity)
+                .averageQuantity(beers == 0 ? 0 : (double) quantity / beers)
+                .fillRatio(capacity == 0 ? 0 : (double) quantity / capacity)
+                .build();
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class GroupKey {
+        private final BeerType type;
+        private final String brand;
+    }
+
+    /**
+     * Totals that include every change up to {@code version}, and the later ones applied since.
+     */
+    @AllArgsConstructor
+    private static class Totals {
+        private final long version;
+        private final Map<GroupKey, GroupTotals> groups;
+
+        void apply(BeerChangedEvent event) {
+            if (version == NOT_LOADED || event.getChangeVersion() <= version) {
+                return;
+            }
+            GroupTotals groupTotals = groups.computeIfAbsent(new GroupKey(event.getType(), event.getBrand()),
+                    key -> new GroupTotals());
+            switch (event.getKind()) {
+                case CREATED:
+                    groupTotals.add(1, event.getQuantity(), event.getMax());
+                    break;
+                case DELETED:
+                    groupTotals.add(-1, -event.getQuantity(), -event.getMax());
+                    break;
+                default:
+                    groupTotals.add(0, event.getDelta(), 0);
+            }
+        }
+    }
+
+    private static class GroupTotals {
+        private final AtomicLong beers = new AtomicLong();
+        private final AtomicLong quantity = new AtomicLong();
+        private final AtomicLong capacity = new AtomicLong();
+
+        void add(long beers, long quantity, long capacity) {
+            this.beers.addAndGet(beers);
+            this.quantity.addAndGet(quantity);
+            this.capacity.addAndGet(capacity);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.StockHold;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockBelowZeroException;
+import one.digitalinnovation.beerstock.exception.ReservationNotFoundException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.StockHoldRepository;
+import one.digitalinnovation.beerstock.util.HashedTimingWheel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds on beer stock for checkout flows, stored as {@link StockHold} rows so every node sees them.
+ * <p>
+ * A hold is placed with the beer row and its stripes locked, against the stock not already held. Decrements and
+ * orders read the live holds under the same lock and never take held units; {@code Beer.quantity} is only written for
+ * a hold when it is committed, through {@link BeerService#decrement}, in the transaction that removes it. Cancelled
+ * and expired holds never touch the beer row. A hold stops counting once it expires; its row is then removed by a
+ * {@link HashedTimingWheel} on the node that placed it, advanced by a scheduled tick, and by a slower sweep for holds
+ * whose node went away.
+ */
+@Slf4j
+@Lazy(false)
+@Service
+public class ReservationService {
+
+    private final StockHoldRepository holdRepository;
+
+    private final BeerRepository beerRepository;
+
+    private final BeerService beerService;
+
+    private final StripedStockService stripedStockService;
+
+    private final Clock clock;
+
+    private final Duration defaultTtl;
+
+    private final HashedTimingWheel<String> expiries;
+
+    private final Map<String, HashedTimingWheel.Timeout<String>> timeouts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReservationService(StockHoldRepository holdRepository,
+                              BeerRepository beerRepository,
+                              BeerService beerService,
+                              StripedStockService stripedStockService,
+                              @Value("${beerstock.reservations.default-ttl-seconds}") long defaultTtlSeconds,
+                              @Value("${beerstock.reservations.tick-ms}") long tickMillis,
+                              @Value("${beerstock.reservations.wheel-size}") int wheelSize) {
+        this(holdRepository, beerRepository, beerService, stripedStockService, Clock.systemUTC(),
+                Duration.ofSeconds(defaultTtlSeconds), tickMillis, wheelSize);
+    }
+
+    ReservationService(StockHoldRepository holdRepository,
+                       BeerRepository beerRepository,
+                       BeerService beerService,
+                       StripedStockService stripedStockService,
+                       Clock clock,
+                       Duration defaultTtl,
+                       long tickMillis,
+                       int wheelSize) {
+        this.holdRepository = holdRepository;
+        this.beerRepository = beerRepository;
+        this.beerService = beerService;
+        this.stripedStockService = stripedStockService;
+        this.clock = clock;
+        this.defaultTtl = defaultTtl;
+        this.expiries = new HashedTimingWheel<>(tickMillis, wheelSize, clock.millis());
+    }
+
+    @Transactional
+    public ReservationDTO reserve(Long beerId, int quantity, Integer ttlSeconds) throws BeerNotFoundException, BeerStockBelowZeroException {
+        Beer beer = beerRepository.findByIdForUpdate(beerId)
+                .orElseThrow(() -> new BeerNotFoundException(beerId));
+        Instant now = clock.instant();
+        long available = stripedStockService.lockedTotal(beer) - holdRepository.sumHeld(beerId, now);
+        if (quantity > available) {
+            throw new BeerStockBelowZeroException(beerId, quantity);
+        }
+
+        Duration ttl = ttlSeconds == null ? defaultTtl : Duration.ofSeconds(ttlSeconds);
+        StockHold hold = holdRepository.save(new StockHold(UUID.randomUUID().toString(), beerId, quantity,
+                now.plus(ttl)));
+        timeouts.put(hold.getId(), expiries.schedule(hold.getId(), hold.getExpiresAt().toEpochMilli()));
+        return toDTO(hold);
+    }
+
+    /**
+     * Turns the hold into a real decrement. The hold is removed in the decrement's transaction, so its units become
+     * available to the decrement only, and a failed decrement keeps the hold.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public BeerDTO commit(Long beerId, String reservationId) throws ReservationNotFoundException, BeerNotFoundException, BeerStockBelowZeroException {
+        StockHold hold = claim(beerId, reservationId);
+        return beerService.decrement(beerId, hold.getQuantity());
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public void cancel(Long beerId, String reservationId) throws ReservationNotFoundException {
+        claim(beerId, reservationId);
+    }
+
+    public int heldQuantity(Long beerId) {
+        return (int) holdRepository.sumHeld(beerId, clock.instant());
+    }
+
+    @Scheduled(fixedRateString = "${beerstock.reservations.tick-ms}")
+    public void expire() {
+        List<String> expired = expiries.advance(clock.millis());
+        if (expired.isEmpty()) {
+            return;
+        }
+        timeouts.keySet().removeAll(expired);
+        int removed = holdRepository.deleteExpired(expired, clock.instant());
+        log.debug("{} reservations expired", removed);
+    }
+
+    @Scheduled(fixedRateString = "${beerstock.reservations.sweep-ms}")
+    public void sweep() {
+        int removed = holdRepository.deleteAllExpired(clock.instant());
+        if (removed > 0) {
+            log.debug("Swept {} expired reservations", removed);
+        }
+    }
+
+    /**
+     * Removes the beer's holds in the transaction that deletes the beer.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBeerChanged(BeerChangedEvent event) {
+        if (event.getKind() == BeerChangedEvent.Kind.DELETED) {
+            holdRepository.deleteByBeerId(event.getBeerId());
+        }
+    }
+
+    private StockHold claim(Long beerId, String reservationId) throws ReservationNotFoundException {
+        Instant now = clock.instant();
+        StockHold hold = holdRepository.findById(reservationId)
+                .filter(found -> found.getBeerId().equals(beerId))
+                .orElseThrow(() -> new ReservationNotFoundException(beerId, reservationId));
+        if (holdRepository.deleteLive(reservationId, beerId, now) == 0) {
+            throw new ReservationNotFoundException(beerId, reservationId);
+        }
+        HashedTimingWheel.Timeout<String> timeout = timeouts.remove(reservationId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return hold;
+    }
+
+    private static ReservationDTO toDTO(StockHold hold) {
+        return new ReservationDTO(hold.getId(), hold.getBeerId(), hold.getQuantity(), hold.getExpiresAt());
+    }
+}
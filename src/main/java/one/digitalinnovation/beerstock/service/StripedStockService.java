@@ -0,0 +1,204 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.BeerStockStripe;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockStripeRepository;
+import one.digitalinnovation.beerstock.repository.StockHoldRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits the stock of hot beers over {@link BeerStockStripe} rows so concurrent increments and decrements land on
+ * different rows instead of queueing on the beer row.
+ * <p>
+ * A change first tries one random stripe with a conditional update that keeps the stripe within its share of
+ * {@code max}. When that stripe cannot absorb it, the beer row and all its stripes are locked (beer first, then
+ * stripes in order), the exact total is checked against {@code 0} and {@code max}, and the stock is spread evenly
+ * again. Rejections therefore only ever come from the exact check.
+ * <p>
+ * Reservation holds are placed with the beer row and every stripe locked. A decrement that took a stripe therefore
+ * sees every hold placed before it, and gives the stripe back when there is one, so only the exact check decides
+ * whether the unheld stock covers it.
+ */
+@Slf4j
+@Service
+public class StripedStockService {
+
+    private final BeerRepository beerRepository;
+
+    private final BeerStockStripeRepository stripeRepository;
+
+    private final StockHoldRepository holdRepository;
+
+    private final int stripeCount;
+
+    private final Clock clock;
+
+    private final Set<Long> stripedIds = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public StripedStockService(BeerRepository beerRepository,
+                               BeerStockStripeRepository stripeRepository,
+                               StockHoldRepository holdRepository,
+                               @Value("${beerstock.stripes.count}") int stripeCount) {
+        this(beerRepository, stripeRepository, holdRepository, stripeCount, Clock.systemUTC());
+    }
+
+    StripedStockService(BeerRepository beerRepository,
+                        BeerStockStripeRepository stripeRepository,
+                        StockHoldRepository holdRepository,
+                        int stripeCount,
+                        Clock clock) {
+        this.beerRepository = beerRepository;
+        this.stripeRepository = stripeRepository;
+        this.holdRepository = holdRepository;
+        this.stripeCount = stripeCount;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether the beer was striped when this node last looked. Beers striped or merged by another node only show up
+     * after the next {@link #refreshStriped}, so callers still check the row they read.
+     */
+    public boolean mayBeStriped(Long beerId) {
+        return stripedIds.contains(beerId);
+    }
+
+    public void refreshStriped(Collection<Long> beerIds) {
+        stripedIds.retainAll(beerIds);
+        stripedIds.addAll(beerIds);
+    }
+
+    /**
+     * Applies {@code delta} to a single random stripe of a striped beer; returns {@code false} when that stripe cannot
+     * take it, or when it is a decrement of a beer with holds, leaving the decision to {@link #rebalance}. A stripe that
+     * cannot take it is left unlocked, so the caller can still lock the beer row and then every stripe in order.
+     */
+    @Transactional
+    public boolean tryApply(Beer beer, int delta) {
+        int stripe = ThreadLocalRandom.current().nextInt(beer.getStripes());
+        if (stripeRepository.applyDelta(beer.getId(), stripe, delta) == 0) {
+            return false;
+        }
+        if (delta < 0 && holdRepository.heldQuantity(beer.getId(), clock.instant()) > 0) {
+            stripeRepository.applyDelta(beer.getId(), stripe, -delta);
+            return false;
+        }
+        beer.setStripedQuantity((int) stripeRepository.sumQuantity(beer.getId()));
+        return true;
+    }
+
+    /**
+     * Applies {@code delta} to a striped beer whose row the caller has locked, spreading the resulting total evenly
+     * over its stripes; returns {@code false} without changes when the total would leave {@code [0, max]}, or when a
+     * decrement would take held units.
+     */
+    @Transactional
+    public boolean rebalance(Beer lockedBeer, int delta) {
+        List<BeerStockStripe> stripes = stripeRepository.findByBeerIdForUpdate(lockedBeer.getId());
+        int total = lockedBeer.getQuantity();
+        for (BeerStockStripe stripe : stripes) {
+            total += stripe.getQuantity();
+        }
+        int totalAfterChange = total + delta;
+        int floor = delta < 0 ? holdRepository.heldQuantity(lockedBeer.getId(), clock.instant()) : 0;
+        if (totalAfterChange < floor || totalAfterChange > lockedBeer.getMax()) {
+            return false;
+        }
+        spread(stripes, totalAfterChange, lockedBeer.getMax());
+        stripeRepository.saveAll(stripes);
+        lockedBeer.setQuantity(0);
+        lockedBeer.setStripedQuantity(totalAfterChange);
+        beerRepository.save(lockedBeer);
+        return true;
+    }
+
+    /**
+     * Returns the exact stock of a beer whose row the caller has locked, locking its stripes as well so no stripe can
+     * change until the surrounding transaction ends.
+     */
+    @Transactional
+    public int lockedTotal(Beer lockedBeer) {
+        int total = lockedBeer.getQuantity();
+        if (lockedBeer.getStripes() > 0) {
+            for (BeerStockStripe stripe : stripeRepository.findByBeerIdForUpdate(lockedBeer.getId())) {
+                total += stripe.getQuantity();
+            }
+        }
+        return total;
+    }
+
+    @Transactional
+    public boolean stripe(Long beerId) {
+        Beer beer = beerRepository.findByIdForUpdate(beerId).orElse(null);
+        int stripes = beer == null ? 0 : Math.min(stripeCount, beer.getMax());
+        if (beer == null || beer.getStripes() > 0 || stripes < 2) {
+            return false;
+        }
+        List<BeerStockStripe> rows = new ArrayList<>(stripes);
+        for (int i = 0; i < stripes; i++) {
+            rows.add(new BeerStockStripe(null, beerId, i, 0, 0, 0));
+        }
+        spread(rows, beer.getQuantity(), beer.getMax());
+        stripeRepository.saveAll(rows);
+        beer.setStripedQuantity(beer.getQuantity());
+        beer.setQuantity(0);
+        beer.setStripes(stripes);
+        beerRepository.save(beer);
+        stripedIds.add(beerId);
+        log.info("Striped beer {} over {} rows", beerId, stripes);
+        return true;
+    }
+
+    @Transactional
+    public boolean merge(Long beerId) {
+        Beer beer = beerRepository.findByIdForUpdate(beerId).orElse(null);
+        if (beer == null || beer.getStripes() == 0) {
+            return false;
+        }
+        int total = beer.getQuantity();
+        for (BeerStockStripe stripe : stripeRepository.findByBeerIdForUpdate(beerId)) {
+            total += stripe.getQuantity();
+        }
+        stripeRepository.deleteByBeerId(beerId);
+        beer.setQuantity(total);
+        beer.setStripedQuantity(0);
+        beer.setStripes(0);
+        beerRepository.save(beer);
+        stripedIds.remove(beerId);
+        log.info("Merged stripes of beer {} back into its row", beerId);
+        return true;
+    }
+
+    @Transactional
+    public void removeStripes(Beer beer) {
+        if (beer.getStripes() > 0) {
+            stripeRepository.deleteByBeerId(beer.getId());
+        }
+    }
+
+    /**
+     * Gives stripe {@code i} an even share of {@code max} and of {@code quantity}, the remainders going to the first
+     * stripes. Both shares round the same way, so every stripe ends with {@code quantity <= capacity}.
+     */
+    private static void spread(List<BeerStockStripe> stripes, int quantity, int max) {
+        int count = stripes.size();
+        for (int i = 0; i < count; i++) {
+            BeerStockStripe stripe = stripes.get(i);
+            stripe.setCapacity(max / count + (i < max % count ? 1 : 0));
+            stripe.setQuantity(quantity / count + (i < quantity % count ? 1 : 0));
+        }
+    }
+}
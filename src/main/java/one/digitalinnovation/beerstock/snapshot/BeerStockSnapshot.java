@@ -0,0 +1,264 @@
+package one.digitalinnovation.beerstock.snapshot;
+
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Read-mostly, off-heap copy of the stock columns of every beer ({@code max}, {@code quantity} and type ordinal),
+ * indexed directly by beer id.
+ * <p>
+ * Each record also keeps the change version it was loaded at, so {@link #apply} can tell a change the load already
+ * saw from one it did not; changes are applied as deltas, which gives the same result in whatever order they arrive.
+ * A removed beer leaves a tombstone rather than an empty record, so a late change or a load that read the beer
+ * before it was deleted cannot bring it back. Beer ids are never reused.
+ * <p>
+ * Records live in fixed-size direct {@link ByteBuffer} segments that are allocated on demand, so the snapshot grows
+ * without copying and keeps nothing but a handful of buffers on the heap. Readers never lock: aggregate queries may
+ * observe a change that is being applied concurrently, which is fine for analytics.
+ */
+@Component
+public class BeerStockSnapshot {
+
+    static final int SEGMENT_BITS = 16;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private static final int MAX_OFFSET = 0;
+    private static final int QUANTITY_OFFSET = 4;
+    private static final int TYPE_OFFSET = 8;
+    private static final int VERSION_OFFSET = 12;
+    private static final int RECORD_SIZE = 20;
+
+    private static final byte ABSENT = 0;
+    private static final byte DELETED = -1;
+
+    private static final BeerType[] TYPES = BeerType.values();
+
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+
+    private final Object growLock = new Object();
+
+    public void put(long id, int max, int quantity, BeerType type) {
+        ByteBuffer segment = segmentForWrite(id);
+        int offset = offset(id);
+        synchronized (segment) {
+            write(segment, offset, max, quantity, type, 0);
+        }
+    }
+
+    /**
+     * Stores the record only if the snapshot holds nothing for this id yet, neither a record nor a tombstone.
+     * {@code loadedVersion} is the version the values were read at: {@link #apply} skips changes at or below it.
+     */
+    public boolean putIfAbsent(long id, int max, int quantity, BeerType type, long loadedVersion) {
+        ByteBuffer segment = segmentForWrite(id);
+        int offset = offset(id);
+        synchronized (segment) {
+            if (segment.get(offset + TYPE_OFFSET) != ABSENT) {
+                return false;
+            }
+            write(segment, offset, max, quantity, type, loadedVersion);
+            return true;
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the quantity unless the change is already part of the loaded record, that is unless
+     * {@code changeVersion} is at or below its loaded version. Changes to removed beers are dropped. Returns
+     * {@code false} when the snapshot knows nothing about the beer, leaving the change to the caller.
+     */
+    public boolean apply(long id, int delta, long changeVersion) {
+        ByteBuffer segment = segmentForRead(id);
+        if (segment == null) {
+            return false;
+        }
+        int offset = offset(id);
+        synchronized (segment) {
+            byte type = segment.get(offset + TYPE_OFFSET);
+            if (type == ABSENT) {
+                return false;
+            }
+            if (type != DELETED && changeVersion > segment.getLong(offset + VERSION_OFFSET)) {
+                segment.putInt(offset + QUANTITY_OFFSET, segment.getInt(offset + QUANTITY_OFFSET) + delta);
+            }
+            return true;
+        }
+    }
+
+    public void remove(long id) {
+        ByteBuffer segment = segmentForWrite(id);
+        int offset = offset(id);
+        synchronized (segment) {
+            segment.putInt(offset + MAX_OFFSET, 0);
+            segment.putInt(offset + QUANTITY_OFFSET, 0);
+            segment.put(offset + TYPE_OFFSET, DELETED);
+        }
+    }
+
+    public boolean contains(long id) {
+        ByteBuffer segment = segmentForRead(id);
+        return segment != null && isLive(segment.get(offset(id) + TYPE_OFFSET));
+    }
+
+    public int quantity(long id) {
+        ByteBuffer segment = segmentForRead(id);
+        return segment == null ? 0 : segment.getInt(offset(id) + QUANTITY_OFFSET);
+    }
+
+    public int max(long id) {
+        ByteBuffer segment = segmentForRead(id);
+        return segment == null ? 0 : segment.getInt(offset(id) + MAX_OFFSET);
+    }
+
+    public BeerType type(long id) {
+        ByteBuffer segment = segmentForRead(id);
+        if (segment == null) {
+            return null;
+        }
+        byte type = segment.get(offset(id) + TYPE_OFFSET);
+        return isLive(type) ? TYPES[type - 1] : null;
+    }
+
+    public long size() {
+        return reduceSegments(new long[1], (segment, partial) -> {
+            for (int offset = 0; offset < SEGMENT_SIZE * RECORD_SIZE; offset += RECORD_SIZE) {
+                if (isLive(segment.get(offset + TYPE_OFFSET))) {
+                    partial[0]++;
+                }
+            }
+        })[0];
+    }
+
+    public Map<BeerType, Long> totalQuantityByType() {
+        return toTypeMap(reduceSegments(new long[TYPES.length], (segment, partial) -> {
+            for (int offset = 0; offset < SEGMENT_SIZE * RECORD_SIZE; offset += RECORD_SIZE) {
+                byte type = segment.get(offset + TYPE_OFFSET);
+                if (isLive(type)) {
+                    partial[type - 1] += segment.getInt(offset + QUANTITY_OFFSET);
+                }
+            }
+        }));
+    }
+
+    public Map<BeerType, Long> totalMaxByType() {
+        return toTypeMap(reduceSegments(new long[TYPES.length], (segment, partial) -> {
+            for (int offset = 0; offset < SEGMENT_SIZE * RECORD_SIZE; offset += RECORD_SIZE) {
+                byte type = segment.get(offset + TYPE_OFFSET);
+                if (isLive(type)) {
+                    partial[type - 1] += segment.getInt(offset + MAX_OFFSET);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Counts beers by {@code quantity / max} in {@code buckets} equal-width buckets; a full beer lands in the last
+     * bucket. Beers with a {@code max} of zero have no meaningful fill ratio and are left out.
+     */
+    public long[] fillRatioHistogram(int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Histogram needs at least one bucket");
+        }
+        return reduceSegments(new long[buckets], (segment, partial) -> {
+            for (int offset = 0; offset < SEGMENT_SIZE * RECORD_SIZE; offset += RECORD_SIZE) {
+                if (!isLive(segment.get(offset + TYPE_OFFSET))) {
+                    continue;
+                }
+                int max = segment.getInt(offset + MAX_OFFSET);
+                if (max <= 0) {
+                    continue;
+                }
+                long bucket = (long) segment.getInt(offset + QUANTITY_OFFSET) * buckets / max;
+                partial[(int) Math.max(0, Math.min(buckets - 1, bucket))]++;
+            }
+        });
+    }
+
+    private interface SegmentReducer {
+        void accumulate(ByteBuffer segment, long[] partial);
+    }
+
+    private long[] reduceSegments(long[] identity, SegmentReducer reducer) {
+        ByteBuffer[] current = segments;
+        return IntStream.range(0, current.length)
+                .parallel()
+                .filter(index -> current[index] != null)
+                .mapToObj(index -> {
+                    long[] partial = new long[identity.length];
+                    reducer.accumulate(current[index], partial);
+                    return partial;
+                })
+                .reduce(identity, BeerStockSnapshot::sum);
+    }
+
+    private static long[] sum(long[] left, long[] right) {
+        long[] result = Arrays.copyOf(left, left.length);
+        for (int i = 0; i < right.length; i++) {
+            result[i] += right[i];
+        }
+        return result;
+    }
+
+    private static Map<BeerType, Long> toTypeMap(long[] totals) {
+        Map<BeerType, Long> byType = new EnumMap<>(BeerType.class);
+        for (BeerType type : TYPES) {
+            byType.put(type, totals[type.ordinal()]);
+        }
+        return byType;
+    }
+
+    private static void write(ByteBuffer segment, int offset, int max, int quantity, BeerType type, long version) {
+        segment.putInt(offset + MAX_OFFSET, max);
+        segment.putInt(offset + QUANTITY_OFFSET, quantity);
+        segment.put(offset + TYPE_OFFSET, (byte) (type.ordinal() + 1));
+        segment.putLong(offset + VERSION_OFFSET, version);
+    }
+
+    private static boolean isLive(byte type) {
+        return type > ABSENT;
+    }
+
+    private static int offset(long id) {
+        return (int) (id & SEGMENT_MASK) * RECORD_SIZE;
+    }
+
+    private static int segmentIndex(long id) {
+        if (id < 0 || (id >>> SEGMENT_BITS) >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Beer id out of snapshot range: " + id);
+        }
+        return (int) (id >>> SEGMENT_BITS);
+    }
+
+    private ByteBuffer segmentForRead(long id) {
+        ByteBuffer[] current = segments;
+        int index = segmentIndex(id);
+        return index < current.length ? current[index] : null;
+    }
+
+    private ByteBuffer segmentForWrite(long id) {
+        ByteBuffer segment = segmentForRead(id);
+        if (segment != null) {
+            return segment;
+        }
+        synchronized (growLock) {
+            int index = segmentIndex(id);
+            ByteBuffer[] current = segments;
+            if (index >= current.length) {
+                current = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+            } else if (current[index] != null) {
+                return current[index];
+            } else {
+                current = current.clone();
+            }
+            current[index] = ByteBuffer.allocateDirect(SEGMENT_SIZE * RECORD_SIZE);
+            segments = current;
+            return current[index];
+        }
+    }
+}
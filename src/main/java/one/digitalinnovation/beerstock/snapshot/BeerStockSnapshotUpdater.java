@@ -0,0 +1,166 @@
+package one.digitalinnovation.beerstock.snapshot;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the {@link BeerStockSnapshot} current: loads every beer in id order once the application is ready and then
+ * applies the delta of each committed {@link BeerChangedEvent}.
+ * <p>
+ * Listeners of different transactions run in any order, so a change is never matched against the arrival of other
+ * events, only against the version its beer was loaded at. A beer is loaded at the stable version read just before
+ * its page; when the page shows a newer version than that, a change that committed during the read may or may not be
+ * part of it, and the beer is read again until it is not. Changes to beers that are not loaded yet wait in
+ * {@link #pending}.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerStockSnapshotUpdater {
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private static final int MAX_LOAD_RETRIES = 10;
+
+    private static final long LOAD_RETRY_MILLIS = 50;
+
+    private final BeerRepository beerRepository;
+
+    private final BeerStockSnapshot snapshot;
+
+    private final ChangeVersionSequence changeVersions;
+
+    private final Map<Long, List<BeerChangedEvent>> pending = new HashMap<>();
+
+    private final AtomicBoolean loaded = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Set<Long> unsettled = new TreeSet<>();
+        long visited = 0;
+        long lastId = 0;
+        List<BeerStockRow> page;
+        do {
+            long stableVersion = changeVersions.stableVersion();
+            page = beerRepository.findStockRowsAfter(lastId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (BeerStockRow row : page) {
+                if (!settle(row, stableVersion, false)) {
+                    unsettled.add(row.getId());
+                }
+                lastId = row.getId();
+            }
+            visited += page.size();
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        for (int retry = 1; !unsettled.isEmpty(); retry++) {
+            pause(retry);
+            long stableVersion = changeVersions.stableVersion();
+            boolean last = retry == MAX_LOAD_RETRIES;
+            List<BeerStockRow> rows = beerRepository.findStockRowsByIdIn(unsettled);
+            unsettled.clear();
+            for (BeerStockRow row : rows) {
+                if (!settle(row, stableVersion, last)) {
+                    unsettled.add(row.getId());
+                }
+            }
+            if (last && !rows.isEmpty()) {
+                log.warn("{} beers kept changing while the stock snapshot loaded; a change made during the load may "
+                        + "be missing from them", rows.size());
+            }
+        }
+
+        synchronized (pending) {
+            loaded.set(true);
+            new ArrayList<>(pending.keySet()).forEach(this::createFromPending);
+        }
+        log.info("Loaded {} beers into the stock snapshot", visited);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        Long id = event.getBeerId();
+        if (event.getKind() == BeerChangedEvent.Kind.DELETED) {
+            snapshot.remove(id);
+            synchronized (pending) {
+                pending.remove(id);
+            }
+            return;
+        }
+        if (snapshot.apply(id, event.getDelta(), event.getChangeVersion())) {
+            return;
+        }
+        synchronized (pending) {
+            if (snapshot.apply(id, event.getDelta(), event.getChangeVersion())) {
+                return;
+            }
+            pending.computeIfAbsent(id, key -> new ArrayList<>()).add(event);
+            if (loaded.get()) {
+                createFromPending(id);
+            }
+        }
+    }
+
+    /**
+     * Stores the row unless a change may have committed while it was read, that is unless its version is above the
+     * stable version read before it. With {@code force} it is stored at its own version anyway.
+     */
+    private boolean settle(BeerStockRow row, long stableVersion, boolean force) {
+        if (row.getChangeVersion() > stableVersion && !force) {
+            return false;
+        }
+        long loadedVersion = force ? row.getChangeVersion() : stableVersion;
+        synchronized (pending) {
+            snapshot.putIfAbsent(row.getId(), row.getMax(), row.getQuantity(), row.getType(), loadedVersion);
+            drain(row.getId());
+        }
+        return true;
+    }
+
+    /**
+     * A beer the load did not see was created after its page was read, so none of its changes are part of the
+     * snapshot. Its record is created once its creation event has arrived; changes that overtook it keep waiting.
+     */
+    private void createFromPending(Long id) {
+        pending.get(id)
+                .stream()
+                .filter(event -> event.getKind() == BeerChangedEvent.Kind.CREATED)
+                .findFirst()
+                .ifPresent(created -> {
+                    snapshot.putIfAbsent(id, created.getMax(), 0, created.getType(), 0);
+                    drain(id);
+                });
+    }
+
+    private void drain(Long id) {
+        List<BeerChangedEvent> events = pending.remove(id);
+        if (events != null) {
+            events.forEach(event -> snapshot.apply(id, event.getDelta(), event.getChangeVersion()));
+        }
+    }
+
+    private static void pause(int retry) {
+        try {
+            Thread.sleep(LOAD_RETRY_MILLIS * retry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package one.digitalinnovation.beerstock.sql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets, from 1 µs to about 67 s plus an overflow bucket.
+ * Recording is a few atomic adds; percentiles are read as the upper bound of the bucket they fall in, capped at the
+ * largest value seen, so they are at most a factor of two high.
+ */
+public class LatencyHistogram {
+
+    private static final int BOUNDED_BUCKETS = 27;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDED_BUCKETS + 1);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos) / 1000;
+        int bucket = micros <= 1 ? 0 : Math.min(BOUNDED_BUCKETS, 64 - Long.numberOfLeadingZeros(micros - 1));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long maxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Estimates the {@code quantile}, between 0 and 1, in microseconds; 0 when nothing was recorded.
+     */
+    public long percentileMicros(double quantile) {
+        long[] counts = snapshot();
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long maxMicros = maxNanos() / 1000;
+        long seen = 0;
+        for (int bucket = 0; bucket < BOUNDED_BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(1L << bucket, maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+    /**
+     * Non-empty buckets keyed by their upper bound, {@code "<=1024us"}, with the overflow bucket last as
+     * {@code "+Inf"}.
+     */
+    public Map<String, Long> buckets() {
+        long[] counts = snapshot();
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            if (counts[bucket] > 0) {
+                buckets.put(bucket < BOUNDED_BUCKETS ? "<=" + (1L << bucket) + "us" : "+Inf", counts[bucket]);
+            }
+        }
+        return buckets;
+    }
+
+    private long[] snapshot() {
+        long[] counts = new long[buckets.length()];
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            counts[bucket] = buckets.get(bucket);
+        }
+        return counts;
+    }
+}
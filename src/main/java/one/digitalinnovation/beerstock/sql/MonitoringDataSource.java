@@ -0,0 +1,186 @@
+package one.digitalinnovation.beerstock.sql;
+
+import one.digitalinnovation.beerstock.tracing.SpanKind;
+import one.digitalinnovation.beerstock.tracing.SpanScope;
+import one.digitalinnovation.beerstock.tracing.Tracing;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Wraps the pool's connections so that every statement they run is timed and handed to the {@link QueryMonitor}.
+ * Connections and statements are JDK proxies over the real ones; a prepared statement also remembers the parameters
+ * set on it, for the slow query log. Under a sampled trace each statement gets a client span of its own, named after
+ * its operation and table.
+ * <p>
+ * A batch counts as one statement. Only the statement calls go through the monitor; everything else, {@code unwrap}
+ * included, is passed straight to the driver.
+ */
+public class MonitoringDataSource extends DelegatingDataSource {
+
+    private final QueryMonitor queryMonitor;
+
+    public MonitoringDataSource(DataSource targetDataSource, QueryMonitor queryMonitor) {
+        super(targetDataSource);
+        this.queryMonitor = queryMonitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(MonitoringDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Proxies keep their own identity, so pools and Hibernate can use them as map keys.
+     */
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? (Object) (proxy == args[0]) : (Object) System.identityHashCode(proxy);
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        return method.getName().equals("hashCode") && method.getParameterCount() == 0
+                || method.getName().equals("equals") && method.getParameterCount() == 1;
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = MonitoringDataSource.invoke(connection, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return statement(Statement.class, (Statement) result, null);
+                case "prepareStatement":
+                    return statement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall":
+                    return statement(CallableStatement.class, (Statement) result, (String) args[0]);
+                default:
+                    return result;
+            }
+        }
+
+        private Object statement(Class<? extends Statement> type, Statement statement, String sql) {
+            return Proxy.newProxyInstance(MonitoringDataSource.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+
+        private final String preparedSql;
+
+        private Object[] binds;
+
+        private String batchSql;
+
+        private int batchSize;
+
+        private StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                binds = null;
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+                if (args != null && args.length == 1) {
+                    batchSql = (String) args[0];
+                }
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+                batchSql = null;
+            }
+            return MonitoringDataSource.invoke(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            boolean batch = method.getName().endsWith("Batch");
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+                    : preparedSql != null ? preparedSql : batchSql;
+            if (sql == null) {
+                return MonitoringDataSource.invoke(statement, method, args);
+            }
+            QueryStats stats = queryMonitor.statsFor(sql);
+            Throwable failure = null;
+            long start = System.nanoTime();
+            try (SpanScope span = Tracing.span(stats.getSpanName(), SpanKind.CLIENT)) {
+                span.attribute("db.statement", stats.getSql());
+                try {
+                    return MonitoringDataSource.invoke(statement, method, args);
+                } catch (Throwable throwable) {
+                    failure = throwable;
+                    span.error(throwable);
+                    throw throwable;
+                }
+            } finally {
+                queryMonitor.record(stats, sql, System.nanoTime() - start, preparedSql != null ? binds : null,
+                        batch ? batchSize : 0, failure);
+                if (batch) {
+                    batchSize = 0;
+                    batchSql = null;
+                }
+            }
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1) {
+                return;
+            }
+            if (binds == null || index >= binds.length) {
+                binds = binds == null ? new Object[index + 1] : Arrays.copyOf(binds, index + 1);
+            }
+            binds[index] = value;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package one.digitalinnovation.beerstock.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collects what {@link MonitoringDataSource} sees: every statement is added to the current {@link StatementTally}
+ * and to the latency of its normalized form, and statements slower than {@code beerstock.sql.slow-query-ms} are
+ * logged with their bind parameters.
+ * <p>
+ * Statements are normalized once per distinct SQL string: whitespace is collapsed, literals become {@code ?} and
+ * parameter lists of any length become {@code (?...)}, so an {@code IN} query is one entry whatever its size. At most
+ * {@code beerstock.sql.max-tracked-statements} entries are kept; later ones share a single entry.
+ */
+@Slf4j
+@Component
+public class QueryMonitor {
+
+    static final String OTHER_STATEMENTS = "(other statements)";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update|table)\\s+([\\w.$\"]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowQueryNanos;
+
+    private final int maxTrackedStatements;
+
+    private final int maxBindLength;
+
+    private final Map<String, QueryStats> bySql = new ConcurrentHashMap<>();
+
+    private final Map<String, QueryStats> byNormalizedSql = new ConcurrentHashMap<>();
+
+    @Autowired
+    public QueryMonitor(MeterRegistry meterRegistry,
+                        @Value("${beerstock.sql.slow-query-ms}") long slowQueryMillis,
+                        @Value("${beerstock.sql.max-tracked-statements}") int maxTrackedStatements,
+                        @Value("${beerstock.sql.max-bind-length}") int maxBindLength) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+        this.maxTrackedStatements = maxTrackedStatements;
+        this.maxBindLength = maxBindLength;
+    }
+
+    /**
+     * Returns the entry {@code sql} is recorded under. Distinct SQL strings are remembered up to four times the
+     * tracked statements; beyond that they are normalized on every call.
+     */
+    QueryStats statsFor(String sql) {
+        QueryStats stats = bySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        stats = byNormalizedSql(normalize(sql));
+        if (bySql.size() < 4 * maxTrackedStatements) {
+            bySql.putIfAbsent(sql, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Records one execution; {@code binds} holds the parameters set by index, from 1, of a prepared statement and
+     * may be {@code null}.
+     */
+    void record(QueryStats stats, String sql, long nanos, Object[] binds, int batchSize, Throwable failure) {
+        stats.record(nanos);
+        SqlStatements.record(stats.getSql(), nanos);
+        if (nanos >= slowQueryNanos) {
+            log.warn("Slow statement took {} ms{}{}: {} binds {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    batchSize > 0 ? " for a batch of " + batchSize : "",
+                    failure != null ? " and failed with " + failure : "",
+                    WHITESPACE.matcher(sql).replaceAll(" ").trim(), formatBinds(binds));
+        }
+    }
+
+    /**
+     * The tracked statements, in no particular order.
+     */
+    public List<QueryStats> statistics() {
+        return new ArrayList<>(byNormalizedSql.values());
+    }
+
+    /**
+     * Starts over. The {@code beerstock.sql.statements} timers are removed as well and registered again, from zero,
+     * by the next statement of their operation and table.
+     */
+    public void reset() {
+        for (QueryStats stats : byNormalizedSql.values()) {
+            if (stats.getTimer() != null) {
+                meterRegistry.remove(stats.getTimer());
+            }
+        }
+        bySql.clear();
+        byNormalizedSql.clear();
+    }
+
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        return PARAMETER_LIST.matcher(normalized).replaceAll("(?...)");
+    }
+
+    private QueryStats byNormalizedSql(String normalizedSql) {
+        QueryStats stats = byNormalizedSql.get(normalizedSql);
+        if (stats != null) {
+            return stats;
+        }
+        String key = byNormalizedSql.size() < maxTrackedStatements ? normalizedSql : OTHER_STATEMENTS;
+        return byNormalizedSql.computeIfAbsent(key, this::newStats);
+    }
+
+    private QueryStats newStats(String normalizedSql) {
+        if (normalizedSql.equals(OTHER_STATEMENTS)) {
+            return new QueryStats(normalizedSql, "other", "other", timer("other", "other"));
+        }
+        int firstSpace = normalizedSql.indexOf(' ');
+        String operation = (firstSpace < 0 ? normalizedSql : normalizedSql.substring(0, firstSpace)).toLowerCase(Locale.ROOT);
+        String table = table(normalizedSql);
+        return new QueryStats(normalizedSql, operation, table, timer(operation, table));
+    }
+
+    /**
+     * The first table named outside parentheses, so that a subquery in the select list, such as the one behind
+     * {@code Beer.totalQuantity}, is not taken for the queried table.
+     */
+    static String table(String sql) {
+        Matcher table = TABLE.matcher(sql);
+        int depth = 0;
+        int scanned = 0;
+        while (table.find()) {
+            for (; scanned < table.start(); scanned++) {
+                char c = sql.charAt(scanned);
+                depth += c == '(' ? 1 : c == ')' ? -1 : 0;
+            }
+            if (depth == 0) {
+                return table.group(1).replace("\"", "").toLowerCase(Locale.ROOT);
+            }
+        }
+        return "none";
+    }
+
+    private Timer timer(String operation, String table) {
+        return Timer.builder("beerstock.sql.statements")
+                .tag("operation", operation)
+                .tag("table", table)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+
+    private String formatBinds(Object[] binds) {
+        if (binds == null) {
+            return "[]";
+        }
+        StringBuilder formatted = new StringBuilder("[");
+        for (int index = 1; index < binds.length; index++) {
+            if (index > 1) {
+                formatted.append(", ");
+            }
+            formatted.append(formatBind(binds[index]));
+        }
+        return formatted.append(']').toString();
+    }
+
+    private String formatBind(Object bind) {
+        if (bind == null) {
+            return "null";
+        }
+        if (bind instanceof byte[]) {
+            return "<" + ((byte[]) bind).length + " bytes>";
+        }
+        String value = String.valueOf(bind);
+        if (value.length() > maxBindLength) {
+            value = value.substring(0, maxBindLength) + "...";
+        }
+        return bind instanceof CharSequence ? "'" + value + "'" : value;
+    }
+}
@@ -0,0 +1,63 @@
+package one.digitalinnovation.beerstock.sql;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one normalized statement, also reported to the {@code beerstock.sql.statements} timer of its operation
+ * and table.
+ */
+public final class QueryStats {
+
+    private final String sql;
+
+    private final String operation;
+
+    private final String table;
+
+    private final String spanName;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private final Timer timer;
+
+    QueryStats(String sql, String operation, String table, Timer timer) {
+        this.sql = sql;
+        this.operation = operation;
+        this.table = table;
+        this.spanName = "SQL " + operation + " " + table;
+        this.timer = timer;
+    }
+
+    void record(long nanos) {
+        histogram.record(nanos);
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    String getSpanName() {
+        return spanName;
+    }
+
+    Timer getTimer() {
+        return timer;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
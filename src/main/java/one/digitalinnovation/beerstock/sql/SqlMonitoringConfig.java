@@ -0,0 +1,29 @@
+package one.digitalinnovation.beerstock.sql;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class SqlMonitoringConfig {
+
+    /**
+     * Wraps every data source in a {@link MonitoringDataSource}. The pool bean itself is still the one closed on
+     * shutdown, and its metrics and health check reach it through the wrapper.
+     */
+    @Bean
+    public static BeanPostProcessor monitoringDataSourcePostProcessor(ObjectProvider<QueryMonitor> queryMonitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof MonitoringDataSource)) {
+                    return new MonitoringDataSource((DataSource) bean, queryMonitor.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package one.digitalinnovation.beerstock.sql;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.SqlQueryStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@code /actuator/sqlqueries}: latency histogram of every normalized statement, the ones that took the most time in
+ * total first, or with {@code slowest=true} the ones with the highest p99. A DELETE starts over.
+ */
+@Component
+@Endpoint(id = "sqlqueries")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class SqlQueriesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final QueryMonitor queryMonitor;
+
+    @ReadOperation
+    public List<SqlQueryStatsDTO> queries(@Nullable Integer limit, @Nullable Boolean slowest) {
+        Comparator<SqlQueryStatsDTO> order = Boolean.TRUE.equals(slowest)
+                ? Comparator.comparingLong(SqlQueryStatsDTO::getP99Micros).reversed()
+                : Comparator.comparingLong(SqlQueryStatsDTO::getTotalMillis).reversed();
+        return queryMonitor.statistics().stream()
+                .map(SqlQueriesEndpoint::toDTO)
+                .filter(query -> query.getCount() > 0)
+                .sorted(order.thenComparing(Comparator.comparingLong(SqlQueryStatsDTO::getCount).reversed()))
+                .limit(limit == null ? DEFAULT_LIMIT : limit)
+                .collect(Collectors.toList());
+    }
+
+    @DeleteOperation
+    public void reset() {
+        queryMonitor.reset();
+    }
+
+    private static SqlQueryStatsDTO toDTO(QueryStats stats) {
+        LatencyHistogram histogram = stats.getHistogram();
+        long count = histogram.count();
+        return SqlQueryStatsDTO.builder()
+                .sql(stats.getSql())
+                .operation(stats.getOperation())
+                .table(stats.getTable())
+                .count(count)
+                .totalMillis(histogram.totalNanos() / 1_000_000)
+                .meanMicros(count == 0 ? 0 : histogram.totalNanos() / count / 1000)
+                .p50Micros(histogram.percentileMicros(0.5))
+                .p95Micros(histogram.percentileMicros(0.95))
+                .p99Micros(histogram.percentileMicros(0.99))
+                .maxMicros(histogram.maxNanos() / 1000)
+                .histogram(histogram.buckets())
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package one.digitalinnovation.beerstock.sql;
+
+/**
+ * Thread-local statement counting. Every statement run through {@link MonitoringDataSource} is added to the current
+ * tally and to all the tallies it is nested in; {@code ContextPropagatingTaskDecorator} carries the current tally over
+ * to executor threads, so a request is counted as a whole even though it is served on the read or write executor.
+ * <p>
+ * Tests use {@link #capture} to put a budget on the statements a call may issue:
+ * <pre>
+ * try (StatementScope statements = SqlStatements.capture()) {
+ *     beerService.increment(id, 5);
+ * }
+ * assertThat(statements.count(), lessThanOrEqualTo(4));
+ * </pre>
+ */
+public final class SqlStatements {
+
+    private static final ThreadLocal<StatementTally> CURRENT = new ThreadLocal<>();
+
+    private SqlStatements() {
+    }
+
+    /**
+     * Starts a tally nested in the current one and makes it current until the scope is closed.
+     */
+    public static StatementScope capture() {
+        return open(false);
+    }
+
+    /**
+     * Like {@link #capture}, also counting executions per normalized statement; see
+     * {@link StatementTally#repeatedAtLeast}.
+     */
+    public static StatementScope captureWithRepeats() {
+        return open(true);
+    }
+
+    /**
+     * Returns the tally current on this thread, or {@code null} when there is none.
+     */
+    public static StatementTally current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes {@code tally}, which may be {@code null}, current until the scope is closed. Used to keep counting on
+     * another thread.
+     */
+    public static StatementScope activate(StatementTally tally) {
+        StatementTally previous = CURRENT.get();
+        restore(tally);
+        return new StatementScope(tally, previous);
+    }
+
+    static void record(String normalizedSql, long elapsedNanos) {
+        StatementTally tally = CURRENT.get();
+        if (tally != null) {
+            tally.record(normalizedSql, elapsedNanos);
+        }
+    }
+
+    static void restore(StatementTally tally) {
+        if (tally == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(tally);
+        }
+    }
+
+    private static StatementScope open(boolean trackRepeats) {
+        StatementTally previous = CURRENT.get();
+        StatementTally tally = new StatementTally(previous, trackRepeats);
+        CURRENT.set(tally);
+        return new StatementScope(tally, previous);
+    }
+}
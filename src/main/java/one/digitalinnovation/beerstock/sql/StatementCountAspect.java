@@ -0,0 +1,49 @@
+package one.digitalinnovation.beerstock.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports the statements each service call issues to {@code beerstock.sql.statements.per.call}, tagged
+ * {@code Type.method}. It wraps the transaction interceptor, so the flush and the commit are part of the call.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StatementCountAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<JoinPoint.StaticPart, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Around("execution(public * one.digitalinnovation.beerstock.service..*(..))")
+    public Object countStatements(ProceedingJoinPoint joinPoint) throws Throwable {
+        StatementScope statements = SqlStatements.capture();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            statements.close();
+            summaries.computeIfAbsent(joinPoint.getStaticPart(), this::summary).record(statements.count());
+        }
+    }
+
+    private DistributionSummary summary(JoinPoint.StaticPart joinPoint) {
+        return DistributionSummary.builder("beerstock.sql.statements.per.call")
+                .tag("method", joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                        + joinPoint.getSignature().getName())
+                .register(meterRegistry);
+    }
+}
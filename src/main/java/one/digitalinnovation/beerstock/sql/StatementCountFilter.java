@@ -0,0 +1,90 @@
+package one.digitalinnovation.beerstock.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the statements each request issues, across both of its dispatches and the executor thread in between, and
+ * reports them to {@code beerstock.sql.statements.per.request}, tagged with the route. A request that runs the same
+ * normalized statement {@code beerstock.sql.n-plus-one-threshold} times or more is logged as a likely N+1.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    static final String TALLY_ATTRIBUTE = StatementCountFilter.class.getName() + ".tally";
+
+    private final MeterRegistry meterRegistry;
+
+    private final int nPlusOneThreshold;
+
+    @Autowired
+    public StatementCountFilter(MeterRegistry meterRegistry,
+                                @Value("${beerstock.sql.n-plus-one-threshold}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator/");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatementTally tally = (StatementTally) request.getAttribute(TALLY_ATTRIBUTE);
+        if (tally == null) {
+            tally = new StatementTally(null, true);
+        }
+
+        try (StatementScope scope = SqlStatements.activate(tally)) {
+            chain.doFilter(request, response);
+        } finally {
+            if (isAsyncStarted(request)) {
+                request.setAttribute(TALLY_ATTRIBUTE, tally);
+            } else {
+                request.removeAttribute(TALLY_ATTRIBUTE);
+                report(request, tally);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, StatementTally tally) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = request.getMethod() + " " + (pattern == null ? "UNKNOWN" : pattern);
+        DistributionSummary.builder("beerstock.sql.statements.per.request")
+                .tag("route", route)
+                .register(meterRegistry)
+                .record(tally.count());
+        for (Map.Entry<String, Integer> repeated : tally.repeatedAtLeast(nPlusOneThreshold).entrySet()) {
+            log.warn("Possible N+1 in {}: {} ran {} times", route, repeated.getKey(), repeated.getValue());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("{} ran {} statements in {} ms", route, tally.count(),
+                    TimeUnit.NANOSECONDS.toMillis(tally.totalNanos()));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package one.digitalinnovation.beerstock.sql;
+
+/**
+ * Makes a tally current on this thread until closed, then restores the tally that was current before. Meant for
+ * try-with-resources.
+ */
+public class StatementScope implements AutoCloseable {
+
+    private final StatementTally tally;
+
+    private final StatementTally previous;
+
+    StatementScope(StatementTally tally, StatementTally previous) {
+        this.tally = tally;
+        this.previous = previous;
+    }
+
+    public StatementTally tally() {
+        return tally;
+    }
+
+    /**
+     * Statements counted so far; still valid after the scope is closed.
+     */
+    public int count() {
+        return tally == null ? 0 : tally.count();
+    }
+
+    @Override
+    public void close() {
+        SqlStatements.restore(previous);
+    }
+}
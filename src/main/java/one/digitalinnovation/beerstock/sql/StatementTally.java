@@ -0,0 +1,62 @@
+package one.digitalinnovation.beerstock.sql;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Statements executed while the tally was current, including those counted by nested tallies. A batch counts as one
+ * statement, since it is one round trip. Tallies that track repeats also count executions per normalized statement,
+ * which is what gives an N+1 away.
+ */
+public final class StatementTally {
+
+    private final StatementTally parent;
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final Map<String, AtomicInteger> repeats;
+
+    StatementTally(StatementTally parent, boolean trackRepeats) {
+        this.parent = parent;
+        this.repeats = trackRepeats ? new ConcurrentHashMap<>() : null;
+    }
+
+    void record(String normalizedSql, long elapsedNanos) {
+        for (StatementTally tally = this; tally != null; tally = tally.parent) {
+            tally.count.incrementAndGet();
+            tally.nanos.addAndGet(elapsedNanos);
+            if (tally.repeats != null) {
+                tally.repeats.computeIfAbsent(normalizedSql, sql -> new AtomicInteger()).incrementAndGet();
+            }
+        }
+    }
+
+    public int count() {
+        return count.get();
+    }
+
+    public long totalNanos() {
+        return nanos.get();
+    }
+
+    /**
+     * Normalized statements executed at least {@code threshold} times, most repeated first; empty unless the tally
+     * tracks repeats.
+     */
+    public Map<String, Integer> repeatedAtLeast(int threshold) {
+        if (repeats == null) {
+            return Map.of();
+        }
+        return repeats.entrySet().stream()
+                .filter(entry -> entry.getValue().get() >= threshold)
+                .sorted(Comparator.comparingInt((Map.Entry<String, AtomicInteger> entry) -> entry.getValue().get()).reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get(), (a, b) -> a, LinkedHashMap::new));
+    }
+}
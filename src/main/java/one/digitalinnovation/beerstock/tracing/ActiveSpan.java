@@ -0,0 +1,148 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A span that is still running. Only sampled traces create these; every span of a trace shares its {@link Trace},
+ * which caps how many spans one trace may record, so a request mapping thousands of beers cannot flood the ring.
+ */
+public final class ActiveSpan {
+
+    /**
+     * Offset from {@link System#nanoTime()} to the epoch, so span times are monotonic within the process and still
+     * line up with wall-clock time.
+     */
+    private static final long EPOCH_OFFSET_NANOS = System.currentTimeMillis() * 1_000_000 - System.nanoTime();
+
+    private final Trace trace;
+
+    private final String spanId;
+
+    private final String parentSpanId;
+
+    private final SpanKind kind;
+
+    private final boolean root;
+
+    private final String thread;
+
+    private final long startNanos;
+
+    private volatile String name;
+
+    private Map<String, String> attributes = Collections.emptyMap();
+
+    private String error;
+
+    private volatile boolean ended;
+
+    private ActiveSpan(Trace trace, String parentSpanId, String name, SpanKind kind, boolean root) {
+        this.trace = trace;
+        this.spanId = randomHex(1);
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.root = root;
+        this.thread = Thread.currentThread().getName();
+        this.startNanos = System.nanoTime();
+    }
+
+    static ActiveSpan root(SpanRing ring, int maxSpans, String traceId, String parentSpanId, String name, SpanKind kind) {
+        Trace trace = new Trace(ring, maxSpans, traceId != null ? traceId : randomHex(2));
+        trace.spans.incrementAndGet();
+        return new ActiveSpan(trace, parentSpanId, name, kind, true);
+    }
+
+    /**
+     * Starts a child span, or returns {@code null} once the trace has used up its span budget.
+     */
+    ActiveSpan child(String name, SpanKind kind) {
+        if (trace.spans.incrementAndGet() > trace.maxSpans) {
+            trace.dropped.incrementAndGet();
+            return null;
+        }
+        return new ActiveSpan(trace, spanId, name, kind, false);
+    }
+
+    public String getTraceId() {
+        return trace.traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public void rename(String name) {
+        this.name = name;
+    }
+
+    public synchronized void attribute(String key, Object value) {
+        if (attributes.isEmpty()) {
+            attributes = new LinkedHashMap<>(4);
+        }
+        attributes.put(key, String.valueOf(value));
+    }
+
+    public synchronized void error(Throwable throwable) {
+        error = throwable.getClass().getSimpleName()
+                + (throwable.getMessage() == null ? "" : ": " + throwable.getMessage());
+    }
+
+    /**
+     * Records the span; later calls do nothing. The root span also reports how many spans its trace dropped.
+     */
+    public void end() {
+        long endNanos = System.nanoTime();
+        synchronized (this) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            if (root && trace.dropped.get() > 0) {
+                attribute("tracing.dropped_spans", trace.dropped.get());
+            }
+        }
+        trace.ring.record(new Span(trace.traceId, spanId, parentSpanId, name, kind, thread,
+                EPOCH_OFFSET_NANOS + startNanos, EPOCH_OFFSET_NANOS + endNanos, attributes, error));
+    }
+
+    private static String randomHex(int longs) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder hex = new StringBuilder(longs * 16);
+        for (int i = 0; i < longs; i++) {
+            long value;
+            do {
+                value = random.nextLong();
+            } while (value == 0);
+            String digits = Long.toHexString(value);
+            for (int pad = digits.length(); pad < 16; pad++) {
+                hex.append('0');
+            }
+            hex.append(digits);
+        }
+        return hex.toString();
+    }
+
+    private static final class Trace {
+
+        private final SpanRing ring;
+
+        private final int maxSpans;
+
+        private final String traceId;
+
+        private final AtomicInteger spans = new AtomicInteger();
+
+        private final AtomicInteger dropped = new AtomicInteger();
+
+        private Trace(SpanRing ring, int maxSpans, String traceId) {
+            this.ring = ring;
+            this.maxSpans = maxSpans;
+            this.traceId = traceId;
+        }
+    }
+}
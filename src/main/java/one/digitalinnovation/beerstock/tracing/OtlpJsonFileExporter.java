@@ -0,0 +1,127 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.TraceExportDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends the spans recorded since the last export to a local file, one OTLP/JSON {@code ExportTraceServiceRequest}
+ * per line, the layout the OpenTelemetry Collector's {@code otlpjsonfile} receiver reads. Runs on demand through the
+ * {@code traces} endpoint and, when enabled, on a schedule. Spans overwritten in the ring before an export are lost.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class OtlpJsonFileExporter {
+
+    private static final String SCOPE_NAME = Tracing.class.getPackage().getName();
+
+    private final SpanRing spanRing;
+
+    private final ObjectMapper objectMapper;
+
+    private final Path file;
+
+    private final String serviceName;
+
+    private final boolean scheduled;
+
+    private long nextSequence;
+
+    @Autowired
+    public OtlpJsonFileExporter(SpanRing spanRing,
+                                ObjectMapper objectMapper,
+                                @Value("${beerstock.tracing.export.file}") String file,
+                                @Value("${beerstock.tracing.export.service-name}") String serviceName,
+                                @Value("${beerstock.tracing.export.scheduled}") boolean scheduled) {
+        this.spanRing = spanRing;
+        this.objectMapper = objectMapper;
+        this.file = Paths.get(file);
+        this.serviceName = serviceName;
+        this.scheduled = scheduled;
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.tracing.export.interval-ms}")
+    public void scheduledExport() {
+        if (!scheduled) {
+            return;
+        }
+        try {
+            export();
+        } catch (UncheckedIOException e) {
+            log.warn("Could not export spans to {}", file, e);
+        }
+    }
+
+    public synchronized TraceExportDTO export() {
+        SpanRing.Batch batch = spanRing.since(nextSequence);
+        if (!batch.getSpans().isEmpty()) {
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    writer.write(objectMapper.writeValueAsString(toOtlp(batch.getSpans())));
+                    writer.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        nextSequence = batch.getNextSequence();
+        return new TraceExportDTO(file.toAbsolutePath().toString(), batch.getSpans().size());
+    }
+
+    ObjectNode toOtlp(List<Span> spans) {
+        ObjectNode request = objectMapper.createObjectNode();
+        ObjectNode resourceSpans = request.putArray("resourceSpans").addObject();
+        attributes(resourceSpans.putObject("resource"), Map.of("service.name", serviceName));
+        ObjectNode scopeSpans = resourceSpans.putArray("scopeSpans").addObject();
+        scopeSpans.putObject("scope").put("name", SCOPE_NAME);
+        ArrayNode otlpSpans = scopeSpans.putArray("spans");
+        for (Span span : spans) {
+            ObjectNode otlpSpan = otlpSpans.addObject()
+                    .put("traceId", span.getTraceId())
+                    .put("spanId", span.getSpanId());
+            if (span.getParentSpanId() != null) {
+                otlpSpan.put("parentSpanId", span.getParentSpanId());
+            }
+            otlpSpan.put("name", span.getName())
+                    .put("kind", span.getKind().getOtlpCode())
+                    .put("startTimeUnixNano", Long.toString(span.getStartEpochNanos()))
+                    .put("endTimeUnixNano", Long.toString(span.getEndEpochNanos()));
+            attributes(otlpSpan, span.getAttributes());
+            if (span.getError() != null) {
+                otlpSpan.putObject("status").put("code", 2).put("message", span.getError());
+            }
+        }
+        return request;
+    }
+
+    private static void attributes(ObjectNode target, Map<String, String> attributes) {
+        if (attributes.isEmpty()) {
+            return;
+        }
+        ArrayNode array = target.putArray("attributes");
+        attributes.forEach((key, value) -> array.addObject()
+                .put("key", key)
+                .putObject("value").put("stringValue", value));
+    }
+}
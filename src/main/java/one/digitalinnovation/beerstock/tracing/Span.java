@@ -0,0 +1,41 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * A finished span. Times are nanoseconds since the epoch; {@code parentSpanId} is {@code null} for a root span that
+ * did not continue a remote trace.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class Span {
+
+    private final String traceId;
+
+    private final String spanId;
+
+    private final String parentSpanId;
+
+    private final String name;
+
+    private final SpanKind kind;
+
+    private final String thread;
+
+    private final long startEpochNanos;
+
+    private final long endEpochNanos;
+
+    private final Map<String, String> attributes;
+
+    private final String error;
+
+    public long getDurationNanos() {
+        return endEpochNanos - startEpochNanos;
+    }
+}
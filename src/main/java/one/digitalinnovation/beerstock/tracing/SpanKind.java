@@ -0,0 +1,18 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Role of a span, numbered as in OpenTelemetry's {@code Span.SpanKind}.
+ */
+@Getter
+@AllArgsConstructor
+public enum SpanKind {
+
+    INTERNAL(1),
+    SERVER(2),
+    CLIENT(3);
+
+    private final int otlpCode;
+}
@@ -0,0 +1,84 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of the most recently finished spans. Recording is one atomic increment and one array write, so it
+ * never blocks request threads; once the ring is full the oldest spans are overwritten. Every span gets a sequence
+ * number, which lets the exporter pick up exactly the spans it has not written yet.
+ */
+public class SpanRing {
+
+    private final AtomicReferenceArray<Entry> slots;
+
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    public SpanRing(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    void record(Span span) {
+        long sequence = nextSequence.getAndIncrement();
+        slots.set((int) (sequence % slots.length()), new Entry(sequence, span));
+    }
+
+    public List<Span> spans() {
+        return since(0).spans;
+    }
+
+    /**
+     * Returns the spans recorded from {@code sequence} on that are still in the ring, oldest first, together with the
+     * sequence to ask from next time.
+     */
+    public Batch since(long sequence) {
+        long end = nextSequence.get();
+        long start = Math.max(sequence, end - slots.length());
+        List<Span> spans = new ArrayList<>((int) Math.max(0, end - start));
+        for (long s = start; s < end; s++) {
+            Entry entry = slots.get((int) (s % slots.length()));
+            if (entry != null && entry.sequence == s) {
+                spans.add(entry.span);
+            }
+        }
+        return new Batch(spans, end);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public static final class Batch {
+
+        private final List<Span> spans;
+
+        private final long nextSequence;
+
+        private Batch(List<Span> spans, long nextSequence) {
+            this.spans = spans;
+            this.nextSequence = nextSequence;
+        }
+
+        public List<Span> getSpans() {
+            return spans;
+        }
+
+        public long getNextSequence() {
+            return nextSequence;
+        }
+    }
+
+    private static final class Entry {
+
+        private final long sequence;
+
+        private final Span span;
+
+        private Entry(long sequence, Span span) {
+            this.sequence = sequence;
+            this.span = span;
+        }
+    }
+}
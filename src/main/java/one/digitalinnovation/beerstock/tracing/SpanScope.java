@@ -0,0 +1,45 @@
+package one.digitalinnovation.beerstock.tracing;
+
+/**
+ * Makes a span current on this thread until closed, then restores the span that was current before. Meant for
+ * try-with-resources; the scope of an unsampled request is a shared no-op.
+ */
+public class SpanScope implements AutoCloseable {
+
+    static final SpanScope NOOP = new SpanScope(null, null, false);
+
+    private final ActiveSpan span;
+
+    private final ActiveSpan previous;
+
+    private final boolean endOnClose;
+
+    SpanScope(ActiveSpan span, ActiveSpan previous, boolean endOnClose) {
+        this.span = span;
+        this.previous = previous;
+        this.endOnClose = endOnClose;
+    }
+
+    public void attribute(String key, Object value) {
+        if (span != null) {
+            span.attribute(key, value);
+        }
+    }
+
+    public void error(Throwable throwable) {
+        if (span != null) {
+            span.error(throwable);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (this == NOOP) {
+            return;
+        }
+        if (endOnClose) {
+            span.end();
+        }
+        Tracing.restore(previous);
+    }
+}
@@ -0,0 +1,48 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts the root spans of one application context, with its own sampling rate and span ring. Only roots need these:
+ * every child span joins the trace of the span current on its thread, so spans opened through {@link Tracing} end up
+ * in the ring of the context whose request they belong to.
+ */
+public class Tracer {
+
+    private static final Pattern TRACEPARENT = Pattern.compile("00-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})");
+
+    private final SpanRing ring;
+
+    private final double sampleRate;
+
+    private final int maxSpansPerTrace;
+
+    public Tracer(SpanRing ring, double sampleRate, int maxSpansPerTrace) {
+        this.ring = ring;
+        this.sampleRate = sampleRate;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+    }
+
+    /**
+     * Starts the root span of a trace, or returns {@code null} when the trace is not sampled. A valid W3C
+     * {@code traceparent} continues the caller's trace and follows its sampling decision. The span is not made
+     * current; see {@link Tracing#activate}.
+     */
+    public ActiveSpan startTrace(String name, SpanKind kind, String traceparent) {
+        if (traceparent != null) {
+            Matcher matcher = TRACEPARENT.matcher(traceparent.trim());
+            if (matcher.matches() && !matcher.group(1).matches("0+") && !matcher.group(2).matches("0+")) {
+                boolean sampled = (Integer.parseInt(matcher.group(3), 16) & 1) == 1;
+                return sampled
+                        ? ActiveSpan.root(ring, maxSpansPerTrace, matcher.group(1), matcher.group(2), name, kind)
+                        : null;
+            }
+        }
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        return ActiveSpan.root(ring, maxSpansPerTrace, null, null, name, kind);
+    }
+}
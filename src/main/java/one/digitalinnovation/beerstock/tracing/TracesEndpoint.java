@@ -0,0 +1,99 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.SpanDTO;
+import one.digitalinnovation.beerstock.dto.TraceExportDTO;
+import one.digitalinnovation.beerstock.dto.TraceSummaryDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@code /actuator/traces}: the sampled traces still in the ring, newest or, with {@code slowest=true}, longest
+ * first; {@code /actuator/traces/{traceId}} lists one trace's spans in start order. A POST exports the spans recorded
+ * since the last export to the OTLP/JSON file.
+ */
+@Component
+@Endpoint(id = "traces")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class TracesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final SpanRing spanRing;
+
+    private final OtlpJsonFileExporter exporter;
+
+    @ReadOperation
+    public List<TraceSummaryDTO> traces(@Nullable Integer limit, @Nullable Boolean slowest) {
+        Comparator<TraceSummaryDTO> order = Boolean.TRUE.equals(slowest)
+                ? Comparator.comparingLong(TraceSummaryDTO::getDurationMicros).reversed()
+                : Comparator.comparing(TraceSummaryDTO::getStartedAt).reversed();
+        return byTrace(spanRing.spans()).values().stream()
+                .map(TracesEndpoint::summarize)
+                .sorted(order)
+                .limit(limit == null ? DEFAULT_LIMIT : limit)
+                .collect(Collectors.toList());
+    }
+
+    @ReadOperation
+    public List<SpanDTO> trace(@Selector String traceId) {
+        List<Span> spans = byTrace(spanRing.spans()).getOrDefault(traceId, List.of());
+        long traceStart = spans.stream().mapToLong(Span::getStartEpochNanos).min().orElse(0);
+        return spans.stream()
+                .sorted(Comparator.comparingLong(Span::getStartEpochNanos))
+                .map(span -> SpanDTO.builder()
+                        .spanId(span.getSpanId())
+                        .parentSpanId(span.getParentSpanId())
+                        .name(span.getName())
+                        .kind(span.getKind().name())
+                        .thread(span.getThread())
+                        .offsetMicros((span.getStartEpochNanos() - traceStart) / 1000)
+                        .durationMicros(span.getDurationNanos() / 1000)
+                        .attributes(span.getAttributes())
+                        .error(span.getError())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @WriteOperation
+    public TraceExportDTO export() {
+        return exporter.export();
+    }
+
+    private static Map<String, List<Span>> byTrace(List<Span> spans) {
+        return spans.stream().collect(Collectors.groupingBy(Span::getTraceId, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    /**
+     * The root is the span whose parent is not part of the trace; a trace whose root was already overwritten is
+     * summarized from its earliest span.
+     */
+    private static TraceSummaryDTO summarize(List<Span> spans) {
+        Set<String> spanIds = spans.stream().map(Span::getSpanId).collect(Collectors.toSet());
+        Span root = spans.stream()
+                .filter(span -> span.getParentSpanId() == null || !spanIds.contains(span.getParentSpanId()))
+                .min(Comparator.comparingLong(Span::getStartEpochNanos))
+                .orElse(spans.get(0));
+        return TraceSummaryDTO.builder()
+                .traceId(root.getTraceId())
+                .name(root.getName())
+                .startedAt(Instant.EPOCH.plusNanos(root.getStartEpochNanos()))
+                .durationMicros(root.getDurationNanos() / 1000)
+                .spans(spans.size())
+                .error(spans.stream().anyMatch(span -> span.getError() != null))
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package one.digitalinnovation.beerstock.tracing;
+
+/**
+ * Entry point of the built-in tracer. The current span lives in a thread local, so nested calls become child spans
+ * without passing anything around; {@code ContextPropagatingTaskDecorator} carries it over to executor threads.
+ * <p>
+ * The sampling decision is made once, when a {@link Tracer} would start the root span. Everything below an unsampled
+ * root, and every span outside a request, costs one thread-local read: {@link #span} hands back a shared no-op scope.
+ * Static so that code outside the container, such as the MapStruct mapper, can open spans; it holds no settings of its
+ * own, since a child span records into the ring of its root.
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<ActiveSpan> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    /**
+     * Starts a child of the current span and makes it current until the scope is closed, which also ends it.
+     */
+    public static SpanScope span(String name) {
+        return span(name, SpanKind.INTERNAL);
+    }
+
+    public static SpanScope span(String name, SpanKind kind) {
+        ActiveSpan parent = CURRENT.get();
+        if (parent == null) {
+            return SpanScope.NOOP;
+        }
+        ActiveSpan child = parent.child(name, kind);
+        if (child == null) {
+            return SpanScope.NOOP;
+        }
+        CURRENT.set(child);
+        return new SpanScope(child, parent, true);
+    }
+
+    /**
+     * Returns the span current on this thread, or {@code null} when there is none.
+     */
+    public static ActiveSpan current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes {@code span}, which may be {@code null}, current until the scope is closed, without ending it. Used to
+     * continue a trace on another thread.
+     */
+    public static SpanScope activate(ActiveSpan span) {
+        ActiveSpan previous = CURRENT.get();
+        restore(span);
+        return new SpanScope(span, previous, false);
+    }
+
+    static void restore(ActiveSpan span) {
+        if (span == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+    }
+}
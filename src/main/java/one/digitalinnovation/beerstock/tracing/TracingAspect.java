@@ -0,0 +1,82 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opens a span around controller handlers, service and cache calls and every Spring Data repository call, named
+ * {@code Type.method}. It runs outside the transaction interceptor, so a service span includes the flush and commit,
+ * and the after-commit listeners appear as its children. Outside a sampled trace the advice only reads the thread
+ * local before proceeding.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingAspect {
+
+    private final Map<Class<?>, Map<Method, String>> spanNames = new ConcurrentHashMap<>();
+
+    @Around("execution(public * one.digitalinnovation.beerstock.controller.BeerController.*(..))"
+            + " && !@annotation(org.springframework.web.bind.annotation.InitBinder)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, SpanKind.INTERNAL);
+    }
+
+    @Around("execution(public * one.digitalinnovation.beerstock.service..*(..))"
+            + " || execution(public * one.digitalinnovation.beerstock.cache.TieredBeerCache.*(..))")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, SpanKind.INTERNAL);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, SpanKind.CLIENT);
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint, SpanKind kind) throws Throwable {
+        if (Tracing.current() == null) {
+            return joinPoint.proceed();
+        }
+        try (SpanScope span = Tracing.span(spanName(joinPoint), kind)) {
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable throwable) {
+                span.error(throwable);
+                throw throwable;
+            }
+        }
+    }
+
+    /**
+     * Repository methods are often declared on {@code CrudRepository}; they are named after the application's own
+     * repository interface instead.
+     */
+    private String spanName(ProceedingJoinPoint joinPoint) {
+        Class<?> targetClass = joinPoint.getTarget().getClass();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return spanNames.computeIfAbsent(targetClass, type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, declared -> typeName(targetClass) + "." + declared.getName());
+    }
+
+    private static String typeName(Class<?> targetClass) {
+        if (Proxy.isProxyClass(targetClass)) {
+            for (Class<?> candidate : targetClass.getInterfaces()) {
+                if (Repository.class.isAssignableFrom(candidate)) {
+                    return candidate.getSimpleName();
+                }
+            }
+        }
+        return targetClass.getSimpleName();
+    }
+}
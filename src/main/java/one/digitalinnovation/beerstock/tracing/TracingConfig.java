@@ -0,0 +1,31 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public SpanRing spanRing(@Value("${beerstock.tracing.ring-capacity}") int capacity) {
+        return new SpanRing(capacity);
+    }
+
+    @Bean
+    public Tracer tracer(SpanRing spanRing,
+                         @Value("${beerstock.tracing.sample-rate}") double sampleRate,
+                         @Value("${beerstock.tracing.max-spans-per-trace}") int maxSpansPerTrace) {
+        return new Tracer(spanRing, sampleRate, maxSpansPerTrace);
+    }
+
+    /**
+     * Takes the place of the converter Spring Boot would otherwise register.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TracingJackson2HttpMessageConverter(objectMapper);
+    }
+}
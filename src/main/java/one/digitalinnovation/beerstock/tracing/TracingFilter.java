@@ -0,0 +1,78 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Opens the root span of each sampled request. Controllers answer with futures, so a request is handled in two
+ * dispatches: the span is parked on the request when the first one ends with the request still async, made current
+ * again for the dispatch that writes the response, and ended after it. The span is named after the matched route.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class TracingFilter extends OncePerRequestFilter {
+
+    static final String ROOT_SPAN_ATTRIBUTE = TracingFilter.class.getName() + ".rootSpan";
+
+    private final Tracer tracer;
+
+    /**
+     * Actuator calls, including reads of the traces themselves, would only crowd request traces out of the ring.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator/");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ActiveSpan root = (ActiveSpan) request.getAttribute(ROOT_SPAN_ATTRIBUTE);
+        if (root == null) {
+            root = tracer.startTrace(request.getMethod(), SpanKind.SERVER, request.getHeader("traceparent"));
+            if (root == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            root.attribute("http.method", request.getMethod());
+            root.attribute("http.target", request.getRequestURI());
+        }
+
+        try (SpanScope scope = Tracing.activate(root)) {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            root.error(e);
+            throw e;
+        } finally {
+            if (isAsyncStarted(request)) {
+                request.setAttribute(ROOT_SPAN_ATTRIBUTE, root);
+            } else {
+                request.removeAttribute(ROOT_SPAN_ATTRIBUTE);
+                Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                if (route != null) {
+                    root.rename(request.getMethod() + " " + route);
+                    root.attribute("http.route", route);
+                }
+                root.attribute("http.status_code", response.getStatus());
+                root.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Runs a validator inside a span named after it.
+ */
+public class TracingValidator implements Validator {
+
+    private final Validator delegate;
+
+    private final String spanName;
+
+    public TracingValidator(Validator delegate) {
+        this.delegate = delegate;
+        this.spanName = delegate.getClass().getSimpleName() + ".validate";
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        try (SpanScope span = Tracing.span(spanName)) {
+            delegate.validate(target, errors);
+            if (errors.hasErrors()) {
+                span.attribute("validation.errors", errors.getErrorCount());
+            }
+        }
+    }
+}
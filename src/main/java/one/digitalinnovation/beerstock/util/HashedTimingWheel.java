@@ -0,0 +1,164 @@
+package one.digitalinnovation.beerstock.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel for many short-lived deadlines.
+ * <p>
+ * Time is split into ticks of {@code tickMillis}; a timeout lands in bucket {@code deadlineTick % wheelSize} with the
+ * number of full wheel turns still to wait. Scheduling and cancelling are O(1), and each tick only visits its own
+ * bucket, so expiring a timeout costs O(1) no matter how many are pending.
+ */
+public class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+
+    private final long startMillis;
+
+    private final Bucket<T>[] wheel;
+
+    private final Bucket<T> overdue = new Bucket<>();
+
+    private final int mask;
+
+    private long currentTick;
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis < 1 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Tick must be positive and wheel size a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.wheel = new Bucket[wheelSize];
+        this.mask = wheelSize - 1;
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket<>();
+        }
+    }
+
+    public synchronized Timeout<T> schedule(T item, long deadlineMillis) {
+        long elapsed = Math.max(0, deadlineMillis - startMillis);
+        long deadlineTick = (elapsed + tickMillis - 1) / tickMillis;
+        if (deadlineTick < currentTick) {
+            // the tick was already processed; hand the timeout to the next advance instead of a full turn later
+            Timeout<T> timeout = new Timeout<>(this, item, 0);
+            overdue.add(timeout);
+            size++;
+            return timeout;
+        }
+        Timeout<T> timeout = new Timeout<>(this, item, (deadlineTick - currentTick) / wheel.length);
+        wheel[(int) (deadlineTick & mask)].add(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Processes every tick that has fully elapsed at {@code nowMillis} and returns the items whose deadline passed.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        List<T> expired = new ArrayList<>();
+        while (overdue.head != null) {
+            Timeout<T> timeout = overdue.head;
+            overdue.remove(timeout);
+            size--;
+            expired.add(timeout.item);
+        }
+        while (currentTick <= targetTick) {
+            Bucket<T> bucket = wheel[(int) (currentTick & mask)];
+            Timeout<T> timeout = bucket.head;
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    bucket.remove(timeout);
+                    size--;
+                    expired.add(timeout.item);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    public static final class Timeout<T> {
+
+        private final HashedTimingWheel<T> wheel;
+
+        private final T item;
+
+        private long remainingRounds;
+
+        private Bucket<T> bucket;
+
+        private Timeout<T> previous;
+
+        private Timeout<T> next;
+
+        private Timeout(HashedTimingWheel<T> wheel, T item, long remainingRounds) {
+            this.wheel = wheel;
+            this.item = item;
+            this.remainingRounds = remainingRounds;
+        }
+
+        /**
+         * Removes the timeout from the wheel; returns {@code false} when it already expired or was cancelled.
+         */
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+    }
+
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+
+        private Timeout<T> tail;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+    }
+}
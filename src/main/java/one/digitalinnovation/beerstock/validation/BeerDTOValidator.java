@@ -0,0 +1,31 @@
+package one.digitalinnovation.beerstock.validation;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Checks the constraints declared on {@link BeerDTO} without going through Bean Validation metadata. Keep it in step
+ * with the annotations on the DTO; {@code DtoValidatorsTest} compares both.
+ */
+public class BeerDTOValidator implements Validator {
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return BeerDTO.class.equals(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        BeerDTO beerDTO = (BeerDTO) target;
+        Constraints.notNull(errors, "name", beerDTO.getName());
+        Constraints.size(errors, "name", beerDTO.getName(), 1, 200);
+        Constraints.notNull(errors, "brand", beerDTO.getBrand());
+        Constraints.size(errors, "brand", beerDTO.getBrand(), 1, 200);
+        Constraints.notNull(errors, "max", beerDTO.getMax());
+        Constraints.max(errors, "max", beerDTO.getMax(), 500);
+        Constraints.notNull(errors, "quantity", beerDTO.getQuantity());
+        Constraints.max(errors, "quantity", beerDTO.getQuantity(), 100);
+        Constraints.notNull(errors, "type", beerDTO.getType());
+    }
+}
@@ -0,0 +1,42 @@
+package one.digitalinnovation.beerstock.validation;
+
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.validation.Errors;
+
+/**
+ * The checks behind {@code @NotNull}, {@code @Max} and {@code @Size}, rejecting with the same error code, arguments
+ * and default message that Hibernate Validator produces through Spring's {@code SpringValidatorAdapter}, so message
+ * codes and error bodies do not change. Values that pass allocate nothing; only a rejection builds its arguments.
+ */
+final class Constraints {
+
+    private static final String NOT_NULL_MESSAGE = "must not be null";
+
+    private Constraints() {
+    }
+
+    static void notNull(Errors errors, String field, Object value) {
+        if (value == null) {
+            errors.rejectValue(field, "NotNull", new Object[]{resolvableField(errors, field)}, NOT_NULL_MESSAGE);
+        }
+    }
+
+    static void max(Errors errors, String field, Integer value, long max) {
+        if (value != null && value > max) {
+            errors.rejectValue(field, "Max", new Object[]{resolvableField(errors, field), max},
+                    "must be less than or equal to " + max);
+        }
+    }
+
+    static void size(Errors errors, String field, String value, int min, int max) {
+        if (value != null && (value.length() < min || value.length() > max)) {
+            errors.rejectValue(field, "Size", new Object[]{resolvableField(errors, field), max, min},
+                    "size must be between " + min + " and " + max);
+        }
+    }
+
+    private static DefaultMessageSourceResolvable resolvableField(Errors errors, String field) {
+        String[] codes = {errors.getObjectName() + Errors.NESTED_PATH_SEPARATOR + field, field};
+        return new DefaultMessageSourceResolvable(codes, field);
+    }
+}
@@ -0,0 +1,25 @@
+package one.digitalinnovation.beerstock.validation;
+
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Checks the constraints declared on {@link QuantityDTO} without going through Bean Validation metadata. The
+ * increment and decrement endpoints validate one of these per request, so skipping the reflective path pays off there.
+ * Keep it in step with the annotations on the DTO; {@code DtoValidatorsTest} compares both.
+ */
+public class QuantityDTOValidator implements Validator {
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return QuantityDTO.class.equals(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        QuantityDTO quantityDTO = (QuantityDTO) target;
+        Constraints.notNull(errors, "quantity", quantityDTO.getQuantity());
+        Constraints.max(errors, "quantity", quantityDTO.getQuantity(), 100);
+    }
+}
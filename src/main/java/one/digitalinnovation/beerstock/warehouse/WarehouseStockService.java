@@ -0,0 +1,255 @@
+package one.digitalinnovation.beerstock.warehouse;
+
+import one.digitalinnovation.beerstock.dto.BeerAvailabilityDTO;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerWarehouseStockDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.Warehouse;
+import one.digitalinnovation.beerstock.entity.WarehouseStock;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.AvailabilityQueryTooLargeException;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockBelowZeroException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.WarehouseStockAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.WarehouseStockNotFoundException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.WarehouseRepository;
+import one.digitalinnovation.beerstock.repository.WarehouseStockRepository;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Stock of a beer spread over warehouses. The main warehouse is the beer's own {@code quantity} and {@code max} and
+ * goes through {@link BeerService}; every other warehouse has a {@link WarehouseStock} row of its own.
+ * <p>
+ * A change to another warehouse is a single conditional update of that warehouse's row: the beer row is neither read
+ * nor locked, so changes to different warehouses never wait for each other, and changes to the same one only for the
+ * length of one statement. Totals are summed when read instead of kept on the beer. Warehouse stock is not a beer
+ * change: it publishes no {@link BeerChangedEvent}, so the outbox, the stats and the reconciled ledger keep covering
+ * the main warehouse only.
+ * <p>
+ * Registering a warehouse row locks the beer row, as deleting the beer does, so a row is never added to a beer that
+ * is being deleted; its rows go in the same transaction as the beer. A missing row therefore means either that the
+ * beer was never stocked there or that the beer is gone, and only then is the beer looked up. The warehouse is listed
+ * in the registration's own transaction, so a registration holding the lock never asks for a second connection, and
+ * a registration that loses the race to list a new warehouse still commits.
+ * <p>
+ * Availability queries treat each warehouse as a partition and read them in parallel on
+ * {@code warehouseQueryExecutor}, one query per warehouse for all requested beers, then merge the answers. The
+ * warehouses to query come from the {@link Warehouse} list rather than from the stock rows.
+ */
+@Service
+public class WarehouseStockService {
+
+    private static final int MAX_AVAILABILITY_BEERS = 500;
+
+    private final BeerRepository beerRepository;
+
+    private final WarehouseStockRepository warehouseStockRepository;
+
+    private final WarehouseRepository warehouseRepository;
+
+    private final BeerService beerService;
+
+    private final Executor warehouseQueryExecutor;
+
+    private final String mainWarehouse;
+
+    @Autowired
+    public WarehouseStockService(BeerRepository beerRepository,
+                                 WarehouseStockRepository warehouseStockRepository,
+                                 WarehouseRepository warehouseRepository,
+                                 BeerService beerService,
+                                 Executor warehouseQueryExecutor,
+                                 @Value("${beerstock.warehouses.main}") String mainWarehouse) {
+        this.beerRepository = beerRepository;
+        this.warehouseStockRepository = warehouseStockRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.beerService = beerService;
+        this.warehouseQueryExecutor = warehouseQueryExecutor;
+        this.mainWarehouse = mainWarehouse;
+    }
+
+    @Transactional
+    public WarehouseStockDTO register(Long beerId, WarehouseStockDTO warehouseStockDTO)
+            throws BeerNotFoundException, WarehouseStockAlreadyRegisteredException, BeerStockExceededException {
+        String warehouse = warehouseStockDTO.getWarehouse();
+        beerRepository.findByIdForUpdate(beerId).orElseThrow(() -> new BeerNotFoundException(beerId));
+        if (warehouse.equals(mainWarehouse)
+                || warehouseStockRepository.findByBeerIdAndWarehouse(beerId, warehouse).isPresent()) {
+            throw new WarehouseStockAlreadyRegisteredException(beerId, warehouse);
+        }
+        if (warehouseStockDTO.getQuantity() > warehouseStockDTO.getMax()) {
+            throw new BeerStockExceededException(beerId, warehouseStockDTO.getQuantity());
+        }
+        warehouseRepository.list(warehouse);
+        WarehouseStock saved = warehouseStockRepository.save(new WarehouseStock(null, beerId, warehouse,
+                warehouseStockDTO.getQuantity(), warehouseStockDTO.getMax()));
+        return toDTO(saved);
+    }
+
+    @Transactional
+    public WarehouseStockDTO increment(Long beerId, String warehouse, int quantityToIncrement)
+            throws BeerNotFoundException, WarehouseStockNotFoundException, BeerStockExceededException {
+        if (warehouse.equals(mainWarehouse)) {
+            return toDTO(beerService.increment(beerId, quantityToIncrement));
+        }
+        WarehouseStock stock = applyDelta(beerId, warehouse, quantityToIncrement);
+        if (stock == null) {
+            throw new BeerStockExceededException(beerId, quantityToIncrement);
+        }
+        return toDTO(stock);
+    }
+
+    @Transactional
+    public WarehouseStockDTO decrement(Long beerId, String warehouse, int quantityToDecrement)
+            throws BeerNotFoundException, WarehouseStockNotFoundException, BeerStockBelowZeroException {
+        if (warehouse.equals(mainWarehouse)) {
+            return toDTO(beerService.decrement(beerId, quantityToDecrement));
+        }
+        WarehouseStock stock = applyDelta(beerId, warehouse, -quantityToDecrement);
+        if (stock == null) {
+            throw new BeerStockBelowZeroException(beerId, quantityToDecrement);
+        }
+        return toDTO(stock);
+    }
+
+    /**
+     * The beer's stock in every warehouse, main first, and the totals across them.
+     */
+    public BeerWarehouseStockDTO stock(Long beerId) throws BeerNotFoundException {
+        Beer beer = beerRepository.findById(beerId).orElseThrow(() -> new BeerNotFoundException(beerId));
+        List<WarehouseStockDTO> warehouses = new ArrayList<>();
+        warehouses.add(new WarehouseStockDTO(mainWarehouse, beer.getTotalQuantity(), beer.getMax()));
+        for (WarehouseStock stock : warehouseStockRepository.findByBeerIdOrderByWarehouse(beerId)) {
+            warehouses.add(toDTO(stock));
+        }
+        return BeerWarehouseStockDTO.builder()
+                .beerId(beerId)
+                .name(beer.getName())
+                .quantity(warehouses.stream().mapToInt(WarehouseStockDTO::getQuantity).sum())
+                .max(warehouses.stream().mapToInt(WarehouseStockDTO::getMax).sum())
+                .warehouses(warehouses)
+                .build();
+    }
+
+    /**
+     * Whether {@code quantity} of each beer is in stock across all warehouses, and which warehouses could ship it on
+     * their own. Beers missing from the main warehouse, which holds every existing beer, are left out, even if another
+     * warehouse read still saw rows of a beer deleted meanwhile.
+     */
+    public List<BeerAvailabilityDTO> availability(Collection<Long> beerIds, int quantity)
+            throws AvailabilityQueryTooLargeException {
+        Set<Long> ids = new LinkedHashSet<>(beerIds);
+        if (ids.size() > MAX_AVAILABILITY_BEERS) {
+            throw new AvailabilityQueryTooLargeException(ids.size(), MAX_AVAILABILITY_BEERS);
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, CompletableFuture<Map<Long, Integer>>> partitions = new LinkedHashMap<>();
+        partitions.put(mainWarehouse, query(() -> beerRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Beer::getId, Beer::getTotalQuantity))));
+        for (String warehouse : warehouseRepository.findNames()) {
+            partitions.put(warehouse, query(() -> warehouseStockRepository.findInWarehouse(warehouse, ids).stream()
+                    .collect(Collectors.toMap(WarehouseStock::getBeerId, WarehouseStock::getQuantity))));
+        }
+
+        Set<Long> existing = join(partitions.get(mainWarehouse)).keySet();
+        Map<Long, Map<String, Integer>> byBeer = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<Map<Long, Integer>>> partition : partitions.entrySet()) {
+            join(partition.getValue()).forEach((beerId, stock) ->
+                    byBeer.computeIfAbsent(beerId, id -> new TreeMap<>()).put(partition.getKey(), stock));
+        }
+        return ids.stream()
+                .filter(existing::contains)
+                .map(beerId -> toAvailability(beerId, byBeer.get(beerId), quantity))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Removes the beer's warehouse rows in the transaction that deletes the beer.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBeerChanged(BeerChangedEvent event) {
+        if (event.getKind() == BeerChangedEvent.Kind.DELETED) {
+            warehouseStockRepository.deleteByBeerId(event.getBeerId());
+        }
+    }
+
+    /**
+     * Returns the updated row, or {@code null} when the change would leave {@code [0, max]}.
+     */
+    private WarehouseStock applyDelta(Long beerId, String warehouse, int delta)
+            throws BeerNotFoundException, WarehouseStockNotFoundException {
+        int updated = warehouseStockRepository.applyDelta(beerId, warehouse, delta);
+        Optional<WarehouseStock> stock = warehouseStockRepository.findByBeerIdAndWarehouse(beerId, warehouse);
+        if (stock.isEmpty()) {
+            if (!beerRepository.existsById(beerId)) {
+                throw new BeerNotFoundException(beerId);
+            }
+            throw new WarehouseStockNotFoundException(beerId, warehouse);
+        }
+        return updated == 0 ? null : stock.get();
+    }
+
+    private <T> CompletableFuture<T> query(Supplier<T> partitionQuery) {
+        return CompletableFuture.supplyAsync(partitionQuery, warehouseQueryExecutor);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private BeerAvailabilityDTO toAvailability(Long beerId, Map<String, Integer> byWarehouse, int quantity) {
+        int total = byWarehouse.values().stream().mapToInt(Integer::intValue).sum();
+        return BeerAvailabilityDTO.builder()
+                .beerId(beerId)
+                .quantity(total)
+                .available(total >= quantity)
+                .fulfillableFrom(byWarehouse.entrySet().stream()
+                        .filter(entry -> entry.getValue() >= quantity)
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toList()))
+                .byWarehouse(byWarehouse)
+                .build();
+    }
+
+    private WarehouseStockDTO toDTO(BeerDTO beerDTO) {
+        return new WarehouseStockDTO(mainWarehouse, beerDTO.getQuantity(), beerDTO.getMax());
+    }
+
+    private static WarehouseStockDTO toDTO(WarehouseStock stock) {
+        return new WarehouseStockDTO(stock.getWarehouse(), stock.getQuantity(), stock.getMax());
+    }
+}
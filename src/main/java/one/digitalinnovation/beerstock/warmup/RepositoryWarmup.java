@@ -0,0 +1,187 @@
+package one.digitalinnovation.beerstock.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.reconciliation.StockCorrector;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockStripeRepository;
+import one.digitalinnovation.beerstock.repository.BeerTombstoneRepository;
+import one.digitalinnovation.beerstock.repository.OutboxEventRepository;
+import one.digitalinnovation.beerstock.repository.ReconciliationCheckpointRepository;
+import one.digitalinnovation.beerstock.repository.StockHoldRepository;
+import one.digitalinnovation.beerstock.repository.WarehouseRepository;
+import one.digitalinnovation.beerstock.repository.WarehouseStockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the repository queries on each pooled connection inside transactions that always roll back, filling Hibernate's
+ * query plan cache and each H2 session's statement cache. The queries look up an id and names that do not exist, so
+ * they match no row: nothing is inserted, and no {@code beer_seq} id, identity value or change version is used up.
+ * Inserts and the stripe update, which takes a change version, are left out for that reason; their SQL is generated
+ * when Hibernate starts, and they reach the statement cache with the first real write.
+ * <p>
+ * Every transaction holds its connection until all of them have started, or for a short while at most, so each
+ * connection is warmed instead of the same idle one again and again. The caller leaves at least one pooled connection
+ * free for everything else. Queries that scan a whole table only run on the first connection.
+ */
+@Slf4j
+@Component
+public class RepositoryWarmup {
+
+    private static final String SYNTHETIC_PREFIX = "__warmup-";
+
+    static final String MISSING_NAME = SYNTHETIC_PREFIX + "missing";
+
+    private static final Long MISSING_ID = -1L;
+
+    private final BeerRepository beerRepository;
+
+    private final BeerStockStripeRepository stripeRepository;
+
+    private final BeerTombstoneRepository tombstoneRepository;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ReconciliationCheckpointRepository checkpointRepository;
+
+    private final WarehouseStockRepository warehouseStockRepository;
+
+    private final WarehouseRepository warehouseRepository;
+
+    private final StockHoldRepository holdRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public RepositoryWarmup(BeerRepository beerRepository,
+                            BeerStockStripeRepository stripeRepository,
+                            BeerTombstoneRepository tombstoneRepository,
+                            OutboxEventRepository outboxEventRepository,
+                            ReconciliationCheckpointRepository checkpointRepository,
+                            WarehouseStockRepository warehouseStockRepository,
+                            WarehouseRepository warehouseRepository,
+                            StockHoldRepository holdRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.beerRepository = beerRepository;
+        this.stripeRepository = stripeRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.warehouseStockRepository = warehouseStockRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.holdRepository = holdRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Warms {@code connections} connections at once and returns how many were warmed. Each transaction waits at most
+     * {@code latchTimeout} for the others to start before running its queries, and a connection that is not warmed
+     * within {@code timeout}, because something else holds it, is skipped.
+     */
+    public int warm(int connections, Duration latchTimeout, Duration timeout) throws InterruptedException {
+        if (connections <= 0) {
+            return 0;
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(connections, new CustomizableThreadFactory("warmup-"));
+        try {
+            CountDownLatch started = new CountDownLatch(connections);
+            List<Future<?>> runs = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                boolean includeScans = i == 0;
+                runs.add(workers.submit(() -> warmConnection(started, latchTimeout, includeScans)));
+            }
+            int warmed = 0;
+            for (Future<?> run : runs) {
+                try {
+                    run.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                    warmed++;
+                } catch (ExecutionException | TimeoutException e) {
+                    log.warn("Could not warm a pooled connection", e instanceof ExecutionException ? e.getCause() : e);
+                }
+            }
+            return warmed;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void warmConnection(CountDownLatch started, Duration latchTimeout, boolean includeScans) {
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            started.countDown();
+            try {
+                started.await(latchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            runQueries(includeScans);
+        });
+    }
+
+    private void runQueries(boolean includeScans) {
+        List<Long> ids = List.of(MISSING_ID);
+        PageRequest firstRow = PageRequest.of(0, 1);
+
+        beerRepository.findByName(MISSING_NAME);
+        beerRepository.findById(MISSING_ID);
+        beerRepository.existsById(MISSING_ID);
+        beerRepository.findAllById(ids);
+        beerRepository.findNamesIn(List.of(MISSING_NAME));
+        beerRepository.findByIdForUpdate(MISSING_ID);
+        beerRepository.findByIdGreaterThanOrderByIdAsc(Long.MAX_VALUE, firstRow);
+        beerRepository.findIdsAfter(Long.MAX_VALUE, firstRow);
+        beerRepository.findStockRowsByIdIn(ids);
+        beerRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(
+                Long.MAX_VALUE, Long.MAX_VALUE, firstRow);
+        beerRepository.maxChangeVersion();
+
+        stripeRepository.sumQuantity(MISSING_ID);
+        stripeRepository.findByBeerIdForUpdate(MISSING_ID);
+        stripeRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(
+                Long.MAX_VALUE, Long.MAX_VALUE, firstRow);
+        stripeRepository.maxChangeVersion();
+        tombstoneRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(
+                Long.MAX_VALUE, Long.MAX_VALUE, firstRow);
+        tombstoneRepository.maxChangeVersion();
+        outboxEventRepository.sumDeltasByBeerId(ids, BeerChangedEvent.Kind.RECONCILED, StockCorrector.BASELINE_KINDS);
+        checkpointRepository.findById(MISSING_NAME);
+        holdRepository.heldQuantity(MISSING_ID, Instant.now());
+        holdRepository.sumHeldByBeerId(ids, Instant.now());
+        holdRepository.findById(MISSING_NAME);
+
+        warehouseStockRepository.findByBeerIdAndWarehouse(MISSING_ID, MISSING_NAME);
+        warehouseStockRepository.findByBeerIdOrderByWarehouse(MISSING_ID);
+        warehouseStockRepository.findInWarehouse(MISSING_NAME, ids);
+        warehouseStockRepository.applyDelta(MISSING_ID, MISSING_NAME, 0);
+
+        if (includeScans) {
+            beerRepository.findStripedIds();
+            beerRepository.sumStockByTypeAndBrand();
+            warehouseRepository.findNames();
+            outboxEventRepository.countByDispatchedAtIsNull();
+            outboxEventRepository.findFirstByDispatchedAtIsNullOrderByIdAsc();
+            outboxEventRepository.findByDispatchedAtIsNullOrderByIdAsc(firstRow);
+        }
+
+        warehouseStockRepository.deleteByBeerId(MISSING_ID);
+        stripeRepository.deleteByBeerId(MISSING_ID);
+    }
+}
@@ -0,0 +1,220 @@
+package one.digitalinnovation.beerstock.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.cache.TieredBeerCache;
+import one.digitalinnovation.beerstock.dto.BeerAvailabilityDTO;
+import one.digitalinnovation.beerstock.dto.BeerChangesDTO;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportJobDTO;
+import one.digitalinnovation.beerstock.dto.BeerStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerSuggestionDTO;
+import one.digitalinnovation.beerstock.dto.BeerWarehouseStockDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.dto.StockHistoryDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.sql.QueryMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms the application up before it reports ready. Boot only moves readiness to {@code ACCEPTING_TRAFFIC} once every
+ * {@link ApplicationRunner} has returned, so {@code /actuator/health/readiness} keeps answering 503 until this is done.
+ * <p>
+ * The warm-up fills the statement and query plan caches through {@link RepositoryWarmup}, on all pooled connections
+ * but one, builds the JSON serializers of every response type, and then sends rounds of requests covering every
+ * {@code BeerController} route to the local port so the servlet stack, validators, exception handlers and executors
+ * are compiled by the JIT. Those requests use missing ids and invalid bodies only, so they are answered with 4xx and
+ * change nothing. Without a web server, as in mock-environment tests, the requests are skipped. A failing step is
+ * logged and never stops the application.
+ * <p>
+ * Warm-up traffic is kept out of what operators read: its requests carry an unsampled {@code traceparent}, so they
+ * record no trace, and the SQL statistics and cache counters are reset once it is done. Only runs when
+ * {@code beerstock.warmup.enabled} is set, which the tests leave off.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "beerstock.warmup.enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+    private static final String MISSING_ID = "-1";
+    private static final String MISSING_NAME = RepositoryWarmup.MISSING_NAME;
+    private static final String QUANTITY = "{\"quantity\":1}";
+    private static final String INVALID_BEER = "{\"name\":\"" + MISSING_NAME
+            + "\",\"brand\":\"warmup\",\"max\":501,\"quantity\":101,\"type\":\"LAGER\"}";
+    private static final String ORDER = "{\"items\":[{\"id\":" + MISSING_ID + ",\"quantity\":1}]}";
+    private static final String WAREHOUSE_STOCK = "{\"warehouse\":\"warmup\",\"quantity\":0,\"max\":1}";
+    private static final String UNSAMPLED_TRACEPARENT = "00-00000000000000000000000000000001-0000000000000001-00";
+
+    private static final List<Class<?>> RESPONSE_TYPES = Arrays.asList(BeerDTO.class, BeerStatsDTO.class,
+            BeerSuggestionDTO.class, BeerChangesDTO.class, BeerImportJobDTO.class, StockHistoryDTO.class,
+            BeerWarehouseStockDTO.class, WarehouseStockDTO.class, BeerAvailabilityDTO.class, ReservationDTO.class);
+
+    private final RepositoryWarmup repositoryWarmup;
+
+    private final QueryMonitor queryMonitor;
+
+    private final TieredBeerCache beerCache;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationContext applicationContext;
+
+    private final String contextPath;
+
+    private final int connections;
+
+    private final Duration latchTimeout;
+
+    private final int requestRounds;
+
+    private final Duration maxDuration;
+
+    @Autowired
+    public WarmupRunner(RepositoryWarmup repositoryWarmup,
+                        QueryMonitor queryMonitor,
+                        TieredBeerCache beerCache,
+                        ObjectMapper objectMapper,
+                        ApplicationContext applicationContext,
+                        @Value("${server.servlet.context-path:}") String contextPath,
+                        @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                        @Value("${beerstock.warmup.connections}") int connections,
+                        @Value("${beerstock.warmup.latch-timeout-ms}") long latchTimeoutMillis,
+                        @Value("${beerstock.warmup.request-rounds}") int requestRounds,
+                        @Value("${beerstock.warmup.max-duration-ms}") long maxDurationMillis) {
+        this.repositoryWarmup = repositoryWarmup;
+        this.queryMonitor = queryMonitor;
+        this.beerCache = beerCache;
+        this.objectMapper = objectMapper;
+        this.applicationContext = applicationContext;
+        this.contextPath = contextPath;
+        this.connections = Math.min(connections, poolSize - 1);
+        this.latchTimeout = Duration.ofMillis(latchTimeoutMillis);
+        this.requestRounds = requestRounds;
+        this.maxDuration = Duration.ofMillis(maxDurationMillis);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+        try {
+            int warmedConnections = repositoryWarmup.warm(connections, latchTimeout, maxDuration);
+            int serializers = warmSerializers();
+            int requests = warmRequests(deadline);
+            log.info("Warm-up finished in {} ms: {} pooled connections, {} response types, {} requests",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), warmedConnections, serializers, requests);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Warm-up failed, starting cold", e);
+        } finally {
+            queryMonitor.reset();
+            beerCache.resetStatistics();
+        }
+    }
+
+    private int warmSerializers() {
+        int warmed = 0;
+        for (Class<?> type : RESPONSE_TYPES) {
+            try {
+                objectMapper.writeValueAsBytes(type.getDeclaredConstructor().newInstance());
+                warmed++;
+            } catch (IOException | ReflectiveOperationException e) {
+                log.debug("Could not warm the serializer of {}", type.getSimpleName(), e);
+            }
+        }
+        return warmed;
+    }
+
+    /**
+     * Sends the listing, whose cost grows with the catalog, and the rejected create, which logs a warning, once; the
+     * other routes for {@code requestRounds} rounds or until {@code deadline}. Returns the number of requests sent.
+     */
+    private int warmRequests(long deadline) throws InterruptedException {
+        if (!(applicationContext instanceof WebServerApplicationContext)) {
+            return 0;
+        }
+        int port = ((WebServerApplicationContext) applicationContext).getWebServer().getPort();
+        if (port <= 0) {
+            return 0;
+        }
+        URI base = URI.create("http://localhost:" + port + contextPath + BEER_API_URL_PATH);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        List<HttpRequest> round = requests(base);
+        List<HttpRequest> pending = Arrays.asList(request(base, "GET", "", null),
+                request(base, "POST", "", INVALID_BEER));
+        int sent = 0;
+        int serverErrors = 0;
+        try {
+            for (int i = 0; i <= requestRounds && System.nanoTime() < deadline; i++) {
+                for (HttpRequest request : pending) {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 500) {
+                        serverErrors++;
+                    }
+                    sent++;
+                }
+                pending = round;
+            }
+        } catch (IOException e) {
+            log.warn("Warm-up requests stopped after {} requests", sent, e);
+        }
+        if (serverErrors > 0) {
+            log.warn("{} of {} warm-up requests failed with a server error", serverErrors, sent);
+        }
+        return sent;
+    }
+
+    private static List<HttpRequest> requests(URI base) {
+        List<HttpRequest> requests = new ArrayList<>();
+        requests.add(request(base, "GET", "/" + MISSING_NAME, null));
+        requests.add(request(base, "GET", "/stats", null));
+        requests.add(request(base, "GET", "/suggest?q=warmup", null));
+        requests.add(request(base, "GET", "/changes?since=0&limit=1", null));
+        requests.add(request(base, "GET", "/" + MISSING_ID + "/history", null));
+        requests.add(request(base, "GET", "/" + MISSING_ID + "/warehouses", null));
+        requests.add(request(base, "GET", "/availability?ids=" + MISSING_ID, null));
+        requests.add(request(base, "GET", "/import/" + MISSING_NAME, null));
+        requests.add(request(base, "PATCH", "/" + MISSING_ID + "/increment", QUANTITY));
+        requests.add(request(base, "PATCH", "/" + MISSING_ID + "/decrement", QUANTITY));
+        requests.add(request(base, "POST", "/orders", ORDER));
+        requests.add(request(base, "POST", "/" + MISSING_ID + "/warehouses", WAREHOUSE_STOCK));
+        requests.add(request(base, "PATCH", "/" + MISSING_ID + "/warehouses/warmup/increment", QUANTITY));
+        requests.add(request(base, "PATCH", "/" + MISSING_ID + "/warehouses/warmup/decrement", QUANTITY));
+        requests.add(request(base, "POST", "/" + MISSING_ID + "/reservations", QUANTITY));
+        requests.add(request(base, "POST", "/" + MISSING_ID + "/reservations/" + MISSING_NAME + "/commit", null));
+        requests.add(request(base, "DELETE", "/" + MISSING_ID + "/reservations/" + MISSING_NAME, null));
+        requests.add(request(base, "DELETE", "/" + MISSING_ID, null));
+        return requests;
+    }
+
+    private static HttpRequest request(URI base, String method, String path, String json) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(Duration.ofSeconds(5))
+                .header("traceparent", UNSAMPLED_TRACEPARENT);
+        if (json == null) {
+            return request.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package one.digitalinnovation.beerstock.allocation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the bytes allocated on the calling thread plus every live thread whose name starts with one of the given
+ * prefixes, using the JVM's per-thread allocation counters. The caller's own counter is read last when a measurement
+ * starts and first when it ends, so enumerating the other threads is never counted.
+ */
+public class AllocationMeter {
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final List<String> threadNamePrefixes;
+
+    public AllocationMeter(List<String> threadNamePrefixes) {
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("This JVM does not count allocated bytes per thread");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        this.threadNamePrefixes = threadNamePrefixes;
+    }
+
+    public Snapshot start() {
+        Map<Long, Long> others = otherThreads();
+        return new Snapshot(others, threads.getCurrentThreadAllocatedBytes());
+    }
+
+    /**
+     * Bytes allocated since {@code snapshot} was taken. Threads started in between count from zero.
+     */
+    public long allocatedSince(Snapshot snapshot) {
+        long current = threads.getCurrentThreadAllocatedBytes() - snapshot.current;
+        long others = 0;
+        for (Map.Entry<Long, Long> thread : otherThreads().entrySet()) {
+            others += thread.getValue() - snapshot.others.getOrDefault(thread.getKey(), 0L);
+        }
+        return current + others;
+    }
+
+    private Map<Long, Long> otherThreads() {
+        long currentId = Thread.currentThread().getId();
+        Map<Long, Long> allocated = new HashMap<>();
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info != null && info.getThreadId() != currentId && matches(info.getThreadName())) {
+                long bytes = threads.getThreadAllocatedBytes(info.getThreadId());
+                if (bytes >= 0) {
+                    allocated.put(info.getThreadId(), bytes);
+                }
+            }
+        }
+        return allocated;
+    }
+
+    private boolean matches(String threadName) {
+        return threadNamePrefixes.stream().anyMatch(threadName::startsWith);
+    }
+
+    public static final class Snapshot {
+
+        private final Map<Long, Long> others;
+
+        private final long current;
+
+        private Snapshot(Map<Long, Long> others, long current) {
+            this.others = others;
+            this.current = current;
+        }
+    }
+}
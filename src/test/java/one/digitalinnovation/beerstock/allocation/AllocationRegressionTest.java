@@ -0,0 +1,288 @@
+package one.digitalinnovation.beerstock.allocation;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.importer.BeerImportService;
+import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.ReservationService;
+import one.digitalinnovation.beerstock.warehouse.WarehouseStockService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Measures the bytes each {@link one.digitalinnovation.beerstock.controller.BeerController} endpoint allocates per
+ * request, end to end through MockMvc, and fails when an endpoint's median exceeds its baseline by more than
+ * {@code -Dallocation.tolerance} (default 10%) plus {@code -Dallocation.slack.bytes}. Allocations are counted on the
+ * calling thread and the request executors, not on background jobs such as the outbox dispatcher. Excluded from the
+ * default build; run with {@code mvn test -Pallocation-test}, and after an intended change record new baselines with
+ * {@code -Dallocation.update-baseline=true}. Each run writes a JSON report to {@code -Dallocation.report.dir}.
+ * <p>
+ * Tracing is off and hot-key striping is disabled so every run measures the same path. Imports are only measured
+ * through their status; the cost of an upload scales with the file and runs on the import job.
+ */
+@Slf4j
+@Tag("allocation")
+@SpringBootTest(properties = {"beerstock.tracing.sample-rate=0", "beerstock.hotkeys.min-writes=2147483647"})
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+public class AllocationRegressionTest {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+    private static final List<String> REQUEST_THREADS = Arrays.asList("beer-read-", "beer-write-", "warehouse-query-");
+    private static final int CATALOG_BEERS = 100;
+    private static final int STOCK_BEERS = 10;
+
+    private static final int WARMUP = Integer.getInteger("allocation.warmup", 300);
+    private static final int ITERATIONS = Integer.getInteger("allocation.iterations", 200);
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("allocation.tolerance", "0.10"));
+    private static final long SLACK_BYTES = Long.getLong("allocation.slack.bytes", 2048);
+    private static final String BASELINE = System.getProperty("allocation.baseline",
+            "src/test/resources/allocation-baseline.properties");
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("allocation.update-baseline");
+    private static final String REPORT_DIR = System.getProperty("allocation.report.dir", "target/allocation");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private WarehouseStockService warehouseStockService;
+
+    @Autowired
+    private BeerImportService beerImportService;
+
+    private final String prefix = "alloc-" + System.nanoTime() + "-";
+
+    private final List<BeerDTO> stockBeers = new ArrayList<>();
+
+    @Test
+    void requestAllocationsStayWithinBaseline() throws Exception {
+        Map<String, RequestPreparer> endpoints = seedEndpoints();
+        Properties baseline = loadBaseline();
+        AllocationMeter meter = new AllocationMeter(REQUEST_THREADS);
+
+        Instant startedAt = Instant.now();
+        Map<String, AllocationReport.Endpoint> measured = new LinkedHashMap<>();
+        for (Map.Entry<String, RequestPreparer> endpoint : endpoints.entrySet()) {
+            String baselineBytes = baseline.getProperty(endpoint.getKey());
+            measured.put(endpoint.getKey(), measure(meter, endpoint.getValue(),
+                    baselineBytes == null ? null : Long.valueOf(baselineBytes.trim())));
+        }
+        AllocationReport report = new AllocationReport(startedAt, configuration(), measured);
+        Path reportFile = report.writeTo(REPORT_DIR);
+
+        log.info("\n{}", report.toTable());
+        log.info("Allocation report written to {}", reportFile.toAbsolutePath());
+        if (UPDATE_BASELINE) {
+            report.writeBaseline(Paths.get(BASELINE));
+            log.info("Allocation baseline written to {}", Paths.get(BASELINE).toAbsolutePath());
+            return;
+        }
+        assertThat(report.regressions(), is(empty()));
+    }
+
+    /**
+     * Seeds the data the endpoints work on and lists them in the order they are measured: reads first, so the writes
+     * cannot change what they return, and registrations last, so availability queries see a fixed set of warehouses.
+     */
+    private Map<String, RequestPreparer> seedEndpoints() throws Exception {
+        List<BeerDTO> catalog = new ArrayList<>();
+        for (int i = 0; i < CATALOG_BEERS; i++) {
+            catalog.add(beerService.createBeer(beer("catalog-" + i, 250)));
+        }
+        stockBeers.addAll(catalog.subList(0, STOCK_BEERS));
+        BeerDTO historyBeer = catalog.get(STOCK_BEERS);
+        for (int i = 0; i < 5; i++) {
+            beerService.increment(historyBeer.getId(), 1);
+        }
+        for (BeerDTO stockBeer : stockBeers) {
+            warehouseStockService.register(stockBeer.getId(), new WarehouseStockDTO("lisbon", 50, 500));
+        }
+        BeerDTO registrationBeer = catalog.get(STOCK_BEERS + 1);
+        String importJob = beerImportService.start(new MockMultipartFile("file", "empty.csv", null,
+                "name,brand,max,quantity,type\n".getBytes(StandardCharsets.UTF_8)), null).getId();
+        String availabilityIds = stockBeers.stream().map(beer -> beer.getId().toString())
+                .reduce((first, second) -> first + "," + second).orElseThrow();
+
+        Map<String, RequestPreparer> endpoints = new LinkedHashMap<>();
+        endpoints.put("findByName", i -> get(BEER_API_URL_PATH + "/" + catalog.get(i % CATALOG_BEERS).getName()));
+        endpoints.put("listBeers", i -> get(BEER_API_URL_PATH));
+        endpoints.put("getStats", i -> get(BEER_API_URL_PATH + "/stats"));
+        endpoints.put("suggest", i -> get(BEER_API_URL_PATH + "/suggest").param("q", prefix + "catalg"));
+        endpoints.put("changesSince", i -> get(BEER_API_URL_PATH + "/changes").param("since", "0"));
+        endpoints.put("history", i -> get(BEER_API_URL_PATH + "/" + historyBeer.getId() + "/history"));
+        endpoints.put("importStatus", i -> get(BEER_API_URL_PATH + "/import/" + importJob));
+        endpoints.put("warehouseStock", i -> get(BEER_API_URL_PATH + "/" + stockBeer(i).getId() + "/warehouses"));
+        endpoints.put("availability", i -> get(BEER_API_URL_PATH + "/availability").param("ids", availabilityIds));
+        endpoints.put("increment", i -> json(patch(BEER_API_URL_PATH + "/" + stockBeer(i).getId() + "/increment"),
+                "{\"quantity\":1}"));
+        endpoints.put("decrement", i -> json(patch(BEER_API_URL_PATH + "/" + stockBeer(i).getId() + "/decrement"),
+                "{\"quantity\":1}"));
+        endpoints.put("placeOrder", i -> json(post(BEER_API_URL_PATH + "/orders"), String.format(
+                "{\"items\":[{\"id\":%d,\"quantity\":1},{\"id\":%d,\"quantity\":1}]}",
+                stockBeer(i).getId(), stockBeer(i + 1).getId())));
+        endpoints.put("incrementWarehouse", i -> json(patch(BEER_API_URL_PATH + "/" + stockBeer(i).getId()
+                + "/warehouses/lisbon/increment"), "{\"quantity\":1}"));
+        endpoints.put("decrementWarehouse", i -> json(patch(BEER_API_URL_PATH + "/" + stockBeer(i).getId()
+                + "/warehouses/lisbon/decrement"), "{\"quantity\":1}"));
+        endpoints.put("reserve", i -> json(post(BEER_API_URL_PATH + "/" + stockBeer(i).getId() + "/reservations"),
+                "{\"quantity\":1}"));
+        endpoints.put("commitReservation", i -> {
+            String reservation = reservationService.reserve(stockBeer(i).getId(), 1, null).getId();
+            return post(BEER_API_URL_PATH + "/" + stockBeer(i).getId() + "/reservations/" + reservation + "/commit");
+        });
+        endpoints.put("cancelReservation", i -> {
+            String reservation = reservationService.reserve(stockBeer(i).getId(), 1, null).getId();
+            return delete(BEER_API_URL_PATH + "/" + stockBeer(i).getId() + "/reservations/" + reservation);
+        });
+        endpoints.put("registerWarehouseStock", i -> json(post(BEER_API_URL_PATH + "/" + registrationBeer.getId()
+                + "/warehouses"), "{\"warehouse\":\"alloc-" + i + "\",\"quantity\":1,\"max\":10}"));
+        endpoints.put("createBeer", i -> json(post(BEER_API_URL_PATH), String.format(
+                "{\"name\":\"%screated-%d\",\"brand\":\"Allocation\",\"max\":100,\"quantity\":10,\"type\":\"IPA\"}",
+                prefix, i)));
+        endpoints.put("deleteById", i -> delete(BEER_API_URL_PATH + "/" + beerService.createBeer(
+                beer("deleted-" + i, 10)).getId()));
+        return endpoints;
+    }
+
+    /**
+     * Runs the warm-up requests unmeasured, then measures each request on its own. Preparing a request, which may
+     * write seed data, happens before its measurement starts.
+     */
+    private AllocationReport.Endpoint measure(AllocationMeter meter, RequestPreparer endpoint, Long baselineBytes)
+            throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            perform(endpoint.prepare(i));
+        }
+        long collectionsBefore = collections();
+        long collectionMillisBefore = collectionMillis();
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            MockHttpServletRequestBuilder request = endpoint.prepare(WARMUP + i);
+            AllocationMeter.Snapshot snapshot = meter.start();
+            perform(request);
+            samples[i] = meter.allocatedSince(snapshot);
+        }
+        Arrays.sort(samples);
+        return AllocationReport.Endpoint.builder()
+                .medianBytes(samples[samples.length / 2])
+                .p90Bytes(samples[(int) (samples.length * 0.9)])
+                .minBytes(samples[0])
+                .baselineBytes(baselineBytes)
+                .limitBytes(baselineBytes == null ? null : (long) (baselineBytes * (1 + TOLERANCE)) + SLACK_BYTES)
+                .collections(collections() - collectionsBefore)
+                .collectionMillis(collectionMillis() - collectionMillisBefore)
+                .build();
+    }
+
+    private void perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        int status = result.getResponse().getStatus();
+        if (status >= 400) {
+            throw new IllegalStateException(String.format("%s %s answered %d", result.getRequest().getMethod(),
+                    result.getRequest().getRequestURI(), status));
+        }
+    }
+
+    private Map<String, Object> configuration() {
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("warmup", WARMUP);
+        configuration.put("iterations", ITERATIONS);
+        configuration.put("tolerance", TOLERANCE);
+        configuration.put("slackBytes", SLACK_BYTES);
+        configuration.put("catalogBeers", CATALOG_BEERS);
+        configuration.put("java", System.getProperty("java.vm.version"));
+        configuration.put("gc", ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .map(GarbageCollectorMXBean::getName).reduce((first, second) -> first + ", " + second).orElse(""));
+        return configuration;
+    }
+
+    private static Properties loadBaseline() throws IOException {
+        Properties baseline = new Properties();
+        Path file = Paths.get(BASELINE);
+        if (Files.exists(file)) {
+            try (InputStream in = new FileInputStream(file.toFile())) {
+                baseline.load(in);
+            }
+        }
+        return baseline;
+    }
+
+    private static long collections() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long collectionMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private BeerDTO stockBeer(int iteration) {
+        return stockBeers.get(iteration % STOCK_BEERS);
+    }
+
+    private BeerDTO beer(String name, int quantity) {
+        return BeerDTO.builder()
+                .name(prefix + name)
+                .brand("Allocation")
+                .max(500)
+                .quantity(quantity)
+                .type(BeerType.LAGER)
+                .build();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    @FunctionalInterface
+    private interface RequestPreparer {
+
+        MockHttpServletRequestBuilder prepare(int iteration) throws Exception;
+    }
+}
@@ -0,0 +1,94 @@
+package one.digitalinnovation.beerstock.allocation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Value
+public class AllocationReport {
+
+    Instant startedAt;
+
+    Map<String, Object> configuration;
+
+    Map<String, Endpoint> endpoints;
+
+    public Path writeTo(String directory) throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        Path file = dir.resolve("allocation-" + startedAt.toEpochMilli() + ".json");
+        new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), this);
+        return file;
+    }
+
+    /**
+     * Writes the measured medians as the new baseline, one {@code endpoint=bytes} line each.
+     */
+    public void writeBaseline(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# Median bytes allocated per request, see AllocationRegressionTest");
+        endpoints.forEach((endpoint, measured) -> lines.add(endpoint + "=" + measured.getMedianBytes()));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    public List<String> regressions() {
+        List<String> regressions = new ArrayList<>();
+        endpoints.forEach((endpoint, measured) -> {
+            if (measured.getBaselineBytes() == null) {
+                regressions.add(endpoint + " has no baseline");
+            } else if (measured.getMedianBytes() > measured.getLimitBytes()) {
+                regressions.add(String.format("%s allocates %d bytes per request, limit %d (baseline %d)", endpoint,
+                        measured.getMedianBytes(), measured.getLimitBytes(), measured.getBaselineBytes()));
+            }
+        });
+        return regressions;
+    }
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%-24s %10s %10s %10s %10s %8s %6s %8s%n",
+                "endpoint", "median B", "p90 B", "baseline", "limit", "change", "gcs", "gc ms"));
+        endpoints.forEach((endpoint, measured) -> table.append(String.format("%-24s %10d %10d %10s %10s %7s%% %6d %8d%n",
+                endpoint, measured.getMedianBytes(), measured.getP90Bytes(),
+                measured.getBaselineBytes() == null ? "-" : measured.getBaselineBytes(),
+                measured.getLimitBytes() == null ? "-" : measured.getLimitBytes(),
+                measured.getBaselineBytes() == null ? "-" : String.format("%+.1f",
+                        100.0 * (measured.getMedianBytes() - measured.getBaselineBytes()) / measured.getBaselineBytes()),
+                measured.getCollections(), measured.getCollectionMillis())));
+        return table.toString();
+    }
+
+    @Value
+    @Builder
+    public static class Endpoint {
+
+        long medianBytes;
+
+        long p90Bytes;
+
+        long minBytes;
+
+        Long baselineBytes;
+
+        Long limitBytes;
+
+        long collections;
+
+        long collectionMillis;
+    }
+}
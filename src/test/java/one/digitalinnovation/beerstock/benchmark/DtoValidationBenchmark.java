@@ -0,0 +1,98 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.validation.BeerDTOValidator;
+import one.digitalinnovation.beerstock.validation.QuantityDTOValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates request bodies the way {@code WebDataBinder} does, once through Hibernate Validator behind Spring's adapter
+ * and once through the hand-written validators, for a valid and an invalid {@link QuantityDTO} and a valid
+ * {@link BeerDTO}. Each call gets a fresh binding result, as a request does.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark.includes=DtoValidationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoValidationBenchmark {
+
+    private final QuantityDTO validQuantity = new QuantityDTO(10);
+
+    private final QuantityDTO invalidQuantity = new QuantityDTO(101);
+
+    private final BeerDTO validBeer = BeerDTOBuilder.builder().build().toBeerDTO();
+
+    private final Validator quantityDTOValidator = new QuantityDTOValidator();
+
+    private final Validator beerDTOValidator = new BeerDTOValidator();
+
+    private LocalValidatorFactoryBean beanValidator;
+
+    @Setup
+    public void setUp() {
+        beanValidator = new LocalValidatorFactoryBean();
+        beanValidator.afterPropertiesSet();
+    }
+
+    @TearDown
+    public void tearDown() {
+        beanValidator.close();
+    }
+
+    @Benchmark
+    public int beanValidationValidQuantity() {
+        return validate(beanValidator, validQuantity, "quantityDTO");
+    }
+
+    @Benchmark
+    public int handWrittenValidQuantity() {
+        return validate(quantityDTOValidator, validQuantity, "quantityDTO");
+    }
+
+    @Benchmark
+    public int beanValidationInvalidQuantity() {
+        return validate(beanValidator, invalidQuantity, "quantityDTO");
+    }
+
+    @Benchmark
+    public int handWrittenInvalidQuantity() {
+        return validate(quantityDTOValidator, invalidQuantity, "quantityDTO");
+    }
+
+    @Benchmark
+    public int beanValidationValidBeer() {
+        return validate(beanValidator, validBeer, "beerDTO");
+    }
+
+    @Benchmark
+    public int handWrittenValidBeer() {
+        return validate(beerDTOValidator, validBeer, "beerDTO");
+    }
+
+    private static int validate(Validator validator, Object target, String objectName) {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(target, objectName);
+        validator.validate(target, errors);
+        return errors.getErrorCount();
+    }
+}
@@ -0,0 +1,88 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.exception.BeerStockBelowZeroException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a rejected decrement with the previous exception (full stack trace, eagerly formatted message) against the
+ * stackless {@link BeerStockBelowZeroException}, next to an accepted decrement as the baseline. The rejection is
+ * thrown {@code stackDepth} frames below the catch, since filling in the stack trace costs in proportion to the depth
+ * of the Spring MVC call stack.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark.includes=StockRejectionBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockRejectionBenchmark {
+
+    @Param({"16", "128"})
+    private int stackDepth;
+
+    private final long id = 1L;
+
+    private int quantity = 10;
+
+    @Benchmark
+    public int acceptedDecrement() throws Exception {
+        return decrementAt(stackDepth, 5, false);
+    }
+
+    @Benchmark
+    public String rejectionWithStackTrace() {
+        try {
+            decrementAt(stackDepth, 50, true);
+            return null;
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String stacklessRejection() {
+        try {
+            decrementAt(stackDepth, 50, false);
+            return null;
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+    }
+
+    private int decrementAt(int depth, int quantityToDecrement, boolean legacy) throws Exception {
+        if (depth > 0) {
+            return decrementAt(depth - 1, quantityToDecrement, legacy);
+        }
+        int quantityAfterDecrement = quantity - quantityToDecrement;
+        if (quantityAfterDecrement >= 0) {
+            return quantityAfterDecrement;
+        }
+        if (legacy) {
+            throw new LegacyBeerStockBelowZeroException(id, quantityToDecrement);
+        }
+        throw new BeerStockBelowZeroException(id, quantityToDecrement);
+    }
+
+    /**
+     * The exception as it was before it became stackless.
+     */
+    static class LegacyBeerStockBelowZeroException extends Exception {
+
+        LegacyBeerStockBelowZeroException(Long id, int quantityToIncrement) {
+            super(String.format("Beers with %s ID to decremento informed exceeds the minimum stock capacity: %s", id, quantityToIncrement));
+        }
+    }
+}
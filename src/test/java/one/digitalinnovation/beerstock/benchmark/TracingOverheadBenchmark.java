@@ -0,0 +1,78 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.tracing.ActiveSpan;
+import one.digitalinnovation.beerstock.tracing.SpanKind;
+import one.digitalinnovation.beerstock.tracing.SpanRing;
+import one.digitalinnovation.beerstock.tracing.SpanScope;
+import one.digitalinnovation.beerstock.tracing.Tracer;
+import one.digitalinnovation.beerstock.tracing.Tracing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of tracing one request shaped like {@code GET /api/v1/beers/{name}}: a root span, a controller, a service, a
+ * cache, a repository, a mapper and a serialization span, each around a small piece of work, at several sampling
+ * rates, next to the same request without any tracing calls.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark.includes=TracingOverheadBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TracingOverheadBenchmark {
+
+    private static final String[] CHILDREN = {"BeerController.findByName", "BeerService.findByName",
+            "TieredBeerCache.get", "BeerRepository.findByName", "BeerMapper.toDTO", "json.write"};
+
+    @Param({"0", "0.01", "1"})
+    private double sampleRate;
+
+    private Tracer tracer;
+
+    @Setup
+    public void setUp() {
+        tracer = new Tracer(new SpanRing(65536), sampleRate, 200);
+    }
+
+    @Benchmark
+    public void untraced(Blackhole blackhole) {
+        for (int i = 0; i < CHILDREN.length; i++) {
+            work(blackhole);
+        }
+    }
+
+    @Benchmark
+    public void traced(Blackhole blackhole) {
+        ActiveSpan root = tracer.startTrace("GET", SpanKind.SERVER, null);
+        try (SpanScope request = Tracing.activate(root)) {
+            for (String child : CHILDREN) {
+                try (SpanScope span = Tracing.span(child)) {
+                    work(blackhole);
+                }
+            }
+        }
+        if (root != null) {
+            root.end();
+        }
+    }
+
+    private static void work(Blackhole blackhole) {
+        Blackhole.consumeCPU(50);
+        blackhole.consume(blackhole);
+    }
+}
@@ -0,0 +1,125 @@
+package one.digitalinnovation.beerstock.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Starts two application nodes in this JVM on one H2 database, sharing the in-process shared cache and invalidation
+ * channel, and checks that a read on either node always sees the last write made through the other one while most
+ * reads are still served from a cache. The near TTL is long, so only invalidations can keep the nodes coherent.
+ */
+public class TieredBeerCacheMultiNodeTest {
+
+    private static final int ROUNDS = 20;
+
+    private static final int READS_PER_ROUND = 10;
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static ConfigurableApplicationContext nodeA;
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        String cluster = "cluster-" + UUID.randomUUID();
+        nodeA = startNode(cluster, "a");
+        nodeB = startNode(cluster, "b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void whenStockChangesOnOneNodeThenReadsOnBothNodesSeeItAndMostReadsHitTheCache() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().id(null).name("Multi Node Lager").quantity(0).max(500).build().toBeerDTO();
+        Long id = send(nodeA, "POST", "", beerDTO).getId();
+        int expectedQuantity = 0;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            // when
+            ConfigurableApplicationContext writer = round % 2 == 0 ? nodeA : nodeB;
+            int quantity = round % 5 + 1;
+            send(writer, "PATCH", "/" + id + "/increment", new QuantityDTO(quantity));
+            expectedQuantity += quantity;
+
+            // then
+            for (int read = 0; read < READS_PER_ROUND; read++) {
+                assertThat(read(nodeA, beerDTO.getName()).getQuantity(), is(equalTo(expectedQuantity)));
+                assertThat(read(nodeB, beerDTO.getName()).getQuantity(), is(equalTo(expectedQuantity)));
+            }
+        }
+
+        double hits = requests(nodeA, "near") + requests(nodeA, "shared")
+                + requests(nodeB, "near") + requests(nodeB, "shared");
+        double misses = requests(nodeA, "miss") + requests(nodeB, "miss");
+        assertThat(misses, is(equalTo((double) ROUNDS)));
+        assertThat(hits / (hits + misses), is(greaterThan(0.9)));
+        assertThat(invalidations(nodeB, "remote"), is(equalTo(ROUNDS / 2 + 1.0)));
+    }
+
+    private static ConfigurableApplicationContext startNode(String cluster, String nodeId) {
+        return new SpringApplicationBuilder(BeerstockApplication.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:" + cluster + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "beerstock.node-id=" + nodeId,
+                        "beerstock.cache.near.ttl-ms=600000",
+                        "beerstock.cache.shared.space=" + cluster,
+                        "beerstock.cache.invalidation.channel=" + cluster)
+                .run();
+    }
+
+    private static BeerDTO read(ConfigurableApplicationContext node, String name) throws Exception {
+        return send(node, "GET", "/" + name.replace(" ", "%20"), null);
+    }
+
+    private static BeerDTO send(ConfigurableApplicationContext node, String method, String path, Object body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:"
+                        + node.getEnvironment().getProperty("local.server.port") + "/api/v1/beers" + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.body(), response.statusCode() / 100, is(equalTo(2)));
+        return MAPPER.readValue(response.body(), BeerDTO.class);
+    }
+
+    private static double requests(ConfigurableApplicationContext node, String result) {
+        return node.getBean(MeterRegistry.class).get("beerstock.cache.requests").tag("result", result)
+                .functionCounter().count();
+    }
+
+    private static double invalidations(ConfigurableApplicationContext node, String origin) {
+        return node.getBean(MeterRegistry.class).get("beerstock.cache.invalidations").tag("origin", origin)
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,225 @@
+package one.digitalinnovation.beerstock.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class TieredBeerCacheTest {
+
+    private static final Instant START = Instant.parse("2024-05-01T12:00:00Z");
+
+    private final BeerDTO brahma = BeerDTOBuilder.builder().build().toBeerDTO();
+
+    private MutableClock clock;
+
+    private InProcessBeerCacheInvalidationBus bus;
+
+    private MeterRegistry registryA;
+
+    private MeterRegistry registryB;
+
+    private TieredBeerCache nodeA;
+
+    private TieredBeerCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        String cluster = UUID.randomUUID().toString();
+        clock = new MutableClock(START);
+        SharedBeerCache sharedCache = new InProcessSharedBeerCache(cluster, clock);
+        bus = new InProcessBeerCacheInvalidationBus(cluster);
+        registryA = new SimpleMeterRegistry();
+        registryB = new SimpleMeterRegistry();
+        nodeA = new TieredBeerCache(sharedCache, bus, registryA, "a", 1000, 100, Duration.ofSeconds(60), clock);
+        nodeB = new TieredBeerCache(sharedCache, bus, registryB, "b", 1000, 100, Duration.ofSeconds(60), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.close();
+    }
+
+    @Test
+    void whenABeerIsReadTwiceThenTheSecondReadIsANearHit() {
+        // given
+        CountingLoader loader = new CountingLoader(brahma);
+
+        // when
+        nodeA.get("Brahma", loader);
+        Optional<BeerDTO> cached = nodeA.get("Brahma", loader);
+
+        // then
+        assertThat(cached.get().getQuantity(), is(equalTo(10)));
+        assertThat(loader.calls.get(), is(equalTo(1)));
+        assertThat(requests(registryA, "near"), is(equalTo(1.0)));
+        assertThat(requests(registryA, "miss"), is(equalTo(1.0)));
+    }
+
+    @Test
+    void whenAnotherNodeLoadedTheBeerThenItIsServedFromTheSharedTier() {
+        // given
+        nodeA.get("Brahma", new CountingLoader(brahma));
+        CountingLoader loaderB = new CountingLoader(brahma);
+
+        // when
+        nodeB.get("Brahma", loaderB);
+        nodeB.get("Brahma", loaderB);
+
+        // then
+        assertThat(loaderB.calls.get(), is(equalTo(0)));
+        assertThat(requests(registryB, "shared"), is(equalTo(1.0)));
+        assertThat(requests(registryB, "near"), is(equalTo(1.0)));
+    }
+
+    @Test
+    void whenABeerChangesOnOneNodeThenTheOtherNodeReloadsIt() {
+        // given
+        nodeA.get("Brahma", new CountingLoader(brahma));
+        nodeB.get("Brahma", new CountingLoader(brahma));
+        BeerDTO incremented = BeerDTOBuilder.builder().quantity(15).build().toBeerDTO();
+        CountingLoader loaderB = new CountingLoader(incremented);
+
+        // when
+        nodeA.onBeerChanged(BeerChangedEvent.stockChanged(entity(15), 5, 1L));
+        Optional<BeerDTO> read = nodeB.get("Brahma", loaderB);
+
+        // then
+        assertThat(read.get().getQuantity(), is(equalTo(15)));
+        assertThat(loaderB.calls.get(), is(equalTo(1)));
+    }
+
+    @Test
+    void whenAChangeCommitsWhileABeerIsLoadingThenTheLoadedBeerIsNotKept() {
+        // given
+        Function<String, Optional<BeerDTO>> racingLoader = name -> {
+            nodeB.onBeerChanged(BeerChangedEvent.stockChanged(entity(15), 5, 1L));
+            return Optional.of(brahma);
+        };
+        CountingLoader loader = new CountingLoader(BeerDTOBuilder.builder().quantity(15).build().toBeerDTO());
+
+        // when
+        nodeA.get("Brahma", racingLoader);
+        Optional<BeerDTO> read = nodeA.get("Brahma", loader);
+
+        // then
+        assertThat(read.get().getQuantity(), is(equalTo(15)));
+        assertThat(loader.calls.get(), is(equalTo(1)));
+    }
+
+    @Test
+    void whenTheNearEntryExpiresThenTheSharedTierServesTheBeer() {
+        // given
+        CountingLoader loader = new CountingLoader(brahma);
+        nodeA.get("Brahma", loader);
+
+        // when
+        clock.advance(Duration.ofSeconds(2));
+        nodeA.get("Brahma", loader);
+
+        // then
+        assertThat(loader.calls.get(), is(equalTo(1)));
+        assertThat(requests(registryA, "shared"), is(equalTo(1.0)));
+    }
+
+    @Test
+    void whenACallerChangesTheBeerItGotThenTheNextNearHitIsUnaffected() {
+        // given
+        CountingLoader loader = new CountingLoader(BeerDTOBuilder.builder().build().toBeerDTO());
+        nodeA.get("Brahma", loader).get().setQuantity(0);
+        nodeA.get("Brahma", loader).get().setQuantity(1);
+
+        // when
+        Optional<BeerDTO> cached = nodeA.get("Brahma", loader);
+
+        // then
+        assertThat(cached.get().getQuantity(), is(equalTo(10)));
+        assertThat(requests(registryA, "near"), is(equalTo(2.0)));
+    }
+
+    @Test
+    void whenTheNameDiffersInCaseThenTheCachedBeerIsNotReturned() {
+        // given
+        nodeA.get("Brahma", new CountingLoader(brahma));
+        CountingLoader loader = new CountingLoader(brahma);
+
+        // when
+        nodeA.get("BRAHMA", loader);
+
+        // then
+        assertThat(loader.calls.get(), is(equalTo(1)));
+    }
+
+    private static Beer entity(int quantity) {
+        return new Beer(1L, "Brahma", "Ambev", 50, quantity, BeerType.LAGER);
+    }
+
+    private static double requests(MeterRegistry registry, String result) {
+        return registry.get("beerstock.cache.requests").tag("result", result).functionCounter().count();
+    }
+
+    private static final class CountingLoader implements Function<String, Optional<BeerDTO>> {
+
+        private final BeerDTO beer;
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private CountingLoader(BeerDTO beer) {
+            this.beer = beer;
+        }
+
+        @Override
+        public Optional<BeerDTO> apply(String name) {
+            calls.incrementAndGet();
+            return Optional.of(beer);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package one.digitalinnovation.beerstock.changes;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ChangeVersionSequenceTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+
+    private static final String NODE = "node-a";
+
+    @Mock
+    private ChangeVersionStore store;
+
+    private final List<Runnable> refills = new ArrayList<>();
+
+    private ChangeVersionSequence changeVersions;
+
+    @BeforeEach
+    void setUp() {
+        changeVersions = new ChangeVersionSequence(store, NODE, 10, Duration.ofSeconds(30),
+                Clock.fixed(NOW, ZoneOffset.UTC), refills::add);
+        lenient().when(store.minLiveFloorOfOtherNodes(NODE, NOW.minusSeconds(30))).thenReturn(Long.MAX_VALUE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void whenVersionsAreTakenOutsideATransactionThenTheyAreStableAtOnce() {
+        // given
+        when(store.reserve(42, 10)).thenReturn(42L);
+        changeVersions.advanceTo(41);
+
+        // when
+        long version = changeVersions.next();
+
+        // then
+        assertThat(version, is(equalTo(42L)));
+        assertThat(changeVersions.stableVersion(), is(equalTo(42L)));
+    }
+
+    @Test
+    void whenATransactionIsStillOpenThenTheStableVersionStopsBelowItsVersion() {
+        // given
+        when(store.reserve(1, 10)).thenReturn(1L);
+        changeVersions.advanceTo(0);
+        changeVersions.next();
+        TransactionSynchronizationManager.initSynchronization();
+        changeVersions.next();
+        List<TransactionSynchronization> openTransaction = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        changeVersions.next();
+
+        // when
+        long whileOpen = changeVersions.stableVersion();
+        openTransaction.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // then
+        assertThat(whileOpen, is(equalTo(1L)));
+        assertThat(changeVersions.stableVersion(), is(equalTo(3L)));
+    }
+
+    @Test
+    void whenAnotherNodeHasALowerFloorThenTheStableVersionStopsBelowIt() {
+        // given
+        when(store.reserve(1, 10)).thenReturn(21L);
+        changeVersions.advanceTo(0);
+        changeVersions.next();
+        when(store.minLiveFloorOfOtherNodes(NODE, NOW.minusSeconds(30))).thenReturn(15L);
+
+        // when
+        long stableVersion = changeVersions.stableVersion();
+
+        // then
+        assertThat(stableVersion, is(equalTo(14L)));
+    }
+
+    @Test
+    void whenHalfABlockIsUsedThenTheNextOneIsReservedAsideAndSwappedInWithoutWaiting() {
+        // given
+        when(store.reserve(1, 10)).thenReturn(1L, 31L);
+        changeVersions.advanceTo(0);
+        for (int i = 0; i < 5; i++) {
+            changeVersions.next();
+        }
+        assertThat(refills, hasSize(1));
+        refills.get(0).run();
+        for (int i = 0; i < 5; i++) {
+            changeVersions.next();
+        }
+
+        // when
+        long version = changeVersions.next();
+
+        // then
+        assertThat(version, is(equalTo(31L)));
+        verify(store, times(2)).reserve(1, 10);
+        verify(store, never()).reserveOnCurrentConnection(anyInt());
+    }
+
+    @Test
+    void whenNoSpareIsReadyThenTheCallerReservesTheNextBlockOnItsOwnConnection() {
+        // given
+        when(store.reserve(1, 10)).thenReturn(1L);
+        when(store.reserveOnCurrentConnection(10)).thenReturn(11L);
+        changeVersions.advanceTo(0);
+        for (int i = 0; i < 10; i++) {
+            changeVersions.next();
+        }
+
+        // when
+        long version = changeVersions.next();
+
+        // then
+        assertThat(version, is(equalTo(11L)));
+        assertThat(changeVersions.next(), is(equalTo(12L)));
+    }
+
+    @Test
+    void whenTheHeartbeatRunsThenTheNodeMovesToAFreshBlockAndPublishesItsFloor() {
+        // given
+        when(store.reserve(1, 10)).thenReturn(1L, 41L);
+        changeVersions.advanceTo(0);
+        changeVersions.next();
+        TransactionSynchronizationManager.initSynchronization();
+        changeVersions.next();
+
+        // when
+        changeVersions.heartbeat();
+
+        // then
+        assertThat(changeVersions.next(), is(equalTo(41L)));
+        verify(store).publishFloor(NODE, 2, NOW);
+    }
+
+    @Test
+    void whenTheNodeRegistersThenItHoldsOtherNodesBackUntilItsFirstBlockIsPublished() {
+        // given
+        when(store.reserve(8, 10)).thenReturn(51L);
+
+        // when
+        changeVersions.advanceTo(7);
+
+        // then
+        InOrder publishing = inOrder(store);
+        publishing.verify(store).publishFloor(NODE, 0, NOW);
+        publishing.verify(store).reserve(8, 10);
+        publishing.verify(store).publishFloor(NODE, 51, NOW);
+    }
+
+    @Test
+    void whenTheSequenceIsBehindTheStoredVersionsThenTheNodeRefusesToStart() {
+        // given
+        when(store.reserve(anyLong(), anyInt())).thenReturn(5L);
+
+        // then
+        assertThrows(IllegalStateException.class, () -> changeVersions.advanceTo(7));
+    }
+}
@@ -1,33 +1,72 @@
 package one.digitalinnovation.beerstock.controller;
 
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerAvailabilityDTO;
+import one.digitalinnovation.beerstock.dto.BeerChangeDTO;
+import one.digitalinnovation.beerstock.dto.BeerChangesDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerGroupStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportJobDTO;
+import one.digitalinnovation.beerstock.dto.BeerStatsDTO;
+import one.digitalinnovation.beerstock.dto.BeerSuggestionDTO;
+import one.digitalinnovation.beerstock.dto.OrderDTO;
+import one.digitalinnovation.beerstock.dto.OrderItemDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.dto.ReservationRequestDTO;
+import one.digitalinnovation.beerstock.dto.StockHistoryDTO;
+import one.digitalinnovation.beerstock.dto.StockHistoryPointDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.enums.HistoryResolution;
+import one.digitalinnovation.beerstock.enums.ImportFormat;
+import one.digitalinnovation.beerstock.enums.ImportState;
+import one.digitalinnovation.beerstock.exception.BeerImportJobNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockBelowZeroException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.InvalidHistoryRangeException;
+import one.digitalinnovation.beerstock.exception.ReservationNotFoundException;
+import one.digitalinnovation.beerstock.history.StockHistoryService;
+import one.digitalinnovation.beerstock.importer.BeerImportService;
+import one.digitalinnovation.beerstock.service.BeerChangeService;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.BeerStatsService;
+import one.digitalinnovation.beerstock.service.ReservationService;
+import one.digitalinnovation.beerstock.warehouse.WarehouseStockService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static one.digitalinnovation.beerstock.utils.JsonConvertionUtils.asJsonString;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,17 +84,51 @@ public class BeerControllerTest {
     @Mock
     private BeerService beerService;
 
+    @Mock
+    private BeerStatsService beerStatsService;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private BeerChangeService beerChangeService;
+
+    @Mock
+    private BeerImportService beerImportService;
+
+    @Mock
+    private StockHistoryService stockHistoryService;
+
+    @Mock
+    private WarehouseStockService warehouseStockService;
+
+    @Spy
+    private SyncTaskExecutor beerReadExecutor = new SyncTaskExecutor();
+
+    @Spy
+    private SyncTaskExecutor beerWriteExecutor = new SyncTaskExecutor();
+
     @InjectMocks
     private BeerController beerController;
 
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(beerController)
+                .setControllerAdvice(new BeerStockExceptionHandler(), new OverloadExceptionHandler())
                 .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
                 .setViewResolvers((s, locale) -> new MappingJackson2JsonView())
                 .build();
     }
 
+    /**
+     * Performs the request and, when the controller answered with a future, the async dispatch that renders it.
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
     @Test
     void whenPOSTIsCalledThenABeerIsCreated() throws Exception {
         //given
@@ -70,7 +143,7 @@ public class BeerControllerTest {
         /*Simulação de um requerimento passando o Path da API, tipo sendo JSON, criando um Json String com as inforamações
         da beerDTO e esperando que o status criado com nome, brand e type igual ao da beerDTO.
          */
-        mockMvc.perform(post(BEER_API_URL_PATH)
+        perform(post(BEER_API_URL_PATH)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(beerDTO)))
                 .andExpect(status().isCreated())
@@ -90,7 +163,7 @@ public class BeerControllerTest {
 
         // then
         //Passando o beerDTO para ser criado com o brand sendo null, esperando que essa requisição sendo BadRequest
-        mockMvc.perform(post(BEER_API_URL_PATH)
+        perform(post(BEER_API_URL_PATH)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(beerDTO)))
                 .andExpect(status().isBadRequest());
@@ -110,7 +183,7 @@ public class BeerControllerTest {
            Passando o path da API + / e mais o nome da cerveja, "setando" o tipo como json, esperando um stauts é OKAY
            e name, brand, type iguais a do objeto beerDTO.
          */
-        mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+        perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName())
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is(beerDTO.getName())))
@@ -129,7 +202,7 @@ public class BeerControllerTest {
 
         // then
         // Passar o path mais o nome da cerveja separado pelo /, "setando" como tipo json e esperando um retorno ser IsNotFound
-        mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+        perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName())
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
@@ -148,7 +221,7 @@ public class BeerControllerTest {
         Passando o path da API, informando que é JSON, esperando que o status seja okay e que name, brand,type do primeiro
         elemento da lista seja igual ao do beerDTO.
          */
-        mockMvc.perform(get(BEER_API_URL_PATH)
+        perform(get(BEER_API_URL_PATH)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name", is(beerDTO.getName())))
@@ -167,11 +240,217 @@ public class BeerControllerTest {
 
         // then
         //Passando o path da API, sendo JSON e verificando se o status é okay.
-        mockMvc.perform(get(BEER_API_URL_PATH)
+        perform(get(BEER_API_URL_PATH)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void whenGETStatsIsCalledThenOkStatusIsReturned() throws Exception {
+        // given
+        BeerGroupStatsDTO lagerStats = BeerGroupStatsDTO.builder()
+                .group("LAGER")
+                .beers(2)
+                .quantity(30)
+                .capacity(100)
+                .averageQuantity(15)
+                .fillRatio(0.3)
+                .build();
+        BeerStatsDTO statsDTO = BeerStatsDTO.builder()
+                .total(lagerStats)
+                .byType(Collections.singletonList(lagerStats))
+                .byBrand(Collections.emptyList())
+                .fillRatioHistogram(new long[10])
+                .build();
+
+        //when
+        when(beerStatsService.getStats()).thenReturn(statsDTO);
+
+        // then
+        perform(get(BEER_API_URL_PATH + "/stats")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total.quantity", is(30)))
+                .andExpect(jsonPath("$.byType[0].group", is("LAGER")))
+                .andExpect(jsonPath("$.byType[0].fillRatio", is(0.3)));
+    }
+
+    @Test
+    void whenGETSuggestIsCalledThenMatchingNamesAreReturned() throws Exception {
+        // given
+        BeerSuggestionDTO suggestionDTO = new BeerSuggestionDTO(VALID_BEER_ID, "Brahma", 1);
+
+        //when
+        when(beerService.suggest("brama", 10)).thenReturn(Collections.singletonList(suggestionDTO));
+
+        // then
+        perform(get(BEER_API_URL_PATH + "/suggest")
+                .param("q", "brama")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is("Brahma")))
+                .andExpect(jsonPath("$[0].distance", is(1)));
+    }
+
+    @Test
+    void whenGETSuggestIsCalledWithoutQueryThenBadRequestStatusIsReturned() throws Exception {
+        perform(get(BEER_API_URL_PATH + "/suggest")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenGETChangesIsCalledThenChangedAndDeletedBeersAreReturned() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerChangesDTO changesDTO = BeerChangesDTO.builder()
+                .changes(Arrays.asList(
+                        BeerChangeDTO.builder().version(8).id(2L).deleted(true).build(),
+                        BeerChangeDTO.builder().version(9).id(beerDTO.getId()).beer(beerDTO).build()))
+                .nextSince(9)
+                .hasMore(true)
+                .build();
+
+        //when
+        when(beerChangeService.changesSince(7, 2)).thenReturn(changesDTO);
+
+        // then
+        perform(get(BEER_API_URL_PATH + "/changes")
+                .param("since", "7")
+                .param("limit", "2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].deleted", is(true)))
+                .andExpect(jsonPath("$.changes[1].beer.name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$.nextSince", is(9)))
+                .andExpect(jsonPath("$.hasMore", is(true)));
+    }
+
+    @Test
+    void whenPOSTImportIsCalledThenTheImportIsQueued() throws Exception {
+        // given
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv", "text/csv",
+                "name,brand,max,quantity,type\n".getBytes());
+        BeerImportJobDTO jobDTO = BeerImportJobDTO.builder()
+                .id("job-1")
+                .fileName("catalog.csv")
+                .format(ImportFormat.CSV)
+                .state(ImportState.QUEUED)
+                .build();
+
+        // when
+        when(beerImportService.start(any(MultipartFile.class), eq(null))).thenReturn(jobDTO);
+
+        // then
+        perform(multipart(BEER_API_URL_PATH + "/import").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id", is("job-1")))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+    }
+
+    @Test
+    void whenGETImportStatusIsCalledWithUnknownJobThenNotFoundStatusIsReturned() throws Exception {
+        // when
+        when(beerImportService.status("missing")).thenThrow(new BeerImportJobNotFoundException("missing"));
+
+        // then
+        perform(get(BEER_API_URL_PATH + "/import/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenGETHistoryIsCalledThenThePointsOfTheRequestedResolutionAreReturned() throws Exception {
+        // given
+        Instant from = Instant.parse("2020-06-01T10:00:00Z");
+        Instant to = Instant.parse("2020-06-01T12:00:00Z");
+        StockHistoryDTO historyDTO = StockHistoryDTO.builder()
+                .beerId(VALID_BEER_ID)
+                .resolution(HistoryResolution.HOUR)
+                .from(from)
+                .to(to)
+                .points(Arrays.asList(new StockHistoryPointDTO(from, 10, 8, 15, 12, 4),
+                        new StockHistoryPointDTO(from.plusSeconds(3600), 12, 12, 12, 12, 0)))
+                .build();
+
+        // when
+        when(stockHistoryService.history(VALID_BEER_ID, from, to, HistoryResolution.HOUR)).thenReturn(historyDTO);
+
+        // then
+        perform(get(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/history")
+                .param("from", from.toString())
+                .param("to", to.toString())
+                .param("resolution", "HOUR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resolution", is("HOUR")))
+                .andExpect(jsonPath("$.points[0].max", is(15)))
+                .andExpect(jsonPath("$.points[1].changes", is(0)));
+    }
+
+    @Test
+    void whenGETHistoryIsCalledWithReversedRangeThenBadRequestStatusIsReturned() throws Exception {
+        // when
+        when(stockHistoryService.history(VALID_BEER_ID, null, null, null))
+                .thenThrow(new InvalidHistoryRangeException("from is after to"));
+
+        // then
+        perform(get(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/history"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPATCHIsCalledToIncrementAWarehouseThenItsStockIsReturned() throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder().quantity(10).build();
+
+        // when
+        when(warehouseStockService.increment(VALID_BEER_ID, "lisbon", 10))
+                .thenReturn(new WarehouseStockDTO("lisbon", 30, 100));
+
+        // then
+        perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/warehouses/lisbon" + BEER_API_SUBPATH_INCREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.warehouse", is("lisbon")))
+                .andExpect(jsonPath("$.quantity", is(30)));
+    }
+
+    @Test
+    void whenPOSTWarehouseIsCalledWithoutMaxThenBadRequestStatusIsReturned() throws Exception {
+        // given
+        WarehouseStockDTO warehouseStockDTO = new WarehouseStockDTO("lisbon", 10, null);
+
+        // then
+        perform(post(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/warehouses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(warehouseStockDTO)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(warehouseStockService);
+    }
+
+    @Test
+    void whenGETAvailabilityIsCalledThenAvailabilityPerBeerIsReturned() throws Exception {
+        // given
+        BeerAvailabilityDTO availabilityDTO = BeerAvailabilityDTO.builder()
+                .beerId(VALID_BEER_ID)
+                .quantity(12)
+                .available(true)
+                .fulfillableFrom(Collections.singletonList("lisbon"))
+                .build();
+
+        // when
+        when(warehouseStockService.availability(Arrays.asList(VALID_BEER_ID, INVALID_BEER_ID), 5))
+                .thenReturn(Collections.singletonList(availabilityDTO));
+
+        // then
+        perform(get(BEER_API_URL_PATH + "/availability")
+                .param("ids", VALID_BEER_ID + "," + INVALID_BEER_ID)
+                .param("quantity", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].available", is(true)))
+                .andExpect(jsonPath("$[0].fulfillableFrom[0]", is("lisbon")));
+    }
+
     @Test
     void whenDELETEIsCalledWithValidIdThenNoContentStatusIsReturned() throws Exception {
         // given
@@ -183,7 +462,7 @@ public class BeerControllerTest {
 
         // then
         //Passando o path da API, chamando método delete para o beerDTO.id, esperando um status sendo "isNotContent"
-        mockMvc.perform(delete(BEER_API_URL_PATH + "/" + beerDTO.getId())
+        perform(delete(BEER_API_URL_PATH + "/" + beerDTO.getId())
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
     }
@@ -196,7 +475,7 @@ public class BeerControllerTest {
 
         // then
         //Passando path, esperando que o seu retorno seja isNotFound.
-        mockMvc.perform(delete(BEER_API_URL_PATH + "/" + INVALID_BEER_ID)
+        perform(delete(BEER_API_URL_PATH + "/" + INVALID_BEER_ID)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
@@ -217,7 +496,7 @@ public class BeerControllerTest {
         Passando o PATH +/+ Subpath do incremento como constante, "setando" como json e esperando o retorno tenha um
         status okay e que seu retorno seja igual ao do objeto beerDTO
         */
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+        perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(quantityDTO))).andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is(beerDTO.getName())))
@@ -236,12 +515,29 @@ public class BeerControllerTest {
         when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockExceededException.class);
 
         //Estamos esperando o retorno seja um badRequest
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+        perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(quantityDTO)))
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void whenPATCHIsCalledToIncrementGreaterThanMaxThenErrorBodyIsReturned() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(30)
+                .build();
+
+        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity()))
+                .thenThrow(new BeerStockExceededException(VALID_BEER_ID, quantityDTO.getQuantity()));
+
+        perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)))
+                .andExpect(jsonPath("$.message", is("Beers with 1 ID to increment informed exceeds the max stock capacity: 30")));
+    }
+
     @Test
     void whenPATCHIsCalledWithInvalidBeerIdToIncrementThenNotFoundStatusIsReturned() throws Exception {
         QuantityDTO quantityDTO = QuantityDTO.builder()
@@ -251,7 +547,7 @@ public class BeerControllerTest {
 
         //Estamos esperando um retorno que a cerveja não foi encontrada isNotFound, forçando a exceção BeerNotFoundException
         when(beerService.increment(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerNotFoundException.class);
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+        perform(patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(quantityDTO)))
                 .andExpect(status().isNotFound());
@@ -274,7 +570,7 @@ public class BeerControllerTest {
         Passando o PATH +/+ Subpath do decrement como constante, "setando" como json e esperando o retorno tenha um
         status okay e que seu retorno seja igual ao do objeto beerDTO
          */
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+        perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(quantityDTO)))
                 .andExpect(status().isOk())
@@ -297,7 +593,7 @@ public class BeerControllerTest {
         when(beerService.decrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockBelowZeroException.class);
 
         //Validando se o retorno é isBadRequest
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+        perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(quantityDTO))).andExpect(status().isBadRequest());
     }
@@ -310,9 +606,124 @@ public class BeerControllerTest {
 
        //Estou passando um ID que não existe, esperando o erro que a cerveja não foi encontrada.
         when(beerService.decrement(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerNotFoundException.class);
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+        perform(patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(quantityDTO)))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void whenPOSTOrderIsCalledThenEveryItemIsDecremented() throws Exception {
+        // given
+        OrderDTO orderDTO = new OrderDTO(Collections.singletonList(new OrderItemDTO(VALID_BEER_ID, 5)));
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(5).build().toBeerDTO();
+
+        //when
+        when(beerService.placeOrder(orderDTO)).thenReturn(Collections.singletonList(beerDTO));
+
+        // then
+        perform(post(BEER_API_URL_PATH + "/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(orderDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].quantity", is(5)));
+    }
+
+    @Test
+    void whenPOSTOrderIsCalledWithoutItemsThenBadRequestStatusIsReturned() throws Exception {
+        perform(post(BEER_API_URL_PATH + "/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new OrderDTO(Collections.emptyList()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPOSTOrderExceedsStockThenErrorBodyIsReturned() throws Exception {
+        // given
+        OrderDTO orderDTO = new OrderDTO(Collections.singletonList(new OrderItemDTO(VALID_BEER_ID, 80)));
+
+        //when
+        when(beerService.placeOrder(orderDTO)).thenThrow(new BeerStockBelowZeroException(VALID_BEER_ID, 80));
+
+        // then
+        perform(post(BEER_API_URL_PATH + "/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(orderDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)));
+    }
+
+    @Test
+    void whenPOSTReservationIsCalledThenAReservationIsCreated() throws Exception {
+        // given
+        ReservationRequestDTO reservationRequestDTO = ReservationRequestDTO.builder().quantity(5).build();
+        ReservationDTO reservationDTO = new ReservationDTO("r-1", VALID_BEER_ID, 5, Instant.parse("2020-06-01T10:15:00Z"));
+
+        //when
+        when(reservationService.reserve(VALID_BEER_ID, 5, null)).thenReturn(reservationDTO);
+
+        // then
+        perform(post(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(reservationRequestDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is("r-1")))
+                .andExpect(jsonPath("$.quantity", is(5)));
+    }
+
+    @Test
+    void whenPOSTReservationIsCalledWithoutQuantityThenBadRequestStatusIsReturned() throws Exception {
+        perform(post(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new ReservationRequestDTO())))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPOSTCommitIsCalledWithValidReservationThenOKStatusIsReturned() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setQuantity(beerDTO.getQuantity() - 5);
+
+        //when
+        when(reservationService.commit(VALID_BEER_ID, "r-1")).thenReturn(beerDTO);
+
+        // then
+        perform(post(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/reservations/r-1/commit")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(beerDTO.getQuantity())));
+    }
+
+    @Test
+    void whenDELETEReservationIsCalledWithExpiredReservationThenNotFoundStatusIsReturned() throws Exception {
+        //when
+        doThrow(ReservationNotFoundException.class).when(reservationService).cancel(VALID_BEER_ID, "r-1");
+
+        // then
+        perform(delete(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/reservations/r-1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenRequestExecutorIsFullThenServiceUnavailableIsReturnedAtOnce() throws Exception {
+        // given
+        Executor saturated = task -> {
+            throw new RejectedExecutionException("beer-read queue is full");
+        };
+        MockMvc overloadedMockMvc = MockMvcBuilders.standaloneSetup(
+                new BeerController(beerService, beerStatsService, reservationService, beerChangeService,
+                        beerImportService, stockHistoryService, warehouseStockService, saturated, saturated))
+                .setControllerAdvice(new BeerStockExceptionHandler(), new OverloadExceptionHandler())
+                .build();
+
+        // then
+        overloadedMockMvc.perform(get(BEER_API_URL_PATH + "/Brahma")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.status", is(503)));
+        verifyNoInteractions(beerService);
+    }
 }
@@ -0,0 +1,208 @@
+package one.digitalinnovation.beerstock.history;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.StockHistoryDTO;
+import one.digitalinnovation.beerstock.dto.StockHistoryPointDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.HistoryResolution;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.InvalidHistoryRangeException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockHistoryServiceTest {
+
+    private static final Instant START = Instant.parse("2020-06-01T10:00:00Z");
+
+    private static final int MAX_POINTS = 100;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    private MutableClock clock;
+
+    private StockHistoryService stockHistoryService;
+
+    private Beer beer;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        stockHistoryService = new StockHistoryService(beerRepository, clock, new int[]{4, 60, 48, 30}, MAX_POINTS);
+        beer = beerMapper.toModel(BeerDTOBuilder.builder().quantity(10).max(100).build().toBeerDTO());
+    }
+
+    @Test
+    void whenStockChangesThenMinutesAreRolledUpAndQuietMinutesCarryTheLastQuantity() throws Exception {
+        // given
+        at("10:00:30", 15, 5);
+        at("10:00:45", 12, -3);
+        at("10:03:10", 20, 8);
+
+        // when
+        StockHistoryDTO history = stockHistoryService.history(beer.getId(), START, Instant.parse("2020-06-01T10:04:00Z"),
+                HistoryResolution.MINUTE);
+
+        // then
+        assertThat(history.getPoints(), contains(
+                point("10:00:00", 10, 10, 15, 12, 2),
+                point("10:01:00", 12, 12, 12, 12, 0),
+                point("10:02:00", 12, 12, 12, 12, 0),
+                point("10:03:00", 12, 12, 20, 20, 1),
+                point("10:04:00", 20, 20, 20, 20, 0)));
+        verifyNoInteractions(beerRepository);
+    }
+
+    @Test
+    void whenBeerNeverChangedThenItsCurrentQuantityIsReportedSinceStartup() throws Exception {
+        // given
+        when(beerRepository.findById(beer.getId())).thenReturn(Optional.of(beer));
+        clock.advance(Duration.ofMinutes(2));
+
+        // when
+        StockHistoryDTO history = stockHistoryService.history(beer.getId(), START.minus(Duration.ofHours(1)),
+                clock.instant(), HistoryResolution.MINUTE);
+
+        // then
+        assertThat(history.getFrom(), is(equalTo(START)));
+        assertThat(history.getPoints().stream().map(StockHistoryPointDTO::getClose).collect(Collectors.toList()),
+                contains(10, 10, 10));
+    }
+
+    @Test
+    void whenRawRingIsFullThenOldestChangesAreDroppedAndTheRangeIsCut() throws Exception {
+        // given
+        int quantity = 10;
+        for (int change = 0; change < 6; change++) {
+            clock.advance(Duration.ofSeconds(10));
+            stockHistoryService.onBeerChanged(stockChanged(quantity + 1, 1));
+            quantity++;
+        }
+
+        // when
+        StockHistoryDTO history = stockHistoryService.history(beer.getId(), START, clock.instant(), HistoryResolution.RAW);
+
+        // then
+        assertThat(history.getPoints().stream().map(StockHistoryPointDTO::getClose).collect(Collectors.toList()),
+                contains(13, 14, 15, 16));
+        assertThat(history.getFrom(), is(equalTo(START.plusSeconds(30))));
+    }
+
+    @Test
+    void whenNoResolutionIsGivenThenTheFinestRollupWithinThePointLimitIsChosen() throws Exception {
+        // given
+        at("10:00:30", 15, 5);
+        clock.advance(Duration.ofDays(2));
+        stockHistoryService.onBeerChanged(stockChanged(20, 5));
+
+        // when
+        StockHistoryDTO recent = stockHistoryService.history(beer.getId(), clock.instant().minus(Duration.ofMinutes(30)),
+                clock.instant(), null);
+        StockHistoryDTO twoDays = stockHistoryService.history(beer.getId(), START, clock.instant(), null);
+
+        // then
+        assertThat(recent.getResolution(), is(equalTo(HistoryResolution.MINUTE)));
+        assertThat(twoDays.getResolution(), is(equalTo(HistoryResolution.HOUR)));
+        assertThat(twoDays.getPoints(), hasSize(49));
+        assertThat(twoDays.getPoints().get(48).getClose(), is(equalTo(20)));
+    }
+
+    @Test
+    void whenRangeIsReversedOrTooLongForTheResolutionThenItIsRejected() {
+        // given
+        at("10:00:30", 15, 5);
+        clock.advance(Duration.ofHours(3));
+
+        // then
+        assertThrows(InvalidHistoryRangeException.class, () -> stockHistoryService.history(beer.getId(),
+                clock.instant(), START, HistoryResolution.MINUTE));
+        assertThrows(InvalidHistoryRangeException.class, () -> stockHistoryService.history(beer.getId(),
+                START, clock.instant(), HistoryResolution.MINUTE));
+    }
+
+    @Test
+    void whenBeerIsDeletedThenItsHistoryIsDropped() {
+        // given
+        at("10:00:30", 15, 5);
+        when(beerRepository.findById(beer.getId())).thenReturn(Optional.empty());
+
+        // when
+        stockHistoryService.onBeerChanged(BeerChangedEvent.deleted(beer, 1L));
+
+        // then
+        assertThrows(BeerNotFoundException.class, () -> stockHistoryService.history(beer.getId(), null, null, null));
+    }
+
+    private void at(String time, int quantity, int delta) {
+        clock.set(Instant.parse("2020-06-01T" + time + "Z"));
+        stockHistoryService.onBeerChanged(stockChanged(quantity, delta));
+    }
+
+    private BeerChangedEvent stockChanged(int quantity, int delta) {
+        beer.setQuantity(quantity);
+        return BeerChangedEvent.stockChanged(beer, delta, 1L);
+    }
+
+    private static StockHistoryPointDTO point(String time, int open, int min, int max, int close, int changes) {
+        return new StockHistoryPointDTO(Instant.parse("2020-06-01T" + time + "Z"), open, min, max, close, changes);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        void set(Instant instant) {
+            now = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
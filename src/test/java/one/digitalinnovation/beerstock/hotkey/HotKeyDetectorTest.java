@@ -0,0 +1,139 @@
+package one.digitalinnovation.beerstock.hotkey;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class HotKeyDetectorTest {
+
+    private MutableClock clock;
+
+    private HotKeyDetector hotKeyDetector;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2020-06-01T10:00:00Z"));
+        hotKeyDetector = new HotKeyDetector(clock, Duration.ofSeconds(60), 6, 8, 4, 0.2, 50);
+    }
+
+    @Test
+    void whenOneBeerDominatesWritesThenItIsReportedHot() {
+        // given
+        for (int i = 0; i < 1000; i++) {
+            hotKeyDetector.record(i % 4 == 0 ? 1L : 100 + i);
+        }
+
+        // when
+        List<HotKeyDetector.HotKey> hotKeys = hotKeyDetector.hotKeys();
+
+        // then
+        assertThat(hotKeys, hasSize(1));
+        assertThat(hotKeys.get(0).getBeerId(), is(equalTo(1L)));
+        assertThat(hotKeys.get(0).getWrites(), is(equalTo(250L)));
+    }
+
+    @Test
+    void whenWritesAreSpreadEvenlyThenNoBeerIsHot() {
+        // given
+        for (int i = 0; i < 1000; i++) {
+            hotKeyDetector.record(i % 50);
+        }
+
+        // then
+        assertThat(hotKeyDetector.hotKeys(), is(empty()));
+    }
+
+    @Test
+    void whenWindowSlidesPastTheWritesThenBeerCoolsDown() {
+        // given
+        for (int i = 0; i < 100; i++) {
+            hotKeyDetector.record(1L);
+        }
+
+        // when
+        clock.advance(Duration.ofSeconds(50));
+        List<HotKeyDetector.HotKey> stillHot = hotKeyDetector.hotKeys();
+        clock.advance(Duration.ofSeconds(10));
+
+        // then
+        assertThat(stillHot, hasSize(1));
+        assertThat(hotKeyDetector.hotKeys(), is(empty()));
+        assertThat(hotKeyDetector.warmKeys(), is(empty()));
+    }
+
+    @Test
+    void whenBeerFallsBelowHotThresholdThenItStaysWarm() {
+        // given
+        for (int i = 0; i < 40; i++) {
+            hotKeyDetector.record(1L);
+        }
+
+        // then
+        assertThat(hotKeyDetector.hotKeys(), is(empty()));
+        assertThat(hotKeyDetector.warmKeys(), hasSize(1));
+    }
+
+    @Test
+    void whenSeveralThreadsWriteTheSameBeerThenTheirStripesAreMerged() throws Exception {
+        // given
+        Thread[] writers = new Thread[4];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(() -> {
+                for (int write = 0; write < 100; write++) {
+                    hotKeyDetector.record(1L);
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // when
+        List<HotKeyDetector.HotKey> hotKeys = hotKeyDetector.hotKeys();
+
+        // then
+        assertThat(hotKeys, hasSize(1));
+        assertThat(hotKeys.get(0).getWrites(), is(equalTo(400L)));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package one.digitalinnovation.beerstock.importer;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportErrorDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportJobDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.ImportFormat;
+import one.digitalinnovation.beerstock.enums.ImportState;
+import one.digitalinnovation.beerstock.exception.BeerImportJobNotFoundException;
+import one.digitalinnovation.beerstock.exception.UnsupportedImportFormatException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerImportServiceTest {
+
+    private static final Instant NOW = Instant.parse("2020-06-01T10:00:00Z");
+
+    private static final String HEADER = "name,brand,max,quantity,type\n";
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private BeerImportWriter beerImportWriter;
+
+    @TempDir
+    Path spoolDirectory;
+
+    private final List<List<String>> insertedBatches = new ArrayList<>();
+
+    private BeerImportService beerImportService;
+
+    @BeforeEach
+    void setUp() {
+        beerImportService = new BeerImportService(beerRepository, beerImportWriter, Runnable::run, Runnable::run,
+                spoolDirectory, 2, 2, 10, 5, Clock.fixed(NOW, ZoneOffset.UTC));
+        lenient().doAnswer(invocation -> {
+            List<BeerDTO> beers = invocation.getArgument(0);
+            insertedBatches.add(beers.stream().map(BeerDTO::getName).collect(Collectors.toList()));
+            return null;
+        }).when(beerImportWriter).insert(any());
+    }
+
+    @Test
+    void whenCsvIsImportedThenValidRowsAreInsertedInBatchesAndInvalidOnesReported() throws Exception {
+        // given
+        lenient().when(beerRepository.findNamesIn(anyCollection())).thenAnswer(invocation -> {
+            List<String> registered = new ArrayList<>(Collections.singletonList("Skol"));
+            insertedBatches.forEach(registered::addAll);
+            return registered.stream().filter(invocation.<Collection<String>>getArgument(0)::contains)
+                    .collect(Collectors.toList());
+        });
+        String csv = HEADER
+                + "Brahma,Ambev,50,10,LAGER\n"
+                + "Skol,Ambev,50,10,LAGER\n"
+                + "Colorado,Colorado,50,10,IPA\n"
+                + "Brahma,Ambev,50,10,LAGER\n"
+                + "Invalid,Ambev,900,10,LAGER\n";
+
+        // when
+        BeerImportJobDTO job = beerImportService.start(upload("catalog.csv", csv), null);
+
+        // then
+        assertThat(job.getState(), is(equalTo(ImportState.COMPLETED)));
+        assertThat(job.getFormat(), is(equalTo(ImportFormat.CSV)));
+        assertThat(job.getRowsRead(), is(equalTo(5L)));
+        assertThat(job.getRowsImported(), is(equalTo(2L)));
+        assertThat(job.getRowsRejected(), is(equalTo(3L)));
+        assertThat(insertedBatches, contains(Collections.singletonList("Brahma"), Collections.singletonList("Colorado")));
+        List<Long> rejectedLines = job.getErrors().stream().map(BeerImportErrorDTO::getLine).collect(Collectors.toList());
+        assertThat(rejectedLines, contains(3L, 5L, 6L));
+        assertThat(job.getErrors().get(0).getMessage(), containsString("already registered"));
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertThat(files.count(), is(equalTo(0L)));
+        }
+    }
+
+    @Test
+    void whenABatchConflictsWithAConcurrentCreateThenOnlyTheConflictingRowIsRejected() throws Exception {
+        // given
+        doThrow(DataIntegrityViolationException.class).when(beerImportWriter).insert(any());
+        doAnswer(invocation -> null).when(beerImportWriter).insert(Collections.singletonList(beer("Colorado")));
+        String ndjson = "{\"name\":\"Brahma\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"LAGER\"}\n"
+                + "{\"name\":\"Colorado\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"LAGER\"}\n";
+
+        // when
+        BeerImportJobDTO job = beerImportService.start(upload("catalog.ndjson", ndjson), null);
+
+        // then
+        assertThat(job.getRowsImported(), is(equalTo(1L)));
+        assertThat(job.getRowsRejected(), is(equalTo(1L)));
+        assertThat(job.getErrors().get(0).getLine(), is(equalTo(1L)));
+        verify(beerImportWriter, times(3)).insert(any());
+    }
+
+    @Test
+    void whenFileCannotBeReadThenTheJobFails() throws Exception {
+        // when
+        BeerImportJobDTO job = beerImportService.start(upload("catalog.csv", "name,brand\n"), null);
+
+        // then
+        assertThat(job.getState(), is(equalTo(ImportState.FAILED)));
+        assertThat(job.getFailure(), containsString("missing the columns"));
+    }
+
+    @Test
+    void whenFormatIsUnknownThenTheUploadIsRefused() {
+        assertThrows(UnsupportedImportFormatException.class,
+                () -> beerImportService.start(upload("catalog.xlsx", HEADER), null));
+    }
+
+    @Test
+    void whenJobIsUnknownThenStatusThrows() {
+        assertThrows(BeerImportJobNotFoundException.class, () -> beerImportService.status("missing"));
+    }
+
+    private static MockMultipartFile upload(String fileName, String content) throws IOException {
+        return new MockMultipartFile("file", fileName, null, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BeerDTO beer(String name) {
+        return BeerDTO.builder().name(name).brand("Ambev").max(50).quantity(10).type(BeerType.LAGER).build();
+    }
+}
@@ -0,0 +1,138 @@
+package one.digitalinnovation.beerstock.importer;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.ImportFormat;
+import one.digitalinnovation.beerstock.validation.BeerDTOValidator;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BeerRowReaderTest {
+
+    @Test
+    void whenCsvHasQuotedFieldsAndReorderedColumnsThenRowsAreParsedWithTheirLines() throws IOException {
+        // given
+        String csv = "type,name,brand,max,quantity\r\n"
+                + "LAGER,\"Brahma, \"\"Extra\"\"\",Ambev,50,10\r\n"
+                + "\n"
+                + "ipa,\"Two\nLines\",Colorado,20,5\n";
+
+        // when
+        List<BeerImportRow> rows = readAll(ImportFormat.CSV, csv);
+
+        // then
+        assertThat(rows, hasSize(2));
+        BeerDTO first = rows.get(0).getBeer();
+        assertThat(first.getName(), is(equalTo("Brahma, \"Extra\"")));
+        assertThat(first.getType(), is(equalTo(BeerType.LAGER)));
+        assertThat(first.getMax(), is(equalTo(50)));
+        assertThat(rows.get(0).getLine(), is(equalTo(2L)));
+        assertThat(rows.get(1).getBeer().getName(), is(equalTo("Two\nLines")));
+        assertThat(rows.get(1).getBeer().getType(), is(equalTo(BeerType.IPA)));
+        assertThat(rows.get(1).getLine(), is(equalTo(4L)));
+    }
+
+    @Test
+    void whenCsvRowHasBadValuesThenEachFieldIsRejectedOnce() throws IOException {
+        // given
+        String csv = "name,brand,max,quantity,type\n"
+                + ",Ambev,lots,200,PILSEN\n"
+                + "Short,row\n";
+
+        // when
+        List<BeerImportRow> rows = readAll(ImportFormat.CSV, csv);
+        rows.forEach(row -> row.validate(new BeerDTOValidator()));
+
+        // then
+        List<String> fields = new ArrayList<>();
+        rows.get(0).getErrors().forEach(error -> fields.add(error.getField()));
+        assertThat(fields, contains("max", "type", "name", "quantity"));
+        assertThat(rows.get(0).getErrors().get(0).getMessage(), is(equalTo("must be a whole number")));
+        assertThat(rows.get(0).getErrors().get(1).getMessage(), containsString("LAGER"));
+        assertThat(rows.get(1).getErrors(), hasSize(1));
+        assertThat(rows.get(1).getErrors().get(0).getField(), is(nullValue()));
+        assertThat(rows.get(1).getErrors().get(0).getLine(), is(equalTo(3L)));
+    }
+
+    @Test
+    void whenCsvHeaderLacksAColumnThenTheFileIsRefused() {
+        // when
+        IOException exception = assertThrows(IOException.class,
+                () -> readAll(ImportFormat.CSV, "name,brand,max\nBrahma,Ambev,50\n"));
+
+        // then
+        assertThat(exception.getMessage(), containsString("[quantity, type]"));
+    }
+
+    @Test
+    void whenCsvHeaderRepeatsAColumnThenTheFileIsRefused() {
+        // when
+        IOException exception = assertThrows(IOException.class,
+                () -> readAll(ImportFormat.CSV, "name,name,brand,max,quantity,type\nA,Brahma,Ambev,50,10,LAGER\n"));
+
+        // then
+        assertThat(exception.getMessage(), containsString("[name]"));
+    }
+
+    @Test
+    void whenCsvRowIsShorterThanTheHeaderThenOnlyThatRowIsRejected() throws IOException {
+        // given
+        String csv = "notes,name,brand,max,quantity,type\n"
+                + "Brahma,Ambev,50,10,LAGER\n"
+                + "-,Skol,Ambev,50,10,PILSEN\n";
+
+        // when
+        List<BeerImportRow> rows = readAll(ImportFormat.CSV, csv);
+        rows.forEach(row -> row.validate(new BeerDTOValidator()));
+
+        // then
+        assertThat(rows, hasSize(2));
+        assertThat(rows.get(0).getErrors().get(0).getMessage(), is(equalTo("expected 6 fields but found 5")));
+        assertThat(rows.get(1).isValid(), is(true));
+    }
+
+    @Test
+    void whenNdjsonHasMalformedLinesThenOnlyThoseAreRejected() throws IOException {
+        // given
+        String ndjson = "{\"name\":\"Brahma\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"LAGER\"}\n"
+                + "\n"
+                + "{\"name\":\"Broken\"\n"
+                + "[1,2]\n";
+
+        // when
+        List<BeerImportRow> rows = readAll(ImportFormat.NDJSON, ndjson);
+        rows.forEach(row -> row.validate(new BeerDTOValidator()));
+
+        // then
+        assertThat(rows, hasSize(3));
+        assertThat(rows.get(0).isValid(), is(true));
+        assertThat(rows.get(0).getBeer().getQuantity(), is(equalTo(10)));
+        assertThat(rows.get(1).getLine(), is(equalTo(3L)));
+        assertThat(rows.get(1).getErrors().get(0).getMessage(), containsString("malformed JSON"));
+        assertThat(rows.get(2).getErrors().get(0).getMessage(), is(equalTo("must be a JSON object")));
+    }
+
+    private static List<BeerImportRow> readAll(ImportFormat format, String content) throws IOException {
+        BeerRowReader reader = BeerRowReader.open(format, new BufferedReader(new StringReader(content)));
+        List<BeerImportRow> rows = new ArrayList<>();
+        BeerImportRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,76 @@
+package one.digitalinnovation.beerstock.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class BeerNameIndexTest {
+
+    private BeerNameIndex beerNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        beerNameIndex = new BeerNameIndex();
+        beerNameIndex.add(1L, "Brahma");
+        beerNameIndex.add(2L, "Brahma Duplo Malte");
+        beerNameIndex.add(3L, "Bohemia");
+        beerNameIndex.add(4L, "Colorado Appia");
+        beerNameIndex.add(5L, "Baden Baden Cristal");
+    }
+
+    @Test
+    void whenNameDiffersOnlyInCaseAndAccentsThenExactLookupFindsIt() {
+        assertThat(beerNameIndex.findExact("BRÁHMA"), is(equalTo(Optional.of(1L))));
+        assertThat(beerNameIndex.findExact("  colorado   appia "), is(equalTo(Optional.of(4L))));
+        assertThat(beerNameIndex.findExact("Brahm"), is(equalTo(Optional.empty())));
+    }
+
+    @Test
+    void whenPrefixIsGivenThenMatchingNamesAreReturnedShortestFirst() {
+        List<Long> ids = ids(beerNameIndex.findByPrefix("bra", 10));
+
+        assertThat(ids, contains(1L, 2L));
+    }
+
+    @Test
+    void whenQueryHasATypoThenCloseNamesAreSuggestedAfterExactPrefixes() {
+        List<BeerNameIndex.Match> matches = beerNameIndex.suggest("Bhrama", 2, 10);
+
+        assertThat(ids(matches), contains(1L, 2L));
+        assertThat(matches.get(0).getDistance(), is(equalTo(2)));
+    }
+
+    @Test
+    void whenExactPrefixMatchesExistThenTheyComeFirstWithoutDuplicates() {
+        List<BeerNameIndex.Match> matches = beerNameIndex.suggest("Braden", 1, 10);
+
+        assertThat(ids(matches), contains(5L));
+        assertThat(ids(beerNameIndex.suggest("Brahma", 1, 10)), contains(1L, 2L));
+    }
+
+    @Test
+    void whenBeerIsRemovedThenItIsNoLongerSuggested() {
+        beerNameIndex.remove(1L, "Brahma");
+
+        assertThat(ids(beerNameIndex.findByPrefix("brahma", 10)), contains(2L));
+        assertThat(beerNameIndex.findExact("brahma"), is(equalTo(Optional.empty())));
+    }
+
+    @Test
+    void whenQueryIsTooShortForTyposThenOnlyExactPrefixesAreReturned() {
+        assertThat(beerNameIndex.suggest("x", 2, 10), is(empty()));
+    }
+
+    private static List<Long> ids(List<BeerNameIndex.Match> matches) {
+        return matches.stream().map(BeerNameIndex.Match::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,97 @@
+package one.digitalinnovation.beerstock.index;
+
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import one.digitalinnovation.beerstock.dto.BeerChangeDTO;
+import one.digitalinnovation.beerstock.dto.BeerChangesDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.service.BeerChangeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerNameIndexUpdaterTest {
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private BeerChangeService beerChangeService;
+
+    @Mock
+    private ChangeVersionSequence changeVersions;
+
+    private BeerNameIndex beerNameIndex;
+
+    private BeerNameIndexUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        beerNameIndex = new BeerNameIndex();
+        updater = new BeerNameIndexUpdater(beerRepository, beerNameIndex, beerChangeService, changeVersions);
+    }
+
+    @Test
+    void whenABeerIsDeletedBeforeTheLoadIndexesItThenTheFeedDropsItAgain() {
+        // given
+        Beer brahma = new Beer(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER);
+        when(changeVersions.stableVersion()).thenReturn(4L);
+        when(beerRepository.forEachInIdOrder(anyInt(), any())).thenAnswer(invocation -> {
+            updater.onBeerChanged(BeerChangedEvent.deleted(brahma, 5L));
+            invocation.<Consumer<Beer>>getArgument(1).accept(brahma);
+            return 1L;
+        });
+        when(beerChangeService.changesSince(eq(4L), anyInt())).thenReturn(new BeerChangesDTO(
+                Collections.singletonList(new BeerChangeDTO(5L, 1L, true, null)), 5L, false));
+
+        // when
+        updater.load();
+
+        // then
+        assertThat(beerNameIndex.findExact("Brahma"), is(equalTo(Optional.empty())));
+    }
+
+    @Test
+    void whenAnotherNodeCreatesOrDeletesABeerThenTheFeedAppliesIt() {
+        // given
+        Beer brahma = new Beer(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER);
+        Beer skol = new Beer(2L, "Skol", "Ambev", 50, 10, BeerType.LAGER);
+        when(changeVersions.stableVersion()).thenReturn(4L);
+        when(beerRepository.forEachInIdOrder(anyInt(), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<Beer>>getArgument(1).accept(brahma);
+            return 1L;
+        });
+        when(beerChangeService.changesSince(eq(4L), anyInt()))
+                .thenReturn(new BeerChangesDTO(Collections.emptyList(), 4L, false))
+                .thenReturn(new BeerChangesDTO(Arrays.asList(
+                        new BeerChangeDTO(6L, 1L, true, null),
+                        new BeerChangeDTO(7L, 2L, false, BeerMapper.INSTANCE.toDTO(skol))), 7L, false));
+        updater.load();
+
+        // when
+        updater.follow();
+
+        // then
+        assertThat(beerNameIndex.findExact("Brahma"), is(equalTo(Optional.empty())));
+        assertThat(beerNameIndex.findExact("Skol"), is(equalTo(Optional.of(2L))));
+    }
+}
@@ -0,0 +1,79 @@
+package one.digitalinnovation.beerstock.lease;
+
+import one.digitalinnovation.beerstock.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SchedulerLeasesTest {
+
+    private static final Instant NOW = Instant.parse("2020-06-01T10:00:00Z");
+
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    @Mock
+    private SchedulerLeaseRepository leaseRepository;
+
+    private SchedulerLeases leases;
+
+    @BeforeEach
+    void setUp() {
+        leases = new SchedulerLeases(leaseRepository, "node-a", Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void whenTheLeaseIsFreeOrHeldByThisNodeThenItIsTakenWithoutCreatingIt() {
+        // given
+        when(leaseRepository.tryLock("job", "node-a", NOW, NOW.plus(LEASE))).thenReturn(1);
+
+        // when
+        boolean acquired = leases.tryAcquire("job", LEASE);
+
+        // then
+        assertTrue(acquired);
+        verify(leaseRepository, never()).insert("job", "node-a", NOW.plus(LEASE));
+    }
+
+    @Test
+    void whenAnotherNodeHoldsTheLeaseThenItIsNotTaken() {
+        // given
+        when(leaseRepository.tryLock("job", "node-a", NOW, NOW.plus(LEASE))).thenReturn(0);
+        when(leaseRepository.existsById("job")).thenReturn(true);
+
+        // when
+        boolean acquired = leases.tryAcquire("job", LEASE);
+
+        // then
+        assertFalse(acquired);
+    }
+
+    @Test
+    void whenAnotherNodeCreatesTheLeaseFirstThenItIsNotTaken() {
+        // given
+        when(leaseRepository.tryLock("job", "node-a", NOW, NOW.plus(LEASE))).thenReturn(0);
+        when(leaseRepository.existsById("job")).thenReturn(false);
+        when(leaseRepository.insert("job", "node-a", NOW.plus(LEASE)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // when
+        boolean acquired = leases.tryAcquire("job", LEASE);
+
+        // then
+        assertFalse(acquired);
+    }
+}
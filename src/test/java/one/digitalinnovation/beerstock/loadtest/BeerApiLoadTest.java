@@ -0,0 +1,184 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Mixed read/write load against the application running on an embedded port. Excluded from the default build; run
+ * with {@code mvn test -Pload-test}, tuning the run with {@code -Dloadtest.beers}, {@code -Dloadtest.threads},
+ * {@code -Dloadtest.warmup.seconds} and {@code -Dloadtest.duration.seconds}. Each run writes a JSON report to
+ * {@code -Dloadtest.report.dir} (default {@code target/load-test}) so releases and configurations can be compared.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class BeerApiLoadTest {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+    private static final int HOT_KEYS = 10;
+    private static final int CONTENDED_IDS = 5;
+    private static final int CREATE_BURST = 10;
+    private static final int MAX_ORDER_ITEMS = 4;
+    private static final int RESTOCK_QUANTITY = 5;
+
+    private static final int BEERS = Integer.getInteger("loadtest.beers", 1000);
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 16);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup.seconds", 5);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration.seconds", 30);
+    private static final String REPORT_DIR = System.getProperty("loadtest.report.dir", "target/load-test");
+
+    private final AtomicLong createdBeers = new AtomicLong();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BeerService beerService;
+
+    private final List<BeerDTO> seededBeers = new ArrayList<>();
+
+    private final String prefix = "load-" + System.nanoTime() + "-";
+
+    @BeforeEach
+    void seed() throws Exception {
+        for (int i = 0; i < BEERS; i++) {
+            seededBeers.add(beerService.createBeer(BeerDTO.builder()
+                    .name(prefix + i)
+                    .brand("Brand " + (i % 20))
+                    .max(500)
+                    .quantity(100)
+                    .type(BeerType.values()[i % BeerType.values().length])
+                    .build()));
+        }
+    }
+
+    @Test
+    void mixedReadWriteWorkload() throws Exception {
+        List<LoadScenario> scenarios = Arrays.asList(
+                LoadScenario.builder().name("hotKeyGet").weight(60).request(this::hotKeyGet).build(),
+                LoadScenario.builder().name("listBeers").weight(2).request(random -> get(BEER_API_URL_PATH)).build(),
+                LoadScenario.builder().name("increment").weight(15).request(random -> patch("/increment", random)).build(),
+                LoadScenario.builder().name("decrement").weight(15).request(random -> patch("/decrement", random)).build(),
+                LoadScenario.builder().name("createBurst").weight(1).burst(CREATE_BURST).request(this::create).build());
+
+        LoadTestReport report;
+        try (LoadTestRunner runner = new LoadTestRunner(THREADS, Duration.ofSeconds(WARMUP_SECONDS),
+                Duration.ofSeconds(DURATION_SECONDS))) {
+            report = runner.run("mixed-read-write", configuration(), scenarios);
+        }
+        Path reportFile = report.writeTo(REPORT_DIR);
+
+        log.info("\n{}", report.toTable());
+        log.info("Load test report written to {}", reportFile.toAbsolutePath());
+        assertThat(report.getOverall().getRequests(), is(greaterThan(0L)));
+        assertThat(report.getOverall().getErrorRate(), is(lessThan(0.01)));
+    }
+
+    /**
+     * Orders of two to four contended beers, listed in random order and sometimes repeating a beer, so concurrent
+     * orders overlap on most of their rows. Deadlocks or lock timeouts would surface as 5xx errors.
+     */
+    @Test
+    void overlappingOrdersWorkload() throws Exception {
+        List<LoadScenario> scenarios = Arrays.asList(
+                LoadScenario.builder().name("order").weight(60).request(this::order).build(),
+                LoadScenario.builder().name("restock").weight(40).request(this::restock).build());
+
+        LoadTestReport report;
+        try (LoadTestRunner runner = new LoadTestRunner(THREADS, Duration.ofSeconds(WARMUP_SECONDS),
+                Duration.ofSeconds(DURATION_SECONDS))) {
+            report = runner.run("overlapping-orders", configuration(), scenarios);
+        }
+        Path reportFile = report.writeTo(REPORT_DIR);
+
+        log.info("\n{}", report.toTable());
+        log.info("Load test report written to {}", reportFile.toAbsolutePath());
+        assertThat(report.getOverall().getRequests(), is(greaterThan(0L)));
+        assertThat(report.getOverall().getErrorRate(), is(lessThan(0.01)));
+    }
+
+    private Map<String, Object> configuration() {
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("beers", BEERS);
+        configuration.put("hotKeys", HOT_KEYS);
+        configuration.put("contendedIds", CONTENDED_IDS);
+        configuration.put("maxOrderItems", MAX_ORDER_ITEMS);
+        return configuration;
+    }
+
+    private HttpRequest hotKeyGet(ThreadLocalRandom random) {
+        int index = random.nextInt(10) < 9 ? random.nextInt(HOT_KEYS) : random.nextInt(seededBeers.size());
+        return get(BEER_API_URL_PATH + "/" + seededBeers.get(index).getName());
+    }
+
+    private HttpRequest patch(String operation, ThreadLocalRandom random) {
+        BeerDTO beer = seededBeers.get(random.nextInt(CONTENDED_IDS));
+        return HttpRequest.newBuilder(uri(BEER_API_URL_PATH + "/" + beer.getId() + operation))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":1}"))
+                .build();
+    }
+
+    private HttpRequest order(ThreadLocalRandom random) {
+        int items = 2 + random.nextInt(MAX_ORDER_ITEMS - 1);
+        StringBuilder body = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < items; i++) {
+            BeerDTO beer = seededBeers.get(random.nextInt(CONTENDED_IDS));
+            body.append(i == 0 ? "" : ",").append("{\"id\":").append(beer.getId()).append(",\"quantity\":1}");
+        }
+        return HttpRequest.newBuilder(uri(BEER_API_URL_PATH + "/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.append("]}").toString()))
+                .build();
+    }
+
+    private HttpRequest restock(ThreadLocalRandom random) {
+        BeerDTO beer = seededBeers.get(random.nextInt(CONTENDED_IDS));
+        return HttpRequest.newBuilder(uri(BEER_API_URL_PATH + "/" + beer.getId() + "/increment"))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":" + RESTOCK_QUANTITY + "}"))
+                .build();
+    }
+
+    private HttpRequest create(ThreadLocalRandom random) {
+        String body = String.format("{\"name\":\"%screated-%d\",\"brand\":\"Burst\",\"max\":100,\"quantity\":10,\"type\":\"IPA\"}",
+                prefix, createdBeers.incrementAndGet());
+        return HttpRequest.newBuilder(uri(BEER_API_URL_PATH))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
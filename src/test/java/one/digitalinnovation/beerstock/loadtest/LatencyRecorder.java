@@ -0,0 +1,102 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import lombok.Value;
+
+import java.util.Arrays;
+
+/**
+ * Single-writer latency sample buffer. Each load worker owns one recorder per scenario, so recording never contends;
+ * recorders are merged once the run is over.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+
+    private int count;
+
+    private long ok;
+
+    private long rejected;
+
+    private long errors;
+
+    public void record(long latencyNanos, Outcome outcome) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = latencyNanos;
+        switch (outcome) {
+            case OK:
+                ok++;
+                break;
+            case REJECTED:
+                rejected++;
+                break;
+            default:
+                errors++;
+        }
+    }
+
+    public void merge(LatencyRecorder other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, count + other.count);
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        ok += other.ok;
+        rejected += other.rejected;
+        errors += other.errors;
+    }
+
+    public Summary summarize(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        double meanNanos = count == 0 ? 0 : Arrays.stream(sorted).average().orElse(0);
+        return new Summary(count,
+                ok,
+                rejected,
+                errors,
+                elapsedSeconds == 0 ? 0 : count / elapsedSeconds,
+                toMillis(meanNanos),
+                toMillis(percentile(sorted, 0.50)),
+                toMillis(percentile(sorted, 0.99)),
+                toMillis(percentile(sorted, 0.999)),
+                toMillis(count == 0 ? 0 : sorted[count - 1]));
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    public enum Outcome {
+        OK,
+        REJECTED,
+        ERROR
+    }
+
+    @Value
+    public static class Summary {
+        long requests;
+        long ok;
+        long rejected;
+        long errors;
+        double throughputPerSecond;
+        double meanMillis;
+        double p50Millis;
+        double p99Millis;
+        double p999Millis;
+        double maxMillis;
+
+        public double getErrorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+}
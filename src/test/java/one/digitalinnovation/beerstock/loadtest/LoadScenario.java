@@ -0,0 +1,26 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.net.http.HttpRequest;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * One kind of request in a load mix. A worker picks scenarios by {@code weight} and sends {@code burst} requests
+ * back to back each time the scenario is picked.
+ */
+@Value
+@Builder
+public class LoadScenario {
+
+    String name;
+
+    int weight;
+
+    @Builder.Default
+    int burst = 1;
+
+    Function<ThreadLocalRandom, HttpRequest> request;
+}
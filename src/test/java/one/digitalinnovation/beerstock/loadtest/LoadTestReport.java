@@ -0,0 +1,52 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Value;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Map;
+
+@Value
+public class LoadTestReport {
+
+    String name;
+
+    Instant startedAt;
+
+    Map<String, Object> configuration;
+
+    LatencyRecorder.Summary overall;
+
+    Map<String, LatencyRecorder.Summary> scenarios;
+
+    public Path writeTo(String directory) throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        Path file = dir.resolve(name + "-" + startedAt.toEpochMilli() + ".json");
+        new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), this);
+        return file;
+    }
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%-16s %9s %9s %9s %7s %10s %9s %9s %9s%n",
+                "scenario", "requests", "rejected", "errors", "err%", "req/s", "p50 ms", "p99 ms", "p999 ms"));
+        scenarios.forEach((scenario, summary) -> table.append(row(scenario, summary)));
+        return table.append(row("TOTAL", overall)).toString();
+    }
+
+    private static String row(String scenario, LatencyRecorder.Summary summary) {
+        return String.format("%-16s %9d %9d %9d %7.2f %10.1f %9.2f %9.2f %9.2f%n",
+                scenario, summary.getRequests(), summary.getRejected(), summary.getErrors(),
+                summary.getErrorRate() * 100, summary.getThroughputPerSecond(),
+                summary.getP50Millis(), summary.getP99Millis(), summary.getP999Millis());
+    }
+}
@@ -0,0 +1,136 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop load generator: {@code threads} workers each send one request at a time, picking scenarios by weight,
+ * for the warm-up period (samples discarded) and then for the measured period. Close it to stop the HTTP client's
+ * threads.
+ */
+public class LoadTestRunner implements AutoCloseable {
+
+    private final ExecutorService clientExecutor;
+
+    private final HttpClient client;
+
+    private final int threads;
+
+    private final Duration warmup;
+
+    private final Duration duration;
+
+    public LoadTestRunner(int threads, Duration warmup, Duration duration) {
+        this.clientExecutor = Executors.newFixedThreadPool(threads);
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientExecutor)
+                .build();
+        this.threads = threads;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    public LoadTestReport run(String name, Map<String, Object> configuration, List<LoadScenario> scenarios)
+            throws Exception {
+        int totalWeight = scenarios.stream().mapToInt(LoadScenario::getWeight).sum();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            long warmupEnd = System.nanoTime() + warmup.toNanos();
+            long end = warmupEnd + duration.toNanos();
+            Instant startedAt = Instant.now().plus(warmup);
+            List<Future<LatencyRecorder[]>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(workers.submit(() -> work(scenarios, totalWeight, warmupEnd, end)));
+            }
+
+            LatencyRecorder overall = new LatencyRecorder();
+            LatencyRecorder[] perScenario = new LatencyRecorder[scenarios.size()];
+            for (int i = 0; i < perScenario.length; i++) {
+                perScenario[i] = new LatencyRecorder();
+            }
+            for (Future<LatencyRecorder[]> result : results) {
+                LatencyRecorder[] recorders = result.get();
+                for (int i = 0; i < recorders.length; i++) {
+                    perScenario[i].merge(recorders[i]);
+                    overall.merge(recorders[i]);
+                }
+            }
+
+            double seconds = duration.toNanos() / 1_000_000_000.0;
+            Map<String, LatencyRecorder.Summary> summaries = new LinkedHashMap<>();
+            for (int i = 0; i < perScenario.length; i++) {
+                summaries.put(scenarios.get(i).getName(), perScenario[i].summarize(seconds));
+            }
+            Map<String, Object> fullConfiguration = new LinkedHashMap<>(configuration);
+            fullConfiguration.put("threads", threads);
+            fullConfiguration.put("warmupSeconds", warmup.getSeconds());
+            fullConfiguration.put("durationSeconds", duration.getSeconds());
+            fullConfiguration.put("javaVersion", System.getProperty("java.version"));
+            fullConfiguration.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+            return new LoadTestReport(name, startedAt, fullConfiguration, overall.summarize(seconds), summaries);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    @Override
+    public void close() {
+        clientExecutor.shutdownNow();
+    }
+
+    private LatencyRecorder[] work(List<LoadScenario> scenarios, int totalWeight, long warmupEnd, long end) {
+        LatencyRecorder[] recorders = new LatencyRecorder[scenarios.size()];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new LatencyRecorder();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            int index = pick(scenarios, random.nextInt(totalWeight));
+            LoadScenario scenario = scenarios.get(index);
+            for (int i = 0; i < scenario.getBurst() && now < end; i++) {
+                long start = System.nanoTime();
+                LatencyRecorder.Outcome outcome = send(scenario, random);
+                now = System.nanoTime();
+                if (start >= warmupEnd) {
+                    recorders[index].record(now - start, outcome);
+                }
+            }
+        }
+        return recorders;
+    }
+
+    private LatencyRecorder.Outcome send(LoadScenario scenario, ThreadLocalRandom random) {
+        try {
+            int status = client.send(scenario.getRequest().apply(random), HttpResponse.BodyHandlers.discarding())
+                    .statusCode();
+            if (status < 400) {
+                return LatencyRecorder.Outcome.OK;
+            }
+            return status < 500 ? LatencyRecorder.Outcome.REJECTED : LatencyRecorder.Outcome.ERROR;
+        } catch (Exception e) {
+            return LatencyRecorder.Outcome.ERROR;
+        }
+    }
+
+    private static int pick(List<LoadScenario> scenarios, int roll) {
+        for (int i = 0; i < scenarios.size(); i++) {
+            roll -= scenarios.get(i).getWeight();
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return scenarios.size() - 1;
+    }
+}
@@ -0,0 +1,125 @@
+package one.digitalinnovation.beerstock.outbox;
+
+import one.digitalinnovation.beerstock.entity.OutboxEvent;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.lease.SchedulerLeases;
+import one.digitalinnovation.beerstock.repository.BeerLedgerTotal;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxCompactorTest {
+
+    private static final Instant NOW = Instant.parse("2020-06-01T10:00:00Z");
+
+    private static final Instant CUTOFF = NOW.minus(Duration.ofDays(30));
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private SchedulerLeases leases;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxCompactor outboxCompactor;
+
+    @BeforeEach
+    void setUp() {
+        outboxCompactor = new OutboxCompactor(outboxEventRepository, beerRepository, leases,
+                new TransactionTemplate(transactionManager), Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofDays(30),
+                100, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void whenOldEventsAreFoldedThenEachExistingBeerKeepsOneBaselineWithTheSameLedgerTotal() {
+        // given
+        List<Long> beerIds = Arrays.asList(1L, 2L);
+        when(leases.tryAcquire(OutboxCompactor.LEASE, Duration.ofSeconds(30))).thenReturn(true);
+        when(outboxEventRepository.findBeerIdsDispatchedBefore(eq(0L), eq(CUTOFF), eq(BeerChangedEvent.Kind.BASELINE),
+                any())).thenReturn(beerIds);
+        when(outboxEventRepository.sumFoldableDeltasByBeerId(beerIds, CUTOFF, BeerChangedEvent.Kind.RECONCILED,
+                BeerChangedEvent.Kind.BASELINE)).thenReturn(Arrays.asList(total(1L, 12), total(2L, 0)));
+        when(beerRepository.findIdsIn(beerIds)).thenReturn(Collections.singletonList(1L));
+        when(outboxEventRepository.deleteFoldable(beerIds, CUTOFF, BeerChangedEvent.Kind.BASELINE)).thenReturn(9);
+
+        // when
+        int removed = outboxCompactor.compact();
+
+        // then
+        List<OutboxEvent> baselines = savedBaselines();
+        assertThat(removed, is(equalTo(8)));
+        assertThat(baselines, hasSize(1));
+        assertThat(baselines.get(0).getBeerId(), is(equalTo(1L)));
+        assertThat(baselines.get(0).getKind(), is(equalTo(BeerChangedEvent.Kind.BASELINE)));
+        assertThat(baselines.get(0).getDelta(), is(equalTo(12)));
+        assertThat(baselines.get(0).getDispatchedAt(), is(equalTo(NOW)));
+        verify(leases).release(OutboxCompactor.LEASE);
+    }
+
+    @Test
+    void whenAnotherNodeHoldsTheLeaseThenNothingIsCompacted() {
+        // given
+        when(leases.tryAcquire(OutboxCompactor.LEASE, Duration.ofSeconds(30))).thenReturn(false);
+
+        // when
+        int removed = outboxCompactor.compact();
+
+        // then
+        assertThat(removed, is(equalTo(0)));
+        verify(outboxEventRepository, never()).findBeerIdsDispatchedBefore(anyLong(), any(), any(), any());
+        verify(leases, never()).release(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> savedBaselines() {
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static BeerLedgerTotal total(Long beerId, long quantity) {
+        return new BeerLedgerTotal() {
+            @Override
+            public Long getBeerId() {
+                return beerId;
+            }
+
+            @Override
+            public long getQuantity() {
+                return quantity;
+            }
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package one.digitalinnovation.beerstock.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.entity.OutboxEvent;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.lease.SchedulerLeases;
+import one.digitalinnovation.beerstock.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxDispatcherTest {
+
+    private static final Instant NOW = Instant.parse("2020-06-01T10:00:00Z");
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxSink sink;
+
+    @Mock
+    private SchedulerLeases leases;
+
+    private MutableClock clock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OutboxDispatcher outboxDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        meterRegistry = new SimpleMeterRegistry();
+        outboxDispatcher = new OutboxDispatcher(outboxEventRepository, sink, leases, meterRegistry, clock, 100, 10,
+                Duration.ofSeconds(1), Duration.ofSeconds(30), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void whenPendingEventsAreDispatchedThenTheyAreMarkedAsDispatched() throws Exception {
+        // given
+        OutboxEvent event = pendingEvent(1L);
+        List<OutboxEvent> batch = Collections.singletonList(event);
+        when(leases.tryAcquire(any(), any())).thenReturn(true);
+        when(outboxEventRepository.findByDispatchedAtIsNullOrderByIdAsc(any()))
+                .thenReturn(batch);
+        when(outboxEventRepository.findFirstByDispatchedAtIsNullOrderByIdAsc()).thenReturn(Optional.empty());
+
+        // when
+        outboxDispatcher.dispatch();
+
+        // then
+        verify(sink, times(1)).publish(batch);
+        verify(outboxEventRepository, times(1)).saveAll(batch);
+        assertThat(event.getDispatchedAt(), is(equalTo(NOW)));
+        assertThat(meterRegistry.counter("beerstock.outbox.dispatched").count(), is(equalTo(1.0)));
+    }
+
+    @Test
+    void whenSinkFailsThenTheDispatcherBacksOffAndThenRetriesTheOldestEventFirst() throws Exception {
+        // given
+        OutboxEvent event = pendingEvent(1L);
+        List<OutboxEvent> batch = Collections.singletonList(event);
+        when(leases.tryAcquire(any(), any())).thenReturn(true);
+        when(outboxEventRepository.findByDispatchedAtIsNullOrderByIdAsc(any())).thenReturn(batch);
+        when(outboxEventRepository.findFirstByDispatchedAtIsNullOrderByIdAsc()).thenReturn(Optional.of(event));
+        doThrow(new IOException("sink down")).doNothing().when(sink).publish(batch);
+
+        // when
+        outboxDispatcher.dispatch();
+        clock.advance(Duration.ofMillis(500));
+        outboxDispatcher.dispatch();
+
+        // then
+        verify(sink, times(1)).publish(batch);
+        assertThat(event.getDispatchedAt(), is(nullValue()));
+        assertThat(event.getAttempts(), is(equalTo(1)));
+        assertThat(meterRegistry.get("beerstock.outbox.lag.seconds").gauge().value(), is(equalTo(60.0)));
+
+        // when
+        clock.advance(Duration.ofMillis(500));
+        outboxDispatcher.dispatch();
+
+        // then
+        verify(sink, times(2)).publish(batch);
+        assertThat(event.getDispatchedAt(), is(equalTo(NOW.plusSeconds(1))));
+    }
+
+    @Test
+    void whenAnotherNodeHoldsTheLeaseThenNothingIsDispatched() throws Exception {
+        // given
+        when(leases.tryAcquire(OutboxDispatcher.LEASE, Duration.ofSeconds(30))).thenReturn(false);
+
+        // when
+        outboxDispatcher.dispatch();
+
+        // then
+        verify(outboxEventRepository, never()).findByDispatchedAtIsNullOrderByIdAsc(any());
+        verify(sink, never()).publish(any());
+    }
+
+    @Test
+    void whenRetriesAccumulateThenBackoffIsCappedAtTheMaximum() {
+        assertThat(outboxDispatcher.backoff(1), is(equalTo(Duration.ofSeconds(1))));
+        assertThat(outboxDispatcher.backoff(3), is(equalTo(Duration.ofSeconds(4))));
+        assertThat(outboxDispatcher.backoff(10), is(equalTo(Duration.ofSeconds(30))));
+    }
+
+    private static OutboxEvent pendingEvent(Long id) {
+        return new OutboxEvent(id, 1L, BeerChangedEvent.Kind.STOCK_CHANGED, -5, "{}", NOW.minusSeconds(60), 0, null);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package one.digitalinnovation.beerstock.reconciliation;
+
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.BeerLedgerTotal;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockCorrectorTest {
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ChangeVersionSequence changeVersions;
+
+    @InjectMocks
+    private StockCorrector stockCorrector;
+
+    @Test
+    void whenBeerStillDriftsUnderTheLockThenItIsCorrectedAndAReconciledEventIsPublished() {
+        // given
+        Beer beer = new Beer(1L, "Brahma", "Ambev", 50, 7, BeerType.LAGER);
+        when(beerRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(beer));
+        when(outboxEventRepository.sumDeltasByBeerId(anyCollection(), eq(BeerChangedEvent.Kind.RECONCILED),
+                eq(StockCorrector.BASELINE_KINDS)))
+                .thenReturn(Collections.singletonList(total(1L, 10)));
+
+        // when
+        int corrected = stockCorrector.correct(Collections.singletonList(1L));
+
+        // then
+        assertThat(corrected, is(equalTo(1)));
+        assertThat(beer.getQuantity(), is(equalTo(10)));
+        verify(beerRepository).saveAll(Collections.singletonList(beer));
+        ArgumentCaptor<BeerChangedEvent> event = ArgumentCaptor.forClass(BeerChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getKind(), is(equalTo(BeerChangedEvent.Kind.RECONCILED)));
+        assertThat(event.getValue().getDelta(), is(equalTo(3)));
+    }
+
+    @Test
+    void whenLedgerIsOutsideTheBeerBoundsOrMatchesThenStockIsLeftAlone() {
+        // given
+        Beer outOfBounds = new Beer(1L, "Brahma", "Ambev", 50, 7, BeerType.LAGER);
+        Beer matching = new Beer(2L, "Skol", "Ambev", 50, 4, BeerType.LAGER);
+        when(beerRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(outOfBounds));
+        when(beerRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(matching));
+        when(outboxEventRepository.sumDeltasByBeerId(anyCollection(), eq(BeerChangedEvent.Kind.RECONCILED),
+                eq(StockCorrector.BASELINE_KINDS)))
+                .thenReturn(Arrays.asList(total(1L, 60), total(2L, 4)));
+
+        // when
+        int corrected = stockCorrector.correct(Arrays.asList(1L, 2L));
+
+        // then
+        assertThat(corrected, is(equalTo(0)));
+        assertThat(outOfBounds.getQuantity(), is(equalTo(7)));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void whenLedgerTotalsAreReadThenCorrectionsAreLeftOut() {
+        // given
+        when(outboxEventRepository.sumDeltasByBeerId(anyCollection(), eq(BeerChangedEvent.Kind.RECONCILED),
+                eq(StockCorrector.BASELINE_KINDS)))
+                .thenReturn(Collections.singletonList(total(3L, 12)));
+
+        // when
+        List<Long> ids = Collections.singletonList(3L);
+
+        // then
+        assertThat(stockCorrector.ledgerTotals(ids).entrySet(), contains(Map.entry(3L, 12L)));
+    }
+
+    private static BeerLedgerTotal total(Long beerId, long quantity) {
+        return new BeerLedgerTotal() {
+            @Override
+            public Long getBeerId() {
+                return beerId;
+            }
+
+            @Override
+            public long getQuantity() {
+                return quantity;
+            }
+        };
+    }
+}
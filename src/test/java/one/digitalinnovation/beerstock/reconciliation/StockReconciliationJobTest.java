@@ -0,0 +1,225 @@
+package one.digitalinnovation.beerstock.reconciliation;
+
+import one.digitalinnovation.beerstock.dto.ReconciliationProgressDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.ReconciliationCheckpoint;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.lease.SchedulerLeases;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.ReconciliationCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockReconciliationJobTest {
+
+    private static final Instant NOW = Instant.parse("2020-06-01T03:00:00Z");
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Mock
+    private StockCorrector stockCorrector;
+
+    @Mock
+    private SchedulerLeases leases;
+
+    private final Map<Long, Beer> beers = new HashMap<>();
+
+    private final Map<Long, Long> ledger = new HashMap<>();
+
+    private final List<Long> savedCheckpoints = new ArrayList<>();
+
+    private StockReconciliationJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new StockReconciliationJob(beerRepository, checkpointRepository, stockCorrector, leases, Runnable::run,
+                2, 2, Double.MAX_VALUE, Duration.ofMinutes(1), Clock.fixed(NOW, ZoneOffset.UTC));
+        lenient().when(leases.tryAcquire(StockReconciliationJob.LEASE, Duration.ofMinutes(1))).thenReturn(true);
+        lenient().when(beerRepository.findIdsAfter(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            return beers.keySet().stream().filter(id -> id > afterId).sorted().limit(2).collect(Collectors.toList());
+        });
+        lenient().when(beerRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Beer> found = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> found.add(beers.get(id)));
+            return found;
+        });
+        lenient().when(stockCorrector.ledgerTotals(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, Long> totals = new HashMap<>();
+            invocation.<Collection<Long>>getArgument(0).stream()
+                    .filter(ledger::containsKey)
+                    .forEach(id -> totals.put(id, ledger.get(id)));
+            return totals;
+        });
+        lenient().when(stockCorrector.correct(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+        lenient().when(checkpointRepository.save(any())).thenAnswer(invocation -> {
+            ReconciliationCheckpoint checkpoint = invocation.getArgument(0);
+            savedCheckpoints.add(checkpoint.getLastBeerId());
+            return checkpoint;
+        });
+    }
+
+    @Test
+    void whenRunWalksAllChunksThenTheCheckpointAdvancesPerWaveAndIsClearedAtTheEnd() {
+        // given
+        for (long id = 1; id <= 6; id++) {
+            addBeer(id, 10, 10L, 0);
+        }
+        when(checkpointRepository.findById(StockReconciliationJob.JOB)).thenReturn(Optional.empty());
+
+        // when
+        job.run();
+
+        // then
+        assertThat(savedCheckpoints, contains(4L, 6L, 0L));
+        verify(stockCorrector, never()).correct(anyList());
+        ReconciliationProgressDTO progress = job.progress();
+        assertThat(progress.getCheckedBeers(), is(equalTo(6L)));
+        assertThat(progress.getChunks(), is(equalTo(3L)));
+    }
+
+    @Test
+    void whenBeersDriftedThenOnlyThoseAreCorrected() {
+        // given
+        addBeer(1L, 10, 10L, 0);
+        addBeer(2L, 7, 9L, 0);
+        addBeer(3L, 4, null, 0);
+        addBeer(4L, 3, 5L, 0);
+        when(checkpointRepository.findById(StockReconciliationJob.JOB)).thenReturn(Optional.empty());
+
+        // when
+        job.run();
+
+        // then
+        verify(stockCorrector).correct(Collections.singletonList(2L));
+        verify(stockCorrector).correct(Collections.singletonList(4L));
+        assertThat(job.progress().getCorrectedBeers(), is(equalTo(2L)));
+    }
+
+    @Test
+    void whenBeerIsStripedThenItIsSkipped() {
+        // given
+        addBeer(1L, 0, 20L, 4);
+        addBeer(2L, 7, 9L, 0);
+        when(checkpointRepository.findById(StockReconciliationJob.JOB)).thenReturn(Optional.empty());
+
+        // when
+        job.run();
+
+        // then
+        verify(stockCorrector).correct(Collections.singletonList(2L));
+        assertThat(job.progress().getSkippedStripedBeers(), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenBeerHasNoBaselineInTheLedgerThenItIsReportedInsteadOfCorrected() {
+        // given
+        addBeer(1L, 4, null, 0);
+        addBeer(2L, 7, 9L, 0);
+        when(checkpointRepository.findById(StockReconciliationJob.JOB)).thenReturn(Optional.empty());
+
+        // when
+        job.run();
+
+        // then
+        verify(stockCorrector).correct(Collections.singletonList(2L));
+        ReconciliationProgressDTO progress = job.progress();
+        assertThat(progress.getUnbaselinedBeers(), is(equalTo(1L)));
+        assertThat(progress.getDriftedBeers(), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenACheckpointIsPresentThenTheRunResumesAfterIt() {
+        // given
+        for (long id = 1; id <= 6; id++) {
+            addBeer(id, 10, 3L, 0);
+        }
+        ReconciliationCheckpoint checkpoint = new ReconciliationCheckpoint(StockReconciliationJob.JOB, 4L,
+                NOW.minusSeconds(60), NOW.minusSeconds(30), null);
+        when(checkpointRepository.findById(StockReconciliationJob.JOB)).thenReturn(Optional.of(checkpoint));
+
+        // when
+        job.run();
+
+        // then
+        verify(stockCorrector).correct(Arrays.asList(5L, 6L));
+        verify(stockCorrector, never()).correct(Arrays.asList(1L, 2L));
+        assertThat(checkpoint.getRunStartedAt(), is(equalTo(NOW.minusSeconds(60))));
+        assertThat(checkpoint.getLastCompletedAt(), is(equalTo(NOW)));
+        assertThat(checkpoint.getLastBeerId(), is(equalTo(0L)));
+    }
+
+    @Test
+    void whenAnotherNodeHoldsTheLeaseThenNoRunStarts() {
+        // given
+        when(leases.tryAcquire(StockReconciliationJob.LEASE, Duration.ofMinutes(1))).thenReturn(false);
+
+        // when
+        boolean started = job.start();
+
+        // then
+        assertThat(started, is(false));
+        assertThat(job.progress().isRunning(), is(false));
+        verify(beerRepository, never()).findIdsAfter(anyLong(), any());
+    }
+
+    @Test
+    void whenTheLeaseIsLostDuringARunThenItStopsWithoutMovingTheCheckpoint() {
+        // given
+        for (long id = 1; id <= 6; id++) {
+            addBeer(id, 10, 10L, 0);
+        }
+        when(checkpointRepository.findById(StockReconciliationJob.JOB)).thenReturn(Optional.empty());
+        when(leases.tryAcquire(StockReconciliationJob.LEASE, Duration.ofMinutes(1))).thenReturn(true, false);
+
+        // when
+        job.run();
+
+        // then
+        assertThat(savedCheckpoints, contains(4L));
+    }
+
+    private void addBeer(long id, int quantity, Long ledgerTotal, int stripes) {
+        Beer beer = new Beer(id, "Beer " + id, "Brand", 50, quantity, BeerType.LAGER);
+        beer.setStripes(stripes);
+        beers.put(id, beer);
+        if (ledgerTotal != null) {
+            ledger.put(id, ledgerTotal);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package one.digitalinnovation.beerstock.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+public class WarehouseRepositoryTest {
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void whenTwoTransactionsListTheSameNewWarehouseThenBothCommitAndItIsListedOnce() throws Exception {
+        // given
+        String warehouse = "wh-" + UUID.randomUUID().toString().substring(0, 8);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch firstListed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // when
+        Future<Boolean> first;
+        Future<Boolean> second;
+        try {
+            first = executor.submit(() -> transactionTemplate.execute(status -> {
+                boolean listed = warehouseRepository.list(warehouse);
+                firstListed.countDown();
+                sleep(200);
+                return listed;
+            }));
+            firstListed.await(5, TimeUnit.SECONDS);
+            second = executor.submit(() -> transactionTemplate.execute(status -> warehouseRepository.list(warehouse)));
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // then
+        assertThat(first.get(), is(true));
+        assertThat(second.get(), is(false));
+        assertThat(warehouseRepository.findNames().stream().filter(warehouse::equals).count(), is(equalTo(1L)));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
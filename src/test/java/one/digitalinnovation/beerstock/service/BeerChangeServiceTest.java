@@ -0,0 +1,150 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import one.digitalinnovation.beerstock.dto.BeerChangesDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.BeerStockStripe;
+import one.digitalinnovation.beerstock.entity.BeerTombstone;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockStripeRepository;
+import one.digitalinnovation.beerstock.repository.BeerTombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerChangeServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private BeerStockStripeRepository stripeRepository;
+
+    @Mock
+    private BeerTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private ChangeVersionSequence changeVersions;
+
+    private BeerChangeService beerChangeService;
+
+    @BeforeEach
+    void setUp() {
+        beerChangeService = new BeerChangeService(beerRepository, stripeRepository, tombstoneRepository, changeVersions,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void whenChangesAreRequestedThenBeersStripesAndTombstonesAreMergedInVersionOrder() {
+        // given
+        Beer brahma = beer(1L, "Brahma", 12);
+        Beer colorado = beer(2L, "Colorado", 15);
+        when(beerRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(eq(10L), eq(20L), any()))
+                .thenReturn(Arrays.asList(brahma, colorado));
+        when(stripeRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(eq(10L), eq(20L), any()))
+                .thenReturn(Collections.singletonList(stripe(1L, 17)));
+        when(tombstoneRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(eq(10L), eq(20L), any()))
+                .thenReturn(Collections.singletonList(new BeerTombstone(3L, NOW, 13)));
+        when(beerRepository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(Arrays.asList(brahma, colorado));
+
+        when(changeVersions.stableVersion()).thenReturn(20L);
+
+        // when
+        BeerChangesDTO changes = beerChangeService.changesSince(10, 100);
+
+        // then
+        assertThat(changes.getChanges().stream().map(change -> change.getVersion()).toArray(), is(equalTo(new Object[]{13L, 15L, 17L})));
+        assertThat(changes.getChanges().get(0).isDeleted(), is(true));
+        assertThat(changes.getChanges().get(0).getBeer(), is(nullValue()));
+        assertThat(changes.getChanges().get(2).getBeer().getName(), is(equalTo("Brahma")));
+        assertThat(changes.getNextSince(), is(equalTo(17L)));
+        assertThat(changes.isHasMore(), is(false));
+    }
+
+    @Test
+    void whenMoreChangesThanTheLimitExistThenThePageEndsAtTheLastReturnedVersion() {
+        // given
+        Beer brahma = beer(1L, "Brahma", 11);
+        Beer colorado = beer(2L, "Colorado", 14);
+        when(beerRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(eq(10L), eq(20L), any()))
+                .thenReturn(Arrays.asList(brahma, colorado));
+        when(stripeRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(eq(10L), eq(20L), any()))
+                .thenReturn(Collections.emptyList());
+        when(tombstoneRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersionAsc(eq(10L), eq(20L), any()))
+                .thenReturn(Collections.singletonList(new BeerTombstone(3L, NOW, 12)));
+        when(beerRepository.findAllById(anySet())).thenReturn(Collections.singletonList(brahma));
+
+        when(changeVersions.stableVersion()).thenReturn(20L);
+
+        // when
+        BeerChangesDTO changes = beerChangeService.changesSince(10, 2);
+
+        // then
+        assertThat(changes.getChanges().stream().map(change -> change.getId()).toArray(), is(equalTo(new Object[]{1L, 3L})));
+        assertThat(changes.getNextSince(), is(equalTo(12L)));
+        assertThat(changes.isHasMore(), is(true));
+    }
+
+    @Test
+    void whenABeerIsDeletedThenATombstoneIsSaved() {
+        // given
+        Beer brahma = beer(1L, "Brahma", 11);
+
+        // when
+        beerChangeService.onBeerChanged(BeerChangedEvent.stockChanged(brahma, 5, 1L));
+        beerChangeService.onBeerChanged(BeerChangedEvent.deleted(brahma, 2L));
+
+        // then
+        verify(tombstoneRepository, times(1)).save(any());
+        verify(tombstoneRepository).save(new BeerTombstone(1L, NOW, 0));
+    }
+
+    @Test
+    void whenTheApplicationStartsThenVersionsContinueAfterTheHighestStoredOne() {
+        // given
+        when(beerRepository.maxChangeVersion()).thenReturn(40L);
+        when(stripeRepository.maxChangeVersion()).thenReturn(57L);
+        when(tombstoneRepository.maxChangeVersion()).thenReturn(12L);
+
+        // when
+        beerChangeService.seedVersions();
+
+        // then
+        verify(changeVersions).advanceTo(57L);
+    }
+
+    private static Beer beer(Long id, String name, long changeVersion) {
+        Beer beer = new Beer(id, name, "Ambev", 50, 10, BeerType.LAGER);
+        beer.setChangeVersion(changeVersion);
+        return beer;
+    }
+
+    private static BeerStockStripe stripe(Long beerId, long changeVersion) {
+        return new BeerStockStripe(null, beerId, 0, 5, 25, changeVersion);
+    }
+}
@@ -0,0 +1,126 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.OrderDTO;
+import one.digitalinnovation.beerstock.dto.OrderItemDTO;
+import one.digitalinnovation.beerstock.sql.SqlStatements;
+import one.digitalinnovation.beerstock.sql.StatementScope;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Puts a budget on the statements each {@link BeerService} call may issue against the real schema, counted by the
+ * monitoring data source, so a change that adds queries to a call, or runs one query per row, fails the build.
+ * Budgets include the outbox inserts, sequence calls and reservation hold reads; raise one only together with the
+ * change that needs it.
+ */
+@SpringBootTest
+public class BeerServiceStatementBudgetTest {
+
+    @Autowired
+    private BeerService beerService;
+
+    @Test
+    void whenBeerIsCreatedThenAtMostFiveStatementsAreIssued() throws Exception {
+        // when
+        int statements = statements(() -> beerService.createBeer(newBeer()));
+
+        // then
+        assertThat(statements, is(lessThanOrEqualTo(5)));
+    }
+
+    @Test
+    void whenBeerIsFoundByNameThenOneStatementIsIssuedAndNoneOnceCached() throws Exception {
+        // given
+        BeerDTO beerDTO = beerService.createBeer(newBeer());
+
+        // when
+        int cold = statements(() -> beerService.findByName(beerDTO.getName()));
+        int warm = statements(() -> beerService.findByName(beerDTO.getName()));
+
+        // then
+        assertThat(cold, is(lessThanOrEqualTo(1)));
+        assertThat(warm, is(equalTo(0)));
+    }
+
+    @Test
+    void whenStockIsIncrementedOrDecrementedThenAtMostFourAndFiveStatementsAreIssued() throws Exception {
+        // given
+        BeerDTO beerDTO = beerService.createBeer(newBeer());
+
+        // when
+        int increment = statements(() -> beerService.increment(beerDTO.getId(), 5));
+        int decrement = statements(() -> beerService.decrement(beerDTO.getId(), 5));
+
+        // then
+        assertThat(increment, is(lessThanOrEqualTo(4)));
+        assertThat(decrement, is(lessThanOrEqualTo(5)));
+    }
+
+    @Test
+    void whenOrderIsPlacedThenStatementsGrowByAtMostTwoPerBeer() throws Exception {
+        // given
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            items.add(new OrderItemDTO(beerService.createBeer(newBeer()).getId(), 1));
+        }
+
+        // when
+        int statements = statements(() -> beerService.placeOrder(new OrderDTO(items)));
+
+        // then
+        assertThat(statements, is(lessThanOrEqualTo(2 + 2 * items.size())));
+    }
+
+    @Test
+    void whenBeersAreListedThenOneStatementIsIssuedWhateverTheirNumber() throws Exception {
+        // given
+        for (int i = 0; i < 10; i++) {
+            beerService.createBeer(newBeer());
+        }
+
+        // when
+        int statements = statements(beerService::listAll);
+
+        // then
+        assertThat(statements, is(equalTo(1)));
+    }
+
+    @Test
+    void whenBeerIsDeletedThenAtMostSevenStatementsAreIssued() throws Exception {
+        // given
+        BeerDTO beerDTO = beerService.createBeer(newBeer());
+
+        // when
+        int statements = statements(() -> {
+            beerService.deleteById(beerDTO.getId());
+            return null;
+        });
+
+        // then
+        assertThat(statements, is(lessThanOrEqualTo(7)));
+    }
+
+    private static int statements(Callable<?> call) throws Exception {
+        try (StatementScope statements = SqlStatements.capture()) {
+            call.call();
+            return statements.count();
+        }
+    }
+
+    private static BeerDTO newBeer() {
+        return BeerDTOBuilder.builder().id(null).name("Budget " + UUID.randomUUID()).quantity(10).max(100).build().toBeerDTO();
+    }
+}
@@ -1,23 +1,36 @@
 package one.digitalinnovation.beerstock.service;
 
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.cache.TieredBeerCache;
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.OrderDTO;
+import one.digitalinnovation.beerstock.dto.OrderItemDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockBelowZeroException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.hotkey.HotKeyDetector;
+import one.digitalinnovation.beerstock.index.BeerNameIndex;
 import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerHeldTotal;
 import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.StockHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -28,7 +41,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -42,11 +61,38 @@ public class BeerServiceTest {
     // Criação de um beerRepository mockado, simulando as funcionalidades desse obj
     private BeerRepository beerRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BeerNameIndex beerNameIndex;
+
+    @Mock
+    private HotKeyDetector hotKeyDetector;
+
+    @Mock
+    private StripedStockService stripedStockService;
+
+    @Mock
+    private TieredBeerCache beerCache;
+
+    @Mock
+    private ChangeVersionSequence changeVersions;
+
+    @Mock
+    private StockHoldRepository holdRepository;
+
     private BeerMapper beerMapper = BeerMapper.INSTANCE;
 
     @InjectMocks
     private BeerService beerService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(beerCache.get(any(), any())).thenAnswer(invocation ->
+                invocation.<Function<String, Optional<BeerDTO>>>getArgument(1).apply(invocation.getArgument(0)));
+    }
+
     @Test
         // When e Then utilizado no nome do teste para representar a condicação, ficando quando x então y
     void whenBeerInformedThenItShouldBeCreated() throws BeerAlreadyRegisteredException {
@@ -95,6 +141,22 @@ public class BeerServiceTest {
         assertThat(foundBeerDTO, is(equalTo(expectedFoundBeerDTO)));
     }
 
+    @Test
+    void whenBeerNameIsGivenInAnotherCaseThenReturnTheBeerFoundThroughTheNameIndex() throws BeerNotFoundException {
+        // given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
+
+        // when
+        when(beerRepository.findByName("BRAHMA")).thenReturn(Optional.empty());
+        when(beerNameIndex.findExact("BRAHMA")).thenReturn(Optional.of(expectedFoundBeerDTO.getId()));
+        when(beerRepository.findById(expectedFoundBeerDTO.getId())).thenReturn(Optional.of(expectedFoundBeer));
+
+        // then
+        BeerDTO foundBeerDTO = beerService.findByName("BRAHMA");
+        assertThat(foundBeerDTO, is(equalTo(expectedFoundBeerDTO)));
+    }
+
     //
     @Test
     void whenAlreadyRegisteredBeerInformedThenAnExceptionShouldBeThrown() throws BeerAlreadyRegisteredException {
@@ -169,17 +231,17 @@ public class BeerServiceTest {
 
         // when
         /*
-            Quando beerRepository chamar o método findById passando expectedDeleteBeerDTO.getid, então retorne uma Optional
-            com o valor de expectedDeletedBeer
+            Quando beerRepository chamar o método findByIdForUpdate passando expectedDeleteBeerDTO.getid, então retorne uma
+            Optional com o valor de expectedDeletedBeer
             Não faça nada, quando o beerRepository chamar o método deleteById;
          */
-        when(beerRepository.findById(expectedDeletedBeerDTO.getId())).thenReturn(Optional.of(expectedDeletedBeer));
+        when(beerRepository.findByIdForUpdate(expectedDeletedBeerDTO.getId())).thenReturn(Optional.of(expectedDeletedBeer));
         doNothing().when(beerRepository).deleteById(expectedDeletedBeerDTO.getId());
 
         // then
         beerService.deleteById(expectedDeletedBeerDTO.getId());
 
-        verify(beerRepository, times(1)).findById(expectedDeletedBeerDTO.getId());
+        verify(beerRepository, times(1)).findByIdForUpdate(expectedDeletedBeerDTO.getId());
         verify(beerRepository, times(1)).deleteById(expectedDeletedBeerDTO.getId());
     }
 
@@ -191,8 +253,8 @@ public class BeerServiceTest {
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
         //when
-        //Quando beerRepository chamar o método o findById, então retorne um Optional expectedBeer
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        //Quando beerRepository chamar o método o findByIdForUpdate, então retorne um Optional expectedBeer
+        when(beerRepository.findByIdForUpdate(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
         //Quando beerRepository chamar o método salvar, retorne expectedBeer
         when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
 
@@ -214,8 +276,8 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        //Quando beerRepository chamar o método findById com expectedBeerDTO.getId como parâmetro, então retorne um Optional expectedBeer
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        //Quando beerRepository chamar o método findByIdForUpdate com expectedBeerDTO.getId como parâmetro, então retorne um Optional expectedBeer
+        when(beerRepository.findByIdForUpdate(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
 
         int quantityToIncrement = 80;
 
@@ -229,7 +291,7 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.findByIdForUpdate(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
 
         int quantityToIncrement = 45;
 
@@ -241,8 +303,8 @@ public class BeerServiceTest {
     void whenIncrementIsCalledWithInvalidIdThenThrowException() {
         int quantityToIncrement = 10;
 
-        //Retorna um Optional vazio quando o método findById for chamado
-        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        //Retorna um Optional vazio quando o método findByIdForUpdate for chamado
+        when(beerRepository.findByIdForUpdate(INVALID_BEER_ID)).thenReturn(Optional.empty());
 
         //Como o retorno será vazio, devemos esperar um erro que a cerveja não foi encontrada(BeerNotFoundException)
         assertThrows(BeerNotFoundException.class, () -> beerService.increment(INVALID_BEER_ID, quantityToIncrement));
@@ -254,9 +316,9 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        /*Quando meu beerRepository chamar o método findById passando expectedBeerDTo.getID, então retorne um Optional
+        /*Quando meu beerRepository chamar o método findByIdForUpdate passando expectedBeerDTo.getID, então retorne um Optional
         com o valor sendo expectedBeer*/
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.findByIdForUpdate(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
 
         //Quando beerRepository chamar o método save passando expectedBeer, então retorne expectedBeer
         when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
@@ -276,7 +338,7 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.findByIdForUpdate(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
         when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
 
         int quantityToDecrement = 10;
@@ -294,22 +356,127 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.findByIdForUpdate(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
 
         int quantityToDecrement = 80;
         //Confira se é jogada uma exceção caso tentem tirar uma quantidade superior que existe no stock
         assertThrows(BeerStockBelowZeroException.class, () -> beerService.decrement(expectedBeerDTO.getId(), quantityToDecrement));
     }
 
+    @Test
+    void whenDecrementWouldTakeHeldUnitsThenThrowException() {
+        // given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        when(beerRepository.findByIdForUpdate(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(holdRepository.heldQuantity(eq(expectedBeerDTO.getId()), any())).thenReturn(8);
+
+        // then
+        assertThrows(BeerStockBelowZeroException.class, () -> beerService.decrement(expectedBeerDTO.getId(), 3));
+        assertThat(expectedBeer.getQuantity(), is(equalTo(10)));
+        verify(beerRepository, never()).save(any(Beer.class));
+    }
+
+    @Test
+    void whenOrderWouldTakeHeldUnitsThenNothingIsDecremented() throws BeerNotFoundException {
+        // given
+        Beer firstBeer = beerMapper.toModel(BeerDTOBuilder.builder().id(1L).name("Brahma").build().toBeerDTO());
+        OrderDTO orderDTO = new OrderDTO(Collections.singletonList(new OrderItemDTO(1L, 4)));
+        BeerHeldTotal held = mock(BeerHeldTotal.class);
+        when(held.getBeerId()).thenReturn(1L);
+        when(held.getQuantity()).thenReturn(7L);
+        when(beerRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(firstBeer));
+        when(holdRepository.sumHeldByBeerId(eq(Collections.singletonList(1L)), any())).thenReturn(Collections.singletonList(held));
+
+        // then
+        assertThrows(BeerStockBelowZeroException.class, () -> beerService.placeOrder(orderDTO));
+        verify(beerRepository, never()).save(any(Beer.class));
+    }
+
     @Test
     void whenDecrementIsCalledWithInvalidIdThenThrowException() {
         int quantityToDecrement = 10;
 
-        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        when(beerRepository.findByIdForUpdate(INVALID_BEER_ID)).thenReturn(Optional.empty());
 
 
         //Confira se é jogada uma exceção caso não encontre a cerveja.
         assertThrows(BeerNotFoundException.class, () -> beerService.decrement(INVALID_BEER_ID, quantityToDecrement));
     }
 
-}
\ No newline at end of file
+    @Test
+    void whenAPlainBeerStockChangesThenItsRowIsReadOnceUnderLock() throws BeerNotFoundException, BeerStockExceededException {
+        // given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        when(beerRepository.findByIdForUpdate(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
+
+        // when
+        beerService.increment(expectedBeerDTO.getId(), 10);
+
+        // then
+        verify(beerRepository, never()).findById(expectedBeerDTO.getId());
+        verify(beerRepository, never()).lockForUpdate(expectedBeer);
+    }
+
+    @Test
+    void whenAStripedBeerStockChangesThenAStripeTakesItWithoutLockingTheBeer() throws BeerNotFoundException, BeerStockExceededException {
+        // given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        expectedBeer.setStripes(4);
+        when(stripedStockService.mayBeStriped(expectedBeerDTO.getId())).thenReturn(true);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(stripedStockService.tryApply(expectedBeer, 10)).thenReturn(true);
+
+        // when
+        beerService.increment(expectedBeerDTO.getId(), 10);
+
+        // then
+        verify(beerRepository, never()).findByIdForUpdate(expectedBeerDTO.getId());
+        verify(beerRepository, never()).lockForUpdate(expectedBeer);
+    }
+
+    @Test
+    void whenOrderIsPlacedThenBeersAreLockedInIdOrderAndDecremented() throws BeerNotFoundException, BeerStockBelowZeroException {
+        // given
+        Beer firstBeer = beerMapper.toModel(BeerDTOBuilder.builder().id(1L).name("Brahma").build().toBeerDTO());
+        Beer secondBeer = beerMapper.toModel(BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO());
+        OrderDTO orderDTO = new OrderDTO(Arrays.asList(
+                new OrderItemDTO(2L, 3),
+                new OrderItemDTO(1L, 4),
+                new OrderItemDTO(2L, 2)));
+
+        when(beerRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(firstBeer));
+        when(beerRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(secondBeer));
+        when(beerRepository.save(any(Beer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        List<BeerDTO> decrementedBeers = beerService.placeOrder(orderDTO);
+
+        // then
+        InOrder lockOrder = inOrder(beerRepository);
+        lockOrder.verify(beerRepository).findByIdForUpdate(1L);
+        lockOrder.verify(beerRepository).findByIdForUpdate(2L);
+        assertThat(decrementedBeers.size(), is(equalTo(2)));
+        assertThat(decrementedBeers.get(0).getQuantity(), is(equalTo(6)));
+        assertThat(decrementedBeers.get(1).getQuantity(), is(equalTo(5)));
+    }
+
+    @Test
+    void whenOneOrderItemExceedsStockThenNothingIsDecremented() throws BeerNotFoundException {
+        // given
+        Beer firstBeer = beerMapper.toModel(BeerDTOBuilder.builder().id(1L).name("Brahma").build().toBeerDTO());
+        Beer secondBeer = beerMapper.toModel(BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO());
+        OrderDTO orderDTO = new OrderDTO(Arrays.asList(new OrderItemDTO(1L, 4), new OrderItemDTO(2L, 11)));
+
+        when(beerRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(firstBeer));
+        when(beerRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(secondBeer));
+
+        // then
+        assertThrows(BeerStockBelowZeroException.class, () -> beerService.placeOrder(orderDTO));
+        assertThat(firstBeer.getQuantity(), is(equalTo(10)));
+        verify(beerRepository, never()).save(any(Beer.class));
+    }
+}
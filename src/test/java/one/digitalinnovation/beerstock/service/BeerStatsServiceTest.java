@@ -0,0 +1,200 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import one.digitalinnovation.beerstock.dto.BeerStatsDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.BeerGroupTotals;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.snapshot.BeerStockSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerStatsServiceTest {
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private BeerChangeService beerChangeService;
+
+    @Mock
+    private ChangeVersionSequence changeVersions;
+
+    private BeerStatsService beerStatsService;
+
+    @BeforeEach
+    void setUp() {
+        beerStatsService = new BeerStatsService(beerRepository, new BeerStockSnapshot(), beerChangeService, changeVersions);
+    }
+
+    @Test
+    void whenStatsAreRequestedThenTotalsAreLoadedOnceFromTheGroupedQuery() {
+        // given
+        when(beerRepository.sumStockByTypeAndBrand())
+                .thenReturn(Collections.singletonList(groupTotals(BeerType.LAGER, "Ambev", 2, 30, 100)));
+        beerStatsService.rebuild();
+
+        // when
+        beerStatsService.getStats();
+        BeerStatsDTO stats = beerStatsService.getStats();
+
+        // then
+        verify(beerRepository, times(1)).sumStockByTypeAndBrand();
+        assertThat(stats.getTotal().getQuantity(), is(equalTo(30L)));
+        assertThat(stats.getTotal().getAverageQuantity(), is(closeTo(15.0, 0.001)));
+        assertThat(stats.getTotal().getFillRatio(), is(closeTo(0.3, 0.001)));
+    }
+
+    @Test
+    void whenStockChangesAfterLoadingThenDeltasAreAppliedWithoutRescanning() {
+        // given
+        when(beerRepository.sumStockByTypeAndBrand())
+                .thenReturn(Collections.singletonList(groupTotals(BeerType.LAGER, "Ambev", 1, 10, 50)));
+        beerStatsService.rebuild();
+        Beer brahma = new Beer(1L, "Brahma", "Ambev", 50, 15, BeerType.LAGER);
+        Beer colorado = new Beer(2L, "Colorado", "Colorado", 40, 20, BeerType.IPA);
+
+        // when
+        beerStatsService.onBeerChanged(BeerChangedEvent.stockChanged(brahma, 5, 1L));
+        beerStatsService.onBeerChanged(BeerChangedEvent.created(colorado, 2L));
+        BeerStatsDTO stats = beerStatsService.getStats();
+
+        // then
+        verify(beerRepository, times(1)).sumStockByTypeAndBrand();
+        assertThat(stats.getTotal().getBeers(), is(equalTo(2L)));
+        assertThat(stats.getTotal().getQuantity(), is(equalTo(35L)));
+        assertThat(stats.getByType(), hasSize(2));
+        assertThat(stats.getByBrand().get(0).getGroup(), is(equalTo("Ambev")));
+        assertThat(stats.getByBrand().get(0).getQuantity(), is(equalTo(15L)));
+    }
+
+    @Test
+    void whenBeerIsDeletedThenItsGroupDisappearsFromTheStats() {
+        // given
+        when(beerRepository.sumStockByTypeAndBrand())
+                .thenReturn(Collections.singletonList(groupTotals(BeerType.LAGER, "Ambev", 1, 10, 50)));
+        beerStatsService.rebuild();
+
+        // when
+        beerStatsService.onBeerChanged(BeerChangedEvent.deleted(new Beer(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER), 1L));
+        BeerStatsDTO stats = beerStatsService.getStats();
+
+        // then
+        assertThat(stats.getTotal().getBeers(), is(equalTo(0L)));
+        assertThat(stats.getByType(), hasSize(0));
+    }
+
+    @Test
+    void whenAnEventTheRebuildAlreadyCountedArrivesThenItIsNotAppliedAgain() {
+        // given
+        when(changeVersions.stableVersion()).thenReturn(4L);
+        when(beerChangeService.storedVersion()).thenReturn(4L);
+        when(beerRepository.sumStockByTypeAndBrand())
+                .thenReturn(Collections.singletonList(groupTotals(BeerType.LAGER, "Ambev", 1, 10, 50)));
+        beerStatsService.rebuild();
+        Beer brahma = new Beer(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER);
+
+        // when
+        beerStatsService.onBeerChanged(BeerChangedEvent.stockChanged(brahma, 3, 4L));
+        beerStatsService.onBeerChanged(BeerChangedEvent.stockChanged(brahma, 2, 5L));
+        BeerStatsDTO stats = beerStatsService.getStats();
+
+        // then
+        assertThat(stats.getTotal().getQuantity(), is(equalTo(12L)));
+    }
+
+    @Test
+    void whenStockKeepsChangingDuringTheFirstRebuildThenTheLastQueryIsServedWithoutQueryingAgain() {
+        // given
+        when(changeVersions.stableVersion()).thenReturn(4L);
+        when(beerChangeService.storedVersion()).thenReturn(6L);
+        when(beerRepository.sumStockByTypeAndBrand())
+                .thenReturn(Collections.singletonList(groupTotals(BeerType.LAGER, "Ambev", 1, 10, 50)));
+
+        // when
+        beerStatsService.rebuild();
+        beerStatsService.getStats();
+        BeerStatsDTO stats = beerStatsService.getStats();
+
+        // then
+        verify(beerRepository, times(3)).sumStockByTypeAndBrand();
+        assertThat(stats.getTotal().getQuantity(), is(equalTo(10L)));
+    }
+
+    @Test
+    void whenARefreshFindsNoCleanCutThenTheLoadedTotalsAreKeptAndStayCurrent() {
+        // given
+        when(changeVersions.stableVersion()).thenReturn(4L);
+        when(beerChangeService.storedVersion()).thenReturn(4L, 9L);
+        when(beerRepository.sumStockByTypeAndBrand())
+                .thenReturn(Collections.singletonList(groupTotals(BeerType.LAGER, "Ambev", 1, 10, 50)))
+                .thenReturn(Collections.singletonList(groupTotals(BeerType.LAGER, "Ambev", 1, 40, 50)));
+        beerStatsService.rebuild();
+        Beer brahma = new Beer(1L, "Brahma", "Ambev", 50, 15, BeerType.LAGER);
+
+        // when
+        beerStatsService.refresh();
+        beerStatsService.onBeerChanged(BeerChangedEvent.stockChanged(brahma, 5, 5L));
+        BeerStatsDTO stats = beerStatsService.getStats();
+
+        // then
+        verify(beerRepository, times(4)).sumStockByTypeAndBrand();
+        assertThat(stats.getTotal().getQuantity(), is(equalTo(15L)));
+    }
+
+    @Test
+    void whenStockChangesWhileTheRebuildQueriesThenTheChangeIsNeitherBlockedNorLost() throws Exception {
+        // given
+        when(changeVersions.stableVersion()).thenReturn(4L);
+        when(beerChangeService.storedVersion()).thenReturn(4L);
+        Beer brahma = new Beer(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        when(beerRepository.sumStockByTypeAndBrand()).thenAnswer(invocation -> {
+            writer.submit(() -> beerStatsService.onBeerChanged(BeerChangedEvent.stockChanged(brahma, 5, 5L)))
+                    .get(1, TimeUnit.SECONDS);
+            return Collections.singletonList(groupTotals(BeerType.LAGER, "Ambev", 1, 10, 50));
+        });
+
+        // when
+        BeerStatsDTO stats;
+        try {
+            beerStatsService.rebuild();
+            stats = beerStatsService.getStats();
+        } finally {
+            writer.shutdownNow();
+        }
+
+        // then
+        assertThat(stats.getTotal().getQuantity(), is(equalTo(15L)));
+    }
+
+    private static BeerGroupTotals groupTotals(BeerType type, String brand, long beers, long quantity, long capacity) {
+        return new BeerGroupTotals() {
+            public BeerType getType() { return type; }
+            public String getBrand() { return brand; }
+            public long getBeers() { return beers; }
+            public long getQuantity() { return quantity; }
+            public long getCapacity() { return capacity; }
+        };
+    }
+}
@@ -0,0 +1,188 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.StockHold;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.BeerStockBelowZeroException;
+import one.digitalinnovation.beerstock.exception.ReservationNotFoundException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.StockHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationServiceTest {
+
+    private static final Instant START = Instant.parse("2020-06-01T10:00:00Z");
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Mock
+    private StockHoldRepository holdRepository;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private BeerService beerService;
+
+    @Mock
+    private StripedStockService stripedStockService;
+
+    private MutableClock clock;
+
+    private ReservationService reservationService;
+
+    private Beer beer;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        reservationService = new ReservationService(holdRepository, beerRepository, beerService, stripedStockService,
+                clock, Duration.ofSeconds(60), 100, 64);
+        beer = beerMapper.toModel(BeerDTOBuilder.builder().build().toBeerDTO());
+        lenient().when(beerRepository.findByIdForUpdate(beer.getId())).thenReturn(Optional.of(beer));
+        lenient().when(stripedStockService.lockedTotal(beer)).thenReturn(beer.getQuantity());
+        lenient().when(holdRepository.save(any(StockHold.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void whenReservationsExceedUnreservedStockThenAnExceptionIsThrown() {
+        // given
+        when(holdRepository.sumHeld(beer.getId(), START)).thenReturn(8L);
+
+        // then
+        assertThrows(BeerStockBelowZeroException.class, () -> reservationService.reserve(beer.getId(), 3, null));
+        verify(holdRepository, never()).save(any(StockHold.class));
+    }
+
+    @Test
+    void whenReservationIsPlacedThenItsHoldIsStoredUntilItsTtl() throws Exception {
+        // when
+        ReservationDTO reservation = reservationService.reserve(beer.getId(), 4, null);
+
+        // then
+        assertThat(reservation.getExpiresAt(), is(equalTo(START.plusSeconds(60))));
+        verify(holdRepository).save(new StockHold(reservation.getId(), beer.getId(), 4, START.plusSeconds(60)));
+    }
+
+    @Test
+    void whenReservationIsCommittedThenItsHoldIsRemovedAndStockDecremented() throws Exception {
+        // given
+        ReservationDTO reservation = reservationService.reserve(beer.getId(), 4, null);
+        StockHold hold = new StockHold(reservation.getId(), beer.getId(), 4, reservation.getExpiresAt());
+        BeerDTO decremented = BeerDTOBuilder.builder().quantity(6).build().toBeerDTO();
+        when(holdRepository.findById(reservation.getId())).thenReturn(Optional.of(hold));
+        when(holdRepository.deleteLive(reservation.getId(), beer.getId(), START)).thenReturn(1, 0);
+        when(beerService.decrement(beer.getId(), 4)).thenReturn(decremented);
+
+        // when
+        BeerDTO committed = reservationService.commit(beer.getId(), reservation.getId());
+
+        // then
+        assertThat(committed.getQuantity(), is(equalTo(6)));
+        InOrder order = inOrder(holdRepository, beerService);
+        order.verify(holdRepository).deleteLive(reservation.getId(), beer.getId(), START);
+        order.verify(beerService).decrement(beer.getId(), 4);
+        assertThrows(ReservationNotFoundException.class, () -> reservationService.commit(beer.getId(), reservation.getId()));
+    }
+
+    @Test
+    void whenReservationIsCancelledThenStockIsNotTouched() throws Exception {
+        // given
+        ReservationDTO reservation = reservationService.reserve(beer.getId(), 4, null);
+        when(holdRepository.findById(reservation.getId()))
+                .thenReturn(Optional.of(new StockHold(reservation.getId(), beer.getId(), 4, reservation.getExpiresAt())));
+        when(holdRepository.deleteLive(reservation.getId(), beer.getId(), START)).thenReturn(1);
+
+        // when
+        reservationService.cancel(beer.getId(), reservation.getId());
+
+        // then
+        verifyNoInteractions(beerService);
+    }
+
+    @Test
+    void whenReservationExpiresThenItsHoldIsRemoved() throws Exception {
+        // given
+        ReservationDTO reservation = reservationService.reserve(beer.getId(), 10, 30);
+        assertThat(reservation.getExpiresAt(), is(equalTo(START.plusSeconds(30))));
+
+        // when
+        clock.advance(Duration.ofSeconds(29));
+        reservationService.expire();
+        verify(holdRepository, never()).deleteExpired(anyCollection(), any());
+        clock.advance(Duration.ofSeconds(1));
+        reservationService.expire();
+
+        // then
+        verify(holdRepository).deleteExpired(Collections.singletonList(reservation.getId()), START.plusSeconds(30));
+        verify(beerService, never()).decrement(beer.getId(), 10);
+    }
+
+    @Test
+    void whenBeerIsDeletedThenItsReservationsAreDropped() {
+        // when
+        reservationService.onBeerChanged(BeerChangedEvent.deleted(beer, 1L));
+
+        // then
+        verify(holdRepository).deleteByBeerId(beer.getId());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.BeerStockStripe;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockStripeRepository;
+import one.digitalinnovation.beerstock.repository.StockHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StripedStockServiceTest {
+
+    private static final long BEER_ID = 1L;
+
+    private static final Instant NOW = Instant.parse("2020-06-01T10:00:00Z");
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private BeerStockStripeRepository stripeRepository;
+
+    @Mock
+    private StockHoldRepository holdRepository;
+
+    private StripedStockService stripedStockService;
+
+    @BeforeEach
+    void setUp() {
+        stripedStockService = new StripedStockService(beerRepository, stripeRepository, holdRepository, 4,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void whenBeerIsStripedThenQuantityAndMaxAreSpreadEvenly() {
+        // given
+        Beer beer = new Beer(BEER_ID, "Brahma", "Ambev", 50, 10, BeerType.LAGER);
+        when(beerRepository.findByIdForUpdate(BEER_ID)).thenReturn(Optional.of(beer));
+
+        // when
+        boolean striped = stripedStockService.stripe(BEER_ID);
+
+        // then
+        List<BeerStockStripe> stripes = savedStripes();
+        assertThat(striped, is(true));
+        assertThat(beer.getStripes(), is(equalTo(4)));
+        assertThat(beer.getQuantity(), is(equalTo(0)));
+        assertThat(beer.getTotalQuantity(), is(equalTo(10)));
+        assertThat(quantities(stripes), is(equalTo(Arrays.asList(3, 3, 2, 2))));
+        assertThat(capacities(stripes), is(equalTo(Arrays.asList(13, 13, 12, 12))));
+    }
+
+    @Test
+    void whenStripeAbsorbsChangeThenTotalIsReadBackFromStripes() {
+        // given
+        Beer beer = stripedBeer(50);
+        when(stripeRepository.applyDelta(eq(BEER_ID), anyInt(), eq(5))).thenReturn(1);
+        when(stripeRepository.sumQuantity(BEER_ID)).thenReturn(25L);
+
+        // when
+        boolean applied = stripedStockService.tryApply(beer, 5);
+
+        // then
+        assertThat(applied, is(true));
+        assertThat(beer.getTotalQuantity(), is(equalTo(25)));
+    }
+
+    @Test
+    void whenBeerHasHoldsThenAStripeGivesADecrementBack() {
+        // given
+        Beer beer = stripedBeer(50);
+        when(stripeRepository.applyDelta(eq(BEER_ID), anyInt(), eq(-5))).thenReturn(1);
+        when(holdRepository.heldQuantity(BEER_ID, NOW)).thenReturn(2);
+
+        // when
+        boolean applied = stripedStockService.tryApply(beer, -5);
+
+        // then
+        assertThat(applied, is(false));
+        verify(stripeRepository).applyDelta(eq(BEER_ID), anyInt(), eq(5));
+    }
+
+    @Test
+    void whenDecrementWouldTakeHeldUnitsThenRebalanceRejectsWithoutChanges() {
+        // given
+        Beer beer = stripedBeer(50);
+        when(stripeRepository.findByBeerIdForUpdate(BEER_ID)).thenReturn(stripes(3, 3, 2, 2));
+        when(holdRepository.heldQuantity(BEER_ID, NOW)).thenReturn(6);
+
+        // then
+        assertThat(stripedStockService.rebalance(beer, -5), is(false));
+        verify(stripeRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void whenTotalStaysWithinMaxThenRebalanceSpreadsTheNewTotal() {
+        // given
+        Beer beer = stripedBeer(50);
+        when(stripeRepository.findByBeerIdForUpdate(BEER_ID)).thenReturn(stripes(13, 13, 0, 12));
+
+        // when
+        boolean rebalanced = stripedStockService.rebalance(beer, 10);
+
+        // then
+        List<BeerStockStripe> stripes = savedStripes();
+        assertThat(rebalanced, is(true));
+        assertThat(beer.getTotalQuantity(), is(equalTo(48)));
+        assertThat(quantities(stripes), is(equalTo(Arrays.asList(12, 12, 12, 12))));
+    }
+
+    @Test
+    void whenTotalWouldExceedMaxThenRebalanceRejectsWithoutChanges() {
+        // given
+        Beer beer = stripedBeer(50);
+        when(stripeRepository.findByBeerIdForUpdate(BEER_ID)).thenReturn(stripes(13, 13, 12, 10));
+
+        // then
+        assertThat(stripedStockService.rebalance(beer, 3), is(false));
+        verify(stripeRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void whenBeerIsMergedThenStripesAreFoldedBackIntoItsRow() {
+        // given
+        Beer beer = stripedBeer(50);
+        when(beerRepository.findByIdForUpdate(BEER_ID)).thenReturn(Optional.of(beer));
+        when(stripeRepository.findByBeerIdForUpdate(BEER_ID)).thenReturn(stripes(1, 2, 3, 4));
+
+        // when
+        boolean merged = stripedStockService.merge(BEER_ID);
+
+        // then
+        assertThat(merged, is(true));
+        assertThat(beer.getStripes(), is(equalTo(0)));
+        assertThat(beer.getQuantity(), is(equalTo(10)));
+        verify(stripeRepository).deleteByBeerId(BEER_ID);
+    }
+
+    private static Beer stripedBeer(int max) {
+        Beer beer = new Beer(BEER_ID, "Brahma", "Ambev", max, 0, BeerType.LAGER);
+        beer.setStripes(4);
+        return beer;
+    }
+
+    private static List<BeerStockStripe> stripes(int... quantities) {
+        List<BeerStockStripe> stripes = new ArrayList<>();
+        for (int i = 0; i < quantities.length; i++) {
+            stripes.add(new BeerStockStripe((long) i, BEER_ID, i, quantities[i], i < 2 ? 13 : 12, 0));
+        }
+        return stripes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<BeerStockStripe> savedStripes() {
+        ArgumentCaptor<List<BeerStockStripe>> captor = ArgumentCaptor.forClass(List.class);
+        verify(stripeRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static List<Integer> quantities(List<BeerStockStripe> stripes) {
+        List<Integer> quantities = new ArrayList<>();
+        stripes.forEach(stripe -> quantities.add(stripe.getQuantity()));
+        return quantities;
+    }
+
+    private static List<Integer> capacities(List<BeerStockStripe> stripes) {
+        List<Integer> capacities = new ArrayList<>();
+        stripes.forEach(stripe -> capacities.add(stripe.getCapacity()));
+        return capacities;
+    }
+}
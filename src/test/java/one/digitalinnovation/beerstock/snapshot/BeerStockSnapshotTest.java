@@ -0,0 +1,141 @@
+package one.digitalinnovation.beerstock.snapshot;
+
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BeerStockSnapshotTest {
+
+    private final BeerStockSnapshot snapshot = new BeerStockSnapshot();
+
+    @Test
+    void whenBeerIsPutThenItsColumnsAreReturned() {
+        // when
+        snapshot.put(1L, 50, 10, BeerType.LAGER);
+
+        // then
+        assertTrue(snapshot.contains(1L));
+        assertThat(snapshot.max(1L), is(equalTo(50)));
+        assertThat(snapshot.quantity(1L), is(equalTo(10)));
+        assertThat(snapshot.type(1L), is(equalTo(BeerType.LAGER)));
+    }
+
+    @Test
+    void whenIdIsBeyondTheFirstSegmentThenItIsStoredInANewSegment() {
+        // given
+        long farId = 3L * BeerStockSnapshot.SEGMENT_SIZE + 7;
+
+        // when
+        snapshot.put(farId, 100, 42, BeerType.IPA);
+
+        // then
+        assertThat(snapshot.quantity(farId), is(equalTo(42)));
+        assertThat(snapshot.size(), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenBeerIsRemovedThenItIsNoLongerPresent() {
+        // given
+        snapshot.put(1L, 50, 10, BeerType.LAGER);
+
+        // when
+        snapshot.remove(1L);
+
+        // then
+        assertFalse(snapshot.contains(1L));
+        assertThat(snapshot.type(1L), is(nullValue()));
+        assertThat(snapshot.size(), is(equalTo(0L)));
+    }
+
+    @Test
+    void whenPutIfAbsentIsCalledForAnExistingBeerThenTheNewerValueIsKept() {
+        // given
+        snapshot.put(1L, 50, 30, BeerType.LAGER);
+
+        // when
+        boolean stored = snapshot.putIfAbsent(1L, 50, 10, BeerType.LAGER, 0);
+
+        // then
+        assertFalse(stored);
+        assertThat(snapshot.quantity(1L), is(equalTo(30)));
+    }
+
+    @Test
+    void whenABeerWasRemovedThenPutIfAbsentDoesNotBringItBack() {
+        // given
+        snapshot.remove(1L);
+
+        // when
+        boolean stored = snapshot.putIfAbsent(1L, 50, 10, BeerType.LAGER, 0);
+
+        // then
+        assertFalse(stored);
+        assertFalse(snapshot.contains(1L));
+    }
+
+    @Test
+    void whenChangesAreAppliedThenOnlyThoseAfterTheLoadedVersionCountInAnyOrder() {
+        // given
+        snapshot.putIfAbsent(1L, 50, 10, BeerType.LAGER, 5);
+
+        // when
+        boolean newer = snapshot.apply(1L, -3, 7);
+        boolean older = snapshot.apply(1L, 4, 5);
+        boolean between = snapshot.apply(1L, 2, 6);
+
+        // then
+        assertTrue(newer && older && between);
+        assertThat(snapshot.quantity(1L), is(equalTo(9)));
+    }
+
+    @Test
+    void whenAChangeIsAppliedToAnUnknownBeerThenItIsLeftToTheCaller() {
+        // when
+        boolean applied = snapshot.apply(1L, 5, 1);
+
+        // then
+        assertFalse(applied);
+        assertFalse(snapshot.contains(1L));
+    }
+
+    @Test
+    void whenTotalsByTypeAreRequestedThenQuantitiesAndMaxAreSummedPerType() {
+        // given
+        snapshot.put(1L, 50, 10, BeerType.LAGER);
+        snapshot.put(2L, 40, 20, BeerType.LAGER);
+        snapshot.put(BeerStockSnapshot.SEGMENT_SIZE + 1L, 100, 5, BeerType.IPA);
+
+        // when
+        Map<BeerType, Long> quantities = snapshot.totalQuantityByType();
+        Map<BeerType, Long> capacities = snapshot.totalMaxByType();
+
+        // then
+        assertThat(quantities.get(BeerType.LAGER), is(equalTo(30L)));
+        assertThat(quantities.get(BeerType.IPA), is(equalTo(5L)));
+        assertThat(quantities.get(BeerType.STOUT), is(equalTo(0L)));
+        assertThat(capacities.get(BeerType.LAGER), is(equalTo(90L)));
+    }
+
+    @Test
+    void whenFillRatioHistogramIsRequestedThenBeersAreCountedPerBucket() {
+        // given
+        snapshot.put(1L, 100, 0, BeerType.LAGER);
+        snapshot.put(2L, 100, 55, BeerType.ALE);
+        snapshot.put(3L, 100, 100, BeerType.STOUT);
+        snapshot.put(4L, 0, 0, BeerType.STOUT);
+
+        // when
+        long[] histogram = snapshot.fillRatioHistogram(4);
+
+        // then
+        assertThat(histogram, is(equalTo(new long[]{1, 0, 1, 1})));
+    }
+}
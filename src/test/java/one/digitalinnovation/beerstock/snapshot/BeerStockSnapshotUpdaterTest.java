@@ -0,0 +1,130 @@
+package one.digitalinnovation.beerstock.snapshot;
+
+import one.digitalinnovation.beerstock.changes.ChangeVersionSequence;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerStockSnapshotUpdaterTest {
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private ChangeVersionSequence changeVersions;
+
+    private final BeerStockSnapshot snapshot = new BeerStockSnapshot();
+
+    private BeerStockSnapshotUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        updater = new BeerStockSnapshotUpdater(beerRepository, snapshot, changeVersions);
+    }
+
+    @Test
+    void whenStockChangesArriveInReverseOrderThenBothAreApplied() {
+        // given
+        load(row(1L, 10, 4));
+
+        // when
+        updater.onBeerChanged(BeerChangedEvent.stockChanged(brahma(), -2, 7));
+        updater.onBeerChanged(BeerChangedEvent.stockChanged(brahma(), 5, 6));
+
+        // then
+        assertThat(snapshot.quantity(1L), is(equalTo(13)));
+    }
+
+    @Test
+    void whenAChangeSeenByTheLoadArrivesAfterItThenItIsNotAppliedTwice() {
+        // given
+        load(row(1L, 10, 4));
+
+        // when
+        updater.onBeerChanged(BeerChangedEvent.stockChanged(brahma(), 5, 4));
+
+        // then
+        assertThat(snapshot.quantity(1L), is(equalTo(10)));
+    }
+
+    @Test
+    void whenABeerIsDeletedDuringTheLoadThenTheLoadDoesNotBringItBack() {
+        // given
+        updater.onBeerChanged(BeerChangedEvent.deleted(brahma(), 6));
+
+        // when
+        load(row(1L, 10, 4));
+
+        // then
+        assertFalse(snapshot.contains(1L));
+    }
+
+    @Test
+    void whenARowChangedWhileItWasReadThenItIsReadAgainAndEarlierEventsAreMatchedAgainstTheNewRead() {
+        // given
+        when(changeVersions.stableVersion()).thenReturn(5L, 9L);
+        when(beerRepository.findStockRowsAfter(anyLong(), any())).thenReturn(Collections.singletonList(row(1L, 10, 7)));
+        when(beerRepository.findStockRowsByIdIn(any())).thenReturn(Collections.singletonList(row(1L, 13, 8)));
+        updater.onBeerChanged(BeerChangedEvent.stockChanged(brahma(), 3, 8));
+        updater.onBeerChanged(BeerChangedEvent.stockChanged(brahma(), 1, 10));
+
+        // when
+        updater.load();
+
+        // then
+        assertThat(snapshot.quantity(1L), is(equalTo(14)));
+    }
+
+    @Test
+    void whenAChangeOvertakesTheCreationOfABeerThenItIsAppliedOnceTheBeerIsCreated() {
+        // given
+        load();
+
+        // when
+        updater.onBeerChanged(BeerChangedEvent.stockChanged(brahma(), 5, 8));
+        updater.onBeerChanged(BeerChangedEvent.created(brahma(), 7));
+
+        // then
+        assertThat(snapshot.quantity(1L), is(equalTo(15)));
+        assertThat(snapshot.type(1L), is(equalTo(BeerType.LAGER)));
+    }
+
+    private void load(BeerStockRow... rows) {
+        when(changeVersions.stableVersion()).thenReturn(5L);
+        when(beerRepository.findStockRowsAfter(anyLong(), any())).thenReturn(Arrays.asList(rows));
+        updater.load();
+    }
+
+    private static Beer brahma() {
+        return new Beer(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER);
+    }
+
+    private static BeerStockRow row(Long id, int quantity, long changeVersion) {
+        return new BeerStockRow() {
+            public Long getId() { return id; }
+            public BeerType getType() { return BeerType.LAGER; }
+            public int getMax() { return 50; }
+            public int getQuantity() { return quantity; }
+            public long getChangeVersion() { return changeVersion; }
+        };
+    }
+}
@@ -0,0 +1,170 @@
+package one.digitalinnovation.beerstock.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MonitoringDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final QueryMonitor queryMonitor = new QueryMonitor(meterRegistry, 100, 500, 100);
+
+    private MonitoringDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource = new MonitoringDataSource(h2, queryMonitor);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table beer (id bigint primary key, name varchar(200))");
+        }
+    }
+
+    @Test
+    void whenStatementsRunInsideCapturesThenEachCaptureCountsItsOwnAndNestedOnes() throws SQLException {
+        // given
+        StatementScope outer = SqlStatements.capture();
+        StatementScope inner;
+
+        // when
+        try (outer; Connection connection = dataSource.getConnection()) {
+            insert(connection, 1, "Lager");
+            try (StatementScope scope = SqlStatements.capture()) {
+                inner = scope;
+                insert(connection, 2, "Stout");
+                select(connection, 2);
+            }
+        }
+
+        // then
+        assertThat(inner.count(), is(equalTo(2)));
+        assertThat(outer.count(), is(equalTo(3)));
+        assertThat(SqlStatements.current(), is(nullValue()));
+    }
+
+    @Test
+    void whenBatchIsExecutedThenItCountsAsOneStatement() throws SQLException {
+        // given
+        StatementScope statements = SqlStatements.capture();
+
+        // when
+        try (statements; Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("insert into beer (id, name) values (?, ?)")) {
+            for (int id = 1; id <= 5; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "Beer " + id);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        // then
+        assertThat(statements.count(), is(equalTo(1)));
+    }
+
+    @Test
+    void whenSameStatementRunsRepeatedlyThenRepeatsAreTrackedUnderItsNormalizedForm() throws SQLException {
+        // given
+        StatementScope statements = SqlStatements.captureWithRepeats();
+
+        // when
+        try (statements; Connection connection = dataSource.getConnection()) {
+            insert(connection, 1, "Lager");
+            for (int i = 0; i < 12; i++) {
+                select(connection, 1);
+            }
+        }
+
+        // then
+        assertThat(statements.tally().repeatedAtLeast(10),
+                is(equalTo(Map.of("select name from beer where id = ?", 12))));
+    }
+
+    @Test
+    void whenStatementsAreRecordedThenLatencyIsKeptPerNormalizedStatement() throws SQLException {
+        // when
+        try (Connection connection = dataSource.getConnection()) {
+            insert(connection, 1, "Lager");
+            select(connection, 1);
+            select(connection, 1);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeQuery("select name from beer where id in (1, 2, 3)").close();
+                statement.executeQuery("select name from beer where id in (4, 5)").close();
+            }
+        }
+
+        // then
+        Map<String, QueryStats> stats = queryMonitor.statistics().stream()
+                .collect(Collectors.toMap(QueryStats::getSql, Function.identity()));
+        QueryStats select = stats.get("select name from beer where id = ?");
+        assertThat(select.getHistogram().count(), is(equalTo(2L)));
+        assertThat(select.getOperation(), is(equalTo("select")));
+        assertThat(select.getTable(), is(equalTo("beer")));
+        assertThat(select.getHistogram().percentileMicros(0.99),
+                is(lessThanOrEqualTo(select.getHistogram().maxNanos() / 1000)));
+        assertThat(stats.get("select name from beer where id in (?...)").getHistogram().count(), is(equalTo(2L)));
+        assertThat(meterRegistry.get("beerstock.sql.statements").tag("operation", "select").tag("table", "beer")
+                .timer().count(), is(greaterThan(3L)));
+        assertThat(stats, hasKey("insert into beer (id, name) values (?...)"));
+    }
+
+    @Test
+    void whenSqlIsNormalizedThenLiteralsAndParameterListsAreFoldedAndTheOuterTableIsFound() {
+        assertThat(QueryMonitor.normalize("select *\n  from beer where name = 'O''Hara' and id in (?, ?,?) and max > 10"),
+                is(equalTo("select * from beer where name = ? and id in (?...) and max > ?")));
+        assertThat(QueryMonitor.normalize("select beer0_.id from beer beer0_"),
+                is(equalTo("select beer0_.id from beer beer0_")));
+        assertThat(QueryMonitor.table("select b.id, (select sum(s.quantity) from beer_stock_stripe s) from beer b where b.id=?"),
+                is(equalTo("beer")));
+        assertThat(QueryMonitor.table("update beer set quantity=? where id=?"), is(equalTo("beer")));
+    }
+
+    @Test
+    void whenProxiesAreComparedThenTheyKeepTheirOwnIdentity() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement first = connection.prepareStatement("select 1");
+             PreparedStatement second = connection.prepareStatement("select 1")) {
+            assertThat(first.equals(first), is(true));
+            assertThat(first.equals(second), is(false));
+            assertThat(first.hashCode(), is(equalTo(System.identityHashCode(first))));
+        }
+    }
+
+    private static void insert(Connection connection, long id, String name) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("insert into beer (id, name) values (?, ?)")) {
+            insert.setLong(1, id);
+            insert.setString(2, name);
+            insert.executeUpdate();
+        }
+    }
+
+    private static void select(Connection connection, long id) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("select name from beer where id = ?")) {
+            select.setLong(1, id);
+            try (ResultSet resultSet = select.executeQuery()) {
+                resultSet.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.dto.TraceExportDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class OtlpJsonFileExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenSpansAreExportedThenEachExportAppendsOneOtlpRequestWithOnlyNewSpans() throws Exception {
+        // given
+        SpanRing spanRing = new SpanRing(16);
+        Tracer tracer = new Tracer(spanRing, 1, 10);
+        Path file = directory.resolve("traces.otlp.jsonl");
+        OtlpJsonFileExporter exporter = new OtlpJsonFileExporter(spanRing, objectMapper, file.toString(), "beerstock", false);
+        ActiveSpan root = tracer.startTrace("GET /api/v1/beers/{name}", SpanKind.SERVER, null);
+        try (SpanScope request = Tracing.activate(root)) {
+            try (SpanScope repository = Tracing.span("BeerRepository.findByName", SpanKind.CLIENT)) {
+                repository.error(new IllegalStateException("timeout"));
+            }
+        }
+        root.attribute("http.status_code", 200);
+        root.end();
+
+        // when
+        TraceExportDTO first = exporter.export();
+        TraceExportDTO second = exporter.export();
+
+        // then
+        assertThat(first.getSpans(), is(equalTo(2)));
+        assertThat(second.getSpans(), is(equalTo(0)));
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines, hasSize(1));
+        JsonNode resourceSpans = objectMapper.readTree(lines.get(0)).get("resourceSpans").get(0);
+        assertThat(resourceSpans.at("/resource/attributes/0/value/stringValue").asText(), is(equalTo("beerstock")));
+        JsonNode spans = resourceSpans.at("/scopeSpans/0/spans");
+        JsonNode repository = spans.get(0);
+        JsonNode request = spans.get(1);
+        assertThat(repository.get("name").asText(), is(equalTo("BeerRepository.findByName")));
+        assertThat(repository.get("kind").asInt(), is(equalTo(3)));
+        assertThat(repository.get("parentSpanId").asText(), is(equalTo(request.get("spanId").asText())));
+        assertThat(repository.at("/status/code").asInt(), is(equalTo(2)));
+        assertThat(request.get("traceId").asText().length(), is(equalTo(32)));
+        assertThat(request.has("parentSpanId"), is(false));
+        assertThat(request.at("/attributes/0/key").asText(), is(equalTo("http.status_code")));
+        assertThat(Long.parseLong(request.get("endTimeUnixNano").asText())
+                >= Long.parseLong(request.get("startTimeUnixNano").asText()), is(true));
+    }
+}
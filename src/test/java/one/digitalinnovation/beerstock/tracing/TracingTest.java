@@ -0,0 +1,175 @@
+package one.digitalinnovation.beerstock.tracing;
+
+import one.digitalinnovation.beerstock.config.ContextPropagatingTaskDecorator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TracingTest {
+
+    private final SpanRing spanRing = new SpanRing(16);
+
+    @Test
+    void whenSpansAreNestedThenEachChildPointsToItsParent() {
+        // given
+        Tracer tracer = new Tracer(spanRing, 1, 10);
+
+        // when
+        ActiveSpan root = tracer.startTrace("GET /beers", SpanKind.SERVER, null);
+        try (SpanScope request = Tracing.activate(root)) {
+            try (SpanScope service = Tracing.span("BeerService.findByName")) {
+                try (SpanScope repository = Tracing.span("BeerRepository.findByName", SpanKind.CLIENT)) {
+                    repository.attribute("rows", 1);
+                }
+            }
+        }
+        root.end();
+
+        // then
+        Map<String, Span> spans = byName(spanRing.spans());
+        assertThat(spans.get("BeerRepository.findByName").getParentSpanId(),
+                is(equalTo(spans.get("BeerService.findByName").getSpanId())));
+        assertThat(spans.get("BeerService.findByName").getParentSpanId(), is(equalTo(root.getSpanId())));
+        assertThat(spans.get("GET /beers").getParentSpanId(), is(nullValue()));
+        assertThat(spans.get("BeerRepository.findByName").getAttributes().get("rows"), is(equalTo("1")));
+        assertThat(Tracing.current(), is(nullValue()));
+    }
+
+    @Test
+    void whenTraceIsNotSampledThenNothingIsRecorded() {
+        // given
+        Tracer tracer = new Tracer(spanRing, 0, 10);
+
+        // when
+        ActiveSpan root = tracer.startTrace("GET /beers", SpanKind.SERVER, null);
+        try (SpanScope span = Tracing.span("BeerService.findByName")) {
+            span.attribute("ignored", true);
+        }
+
+        // then
+        assertThat(root, is(nullValue()));
+        assertThat(spanRing.spans(), is(empty()));
+    }
+
+    @Test
+    void whenTraceparentIsSampledThenItsTraceIsContinued() {
+        // given
+        Tracer tracer = new Tracer(spanRing, 0, 10);
+
+        // when
+        ActiveSpan root = tracer.startTrace("GET /beers", SpanKind.SERVER,
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        ActiveSpan unsampled = tracer.startTrace("GET /beers", SpanKind.SERVER,
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00");
+        root.end();
+
+        // then
+        assertThat(unsampled, is(nullValue()));
+        Span span = spanRing.spans().get(0);
+        assertThat(span.getTraceId(), is(equalTo("4bf92f3577b34da6a3ce929d0e0e4736")));
+        assertThat(span.getParentSpanId(), is(equalTo("00f067aa0ba902b7")));
+    }
+
+    @Test
+    void whenTraceExceedsItsSpanBudgetThenTheRestIsDroppedAndCounted() {
+        // given
+        Tracer tracer = new Tracer(spanRing, 1, 3);
+
+        // when
+        ActiveSpan root = tracer.startTrace("GET /beers", SpanKind.SERVER, null);
+        try (SpanScope request = Tracing.activate(root)) {
+            for (int i = 0; i < 5; i++) {
+                try (SpanScope mapping = Tracing.span("BeerMapper.toDTO")) {
+                    mapping.attribute("index", i);
+                }
+            }
+        }
+        root.end();
+
+        // then
+        assertThat(spanRing.spans(), hasSize(3));
+        Span recordedRoot = spanRing.spans().get(2);
+        assertThat(recordedRoot.getName(), is(equalTo("GET /beers")));
+        assertThat(recordedRoot.getAttributes().get("tracing.dropped_spans"), is(equalTo("3")));
+    }
+
+    @Test
+    void whenTaskIsDecoratedThenTheSpanIsCarriedToTheExecutorThread() throws Exception {
+        // given
+        Tracer tracer = new Tracer(spanRing, 1, 10);
+        ActiveSpan root = tracer.startTrace("POST /beers", SpanKind.SERVER, null);
+        Runnable task;
+        try (SpanScope request = Tracing.activate(root)) {
+            task = new ContextPropagatingTaskDecorator().decorate(() -> {
+                try (SpanScope service = Tracing.span("BeerService.createBeer")) {
+                    service.attribute("thread", Thread.currentThread().getName());
+                }
+            });
+        }
+
+        // when
+        Thread worker = new Thread(task, "beer-write-1");
+        worker.start();
+        worker.join();
+        root.end();
+
+        // then
+        Span service = byName(spanRing.spans()).get("BeerService.createBeer");
+        assertThat(service.getParentSpanId(), is(equalTo(root.getSpanId())));
+        assertThat(service.getThread(), is(equalTo("beer-write-1")));
+    }
+
+    @Test
+    void whenRingIsFullThenOldestSpansAreOverwrittenAndExportResumesWhereItStopped() {
+        // given
+        SpanRing ring = new SpanRing(4);
+        Tracer tracer = new Tracer(ring, 1, 100);
+
+        // when
+        for (int i = 0; i < 6; i++) {
+            tracer.startTrace("request " + i, SpanKind.SERVER, null).end();
+        }
+        SpanRing.Batch first = ring.since(0);
+        tracer.startTrace("request 6", SpanKind.SERVER, null).end();
+        SpanRing.Batch second = ring.since(first.getNextSequence());
+
+        // then
+        assertThat(first.getSpans().get(0).getName(), is(equalTo("request 2")));
+        assertThat(first.getSpans(), hasSize(4));
+        assertThat(second.getSpans(), hasSize(1));
+        assertThat(second.getSpans().get(0).getName(), is(equalTo("request 6")));
+    }
+
+    @Test
+    void whenSpanFailsThenTheErrorIsRecorded() {
+        // given
+        Tracer tracer = new Tracer(spanRing, 1, 10);
+        ActiveSpan root = tracer.startTrace("DELETE /beers/{id}", SpanKind.SERVER, null);
+
+        // when
+        root.error(new IllegalStateException("boom"));
+        root.end();
+        root.end();
+
+        // then
+        assertThat(spanRing.spans(), hasSize(1));
+        assertThat(spanRing.spans().get(0).getError(), containsString("IllegalStateException: boom"));
+        assertThat(spanRing.spans().get(0).getTraceId(), is(not(equalTo(root.getSpanId()))));
+    }
+
+    private static Map<String, Span> byName(List<Span> spans) {
+        return spans.stream().collect(Collectors.toMap(Span::getName, Function.identity()));
+    }
+}
@@ -0,0 +1,71 @@
+package one.digitalinnovation.beerstock.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class HashedTimingWheelTest {
+
+    @Test
+    void whenDeadlinePassesThenItemIsReturnedOnce() {
+        // given
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 8, 0);
+        wheel.schedule("a", 25);
+        wheel.schedule("b", 40);
+
+        // when / then
+        assertThat(wheel.advance(29), is(equalTo(Collections.<String>emptyList())));
+        assertThat(wheel.advance(30), is(equalTo(Collections.singletonList("a"))));
+        assertThat(wheel.advance(45), is(equalTo(Collections.singletonList("b"))));
+        assertThat(wheel.advance(100), is(equalTo(Collections.<String>emptyList())));
+        assertThat(wheel.size(), is(equalTo(0)));
+    }
+
+    @Test
+    void whenDeadlineIsSeveralTurnsAwayThenItemWaitsForItsRound() {
+        // given
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 4, 0);
+        wheel.schedule("near", 20);
+        wheel.schedule("far", 100);
+
+        // when / then
+        assertThat(wheel.advance(60), is(equalTo(Collections.singletonList("near"))));
+        assertThat(wheel.advance(99), is(equalTo(Collections.<String>emptyList())));
+        assertThat(wheel.advance(100), is(equalTo(Collections.singletonList("far"))));
+    }
+
+    @Test
+    void whenTimeoutIsCancelledThenItNeverExpires() {
+        // given
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 8, 0);
+        HashedTimingWheel.Timeout<String> cancelled = wheel.schedule("a", 20);
+        wheel.schedule("b", 20);
+
+        // when
+        boolean firstCancel = cancelled.cancel();
+
+        // then
+        assertThat(firstCancel, is(true));
+        assertThat(cancelled.cancel(), is(false));
+        assertThat(wheel.advance(20), is(equalTo(Collections.singletonList("b"))));
+    }
+
+    @Test
+    void whenDeadlineIsAlreadyPastThenItExpiresOnNextAdvance() {
+        // given
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 8, 0);
+        wheel.advance(50);
+
+        // when
+        wheel.schedule("late", 10);
+        wheel.schedule("later", 15);
+
+        // then
+        assertThat(wheel.advance(50), is(equalTo(Arrays.asList("late", "later"))));
+    }
+}
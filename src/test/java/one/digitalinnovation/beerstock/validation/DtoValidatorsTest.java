@@ -0,0 +1,111 @@
+package one.digitalinnovation.beerstock.validation;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Runs every DTO through both the hand-written validator and Hibernate Validator and expects the same field errors,
+ * down to message codes, arguments and default messages.
+ */
+public class DtoValidatorsTest {
+
+    private static LocalValidatorFactoryBean beanValidator;
+
+    @BeforeAll
+    static void setUp() {
+        LocaleContextHolder.setLocale(Locale.ENGLISH);
+        beanValidator = new LocalValidatorFactoryBean();
+        beanValidator.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        beanValidator.close();
+        LocaleContextHolder.resetLocaleContext();
+    }
+
+    @Test
+    void whenQuantityDTOsAreValidatedThenErrorsMatchBeanValidation() {
+        Stream.of(new QuantityDTO(10), new QuantityDTO(100), new QuantityDTO(null), new QuantityDTO(101),
+                new QuantityDTO(-5))
+                .forEach(quantityDTO -> assertSameErrors(new QuantityDTOValidator(), quantityDTO, "quantityDTO"));
+    }
+
+    @Test
+    void whenBeerDTOsAreValidatedThenErrorsMatchBeanValidation() {
+        String tooLong = "x".repeat(201);
+        Stream.of(BeerDTOBuilder.builder().build().toBeerDTO(),
+                new BeerDTO(),
+                BeerDTOBuilder.builder().name("").brand(tooLong).build().toBeerDTO(),
+                BeerDTOBuilder.builder().name(tooLong).max(501).quantity(101).build().toBeerDTO(),
+                BeerDTOBuilder.builder().max(500).quantity(100).type(null).build().toBeerDTO())
+                .forEach(beerDTO -> assertSameErrors(new BeerDTOValidator(), beerDTO, "beerDTO"));
+    }
+
+    @Test
+    void whenAValidQuantityDTOIsValidatedThenNoErrorIsRejected() {
+        // given
+        QuantityDTO quantityDTO = new QuantityDTO(10);
+        Errors errors = new BeanPropertyBindingResult(quantityDTO, "quantityDTO");
+
+        // when
+        new QuantityDTOValidator().validate(quantityDTO, errors);
+
+        // then
+        assertThat(errors.getAllErrors(), is(empty()));
+    }
+
+    private static void assertSameErrors(Validator validator, Object target, String objectName) {
+        BeanPropertyBindingResult expected = new BeanPropertyBindingResult(target, objectName);
+        beanValidator.validate(target, expected);
+        BeanPropertyBindingResult actual = new BeanPropertyBindingResult(target, objectName);
+        validator.validate(target, actual);
+
+        assertThat(target.toString(), describe(actual.getFieldErrors()), is(equalTo(describe(expected.getFieldErrors()))));
+        assertThat(target.toString(), actual.getFieldErrors(), hasSize(expected.getFieldErrorCount()));
+    }
+
+    private static List<String> describe(List<FieldError> fieldErrors) {
+        return fieldErrors.stream()
+                .map(error -> String.join(" | ",
+                        error.getField(),
+                        Arrays.toString(error.getCodes()),
+                        Arrays.stream(error.getArguments()).map(DtoValidatorsTest::describe).collect(Collectors.joining(", ")),
+                        String.valueOf(error.getRejectedValue()),
+                        String.valueOf(error.isBindingFailure()),
+                        error.getDefaultMessage()))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static String describe(Object argument) {
+        if (argument instanceof MessageSourceResolvable) {
+            MessageSourceResolvable resolvable = (MessageSourceResolvable) argument;
+            return Arrays.toString(resolvable.getCodes()) + ":" + resolvable.getDefaultMessage();
+        }
+        return argument.getClass().getSimpleName() + ":" + argument;
+    }
+}
@@ -0,0 +1,257 @@
+package one.digitalinnovation.beerstock.warehouse;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerAvailabilityDTO;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerWarehouseStockDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.WarehouseStock;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.AvailabilityQueryTooLargeException;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockBelowZeroException;
+import one.digitalinnovation.beerstock.exception.WarehouseStockAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.WarehouseStockNotFoundException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.WarehouseRepository;
+import one.digitalinnovation.beerstock.repository.WarehouseStockRepository;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class WarehouseStockServiceTest {
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private final AtomicInteger partitionQueries = new AtomicInteger();
+
+    private final Executor countingExecutor = task -> {
+        partitionQueries.incrementAndGet();
+        task.run();
+    };
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private WarehouseStockRepository warehouseStockRepository;
+
+    @Mock
+    private WarehouseRepository warehouseRepository;
+
+    @Mock
+    private BeerService beerService;
+
+    private WarehouseStockService warehouseStockService;
+
+    private Beer beer;
+
+    @BeforeEach
+    void setUp() {
+        warehouseStockService = new WarehouseStockService(beerRepository, warehouseStockRepository,
+                warehouseRepository, beerService, countingExecutor, "main");
+        beer = beerMapper.toModel(BeerDTOBuilder.builder().quantity(10).max(50).build().toBeerDTO());
+    }
+
+    @Test
+    void whenWarehouseIsIncrementedThenOnlyItsRowIsUpdated() throws Exception {
+        // given
+        when(warehouseStockRepository.applyDelta(beer.getId(), "lisbon", 5)).thenReturn(1);
+        when(warehouseStockRepository.findByBeerIdAndWarehouse(beer.getId(), "lisbon"))
+                .thenReturn(Optional.of(new WarehouseStock(7L, beer.getId(), "lisbon", 25, 40)));
+
+        // when
+        WarehouseStockDTO stock = warehouseStockService.increment(beer.getId(), "lisbon", 5);
+
+        // then
+        assertThat(stock, is(equalTo(new WarehouseStockDTO("lisbon", 25, 40))));
+        verifyNoInteractions(beerRepository, beerService);
+    }
+
+    @Test
+    void whenWarehouseDecrementGoesBelowZeroThenAnExceptionIsThrown() {
+        // given
+        when(warehouseStockRepository.applyDelta(beer.getId(), "lisbon", -30)).thenReturn(0);
+        when(warehouseStockRepository.findByBeerIdAndWarehouse(beer.getId(), "lisbon"))
+                .thenReturn(Optional.of(new WarehouseStock(7L, beer.getId(), "lisbon", 20, 40)));
+
+        // then
+        assertThrows(BeerStockBelowZeroException.class,
+                () -> warehouseStockService.decrement(beer.getId(), "lisbon", 30));
+    }
+
+    @Test
+    void whenBeerIsNotStockedInWarehouseThenAnExceptionIsThrown() {
+        // given
+        when(warehouseStockRepository.applyDelta(beer.getId(), "porto", 5)).thenReturn(0);
+        when(warehouseStockRepository.findByBeerIdAndWarehouse(beer.getId(), "porto")).thenReturn(Optional.empty());
+        when(beerRepository.existsById(beer.getId())).thenReturn(true);
+
+        // then
+        assertThrows(WarehouseStockNotFoundException.class,
+                () -> warehouseStockService.increment(beer.getId(), "porto", 5));
+    }
+
+    @Test
+    void whenBeerIsGoneThenChangingAWarehouseThrowsBeerNotFound() {
+        // given
+        when(warehouseStockRepository.applyDelta(beer.getId(), "lisbon", -5)).thenReturn(0);
+        when(warehouseStockRepository.findByBeerIdAndWarehouse(beer.getId(), "lisbon")).thenReturn(Optional.empty());
+        when(beerRepository.existsById(beer.getId())).thenReturn(false);
+
+        // then
+        assertThrows(BeerNotFoundException.class, () -> warehouseStockService.decrement(beer.getId(), "lisbon", 5));
+    }
+
+    @Test
+    void whenMainWarehouseIsChangedThenTheBeerServiceIsUsed() throws Exception {
+        // given
+        BeerDTO incremented = BeerDTOBuilder.builder().quantity(15).max(50).build().toBeerDTO();
+        when(beerService.increment(beer.getId(), 5)).thenReturn(incremented);
+
+        // when
+        WarehouseStockDTO stock = warehouseStockService.increment(beer.getId(), "main", 5);
+
+        // then
+        assertThat(stock, is(equalTo(new WarehouseStockDTO("main", 15, 50))));
+        verifyNoInteractions(warehouseStockRepository);
+    }
+
+    @Test
+    void whenBeerIsAlreadyStockedInWarehouseThenItIsNotRegisteredAgain() {
+        // given
+        when(beerRepository.findByIdForUpdate(beer.getId())).thenReturn(Optional.of(beer));
+        when(warehouseStockRepository.findByBeerIdAndWarehouse(beer.getId(), "lisbon"))
+                .thenReturn(Optional.of(new WarehouseStock(7L, beer.getId(), "lisbon", 20, 40)));
+
+        // then
+        assertThrows(WarehouseStockAlreadyRegisteredException.class,
+                () -> warehouseStockService.register(beer.getId(), new WarehouseStockDTO("lisbon", 5, 40)));
+        verify(warehouseStockRepository, never()).save(any());
+    }
+
+    @Test
+    void whenStockIsRegisteredInANewWarehouseThenTheBeerIsLockedAndTheWarehouseListed() throws Exception {
+        // given
+        when(beerRepository.findByIdForUpdate(beer.getId())).thenReturn(Optional.of(beer));
+        when(warehouseStockRepository.findByBeerIdAndWarehouse(beer.getId(), "porto")).thenReturn(Optional.empty());
+        when(warehouseRepository.list("porto")).thenReturn(true);
+        when(warehouseStockRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        WarehouseStockDTO stock = warehouseStockService.register(beer.getId(), new WarehouseStockDTO("porto", 5, 40));
+
+        // then
+        assertThat(stock, is(equalTo(new WarehouseStockDTO("porto", 5, 40))));
+        verify(warehouseRepository).list("porto");
+    }
+
+    @Test
+    void whenStockIsAskedForThenWarehousesAreListedMainFirstWithTotals() throws Exception {
+        // given
+        when(beerRepository.findById(beer.getId())).thenReturn(Optional.of(beer));
+        when(warehouseStockRepository.findByBeerIdOrderByWarehouse(beer.getId())).thenReturn(List.of(
+                new WarehouseStock(7L, beer.getId(), "lisbon", 20, 40),
+                new WarehouseStock(8L, beer.getId(), "porto", 5, 10)));
+
+        // when
+        BeerWarehouseStockDTO stock = warehouseStockService.stock(beer.getId());
+
+        // then
+        assertThat(stock.getWarehouses().stream().map(WarehouseStockDTO::getWarehouse).collect(Collectors.toList()),
+                contains("main", "lisbon", "porto"));
+        assertThat(stock.getQuantity(), is(equalTo(35)));
+        assertThat(stock.getMax(), is(equalTo(100)));
+    }
+
+    @Test
+    void whenAvailabilityIsAskedForThenEachWarehouseIsQueriedOnceAndMerged() throws Exception {
+        // given
+        Beer other = beerMapper.toModel(BeerDTOBuilder.builder().id(2L).name("Skol").quantity(2).build().toBeerDTO());
+        List<Long> ids = List.of(beer.getId(), other.getId(), 99L);
+        when(beerRepository.findAllById(anyCollection())).thenReturn(List.of(beer, other));
+        when(warehouseRepository.findNames()).thenReturn(List.of("lisbon", "porto"));
+        when(warehouseStockRepository.findInWarehouse(any(), anyCollection())).thenAnswer(invocation ->
+                invocation.getArgument(0).equals("lisbon")
+                        ? List.of(new WarehouseStock(7L, beer.getId(), "lisbon", 20, 40))
+                        : List.of(new WarehouseStock(8L, other.getId(), "porto", 3, 10)));
+
+        // when
+        List<BeerAvailabilityDTO> availability = warehouseStockService.availability(ids, 5);
+
+        // then
+        assertThat(partitionQueries.get(), is(equalTo(3)));
+        assertThat(availability.stream().map(BeerAvailabilityDTO::getBeerId).collect(Collectors.toList()),
+                contains(beer.getId(), other.getId()));
+        BeerAvailabilityDTO first = availability.get(0);
+        assertThat(first.getQuantity(), is(equalTo(30)));
+        assertThat(first.getFulfillableFrom(), contains("lisbon", "main"));
+        BeerAvailabilityDTO second = availability.get(1);
+        assertThat(second.isAvailable(), is(true));
+        assertThat(second.getFulfillableFrom().isEmpty(), is(true));
+        assertThat(second.getByWarehouse(), is(equalTo(Map.of("main", 2, "porto", 3))));
+    }
+
+    @Test
+    void whenAWarehouseStillHasRowsOfADeletedBeerThenTheBeerIsLeftOut() throws Exception {
+        // given
+        when(beerRepository.findAllById(anyCollection())).thenReturn(List.of(beer));
+        when(warehouseRepository.findNames()).thenReturn(List.of("lisbon"));
+        when(warehouseStockRepository.findInWarehouse(any(), anyCollection())).thenReturn(List.of(
+                new WarehouseStock(7L, beer.getId(), "lisbon", 20, 40),
+                new WarehouseStock(8L, 99L, "lisbon", 30, 40)));
+
+        // when
+        List<BeerAvailabilityDTO> availability = warehouseStockService.availability(List.of(beer.getId(), 99L), 5);
+
+        // then
+        assertThat(availability.stream().map(BeerAvailabilityDTO::getBeerId).collect(Collectors.toList()),
+                contains(beer.getId()));
+    }
+
+    @Test
+    void whenTooManyBeersAreAskedForThenNoWarehouseIsQueried() {
+        // given
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().collect(Collectors.toCollection(ArrayList::new));
+
+        // then
+        assertThrows(AvailabilityQueryTooLargeException.class, () -> warehouseStockService.availability(ids, 1));
+        verifyNoInteractions(beerRepository, warehouseStockRepository, warehouseRepository);
+    }
+
+    @Test
+    void whenBeerIsDeletedThenItsWarehouseRowsAreDeleted() {
+        // when
+        warehouseStockService.onBeerChanged(BeerChangedEvent.deleted(beer, 1L));
+
+        // then
+        verify(warehouseStockRepository).deleteByBeerId(beer.getId());
+    }
+}
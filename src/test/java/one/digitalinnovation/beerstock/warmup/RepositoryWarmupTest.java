@@ -0,0 +1,47 @@
+package one.digitalinnovation.beerstock.warmup;
+
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.OutboxEventRepository;
+import one.digitalinnovation.beerstock.repository.WarehouseStockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+public class RepositoryWarmupTest {
+
+    @Autowired
+    private RepositoryWarmup repositoryWarmup;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private WarehouseStockRepository warehouseStockRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void whenConnectionsAreWarmedThenNothingIsWritten() throws Exception {
+        // given
+        long beers = beerRepository.count();
+        long warehouseStocks = warehouseStockRepository.count();
+        long outboxEvents = outboxEventRepository.count();
+
+        // when
+        int warmed = repositoryWarmup.warm(3, Duration.ofSeconds(1), Duration.ofSeconds(10));
+
+        // then
+        assertThat(warmed, is(equalTo(3)));
+        assertThat(beerRepository.count(), is(equalTo(beers)));
+        assertThat(warehouseStockRepository.count(), is(equalTo(warehouseStocks)));
+        assertThat(outboxEventRepository.count(), is(equalTo(outboxEvents)));
+    }
+}
@@ -0,0 +1,42 @@
+package one.digitalinnovation.beerstock.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.sql.QueryMonitor;
+import one.digitalinnovation.beerstock.sql.QueryStats;
+import one.digitalinnovation.beerstock.tracing.SpanRing;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "beerstock.warmup.enabled=true", "beerstock.warmup.request-rounds=2", "beerstock.tracing.sample-rate=1"})
+public class WarmupRunnerTest {
+
+    @Autowired
+    private SpanRing spanRing;
+
+    @Autowired
+    private QueryMonitor queryMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void whenTheApplicationHasWarmedUpThenItsTrafficIsNotReported() {
+        // then
+        assertThat(spanRing.spans(), is(empty()));
+        assertThat(meterRegistry.get("beerstock.cache.requests").tag("result", "miss").functionCounter().count(),
+                is(equalTo(0.0)));
+        assertThat(queryMonitor.statistics().stream().map(QueryStats::getTable).collect(Collectors.toList()),
+                not(hasItem("warehouse_stock")));
+    }
+}